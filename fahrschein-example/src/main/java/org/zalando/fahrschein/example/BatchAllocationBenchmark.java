@@ -0,0 +1,190 @@
+package org.zalando.fahrschein.example;
+
+import org.zalando.fahrschein.NakadiClient;
+import org.zalando.fahrschein.NoBackoffStrategy;
+import org.zalando.fahrschein.http.api.Headers;
+import org.zalando.fahrschein.http.api.HeadersImpl;
+import org.zalando.fahrschein.http.api.Request;
+import org.zalando.fahrschein.http.api.RequestFactory;
+import org.zalando.fahrschein.http.api.Response;
+import org.zalando.fahrschein.inmemory.InMemoryCursorManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the heap allocated for reading batches from a stream, including the cursors and event lists of every batch.
+ * The stream is served from memory and consumed on the calling thread, so the allocations of that thread are those of
+ * decoding the batches and of the listener, which only counts the events.
+ *
+ * Usage: {@code BatchAllocationBenchmark [batches] [events per batch] [partitions]}. Comparing the results of two
+ * builds shows how a change affects the allocations per batch. Needs a JVM that measures thread allocations, like HotSpot.
+ */
+public class BatchAllocationBenchmark {
+
+    private static final String EVENT_NAME = "benchmark-event";
+    private static final int WARMUP_ROUNDS = 5;
+
+    public static class BenchmarkEvent {
+        private String id;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        final int batches = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        final int eventsPerBatch = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        final int partitions = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threadMXBean.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("Thread allocations are not measured by this JVM");
+        }
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        final byte[] body = stream(batches, eventsPerBatch, partitions);
+        final NakadiClient nakadiClient = NakadiClient.builder(URI.create("http://localhost"), new InMemoryRequestFactory(body))
+                .withCursorManager(new InMemoryCursorManager())
+                .build();
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            consume(nakadiClient, (long) batches * eventsPerBatch);
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedAtStart = threadMXBean.getThreadAllocatedBytes(threadId);
+        final long startNanos = System.nanoTime();
+        final long events = consume(nakadiClient, (long) batches * eventsPerBatch);
+        final long nanos = System.nanoTime() - startNanos;
+        final long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedAtStart;
+
+        System.out.printf("%-28s%d%n", "batches:", batches);
+        System.out.printf("%-28s%d%n", "events per batch:", eventsPerBatch);
+        System.out.printf("%-28s%d%n", "partitions:", partitions);
+        System.out.printf("%-28s%.0f%n", "batches per second:", batches / (nanos / 1e9));
+        System.out.printf("%-28s%d B%n", "allocated per batch:", allocated / batches);
+        System.out.printf("%-28s%d B%n", "allocated per event:", allocated / events);
+    }
+
+    private static long consume(NakadiClient nakadiClient, long expectedEvents) throws IOException {
+        final AtomicLong events = new AtomicLong();
+        try {
+            nakadiClient.stream(EVENT_NAME)
+                    .withBackoffStrategy(new NoBackoffStrategy())
+                    .listen(BenchmarkEvent.class, batch -> events.addAndGet(batch.size()));
+        } catch (IOException e) {
+            // reading fails once the end of the stream was reached
+            if (events.get() != expectedEvents) {
+                throw e;
+            }
+        }
+        return events.get();
+    }
+
+    private static byte[] stream(int batches, int eventsPerBatch, int partitions) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < batches; i++) {
+            batch.setLength(0);
+            batch.append("{\"cursor\":{\"partition\":\"").append(i % partitions).append("\",\"offset\":\"").append(String.format("%018d", i))
+                    .append("\",\"event_type\":\"").append(EVENT_NAME).append("\"},\"events\":[");
+            for (int j = 0; j < eventsPerBatch; j++) {
+                batch.append(j == 0 ? "" : ",").append("{\"id\":\"").append(i).append('-').append(j).append("\"}");
+            }
+            batch.append("]}\n");
+            final byte[] bytes = batch.toString().getBytes(StandardCharsets.UTF_8);
+            out.write(bytes, 0, bytes.length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Answers every request with the same stream, without opening connections.
+     */
+    private static final class InMemoryRequestFactory implements RequestFactory {
+        private final byte[] body;
+
+        InMemoryRequestFactory(byte[] body) {
+            this.body = body;
+        }
+
+        @Override
+        public Request createRequest(URI uri, String method) {
+            return new Request() {
+                private final Headers headers = new HeadersImpl();
+
+                @Override
+                public String getMethod() {
+                    return method;
+                }
+
+                @Override
+                public URI getURI() {
+                    return uri;
+                }
+
+                @Override
+                public Headers getHeaders() {
+                    return headers;
+                }
+
+                @Override
+                public OutputStream getBody() {
+                    return new ByteArrayOutputStream();
+                }
+
+                @Override
+                public Response execute() {
+                    return new StreamResponse(body);
+                }
+            };
+        }
+    }
+
+    private static final class StreamResponse implements Response {
+        private final InputStream body;
+
+        StreamResponse(byte[] body) {
+            this.body = new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public int getStatusCode() {
+            return 200;
+        }
+
+        @Override
+        public String getStatusText() {
+            return "OK";
+        }
+
+        @Override
+        public Headers getHeaders() {
+            final HeadersImpl headers = new HeadersImpl();
+            headers.put(Headers.CONTENT_TYPE, "application/x-json-stream");
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
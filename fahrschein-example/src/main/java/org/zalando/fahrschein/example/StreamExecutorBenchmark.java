@@ -0,0 +1,285 @@
+package org.zalando.fahrschein.example;
+
+import org.zalando.fahrschein.NakadiClient;
+import org.zalando.fahrschein.NoBackoffStrategy;
+import org.zalando.fahrschein.StreamExecutor;
+import org.zalando.fahrschein.StreamParameters;
+import org.zalando.fahrschein.http.api.ContentEncoding;
+import org.zalando.fahrschein.http.simple.SimpleRequestFactory;
+import org.zalando.fahrschein.inmemory.InMemoryCursorManager;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the cost of running many blocking streams on virtual threads with running them on platform threads.
+ * A local fake Nakadi serves endless streams from a single thread, sending a batch to every connection periodically.
+ *
+ * Usage: {@code StreamExecutorBenchmark virtual|platform [streams] [seconds]}. Each mode should run in its own JVM,
+ * virtual threads need Java 21. Context switches are read from {@code /proc} and only reported on Linux.
+ */
+public class StreamExecutorBenchmark {
+
+    private static final String EVENT_NAME = "benchmark-event";
+    private static final long BATCH_INTERVAL_MILLIS = 100;
+
+    public static class BenchmarkEvent {
+        private String id;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        final boolean virtual = args.length == 0 || "virtual".equals(args[0]);
+        final int streams = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        final int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        try (FakeNakadi fakeNakadi = new FakeNakadi()) {
+            fakeNakadi.start();
+
+            final NakadiClient nakadiClient = NakadiClient.builder(URI.create("http://localhost:" + fakeNakadi.getPort()), new SimpleRequestFactory(ContentEncoding.IDENTITY))
+                    .withCursorManager(new InMemoryCursorManager())
+                    .build();
+
+            final StreamExecutor streamExecutor = virtual ? StreamExecutor.create("benchmark", streams) : StreamExecutor.platformThreads("benchmark", streams);
+            if (virtual && !streamExecutor.usesVirtualThreads()) {
+                throw new IllegalStateException("Virtual threads are not available");
+            }
+
+            final CountDownLatch connected = new CountDownLatch(streams);
+            final AtomicLong events = new AtomicLong();
+
+            final Sample idle = Sample.take();
+            for (int i = 0; i < streams; i++) {
+                final boolean[] first = { true };
+                streamExecutor.submit(nakadiClient.stream(EVENT_NAME)
+                        .withBackoffStrategy(new NoBackoffStrategy())
+                        .withStreamParameters(new StreamParameters().withStreamKeepAliveLimit(0))
+                        .runnable(BenchmarkEvent.class, batch -> {
+                            if (first[0]) {
+                                first[0] = false;
+                                connected.countDown();
+                            }
+                            events.addAndGet(batch.size());
+                        }));
+            }
+            if (!connected.await(2, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("Only " + (streams - connected.getCount()) + " streams received events");
+            }
+
+            final Sample start = Sample.take();
+            final long eventsAtStart = events.get();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+            final Sample end = Sample.take();
+            final long eventCount = events.get() - eventsAtStart;
+
+            streamExecutor.close();
+
+            System.out.printf("%-28s%s%n", "mode:", virtual ? "virtual threads" : "platform threads");
+            System.out.printf("%-28s%d%n", "streams:", streams);
+            System.out.printf("%-28s%.0f%n", "events per second:", eventCount / (double) seconds);
+            System.out.printf("%-28s%d%n", "platform threads:", start.threads - idle.threads);
+            System.out.printf("%-28s%d KB%n", "heap per stream:", (start.heapBytes - idle.heapBytes) / streams / 1024);
+            System.out.printf("%-28s%s%n", "resident memory per stream:", idle.residentBytes < 0 ? "n/a" : ((start.residentBytes - idle.residentBytes) / streams / 1024) + " KB");
+            System.out.printf("%-28s%s%n", "context switches per second:", start.contextSwitches < 0 ? "n/a" : String.format("%.0f", (end.contextSwitches - start.contextSwitches) / (double) seconds));
+        }
+    }
+
+    private static final class Sample {
+        private final int threads;
+        private final long heapBytes;
+        private final long residentBytes;
+        private final long contextSwitches;
+
+        private Sample(int threads, long heapBytes, long residentBytes, long contextSwitches) {
+            this.threads = threads;
+            this.heapBytes = heapBytes;
+            this.residentBytes = residentBytes;
+            this.contextSwitches = contextSwitches;
+        }
+
+        static Sample take() throws IOException {
+            System.gc();
+            final Runtime runtime = Runtime.getRuntime();
+            return new Sample(ManagementFactory.getThreadMXBean().getThreadCount(), runtime.totalMemory() - runtime.freeMemory(),
+                    procStatus(Paths.get("/proc/self/status"), "VmRSS:") * 1024, contextSwitches());
+        }
+
+        /**
+         * Sums the voluntary and involuntary context switches of all threads of this process.
+         */
+        private static long contextSwitches() throws IOException {
+            final Path tasks = Paths.get("/proc/self/task");
+            if (!Files.isDirectory(tasks)) {
+                return -1;
+            }
+            long contextSwitches = 0;
+            try (DirectoryStream<Path> taskDirectories = Files.newDirectoryStream(tasks)) {
+                for (Path task : taskDirectories) {
+                    try {
+                        final Path status = task.resolve("status");
+                        contextSwitches += procStatus(status, "voluntary_ctxt_switches:") + procStatus(status, "nonvoluntary_ctxt_switches:");
+                    } catch (IOException e) {
+                        // the thread ended in the meantime
+                    }
+                }
+            }
+            return contextSwitches;
+        }
+
+        private static long procStatus(Path status, String key) throws IOException {
+            if (!Files.exists(status)) {
+                return -1;
+            }
+            for (String line : Files.readAllLines(status, StandardCharsets.US_ASCII)) {
+                if (line.startsWith(key)) {
+                    return Long.parseLong(line.substring(key.length()).trim().split("\\s+")[0]);
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Serves endless chunked streams to all connections from a single thread, so the server itself adds no threads.
+     */
+    private static final class FakeNakadi implements AutoCloseable {
+        private static final byte[] RESPONSE_HEADER = ("HTTP/1.1 200 OK\r\n"
+                + "Content-Type: application/x-json-stream\r\n"
+                + "Transfer-Encoding: chunked\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+
+        private final Selector selector;
+        private final ServerSocketChannel serverChannel;
+        private final List<SocketChannel> streams = new ArrayList<>();
+        private final Thread thread;
+        private long offset;
+
+        FakeNakadi() throws IOException {
+            this.selector = Selector.open();
+            this.serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress("localhost", 0), 4096);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            this.thread = new Thread(this::serve, "fake-nakadi");
+            thread.setDaemon(true);
+        }
+
+        int getPort() throws IOException {
+            return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        private void serve() {
+            long nextBatch = System.currentTimeMillis();
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    selector.select(Math.max(1, nextBatch - System.currentTimeMillis()));
+                    final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        final SelectionKey key = keys.next();
+                        keys.remove();
+                        if (key.isAcceptable()) {
+                            final SocketChannel channel = serverChannel.accept();
+                            if (channel != null) {
+                                channel.configureBlocking(false);
+                                channel.register(selector, SelectionKey.OP_READ, ByteBuffer.allocate(8192));
+                            }
+                        } else if (key.isReadable()) {
+                            readRequest(key);
+                        }
+                    }
+                    if (System.currentTimeMillis() >= nextBatch) {
+                        sendBatches();
+                        nextBatch += BATCH_INTERVAL_MILLIS;
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void readRequest(SelectionKey key) throws IOException {
+            final SocketChannel channel = (SocketChannel) key.channel();
+            final ByteBuffer request = (ByteBuffer) key.attachment();
+            if (channel.read(request) < 0) {
+                key.cancel();
+                channel.close();
+                return;
+            }
+            final String received = new String(request.array(), 0, request.position(), StandardCharsets.US_ASCII);
+            if (received.contains("\r\n\r\n")) {
+                // the client only sends one request per connection, everything else is ignored
+                key.interestOps(0);
+                if (write(channel, ByteBuffer.wrap(RESPONSE_HEADER))) {
+                    streams.add(channel);
+                }
+            }
+        }
+
+        private void sendBatches() throws IOException {
+            offset++;
+            final String batch = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"" + offset + "\"},\"events\":[{\"id\":\"" + offset + "\"}]}\n";
+            final byte[] chunk = (Integer.toHexString(batch.length()) + "\r\n" + batch + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            streams.removeIf(channel -> !write(channel, ByteBuffer.wrap(chunk)));
+        }
+
+        /**
+         * @return whether the stream is still usable, slow readers are disconnected instead of buffering for them
+         */
+        private static boolean write(SocketChannel channel, ByteBuffer buffer) {
+            try {
+                channel.write(buffer);
+                if (!buffer.hasRemaining()) {
+                    return true;
+                }
+                channel.close();
+            } catch (IOException e) {
+                // the client disconnected
+            }
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            thread.interrupt();
+            selector.wakeup();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (SocketChannel channel : streams) {
+                channel.close();
+            }
+            serverChannel.close();
+            selector.close();
+        }
+    }
+}
@@ -6,16 +6,21 @@ import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.AbstractHttpEntity;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.protocol.HTTP;
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.ContentEncoding;
 import org.zalando.fahrschein.http.api.Headers;
 import org.zalando.fahrschein.http.api.HeadersImpl;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.Response;
+import org.zalando.fahrschein.http.api.StreamingBody;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.Arrays;
@@ -35,18 +40,70 @@ import java.util.zip.GZIPOutputStream;
  */
 final class HttpComponentsRequest implements Request {
 
+    /**
+     * Writes the body directly to the connection, with the content length if known, otherwise chunked.
+     */
+    private static final class StreamingEntity extends AbstractHttpEntity {
+        private final StreamingBody body;
+        private final long contentLength;
+        private final ContentEncoding contentEncoding;
+        private final CompressorPool compressorPool;
+
+        StreamingEntity(StreamingBody body, long contentLength, ContentEncoding contentEncoding, CompressorPool compressorPool) {
+            this.body = body;
+            this.contentLength = ContentEncoding.IDENTITY == contentEncoding ? contentLength : -1;
+            this.contentEncoding = contentEncoding;
+            this.compressorPool = compressorPool;
+            setChunked(this.contentLength < 0);
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return false;
+        }
+
+        @Override
+        public long getContentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public InputStream getContent() {
+            throw new UnsupportedOperationException("Streaming entity can only be written");
+        }
+
+        @Override
+        public void writeTo(OutputStream outStream) throws IOException {
+            // closing the stream provided by the connection does not close the connection
+            try (final OutputStream out = compressorPool.wrap(contentEncoding, outStream)) {
+                body.writeTo(out);
+            }
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+    }
+
     private final HttpClient httpClient;
     private final HttpUriRequest httpRequest;
     private final ContentEncoding contentEncoding;
+    private final CompressorPool compressorPool;
+    private final ContentDecoder contentDecoder;
 
     private final Headers headers;
     private ByteArrayOutputStream bufferedOutput;
+    private StreamingBody streamingBody;
+    private long streamingContentLength;
     private boolean executed;
 
-    HttpComponentsRequest(HttpClient client, HttpUriRequest request, ContentEncoding contentEncoding) {
+    HttpComponentsRequest(HttpClient client, HttpUriRequest request, ContentEncoding contentEncoding, CompressorPool compressorPool, ContentDecoder contentDecoder) {
         this.httpClient = client;
         this.httpRequest = request;
         this.contentEncoding = contentEncoding;
+        this.compressorPool = compressorPool;
+        this.contentDecoder = contentDecoder;
         this.headers = new HeadersImpl();
     }
 
@@ -61,20 +118,17 @@ final class HttpComponentsRequest implements Request {
     }
 
     private Response executeInternal(Headers headers) throws IOException {
+        if (this.streamingBody != null) {
+            return executeStreaming(headers);
+        }
+
         final byte[] bytes = this.bufferedOutput != null ? this.bufferedOutput.toByteArray() : new byte[0];
 
         if (headers.getContentLength() < 0) {
             headers.setContentLength(bytes.length);
         }
 
-        for (String headerName : headers.headerNames()) {
-            final List<String> value = headers.get(headerName);
-            if (!HTTP.CONTENT_LEN.equalsIgnoreCase(headerName) && !HTTP.TRANSFER_ENCODING.equalsIgnoreCase(headerName)) {
-                for (String headerValue : value) {
-                    this.httpRequest.addHeader(headerName, headerValue);
-                }
-            }
-        }
+        copyHeaders(headers);
 
         if (this.httpRequest instanceof HttpEntityEnclosingRequest) {
             HttpEntityEnclosingRequest entityEnclosingRequest = (HttpEntityEnclosingRequest) this.httpRequest;
@@ -83,12 +137,45 @@ final class HttpComponentsRequest implements Request {
         }
 
         final HttpResponse httpResponse = this.httpClient.execute(this.httpRequest);
-        final Response result = new HttpComponentsResponse(httpResponse);
+        final Response result = new HttpComponentsResponse(httpResponse, this.contentDecoder);
         this.bufferedOutput = null;
 
         return result;
     }
 
+    private Response executeStreaming(Headers headers) throws IOException {
+        copyHeaders(headers);
+
+        if (this.httpRequest instanceof HttpEntityEnclosingRequest) {
+            final ContentEncoding encoding = this.contentEncoding.isSupported(getMethod()) ? this.contentEncoding : ContentEncoding.IDENTITY;
+            if (ContentEncoding.IDENTITY != encoding) {
+                this.httpRequest.setHeader(HttpHeaders.CONTENT_ENCODING, encoding.value());
+            }
+            ((HttpEntityEnclosingRequest) this.httpRequest).setEntity(new StreamingEntity(this.streamingBody, this.streamingContentLength, encoding, this.compressorPool));
+        }
+
+        final HttpResponse httpResponse = this.httpClient.execute(this.httpRequest);
+        final Response result = new HttpComponentsResponse(httpResponse, this.contentDecoder);
+        this.streamingBody = null;
+
+        return result;
+    }
+
+    private void copyHeaders(Headers headers) {
+        for (String headerName : headers.headerNames()) {
+            final List<String> value = headers.get(headerName);
+            if (!HTTP.CONTENT_LEN.equalsIgnoreCase(headerName) && !HTTP.TRANSFER_ENCODING.equalsIgnoreCase(headerName)) {
+                for (String headerValue : value) {
+                    this.httpRequest.addHeader(headerName, headerValue);
+                }
+            }
+        }
+        // allow compression of the server response, the HttpClient only adds its own header if none is set
+        if (!this.httpRequest.containsHeader(HttpHeaders.ACCEPT_ENCODING)) {
+            this.httpRequest.setHeader(HttpHeaders.ACCEPT_ENCODING, this.contentDecoder.getAcceptEncoding());
+        }
+    }
+
     @Override
     public final Headers getHeaders() {
         return (this.executed ? new HeadersImpl(this.headers, true) : this.headers);
@@ -97,6 +184,9 @@ final class HttpComponentsRequest implements Request {
     @Override
     public final OutputStream getBody() throws IOException {
         assertNotExecuted();
+        if (this.streamingBody != null) {
+            throw new IllegalStateException("Request body is already streamed");
+        }
         if (this.bufferedOutput == null) {
             this.bufferedOutput = new ByteArrayOutputStream(1024);
             if (this.contentEncoding.isSupported(getMethod())) {
@@ -105,12 +195,22 @@ final class HttpComponentsRequest implements Request {
                 if (ContentEncoding.IDENTITY != this.contentEncoding) {
                     this.httpRequest.setHeader(HttpHeaders.CONTENT_ENCODING, this.contentEncoding.value());
                 }
-                return this.contentEncoding.wrap(this.bufferedOutput);
+                return this.compressorPool.wrap(this.contentEncoding, this.bufferedOutput);
             }
         }
         return this.bufferedOutput;
     }
 
+    @Override
+    public final void setBody(StreamingBody body, long contentLength) {
+        assertNotExecuted();
+        if (this.bufferedOutput != null) {
+            throw new IllegalStateException("Request body is already buffered");
+        }
+        this.streamingBody = body;
+        this.streamingContentLength = contentLength;
+    }
+
     @Override
     public final Response execute() throws IOException {
         assertNotExecuted();
@@ -10,6 +10,8 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpTrace;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.ContentEncoding;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.RequestFactory;
@@ -37,6 +39,8 @@ public class HttpComponentsRequestFactory implements RequestFactory {
 
     private final HttpClient httpClient;
     private final ContentEncoding contentEncoding;
+    private final CompressorPool compressorPool;
+    private final ContentDecoder contentDecoder;
 
     /**
      * Create a new instance of the {@code HttpComponentsRequestFactory}
@@ -45,7 +49,33 @@ public class HttpComponentsRequestFactory implements RequestFactory {
      * @param contentEncoding content encoding for request payloads.
      */
     public HttpComponentsRequestFactory(HttpClient httpClient, ContentEncoding contentEncoding) {
+        this(httpClient, contentEncoding, new CompressorPool());
+    }
+
+    /**
+     * Create a new instance of the {@code HttpComponentsRequestFactory}
+     * with the given {@link HttpClient} instance.
+     * @param httpClient the HttpClient instance to use for this request factory
+     * @param contentEncoding content encoding for request payloads.
+     * @param compressorPool reuses compressors across the requests of this factory.
+     */
+    public HttpComponentsRequestFactory(HttpClient httpClient, ContentEncoding contentEncoding, CompressorPool compressorPool) {
+        this(httpClient, contentEncoding, compressorPool, new ContentDecoder());
+    }
+
+    /**
+     * Create a new instance of the {@code HttpComponentsRequestFactory}
+     * with the given {@link HttpClient} instance.
+     * @param httpClient the HttpClient instance to use for this request factory
+     * @param contentEncoding content encoding for request payloads.
+     * @param compressorPool reuses compressors across the requests of this factory.
+     * @param contentDecoder the accepted encodings of responses and their decoding. Responses already decoded by the
+     *                       HttpClient are passed through.
+     */
+    public HttpComponentsRequestFactory(HttpClient httpClient, ContentEncoding contentEncoding, CompressorPool compressorPool, ContentDecoder contentDecoder) {
         this.contentEncoding = contentEncoding;
+        this.compressorPool = compressorPool;
+        this.contentDecoder = contentDecoder;
         if (httpClient == null) {
             throw new IllegalArgumentException("HttpClient must not be null");
         }
@@ -56,7 +86,7 @@ public class HttpComponentsRequestFactory implements RequestFactory {
     public Request createRequest(URI uri, String httpMethod) throws IOException {
         final HttpUriRequest httpRequest = createHttpUriRequest(httpMethod, uri);
 
-        return new HttpComponentsRequest(httpClient, httpRequest, contentEncoding);
+        return new HttpComponentsRequest(httpClient, httpRequest, contentEncoding, compressorPool, contentDecoder);
     }
 
     /**
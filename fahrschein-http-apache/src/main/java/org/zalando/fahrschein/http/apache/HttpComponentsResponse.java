@@ -3,6 +3,7 @@ package org.zalando.fahrschein.http.apache;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.Headers;
 import org.zalando.fahrschein.http.api.HeadersImpl;
 import org.zalando.fahrschein.http.api.Response;
@@ -25,10 +26,13 @@ import java.io.InputStream;
 final class HttpComponentsResponse implements Response {
 
     private final HttpResponse httpResponse;
+    private final ContentDecoder contentDecoder;
     private Headers headers;
+    private InputStream body;
 
-    HttpComponentsResponse(HttpResponse httpResponse) {
+    HttpComponentsResponse(HttpResponse httpResponse, ContentDecoder contentDecoder) {
         this.httpResponse = httpResponse;
+        this.contentDecoder = contentDecoder;
     }
 
     @Override
@@ -54,8 +58,12 @@ final class HttpComponentsResponse implements Response {
 
     @Override
     public InputStream getBody() throws IOException {
-        HttpEntity entity = this.httpResponse.getEntity();
-        return (entity != null ? entity.getContent() : new ByteArrayInputStream(new byte[0]));
+        if (this.body == null) {
+            HttpEntity entity = this.httpResponse.getEntity();
+            // the HttpClient removes the Content-Encoding header of responses it already decoded
+            this.body = (entity != null ? contentDecoder.decode(getHeaders(), entity.getContent()) : new ByteArrayInputStream(new byte[0]));
+        }
+        return this.body;
     }
 
     @Override
@@ -67,6 +75,14 @@ final class HttpComponentsResponse implements Response {
             } catch (IOException e) {
                 // ignore exception on close
             }
+            // returns the decompressor, only after releasing the connection, so that the rest of the body is not read
+            if (this.body != null) {
+                try {
+                    this.body.close();
+                } catch (IOException e) {
+                    // ignore exception on close
+                }
+            }
         }
     }
 
@@ -6,6 +6,8 @@ import org.apache.http.impl.client.HttpClients;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.ContentEncoding;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.RequestFactory;
@@ -47,4 +49,9 @@ public class HttpComponentsRequestFactoryTest extends AbstractRequestFactoryTest
         return new HttpComponentsRequestFactory(HttpClients.createDefault(), contentEncoding);
     }
 
+    @Override
+    public RequestFactory requestFactory(ContentDecoder contentDecoder) {
+        return new HttpComponentsRequestFactory(HttpClients.createDefault(), ContentEncoding.IDENTITY, new CompressorPool(), contentDecoder);
+    }
+
 }
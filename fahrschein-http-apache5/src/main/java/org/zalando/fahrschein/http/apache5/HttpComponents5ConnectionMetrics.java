@@ -0,0 +1,102 @@
+package org.zalando.fahrschein.http.apache5;
+
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.reactor.IOSessionListener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the connections of an asynchronous HttpClient, registered as {@link IOSessionListener} with the builder of
+ * the client, see {@link HttpComponents5RequestFactory}.
+ * With HTTP/2 the client multiplexes all streams to the same host over a single connection, so the number of open
+ * connections stays at the number of hosts while the number of streams grows.
+ */
+public final class HttpComponents5ConnectionMetrics implements IOSessionListener {
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger peakOpenConnections = new AtomicInteger();
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong tlsHandshakes = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    public int getPeakOpenConnections() {
+        return peakOpenConnections.get();
+    }
+
+    /**
+     * @return the number of connections that were established
+     */
+    public long getConnections() {
+        return connections.get();
+    }
+
+    public long getTlsHandshakes() {
+        return tlsHandshakes.get();
+    }
+
+    /**
+     * @return the number of times a connection was idle for longer than its socket timeout
+     */
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    /**
+     * @return the number of connections that failed with an exception
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    @Override
+    public void connected(IOSession session) {
+        connections.incrementAndGet();
+        peakOpenConnections.accumulateAndGet(openConnections.incrementAndGet(), Math::max);
+    }
+
+    @Override
+    public void startTls(IOSession session) {
+        tlsHandshakes.incrementAndGet();
+    }
+
+    @Override
+    public void inputReady(IOSession session) {
+    }
+
+    @Override
+    public void outputReady(IOSession session) {
+    }
+
+    @Override
+    public void timeout(IOSession session) {
+        timeouts.incrementAndGet();
+    }
+
+    @Override
+    public void exception(IOSession session, Exception ex) {
+        failures.incrementAndGet();
+    }
+
+    @Override
+    public void disconnected(IOSession session) {
+        openConnections.decrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "HttpComponents5ConnectionMetrics{" +
+                "openConnections=" + openConnections +
+                ", peakOpenConnections=" + peakOpenConnections +
+                ", connections=" + connections +
+                ", tlsHandshakes=" + tlsHandshakes +
+                ", timeouts=" + timeouts +
+                ", failures=" + failures +
+                '}';
+    }
+}
@@ -0,0 +1,208 @@
+package org.zalando.fahrschein.http.apache5;
+
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.support.classic.AbstractClassicEntityProducer;
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentDecoder;
+import org.zalando.fahrschein.http.api.ContentEncoding;
+import org.zalando.fahrschein.http.api.Headers;
+import org.zalando.fahrschein.http.api.HeadersImpl;
+import org.zalando.fahrschein.http.api.Request;
+import org.zalando.fahrschein.http.api.Response;
+import org.zalando.fahrschein.http.api.StreamingBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * {@link Request} implementation based on the asynchronous Apache HttpComponents 5 HttpClient, which waits for the
+ * response head and then passes the body on to the calling thread.
+ *
+ * <p>Created via the {@link HttpComponents5RequestFactory}.
+ */
+final class HttpComponents5Request implements Request {
+
+    private static final int STREAMING_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Writes the body on a thread of the given executor, the client sends it while it is written.
+     */
+    private static final class StreamingEntityProducer extends AbstractClassicEntityProducer {
+        private final StreamingBody body;
+        private final ContentEncoding contentEncoding;
+        private final CompressorPool compressorPool;
+        private volatile IOException failure;
+
+        StreamingEntityProducer(StreamingBody body, ContentEncoding contentEncoding, CompressorPool compressorPool, Executor executor) {
+            super(STREAMING_BUFFER_SIZE, null, executor);
+            this.body = body;
+            this.contentEncoding = contentEncoding;
+            this.compressorPool = compressorPool;
+        }
+
+        @Override
+        protected void produceData(ContentType contentType, OutputStream outputStream) throws IOException {
+            try (final OutputStream out = compressorPool.wrap(contentEncoding, outputStream)) {
+                body.writeTo(out);
+            } catch (IOException | RuntimeException e) {
+                failure = e instanceof IOException ? (IOException) e : new IOException(e);
+                throw e;
+            }
+        }
+    }
+
+    private final CloseableHttpAsyncClient httpClient;
+    private final URI uri;
+    private final String method;
+    private final ContentEncoding contentEncoding;
+    private final CompressorPool compressorPool;
+    private final ContentDecoder contentDecoder;
+    private final HttpComponents5StreamMetrics streamMetrics;
+    private final Executor bodyWriter;
+
+    private final Headers headers;
+    private ByteArrayOutputStream bufferedOutput;
+    private StreamingBody streamingBody;
+    private boolean executed;
+
+    HttpComponents5Request(CloseableHttpAsyncClient httpClient, URI uri, String method, ContentEncoding contentEncoding, CompressorPool compressorPool, ContentDecoder contentDecoder, HttpComponents5StreamMetrics streamMetrics, Executor bodyWriter) {
+        this.httpClient = httpClient;
+        this.uri = uri;
+        this.method = method;
+        this.contentEncoding = contentEncoding;
+        this.compressorPool = compressorPool;
+        this.contentDecoder = contentDecoder;
+        this.streamMetrics = streamMetrics;
+        this.bodyWriter = bodyWriter;
+        this.headers = new HeadersImpl();
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public URI getURI() {
+        return uri;
+    }
+
+    @Override
+    public Headers getHeaders() {
+        return this.executed ? new HeadersImpl(this.headers, true) : this.headers;
+    }
+
+    @Override
+    public OutputStream getBody() throws IOException {
+        assertNotExecuted();
+        if (this.streamingBody != null) {
+            throw new IllegalStateException("Request body is already streamed");
+        }
+        if (this.bufferedOutput == null) {
+            this.bufferedOutput = new ByteArrayOutputStream(1024);
+            if (this.contentEncoding.isSupported(method)) {
+                // omits the unnecessary "Content-Encoding: identity" header
+                if (ContentEncoding.IDENTITY != this.contentEncoding) {
+                    this.headers.put(Headers.CONTENT_ENCODING, this.contentEncoding.value());
+                }
+                return this.compressorPool.wrap(this.contentEncoding, this.bufferedOutput);
+            }
+        }
+        return this.bufferedOutput;
+    }
+
+    /**
+     * The body is sent with chunked transfer encoding over HTTP/1.1, the content length is not used.
+     */
+    @Override
+    public void setBody(StreamingBody body, long contentLength) {
+        assertNotExecuted();
+        if (this.bufferedOutput != null) {
+            throw new IllegalStateException("Request body is already buffered");
+        }
+        this.streamingBody = body;
+    }
+
+    @Override
+    public Response execute() throws IOException {
+        assertNotExecuted();
+        final Runnable closeStream = streamMetrics.open();
+        try {
+            final Response response = executeInternal(closeStream);
+            this.executed = true;
+            this.bufferedOutput = null;
+            this.streamingBody = null;
+            return response;
+        } catch (IOException | RuntimeException e) {
+            closeStream.run();
+            throw e;
+        }
+    }
+
+    private Response executeInternal(Runnable closeStream) throws IOException {
+        final BasicHttpRequest httpRequest = new BasicHttpRequest(method, uri);
+        final AsyncEntityProducer entityProducer;
+        final StreamingEntityProducer streamingEntityProducer;
+        if (this.streamingBody != null) {
+            final ContentEncoding encoding = this.contentEncoding.isSupported(method) ? this.contentEncoding : ContentEncoding.IDENTITY;
+            if (ContentEncoding.IDENTITY != encoding) {
+                this.headers.put(Headers.CONTENT_ENCODING, encoding.value());
+            }
+            streamingEntityProducer = new StreamingEntityProducer(this.streamingBody, encoding, this.compressorPool, this.bodyWriter);
+            entityProducer = streamingEntityProducer;
+        } else {
+            streamingEntityProducer = null;
+            entityProducer = this.bufferedOutput != null ? AsyncEntityProducers.create(this.bufferedOutput.toByteArray(), null) : null;
+        }
+
+        for (String headerName : this.headers.headerNames()) {
+            // the client sets the framing headers of the entity itself
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(headerName) && !HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(headerName)) {
+                for (String headerValue : this.headers.get(headerName)) {
+                    httpRequest.addHeader(headerName, headerValue);
+                }
+            }
+        }
+        if (!httpRequest.containsHeader(HttpHeaders.ACCEPT_ENCODING)) {
+            httpRequest.setHeader(HttpHeaders.ACCEPT_ENCODING, this.contentDecoder.getAcceptEncoding());
+        }
+
+        final StreamingResponseConsumer responseConsumer = new StreamingResponseConsumer();
+        final Future<HttpResponse> future = this.httpClient.execute(new BasicRequestProducer(httpRequest, entityProducer), responseConsumer, null);
+        try {
+            final HttpResponse httpResponse = future.get();
+            streamMetrics.responded();
+            return new HttpComponents5Response(httpResponse, responseConsumer.getBody(), this.contentDecoder, future, closeStream);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the response");
+        } catch (ExecutionException e) {
+            // reports why writing the body failed, rather than the aborted exchange that followed
+            if (streamingEntityProducer != null && streamingEntityProducer.failure != null) {
+                throw streamingEntityProducer.failure;
+            }
+            final Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    private void assertNotExecuted() {
+        if (this.executed) {
+            throw new IllegalStateException("Request already executed");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.zalando.fahrschein.http.apache5;
+
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentDecoder;
+import org.zalando.fahrschein.http.api.ContentEncoding;
+import org.zalando.fahrschein.http.api.Request;
+import org.zalando.fahrschein.http.api.RequestFactory;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link RequestFactory} implementation that uses the asynchronous
+ * <a href="https://hc.apache.org/httpcomponents-client-5.2.x/">Apache HttpComponents 5 HttpClient</a> to send
+ * requests, while their responses are read by the calling thread like those of the other factories.
+ *
+ * <p>A client built with {@code HttpAsyncClients.customHttp2()} multiplexes event streams, publishing requests and
+ * cursor commits to the same host over a single HTTP/2 connection. A client built with {@code HttpAsyncClients.custom()}
+ * negotiates the protocol and pools its connections, limited by its connection manager. Registering
+ * {@link HttpComponents5ConnectionMetrics} with the builder counts the connections, the streams opened by this factory
+ * are counted and limited by its {@link HttpComponents5StreamMetrics}.
+ *
+ * <p>The client has to be started before its first request, and is not closed by this factory.
+ */
+public class HttpComponents5RequestFactory implements RequestFactory {
+
+    private static final Duration DEFAULT_MAX_WAIT_TIME = Duration.ofSeconds(30);
+
+    // writes streamed request bodies, the calling thread waits for the response meanwhile
+    private static final ExecutorService BODY_WRITERS = Executors.newCachedThreadPool(new BodyWriterThreadFactory());
+
+    private static final class BodyWriterThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "fahrschein-apache5-body-writer-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private final CloseableHttpAsyncClient httpClient;
+    private final ContentEncoding contentEncoding;
+    private final CompressorPool compressorPool;
+    private final ContentDecoder contentDecoder;
+    private final HttpComponents5StreamMetrics streamMetrics;
+
+    /**
+     * @param httpClient the started HttpClient instance to use for this request factory
+     * @param contentEncoding content encoding for request payloads.
+     */
+    public HttpComponents5RequestFactory(CloseableHttpAsyncClient httpClient, ContentEncoding contentEncoding) {
+        this(httpClient, contentEncoding, new CompressorPool());
+    }
+
+    /**
+     * @param httpClient the started HttpClient instance to use for this request factory
+     * @param contentEncoding content encoding for request payloads.
+     * @param compressorPool reuses compressors across the requests of this factory.
+     */
+    public HttpComponents5RequestFactory(CloseableHttpAsyncClient httpClient, ContentEncoding contentEncoding, CompressorPool compressorPool) {
+        this(httpClient, contentEncoding, compressorPool, new ContentDecoder());
+    }
+
+    /**
+     * @param httpClient the started HttpClient instance to use for this request factory
+     * @param contentEncoding content encoding for request payloads.
+     * @param compressorPool reuses compressors across the requests of this factory.
+     * @param contentDecoder the accepted encodings of responses and their decoding.
+     */
+    public HttpComponents5RequestFactory(CloseableHttpAsyncClient httpClient, ContentEncoding contentEncoding, CompressorPool compressorPool, ContentDecoder contentDecoder) {
+        this(httpClient, contentEncoding, compressorPool, contentDecoder, new HttpComponents5StreamMetrics(Integer.MAX_VALUE, DEFAULT_MAX_WAIT_TIME));
+    }
+
+    private HttpComponents5RequestFactory(CloseableHttpAsyncClient httpClient, ContentEncoding contentEncoding, CompressorPool compressorPool, ContentDecoder contentDecoder, HttpComponents5StreamMetrics streamMetrics) {
+        if (httpClient == null) {
+            throw new IllegalArgumentException("HttpClient must not be null");
+        }
+        this.httpClient = httpClient;
+        this.contentEncoding = contentEncoding;
+        this.compressorPool = compressorPool;
+        this.contentDecoder = contentDecoder;
+        this.streamMetrics = streamMetrics;
+    }
+
+    /**
+     * Limits the number of streams that the requests of this factory may open at the same time, waiting up to 30 seconds
+     * for a stream to be closed, see {@link #withMaxConcurrentStreams(int, Duration)}.
+     */
+    public HttpComponents5RequestFactory withMaxConcurrentStreams(int maxConcurrentStreams) {
+        return withMaxConcurrentStreams(maxConcurrentStreams, DEFAULT_MAX_WAIT_TIME);
+    }
+
+    /**
+     * Limits the number of streams that the requests of this factory may open at the same time. Requests exceeding it
+     * wait until a stream was closed, and fail with an {@link java.io.IOException} before they are sent if that takes
+     * longer than {@code maxWaitTime}. With HTTP/2 the limit should not exceed the number of concurrent streams the
+     * server allows per connection, which long-lived event streams otherwise exhaust.
+     */
+    public HttpComponents5RequestFactory withMaxConcurrentStreams(int maxConcurrentStreams, Duration maxWaitTime) {
+        if (maxConcurrentStreams <= 0) {
+            throw new IllegalArgumentException("Maximum number of concurrent streams should be bigger than 0");
+        }
+        if (maxWaitTime == null || maxWaitTime.isNegative()) {
+            throw new IllegalArgumentException("Maximum wait time must not be null or negative");
+        }
+        return new HttpComponents5RequestFactory(httpClient, contentEncoding, compressorPool, contentDecoder, new HttpComponents5StreamMetrics(maxConcurrentStreams, maxWaitTime));
+    }
+
+    public HttpComponents5StreamMetrics getStreamMetrics() {
+        return streamMetrics;
+    }
+
+    @Override
+    public Request createRequest(URI uri, String method) {
+        return new HttpComponents5Request(httpClient, uri, method, contentEncoding, compressorPool, contentDecoder, streamMetrics, BODY_WRITERS);
+    }
+}
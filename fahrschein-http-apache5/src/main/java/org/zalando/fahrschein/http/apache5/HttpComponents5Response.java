@@ -0,0 +1,123 @@
+package org.zalando.fahrschein.http.apache5;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.impl.EnglishReasonPhraseCatalog;
+import org.zalando.fahrschein.http.api.ContentDecoder;
+import org.zalando.fahrschein.http.api.Headers;
+import org.zalando.fahrschein.http.api.HeadersImpl;
+import org.zalando.fahrschein.http.api.Response;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.concurrent.Future;
+
+/**
+ * {@link Response} implementation based on the asynchronous Apache HttpComponents 5 HttpClient.
+ *
+ * <p>Created via the {@link HttpComponents5Request}.
+ */
+final class HttpComponents5Response implements Response {
+
+    private final HttpResponse httpResponse;
+    private final InputStream rawBody;
+    private final ContentDecoder contentDecoder;
+    private final Future<?> exchange;
+    private final Runnable closeStream;
+    private Headers headers;
+    private InputStream body;
+
+    HttpComponents5Response(HttpResponse httpResponse, InputStream rawBody, ContentDecoder contentDecoder, Future<?> exchange, Runnable closeStream) {
+        this.httpResponse = httpResponse;
+        this.rawBody = rawBody;
+        this.contentDecoder = contentDecoder;
+        this.exchange = exchange;
+        this.closeStream = closeStream;
+    }
+
+    @Override
+    public int getStatusCode() {
+        return this.httpResponse.getCode();
+    }
+
+    /**
+     * HTTP/2 responses have no reason phrase, the standard one of their status code is returned instead.
+     */
+    @Override
+    @Deprecated
+    public String getStatusText() {
+        final String reasonPhrase = this.httpResponse.getReasonPhrase();
+        return reasonPhrase != null ? reasonPhrase : EnglishReasonPhraseCatalog.INSTANCE.getReason(getStatusCode(), Locale.ENGLISH);
+    }
+
+    @Override
+    public Headers getHeaders() {
+        if (this.headers == null) {
+            this.headers = new HeadersImpl();
+            for (Header header : this.httpResponse.getHeaders()) {
+                this.headers.add(header.getName(), header.getValue());
+            }
+        }
+        return this.headers;
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        if (this.body == null) {
+            this.body = this.contentDecoder.decode(getHeaders(), new EndOfStreamInputStream(this.rawBody, this.closeStream));
+        }
+        return this.body;
+    }
+
+    @Override
+    public void close() {
+        // aborts the exchange if the body was not read completely, which resets its HTTP/2 stream
+        this.exchange.cancel(true);
+        try {
+            this.rawBody.close();
+        } catch (IOException e) {
+            // ignore exception on close
+        }
+        this.closeStream.run();
+        // returns the decompressor, only after closing the raw body, so that the rest of the body is not read
+        if (this.body != null) {
+            try {
+                this.body.close();
+            } catch (IOException e) {
+                // ignore exception on close
+            }
+        }
+    }
+
+    /**
+     * Closes the stream once the end of the body was read.
+     */
+    private static final class EndOfStreamInputStream extends FilterInputStream {
+        private final Runnable closeStream;
+
+        EndOfStreamInputStream(InputStream in, Runnable closeStream) {
+            super(in);
+            this.closeStream = closeStream;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b == -1) {
+                closeStream.run();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read == -1) {
+                closeStream.run();
+            }
+            return read;
+        }
+    }
+}
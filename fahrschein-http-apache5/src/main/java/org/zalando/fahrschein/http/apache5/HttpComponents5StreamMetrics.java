@@ -0,0 +1,118 @@
+package org.zalando.fahrschein.http.apache5;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the streams the requests of a {@link HttpComponents5RequestFactory} opened, and limits how many of them may be
+ * open at the same time. A stream is open from sending its request until its response was closed or the end of its body
+ * was read, so a subscription's event stream stays open as long as it is consumed. Requests exceeding the limit wait
+ * in order of arrival until a stream was closed, and fail if none was closed in time.
+ *
+ * The connections carrying these streams are counted by {@link HttpComponents5ConnectionMetrics}.
+ */
+public final class HttpComponents5StreamMetrics {
+
+    private final int maxConcurrentStreams;
+    private final Duration maxWaitTime;
+    private final Semaphore permits;
+    private final AtomicInteger peakActiveStreams = new AtomicInteger();
+    private final AtomicLong streams = new AtomicLong();
+    private final AtomicLong rejectedStreams = new AtomicLong();
+
+    HttpComponents5StreamMetrics(int maxConcurrentStreams, Duration maxWaitTime) {
+        this.maxConcurrentStreams = maxConcurrentStreams;
+        this.maxWaitTime = maxWaitTime;
+        this.permits = new Semaphore(maxConcurrentStreams, true);
+    }
+
+    /**
+     * @return the maximum number of streams open at the same time, {@link Integer#MAX_VALUE} if not limited
+     */
+    public int getMaxConcurrentStreams() {
+        return maxConcurrentStreams;
+    }
+
+    /**
+     * @return how long requests wait for a stream to be closed once the maximum number of streams is open
+     */
+    public Duration getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    public int getActiveStreams() {
+        return maxConcurrentStreams - permits.availablePermits();
+    }
+
+    public int getPeakActiveStreams() {
+        return peakActiveStreams.get();
+    }
+
+    /**
+     * @return the number of requests waiting for a stream to be closed
+     */
+    public int getWaitingStreams() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * @return the number of streams that received a response
+     */
+    public long getStreams() {
+        return streams.get();
+    }
+
+    /**
+     * @return the number of requests that were not sent because no stream was closed within the maximum wait time
+     */
+    public long getRejectedStreams() {
+        return rejectedStreams.get();
+    }
+
+    /**
+     * Opens a stream, waiting up to the maximum wait time if the maximum number of concurrent streams is reached.
+     *
+     * @return closes the stream, calling it more than once has no effect
+     */
+    Runnable open() throws IOException {
+        try {
+            if (!permits.tryAcquire(maxWaitTime.toNanos(), TimeUnit.NANOSECONDS)) {
+                rejectedStreams.incrementAndGet();
+                throw new IOException(String.format("Maximum number of [%d] concurrent streams reached, no stream was closed within [%s]", maxConcurrentStreams, maxWaitTime));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a stream");
+        }
+        peakActiveStreams.accumulateAndGet(getActiveStreams(), Math::max);
+        final AtomicBoolean closed = new AtomicBoolean();
+        return () -> {
+            if (closed.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+    }
+
+    void responded() {
+        streams.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "HttpComponents5StreamMetrics{" +
+                "maxConcurrentStreams=" + maxConcurrentStreams +
+                ", maxWaitTime=" + maxWaitTime +
+                ", activeStreams=" + getActiveStreams() +
+                ", peakActiveStreams=" + peakActiveStreams +
+                ", waitingStreams=" + getWaitingStreams() +
+                ", streams=" + streams +
+                ", rejectedStreams=" + rejectedStreams +
+                '}';
+    }
+}
@@ -0,0 +1,198 @@
+package org.zalando.fahrschein.http.apache5;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Completes with the response head as soon as it was received, and passes the body on to a blocking
+ * {@link InputStream}. The stream grants the connection more capacity only for the bytes it read, so a slow reader
+ * pauses its own stream, not the other streams multiplexed over the same HTTP/2 connection.
+ */
+final class StreamingResponseConsumer implements AsyncResponseConsumer<HttpResponse> {
+
+    private final Object lock = new Object();
+    private final Deque<ByteBuffer> chunks = new ArrayDeque<>();
+    private final InputStream body = new Body();
+    private CapacityChannel capacityChannel;
+    // bytes read or discarded that were not yet granted to the capacity channel
+    private int consumedBytes;
+    private boolean ended;
+    private boolean closed;
+    private Exception failure;
+
+    InputStream getBody() {
+        return body;
+    }
+
+    @Override
+    public void consumeResponse(HttpResponse response, EntityDetails entityDetails, HttpContext context, FutureCallback<HttpResponse> resultCallback) {
+        if (entityDetails == null) {
+            synchronized (lock) {
+                ended = true;
+            }
+        }
+        resultCallback.completed(response);
+    }
+
+    @Override
+    public void informationResponse(HttpResponse response, HttpContext context) {
+    }
+
+    @Override
+    public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+        final int increment;
+        synchronized (lock) {
+            this.capacityChannel = capacityChannel;
+            increment = consumedBytes;
+            consumedBytes = 0;
+        }
+        if (increment > 0) {
+            capacityChannel.update(increment);
+        }
+    }
+
+    @Override
+    public void consume(ByteBuffer src) throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                // aborts the exchange, which resets the stream
+                throw new IOException("Response was closed before its body was read");
+            }
+            final ByteBuffer chunk = ByteBuffer.allocate(src.remaining());
+            chunk.put(src);
+            chunk.flip();
+            chunks.addLast(chunk);
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void streamEnd(List<? extends Header> trailers) {
+        synchronized (lock) {
+            ended = true;
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        synchronized (lock) {
+            if (!ended && failure == null) {
+                failure = cause;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void releaseResources() {
+        synchronized (lock) {
+            if (!ended && failure == null) {
+                failure = new IOException("Response was released before its body was read");
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Grants the capacity of the given number of bytes, or remembers it until the capacity channel is known.
+     */
+    private void consumed(int bytes) throws IOException {
+        final CapacityChannel capacityChannel;
+        final int increment;
+        synchronized (lock) {
+            capacityChannel = this.capacityChannel;
+            increment = consumedBytes + bytes;
+            consumedBytes = capacityChannel == null ? increment : 0;
+        }
+        if (capacityChannel != null && increment > 0) {
+            capacityChannel.update(increment);
+        }
+    }
+
+    private final class Body extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            final int read;
+            synchronized (lock) {
+                while (chunks.isEmpty()) {
+                    if (closed) {
+                        throw new IOException("Response body was closed");
+                    }
+                    if (failure != null) {
+                        throw failure instanceof IOException ? (IOException) failure : new IOException(failure);
+                    }
+                    if (ended) {
+                        return -1;
+                    }
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while reading the response body");
+                    }
+                }
+                final ByteBuffer chunk = chunks.peekFirst();
+                read = Math.min(len, chunk.remaining());
+                chunk.get(b, off, read);
+                if (!chunk.hasRemaining()) {
+                    chunks.removeFirst();
+                }
+            }
+            consumed(read);
+            return read;
+        }
+
+        @Override
+        public int available() {
+            synchronized (lock) {
+                final ByteBuffer chunk = chunks.peekFirst();
+                return chunk == null ? 0 : chunk.remaining();
+            }
+        }
+
+        /**
+         * Discards the buffered body. If the end of the body was not received yet, the exchange is aborted with the
+         * next chunk, which the capacity of the discarded bytes lets through.
+         */
+        @Override
+        public void close() throws IOException {
+            int discarded = 0;
+            synchronized (lock) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                for (ByteBuffer chunk : chunks) {
+                    discarded += chunk.remaining();
+                }
+                chunks.clear();
+                lock.notifyAll();
+            }
+            consumed(discarded);
+        }
+    }
+}
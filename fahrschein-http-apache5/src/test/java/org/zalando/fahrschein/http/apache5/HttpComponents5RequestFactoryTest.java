@@ -0,0 +1,116 @@
+package org.zalando.fahrschein.http.apache5;
+
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentDecoder;
+import org.zalando.fahrschein.http.api.ContentEncoding;
+import org.zalando.fahrschein.http.api.RequestFactory;
+import org.zalando.fahrschein.http.api.Response;
+import org.zalando.fahrschein.http.test.AbstractRequestFactoryTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+public class HttpComponents5RequestFactoryTest extends AbstractRequestFactoryTest {
+
+    private static CloseableHttpAsyncClient httpClient;
+    private static HttpComponents5ConnectionMetrics connectionMetrics;
+
+    @BeforeAll
+    public static void startClient() {
+        connectionMetrics = new HttpComponents5ConnectionMetrics();
+        httpClient = HttpAsyncClients.custom().setIOSessionListener(connectionMetrics).build();
+        httpClient.start();
+    }
+
+    @AfterAll
+    public static void closeClient() throws IOException {
+        httpClient.close();
+    }
+
+    @Override
+    public RequestFactory defaultRequestFactory(ContentEncoding contentEncoding) {
+        return new HttpComponents5RequestFactory(httpClient, contentEncoding);
+    }
+
+    @Override
+    public RequestFactory requestFactory(ContentDecoder contentDecoder) {
+        return new HttpComponents5RequestFactory(httpClient, ContentEncoding.IDENTITY, new CompressorPool(), contentDecoder);
+    }
+
+    @Test
+    public void testStreamMetrics() throws IOException {
+        // given
+        server.createContext("/metrics", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("{}".getBytes(UTF_8));
+            }
+        });
+        HttpComponents5RequestFactory f = new HttpComponents5RequestFactory(httpClient, ContentEncoding.IDENTITY);
+
+        // when
+        Response response = f.createRequest(serverAddress.resolve("/metrics"), "GET").execute();
+
+        // then
+        HttpComponents5StreamMetrics metrics = f.getStreamMetrics();
+        assertEquals(1, metrics.getActiveStreams());
+        assertEquals("{}", readBody(response));
+        assertEquals(0, metrics.getActiveStreams());
+        response.close();
+        assertEquals(1, metrics.getPeakActiveStreams());
+        assertEquals(1, metrics.getStreams());
+        assertTrue(connectionMetrics.getConnections() > 0);
+    }
+
+    @Test
+    public void testMaxConcurrentStreamsWaitTime() throws IOException {
+        // given
+        server.createContext("/exhausted", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("{}".getBytes(UTF_8));
+            }
+        });
+        HttpComponents5RequestFactory f = new HttpComponents5RequestFactory(httpClient, ContentEncoding.IDENTITY)
+                .withMaxConcurrentStreams(1, Duration.ofMillis(50));
+        Response open = f.createRequest(serverAddress.resolve("/exhausted"), "GET").execute();
+
+        // when
+        IOException blocking = assertThrows(IOException.class, () -> f.createRequest(serverAddress.resolve("/exhausted"), "GET").execute());
+
+        // then
+        assertEquals("Maximum number of [1] concurrent streams reached, no stream was closed within [PT0.05S]", blocking.getMessage());
+        assertEquals(1, f.getStreamMetrics().getRejectedStreams());
+
+        open.close();
+        try (Response response = f.createRequest(serverAddress.resolve("/exhausted"), "GET").execute()) {
+            assertEquals(200, response.getStatusCode());
+        }
+        assertEquals(0, f.getStreamMetrics().getActiveStreams());
+    }
+
+    private static String readBody(Response response) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int read;
+        while ((read = response.getBody().read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return new String(bytes.toByteArray(), UTF_8);
+    }
+}
@@ -0,0 +1,27 @@
+package org.zalando.fahrschein.http.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A request that is sent without blocking the calling thread. The body is buffered, and compressed according to the
+ * content encoding of the {@link AsyncRequestFactory}, before the request is executed.
+ */
+public interface AsyncRequest {
+    String getMethod();
+
+    URI getURI();
+
+    Headers getHeaders();
+
+    OutputStream getBody() throws IOException;
+
+    /**
+     * Sends the request. The returned future completes once the response headers were received, or exceptionally
+     * with an {@link IOException} if the request could not be sent.
+     */
+    CompletableFuture<AsyncResponse> executeAsync();
+
+}
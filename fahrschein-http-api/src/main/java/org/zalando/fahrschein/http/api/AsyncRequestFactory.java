@@ -0,0 +1,20 @@
+package org.zalando.fahrschein.http.api;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Creates requests that are executed without blocking the calling thread, see {@link AsyncRequest}.
+ */
+public interface AsyncRequestFactory {
+
+    /**
+     * Creates a new asynchronous request using the underlying implementation.
+     * @param uri request target URI
+     * @param method request method (GET, POST, ...)
+     * @return the request
+     * @throws IOException in case of I/O issues while trying to create the request.
+     */
+    AsyncRequest createAsyncRequest(URI uri, String method) throws IOException;
+
+}
@@ -0,0 +1,27 @@
+package org.zalando.fahrschein.http.api;
+
+import java.io.Closeable;
+
+/**
+ * The response to an {@link AsyncRequest}, whose body is delivered to a {@link BodySubscriber} as it arrives.
+ */
+public interface AsyncResponse extends Closeable {
+
+    int getStatusCode();
+
+    Headers getHeaders();
+
+    /**
+     * Starts delivering the body, decoded according to its {@code Content-Encoding}. The body can only be subscribed
+     * once.
+     */
+    void subscribe(BodySubscriber subscriber);
+
+    /**
+     * Stops the delivery of the body and releases the connection. A subscriber that did not yet receive the whole
+     * body is signalled a {@link java.util.concurrent.CancellationException}.
+     */
+    @Override
+    void close();
+
+}
@@ -0,0 +1,25 @@
+package org.zalando.fahrschein.http.api;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Receives the body of an {@link AsyncResponse} chunk by chunk. Signals are sent one after another, but not
+ * necessarily by the same thread.
+ *
+ * The next chunk is only delivered once the stage returned for the previous one completed, so a subscriber controls
+ * how fast the body is read. Completing that stage exceptionally cancels the body.
+ */
+public interface BodySubscriber {
+
+    /**
+     * @param chunk the next bytes of the body, which should not be used after the returned stage completed
+     * @return a stage completing when the subscriber is ready for the next chunk, or {@code null} if it already is
+     */
+    CompletionStage<?> onNext(ByteBuffer chunk);
+
+    void onComplete();
+
+    void onError(Throwable throwable);
+
+}
@@ -0,0 +1,127 @@
+package org.zalando.fahrschein.http.api;
+
+import com.github.luben.zstd.BufferPool;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.zip.Deflater;
+
+/**
+ * Keeps compressors and their buffers for reuse by the requests of a {@link RequestFactory}, instead of creating
+ * them for every compressed request body.
+ *
+ * GZIP reuses {@link Deflater deflaters}, which are reset before they are returned to the pool. ZSTD reuses the
+ * buffers of the compressing streams and avoids their finalizer, the native compression context itself is released
+ * when a stream is closed. At most {@code maxIdle} compressors and buffers of each kind are kept, additional ones
+ * are released once returned. Streams return their resources when they are closed.
+ */
+public final class CompressorPool {
+
+    public static final int DEFAULT_MAX_IDLE = 8;
+
+    private static final int DEFLATE_BUFFER_BYTES = 8 * 1024;
+
+    private final int maxIdle;
+    private final Deque<Deflater> deflaters = new ArrayDeque<>();
+    private final Deque<byte[]> deflateBuffers = new ArrayDeque<>();
+    private final Deque<ByteBuffer> zstdBuffers = new ArrayDeque<>();
+    private final BufferPool zstdBufferPool = new BufferPool() {
+        @Override
+        public ByteBuffer get(int capacity) {
+            synchronized (zstdBuffers) {
+                final ByteBuffer buffer = zstdBuffers.pollFirst();
+                if (buffer != null && buffer.capacity() == capacity) {
+                    buffer.clear();
+                    return buffer;
+                }
+            }
+            return ByteBuffer.allocate(capacity);
+        }
+
+        @Override
+        public void release(ByteBuffer buffer) {
+            synchronized (zstdBuffers) {
+                if (zstdBuffers.size() < maxIdle) {
+                    zstdBuffers.addFirst(buffer);
+                }
+            }
+        }
+    };
+
+    public CompressorPool() {
+        this(DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * @param maxIdle the maximum number of idle compressors and buffers of each kind that are kept for reuse
+     */
+    public CompressorPool(int maxIdle) {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("Maximum number of idle compressors should not be negative");
+        }
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Wraps the stream to compress everything written to it using the given encoding. Closing the returned stream
+     * finishes the compression, closes the given stream and returns the compressor to the pool.
+     */
+    public OutputStream wrap(ContentEncoding contentEncoding, OutputStream out) throws IOException {
+        switch (contentEncoding) {
+            case GZIP:
+                return gzip(out);
+            case ZSTD:
+                return new ZstdOutputStreamNoFinalizer(out, zstdBufferPool);
+            case IDENTITY:
+                return out;
+            default:
+                throw new UnsupportedOperationException(String.format("No output stream-wrapping defined for ContentEncoding: %s", contentEncoding));
+        }
+    }
+
+    private OutputStream gzip(OutputStream out) throws IOException {
+        Deflater deflater;
+        byte[] buffer;
+        synchronized (this) {
+            deflater = deflaters.pollFirst();
+            buffer = deflateBuffers.pollFirst();
+        }
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        }
+        if (buffer == null) {
+            buffer = new byte[DEFLATE_BUFFER_BYTES];
+        }
+        try {
+            return new PooledGzipOutputStream(out, deflater, buffer, this);
+        } catch (IOException | RuntimeException e) {
+            releaseDeflater(deflater, buffer);
+            throw e;
+        }
+    }
+
+    void releaseDeflater(Deflater deflater, byte[] buffer) {
+        deflater.reset();
+        final boolean pooled;
+        synchronized (this) {
+            pooled = deflaters.size() < maxIdle;
+            if (pooled) {
+                deflaters.addFirst(deflater);
+            }
+            if (deflateBuffers.size() < maxIdle) {
+                deflateBuffers.addFirst(buffer);
+            }
+        }
+        if (!pooled) {
+            deflater.end();
+        }
+    }
+
+    synchronized int idleDeflaters() {
+        return deflaters.size();
+    }
+}
@@ -0,0 +1,236 @@
+package org.zalando.fahrschein.http.api;
+
+import com.github.luben.zstd.BufferPool;
+import com.github.luben.zstd.ZstdInputStreamNoFinalizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Inflater;
+
+/**
+ * Decodes response bodies for the requests of a {@link RequestFactory}, and announces the supported encodings in the
+ * {@code Accept-Encoding} header of requests that do not set it themselves.
+ *
+ * Bodies are decoded according to their {@code Content-Encoding} header, so that a body is decoded even when the
+ * underlying HTTP client did not request the encoding. GZIP reuses {@link Inflater inflaters} and ZSTD the buffers of
+ * its decompressing streams, which are returned when the body is closed. At most {@code maxIdle} of each kind are kept.
+ *
+ * Bodies of {@link AsyncResponse asynchronous responses} are decoded chunk by chunk, which is only supported for GZIP.
+ */
+public final class ContentDecoder {
+
+    public static final int DEFAULT_MAX_IDLE = 8;
+
+    private static final int INFLATE_BUFFER_BYTES = 8 * 1024;
+
+    private final String acceptEncoding;
+    private final String nonBlockingAcceptEncoding;
+    private final int maxIdle;
+    private final Deque<Inflater> inflaters = new ArrayDeque<>();
+    private final Deque<byte[]> inflateBuffers = new ArrayDeque<>();
+    private final Deque<ByteBuffer> zstdBuffers = new ArrayDeque<>();
+    private final BufferPool zstdBufferPool = new BufferPool() {
+        @Override
+        public ByteBuffer get(int capacity) {
+            synchronized (zstdBuffers) {
+                final ByteBuffer buffer = zstdBuffers.pollFirst();
+                if (buffer != null && buffer.capacity() == capacity) {
+                    buffer.clear();
+                    return buffer;
+                }
+            }
+            return ByteBuffer.allocate(capacity);
+        }
+
+        @Override
+        public void release(ByteBuffer buffer) {
+            synchronized (zstdBuffers) {
+                if (zstdBuffers.size() < maxIdle) {
+                    zstdBuffers.addFirst(buffer);
+                }
+            }
+        }
+    };
+
+    /**
+     * Accepts GZIP encoded responses.
+     */
+    public ContentDecoder() {
+        this(DEFAULT_MAX_IDLE, ContentEncoding.GZIP);
+    }
+
+    /**
+     * @param acceptedEncodings the encodings to request, in order of preference
+     */
+    public ContentDecoder(ContentEncoding... acceptedEncodings) {
+        this(DEFAULT_MAX_IDLE, acceptedEncodings);
+    }
+
+    /**
+     * @param maxIdle the maximum number of idle decompressors and buffers of each kind that are kept for reuse
+     * @param acceptedEncodings the encodings to request, in order of preference
+     */
+    public ContentDecoder(int maxIdle, ContentEncoding... acceptedEncodings) {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("Maximum number of idle decompressors should not be negative");
+        }
+        this.maxIdle = maxIdle;
+        final Set<ContentEncoding> encodings = new LinkedHashSet<>(Arrays.asList(acceptedEncodings));
+        encodings.remove(ContentEncoding.IDENTITY);
+        this.acceptEncoding = acceptEncoding(encodings);
+        encodings.remove(ContentEncoding.ZSTD);
+        this.nonBlockingAcceptEncoding = acceptEncoding(encodings);
+    }
+
+    private static String acceptEncoding(Set<ContentEncoding> encodings) {
+        if (encodings.isEmpty()) {
+            return ContentEncoding.IDENTITY.value();
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (ContentEncoding encoding : encodings) {
+            sb.append(sb.length() == 0 ? "" : ", ").append(encoding.value());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the value for the {@code Accept-Encoding} header, for example {@code zstd, gzip}
+     */
+    public String getAcceptEncoding() {
+        return acceptEncoding;
+    }
+
+    /**
+     * @return the value for the {@code Accept-Encoding} header of asynchronous requests, which leaves out the
+     * encodings that can not be decoded chunk by chunk
+     */
+    public String getNonBlockingAcceptEncoding() {
+        return nonBlockingAcceptEncoding;
+    }
+
+    /**
+     * Wraps the body to decode it according to the {@code Content-Encoding} of the response. Encodings applied one
+     * after another are decoded in reverse order.
+     *
+     * @throws IOException if the body uses an unknown encoding
+     */
+    public InputStream decode(Headers responseHeaders, InputStream body) throws IOException {
+        final List<String> values = responseHeaders.get(Headers.CONTENT_ENCODING);
+        if (values == null) {
+            return body;
+        }
+        InputStream result = body;
+        for (int i = values.size() - 1; i >= 0; i--) {
+            final String[] encodings = values.get(i).split(",");
+            for (int j = encodings.length - 1; j >= 0; j--) {
+                result = decode(encodings[j].trim().toLowerCase(Locale.ROOT), result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Wraps the subscriber of an asynchronous response body to decode the chunks according to the
+     * {@code Content-Encoding} of the response.
+     *
+     * @throws IOException if the body uses an unknown encoding, or one that can not be decoded chunk by chunk
+     */
+    public BodySubscriber decode(Headers responseHeaders, BodySubscriber subscriber) throws IOException {
+        final List<String> values = responseHeaders.get(Headers.CONTENT_ENCODING);
+        if (values == null) {
+            return subscriber;
+        }
+        // the subscriber receiving the raw body decodes the encoding that was applied last
+        BodySubscriber result = subscriber;
+        for (String value : values) {
+            for (String encoding : value.split(",")) {
+                result = decode(encoding.trim().toLowerCase(Locale.ROOT), result);
+            }
+        }
+        return result;
+    }
+
+    private BodySubscriber decode(String contentEncoding, BodySubscriber subscriber) throws IOException {
+        switch (contentEncoding) {
+            case "":
+            case "identity":
+                return subscriber;
+            case "gzip":
+            case "x-gzip":
+                return new GzipBodySubscriber(subscriber, pollInflater(), pollInflateBuffer(), this);
+            default:
+                throw new IOException(String.format("Unsupported Content-Encoding for non-blocking decoding: %s", contentEncoding));
+        }
+    }
+
+    private InputStream decode(String contentEncoding, InputStream body) throws IOException {
+        switch (contentEncoding) {
+            case "":
+            case "identity":
+                return body;
+            case "gzip":
+            case "x-gzip":
+                return gzip(body);
+            case "zstd":
+                return new ZstdInputStreamNoFinalizer(body, zstdBufferPool);
+            default:
+                throw new IOException(String.format("Unsupported Content-Encoding: %s", contentEncoding));
+        }
+    }
+
+    private InputStream gzip(InputStream in) throws IOException {
+        final Inflater inflater = pollInflater();
+        final byte[] buffer = pollInflateBuffer();
+        try {
+            return new PooledGzipInputStream(in, inflater, buffer, this);
+        } catch (IOException | RuntimeException e) {
+            releaseInflater(inflater, buffer);
+            throw e;
+        }
+    }
+
+    private Inflater pollInflater() {
+        final Inflater inflater;
+        synchronized (this) {
+            inflater = inflaters.pollFirst();
+        }
+        return inflater != null ? inflater : new Inflater(true);
+    }
+
+    private byte[] pollInflateBuffer() {
+        final byte[] buffer;
+        synchronized (this) {
+            buffer = inflateBuffers.pollFirst();
+        }
+        return buffer != null ? buffer : new byte[INFLATE_BUFFER_BYTES];
+    }
+
+    void releaseInflater(Inflater inflater, byte[] buffer) {
+        inflater.reset();
+        final boolean pooled;
+        synchronized (this) {
+            pooled = inflaters.size() < maxIdle;
+            if (pooled) {
+                inflaters.addFirst(inflater);
+            }
+            if (inflateBuffers.size() < maxIdle) {
+                inflateBuffers.addFirst(buffer);
+            }
+        }
+        if (!pooled) {
+            inflater.end();
+        }
+    }
+
+    synchronized int idleInflaters() {
+        return inflaters.size();
+    }
+}
@@ -0,0 +1,273 @@
+package org.zalando.fahrschein.http.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decodes a gzip body chunk by chunk, including concatenated members, and forwards the decoded bytes to another
+ * {@link BodySubscriber}. The {@link Inflater} is returned to its {@link ContentDecoder} once the body ended.
+ */
+final class GzipBodySubscriber implements BodySubscriber {
+
+    private static final CompletableFuture<Void> READY = CompletableFuture.completedFuture(null);
+
+    private static final int MAGIC = 0x8b1f;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int TRAILER_BYTES = 8;
+    private static final int OUTPUT_BYTES = 8 * 1024;
+
+    private enum State { HEADER, DATA, TRAILER, TRAILING_GARBAGE }
+
+    private final BodySubscriber downstream;
+    private final Inflater inflater;
+    private final byte[] buffer;
+    private final ContentDecoder decoder;
+    private final CRC32 crc = new CRC32();
+    private final ByteArrayOutputStream header = new ByteArrayOutputStream(16);
+    private final byte[] trailer = new byte[TRAILER_BYTES];
+    private int trailerBytes;
+    private State state = State.HEADER;
+    private int members;
+    private byte[] input;
+    private byte[] output;
+    private int position;
+    private int limit;
+    private boolean released;
+
+    GzipBodySubscriber(BodySubscriber downstream, Inflater inflater, byte[] buffer, ContentDecoder decoder) {
+        this.downstream = downstream;
+        this.inflater = inflater;
+        this.buffer = buffer;
+        this.decoder = decoder;
+    }
+
+    @Override
+    public CompletionStage<?> onNext(ByteBuffer chunk) {
+        if (chunk.hasArray()) {
+            input = chunk.array();
+            position = chunk.arrayOffset() + chunk.position();
+            limit = position + chunk.remaining();
+        } else {
+            input = chunk.remaining() <= buffer.length ? buffer : new byte[chunk.remaining()];
+            position = 0;
+            limit = chunk.remaining();
+            chunk.get(input, 0, limit);
+        }
+        return deliverOrFail();
+    }
+
+    private CompletionStage<?> deliverOrFail() {
+        try {
+            return deliver();
+        } catch (ZipException e) {
+            final CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    /**
+     * Forwards decoded bytes until the current chunk is used up, or the downstream subscriber is not yet ready.
+     */
+    private CompletionStage<?> deliver() throws ZipException {
+        ByteBuffer decoded;
+        while ((decoded = decode()) != null) {
+            final CompletionStage<?> ready = downstream.onNext(decoded);
+            if (ready != null && !ready.toCompletableFuture().isDone()) {
+                return ready.thenCompose(ignored -> deliverOrFail());
+            } else if (ready != null && ready.toCompletableFuture().isCompletedExceptionally()) {
+                return ready;
+            }
+        }
+        return READY;
+    }
+
+    /**
+     * @return the next decoded bytes, or {@code null} if more input is needed
+     */
+    private ByteBuffer decode() throws ZipException {
+        while (true) {
+            switch (state) {
+                case HEADER:
+                    if (position == limit) {
+                        return null;
+                    }
+                    readHeader();
+                    break;
+                case DATA:
+                    if (inflater.needsInput()) {
+                        if (position == limit) {
+                            return null;
+                        }
+                        inflater.setInput(input, position, limit - position);
+                        position = limit;
+                    }
+                    if (output == null) {
+                        output = new byte[OUTPUT_BYTES];
+                    }
+                    final int inflated;
+                    try {
+                        inflated = inflater.inflate(output);
+                    } catch (DataFormatException e) {
+                        throw new ZipException(e.getMessage() != null ? e.getMessage() : "Invalid ZLIB data format");
+                    }
+                    if (inflated > 0) {
+                        crc.update(output, 0, inflated);
+                        // the decoded bytes are handed over, so the next ones go to a new array
+                        final ByteBuffer decoded = ByteBuffer.wrap(output, 0, inflated);
+                        output = null;
+                        return decoded;
+                    }
+                    if (inflater.finished()) {
+                        position = limit - inflater.getRemaining();
+                        state = State.TRAILER;
+                    } else if (inflater.needsDictionary()) {
+                        throw new ZipException("Unsupported preset dictionary");
+                    }
+                    break;
+                case TRAILER:
+                    final int count = Math.min(TRAILER_BYTES - trailerBytes, limit - position);
+                    System.arraycopy(input, position, trailer, trailerBytes, count);
+                    position += count;
+                    trailerBytes += count;
+                    if (trailerBytes < TRAILER_BYTES) {
+                        return null;
+                    }
+                    if (readUInt(trailer, 0) != crc.getValue() || readUInt(trailer, 4) != (inflater.getBytesWritten() & 0xffffffffL)) {
+                        throw new ZipException("Corrupt GZIP trailer");
+                    }
+                    trailerBytes = 0;
+                    members++;
+                    state = State.HEADER;
+                    break;
+                case TRAILING_GARBAGE:
+                default:
+                    position = limit;
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * Collects the bytes of a member header, which might be split over several chunks.
+     */
+    private void readHeader() throws ZipException {
+        final int previous = header.size();
+        header.write(input, position, limit - position);
+        final int length;
+        try {
+            length = headerLength(header.toByteArray());
+        } catch (ZipException e) {
+            if (members == 0) {
+                throw e;
+            }
+            // like GZIPInputStream, bytes following a complete member are ignored
+            state = State.TRAILING_GARBAGE;
+            return;
+        }
+        if (length == -1) {
+            position = limit;
+        } else {
+            position += length - previous;
+            header.reset();
+            inflater.reset();
+            crc.reset();
+            state = State.DATA;
+        }
+    }
+
+    /**
+     * @return the length of the header, or {@code -1} if it is not yet complete
+     */
+    private static int headerLength(byte[] bytes) throws ZipException {
+        if (bytes.length >= 2 && readUShort(bytes, 0) != MAGIC) {
+            throw new ZipException("Not in GZIP format");
+        }
+        if (bytes.length >= 3 && (bytes[2] & 0xff) != 8) {
+            throw new ZipException("Unsupported compression method");
+        }
+        if (bytes.length < 10) {
+            return -1;
+        }
+        final int flags = bytes[3] & 0xff;
+        int length = 10;
+        if ((flags & FEXTRA) == FEXTRA) {
+            if (bytes.length < length + 2) {
+                return -1;
+            }
+            length += 2 + readUShort(bytes, length);
+        }
+        if ((flags & FNAME) == FNAME) {
+            length = skipZeroTerminated(bytes, length);
+        }
+        if ((flags & FCOMMENT) == FCOMMENT) {
+            length = skipZeroTerminated(bytes, length);
+        }
+        if ((flags & FHCRC) == FHCRC) {
+            if (length == -1 || bytes.length < length + 2) {
+                return -1;
+            }
+            final CRC32 headerCrc = new CRC32();
+            headerCrc.update(bytes, 0, length);
+            if (readUShort(bytes, length) != ((int) headerCrc.getValue() & 0xffff)) {
+                throw new ZipException("Corrupt GZIP header");
+            }
+            length += 2;
+        }
+        return length == -1 || bytes.length < length ? -1 : length;
+    }
+
+    private static int skipZeroTerminated(byte[] bytes, int offset) {
+        if (offset == -1) {
+            return -1;
+        }
+        for (int i = offset; i < bytes.length; i++) {
+            if (bytes[i] == 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int readUShort(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) | ((bytes[offset + 1] & 0xff) << 8);
+    }
+
+    private static long readUInt(byte[] bytes, int offset) {
+        return readUShort(bytes, offset) | ((long) readUShort(bytes, offset + 2) << 16);
+    }
+
+    @Override
+    public void onComplete() {
+        final boolean complete = state == State.TRAILING_GARBAGE || (state == State.HEADER && members > 0);
+        release();
+        if (complete) {
+            downstream.onComplete();
+        } else {
+            downstream.onError(new EOFException("Unexpected end of GZIP stream"));
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        release();
+        downstream.onError(throwable);
+    }
+
+    private void release() {
+        if (!released) {
+            released = true;
+            decoder.releaseInflater(inflater, buffer);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.zalando.fahrschein.http.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Reads the gzip format like {@link java.util.zip.GZIPInputStream}, including concatenated members, but using an
+ * {@link Inflater} and buffer of a {@link ContentDecoder}, which are returned to it on {@link #close()}.
+ */
+final class PooledGzipInputStream extends InflaterInputStream {
+
+    private static final int MAGIC = 0x8b1f;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int TRAILER_BYTES = 8;
+
+    private final ContentDecoder decoder;
+    private final CRC32 crc = new CRC32();
+    private boolean endOfStream;
+    private boolean closed;
+
+    PooledGzipInputStream(InputStream in, Inflater inflater, byte[] buffer, ContentDecoder decoder) throws IOException {
+        // the buffer allocated by the super constructor is replaced by the pooled one
+        super(in, inflater, 1);
+        this.buf = buffer;
+        this.decoder = decoder;
+        readHeader(in);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            // the inflater might already be used by another stream
+            throw new IOException("Stream closed");
+        }
+        if (endOfStream) {
+            return -1;
+        }
+        final int read = super.read(b, off, len);
+        if (read == -1) {
+            if (readTrailer()) {
+                endOfStream = true;
+            } else {
+                return this.read(b, off, len);
+            }
+        } else {
+            crc.update(b, off, read);
+        }
+        return read;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return endOfStream ? 0 : super.available();
+    }
+
+    /**
+     * @return the number of header bytes
+     */
+    private int readHeader(InputStream stream) throws IOException {
+        final CheckedInputStream in = new CheckedInputStream(stream, crc);
+        crc.reset();
+        if (readUShort(in) != MAGIC) {
+            throw new ZipException("Not in GZIP format");
+        }
+        if (readUByte(in) != 8) {
+            throw new ZipException("Unsupported compression method");
+        }
+        final int flags = readUByte(in);
+        // modification time, extra flags and operating system
+        skipBytes(in, 6);
+        int bytes = 10;
+        if ((flags & FEXTRA) == FEXTRA) {
+            final int length = readUShort(in);
+            skipBytes(in, length);
+            bytes += length + 2;
+        }
+        if ((flags & FNAME) == FNAME) {
+            bytes += skipZeroTerminated(in);
+        }
+        if ((flags & FCOMMENT) == FCOMMENT) {
+            bytes += skipZeroTerminated(in);
+        }
+        if ((flags & FHCRC) == FHCRC) {
+            final int expected = (int) crc.getValue() & 0xffff;
+            if (readUShort(in) != expected) {
+                throw new ZipException("Corrupt GZIP header");
+            }
+            bytes += 2;
+        }
+        crc.reset();
+        return bytes;
+    }
+
+    /**
+     * @return whether the stream ends after this member
+     */
+    private boolean readTrailer() throws IOException {
+        InputStream in = this.in;
+        final int remaining = inf.getRemaining();
+        if (remaining > 0) {
+            in = new SequenceInputStream(new ByteArrayInputStream(buf, len - remaining, remaining), new FilterInputStream(in) {
+                @Override
+                public void close() {
+                    // the underlying stream is closed by the enclosing stream
+                }
+            });
+        }
+        if (readUInt(in) != crc.getValue() || readUInt(in) != (inf.getBytesWritten() & 0xffffffffL)) {
+            throw new ZipException("Corrupt GZIP trailer");
+        }
+
+        // another member might follow, available() is not a reliable indication for that
+        final int header;
+        try {
+            header = TRAILER_BYTES + readHeader(in);
+        } catch (IOException e) {
+            // the end of the stream, trailing garbage is ignored
+            return true;
+        }
+        inf.reset();
+        if (remaining > header) {
+            inf.setInput(buf, len - remaining + header, remaining - header);
+        }
+        return false;
+    }
+
+    private static long readUInt(InputStream in) throws IOException {
+        final long low = readUShort(in);
+        return ((long) readUShort(in) << 16) | low;
+    }
+
+    private static int readUShort(InputStream in) throws IOException {
+        final int low = readUByte(in);
+        return (readUByte(in) << 8) | low;
+    }
+
+    private static int readUByte(InputStream in) throws IOException {
+        final int b = in.read();
+        if (b == -1) {
+            throw new EOFException();
+        }
+        return b;
+    }
+
+    private static void skipBytes(InputStream in, int n) throws IOException {
+        new DataInputStream(in).readFully(new byte[n]);
+    }
+
+    private static int skipZeroTerminated(InputStream in) throws IOException {
+        int bytes = 1;
+        while (readUByte(in) != 0) {
+            bytes++;
+        }
+        return bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            super.close();
+        } finally {
+            decoder.releaseInflater(inf, buf);
+        }
+    }
+}
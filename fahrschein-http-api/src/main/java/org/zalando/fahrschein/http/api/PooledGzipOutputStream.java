@@ -0,0 +1,94 @@
+package org.zalando.fahrschein.http.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes the gzip format like {@link java.util.zip.GZIPOutputStream}, but using a {@link Deflater} and buffer of a
+ * {@link CompressorPool}, which are returned to the pool on {@link #close()}.
+ */
+final class PooledGzipOutputStream extends DeflaterOutputStream {
+
+    private static final byte[] HEADER = {
+            (byte) 0x1f, (byte) 0x8b, // magic number
+            Deflater.DEFLATED,        // compression method
+            0,                        // flags
+            0, 0, 0, 0,               // modification time
+            0,                        // extra flags
+            0                         // operating system
+    };
+    private static final int TRAILER_BYTES = 8;
+
+    private final CompressorPool pool;
+    private final CRC32 crc = new CRC32();
+    private boolean closed;
+
+    PooledGzipOutputStream(OutputStream out, Deflater deflater, byte[] buffer, CompressorPool pool) throws IOException {
+        // the buffer allocated by the super constructor is replaced by the pooled one
+        super(out, deflater, 1);
+        this.buf = buffer;
+        this.pool = pool;
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            // the deflater might already be used by another stream
+            throw new IOException("Stream closed");
+        }
+        super.write(b, off, len);
+        crc.update(b, off, len);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (def.finished()) {
+            return;
+        }
+        def.finish();
+        while (!def.finished()) {
+            int length = def.deflate(buf, 0, buf.length);
+            if (def.finished() && length <= buf.length - TRAILER_BYTES) {
+                writeTrailer(buf, length);
+                out.write(buf, 0, length + TRAILER_BYTES);
+                return;
+            }
+            if (length > 0) {
+                out.write(buf, 0, length);
+            }
+        }
+        final byte[] trailer = new byte[TRAILER_BYTES];
+        writeTrailer(trailer, 0);
+        out.write(trailer);
+    }
+
+    private void writeTrailer(byte[] buffer, int offset) {
+        writeInt((int) crc.getValue(), buffer, offset);
+        // the size of the uncompressed input modulo 2^32
+        writeInt((int) def.getBytesRead(), buffer, offset + 4);
+    }
+
+    private static void writeInt(int value, byte[] buffer, int offset) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+        buffer[offset + 2] = (byte) (value >> 16);
+        buffer[offset + 3] = (byte) (value >> 24);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            super.close();
+        } finally {
+            pool.releaseDeflater(def, buf);
+        }
+    }
+}
@@ -13,6 +13,26 @@ public interface Request {
 
     OutputStream getBody() throws IOException;
 
+    /**
+     * Streams the request body when the request is executed, instead of buffering it before. Should be used as an
+     * alternative to {@link #getBody()}, not in addition to it.
+     *
+     * The default implementation writes the body into {@link #getBody()} immediately.
+     *
+     * @param body writes the body during {@link #execute()}
+     * @param contentLength the number of bytes the body consists of before compression, or {@code -1} if unknown.
+     *                      Bodies without known length or with compression are sent using chunked transfer encoding.
+     */
+    default void setBody(StreamingBody body, long contentLength) throws IOException {
+        try (final OutputStream out = getBody()) {
+            body.writeTo(out);
+        }
+    }
+
+    default void setBody(StreamingBody body) throws IOException {
+        setBody(body, -1);
+    }
+
     Response execute() throws IOException;
 
 }
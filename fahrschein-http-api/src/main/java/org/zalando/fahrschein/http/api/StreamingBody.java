@@ -0,0 +1,18 @@
+package org.zalando.fahrschein.http.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a request body directly to the connection, see {@link Request#setBody(StreamingBody, long)}.
+ */
+@FunctionalInterface
+public interface StreamingBody {
+
+    /**
+     * Writes the body to the given stream, which is already wrapped for the content encoding of the request.
+     * Closing the stream is allowed but not required.
+     */
+    void writeTo(OutputStream out) throws IOException;
+
+}
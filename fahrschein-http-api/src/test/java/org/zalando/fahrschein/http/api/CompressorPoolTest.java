@@ -0,0 +1,84 @@
+package org.zalando.fahrschein.http.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CompressorPoolTest {
+
+    private static byte[] gzip(CompressorPool pool, byte[] payload) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = pool.wrap(ContentEncoding.GZIP, bytes)) {
+            out.write(payload);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    @Test
+    public void shouldWriteGzipWithReusedDeflaters() throws IOException {
+        final CompressorPool pool = new CompressorPool();
+        final byte[] small = "{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8);
+        final byte[] large = new byte[1024 * 1024];
+        new Random(42).nextBytes(large);
+
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(small, gunzip(gzip(pool, small)));
+            assertArrayEquals(large, gunzip(gzip(pool, large)));
+            assertEquals(1, pool.idleDeflaters());
+        }
+    }
+
+    @Test
+    public void shouldKeepAtMostMaxIdleDeflaters() throws IOException {
+        final CompressorPool pool = new CompressorPool(1);
+        final OutputStream first = pool.wrap(ContentEncoding.GZIP, new ByteArrayOutputStream());
+        final OutputStream second = pool.wrap(ContentEncoding.GZIP, new ByteArrayOutputStream());
+
+        first.close();
+        second.close();
+
+        assertEquals(1, pool.idleDeflaters());
+    }
+
+    @Test
+    public void shouldNotWriteAfterClose() throws IOException {
+        final CompressorPool pool = new CompressorPool();
+        final OutputStream out = pool.wrap(ContentEncoding.GZIP, new ByteArrayOutputStream());
+        out.close();
+        out.close();
+
+        assertEquals(1, pool.idleDeflaters());
+        assertThrows(IOException.class, () -> out.write(1));
+    }
+
+    @Test
+    public void shouldNotWrapIdentity() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        assertSame(bytes, new CompressorPool().wrap(ContentEncoding.IDENTITY, bytes));
+    }
+}
@@ -0,0 +1,152 @@
+package org.zalando.fahrschein.http.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ContentDecoderTest {
+
+    private static Headers contentEncoding(String value) {
+        final Headers headers = new HeadersImpl();
+        headers.put(Headers.CONTENT_ENCODING, value);
+        return headers;
+    }
+
+    private static byte[] gzip(String... members) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (String member : members) {
+            try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+                out.write(member.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class CollectingSubscriber implements BodySubscriber {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final CompletableFuture<String> body = new CompletableFuture<>();
+
+        @Override
+        public CompletionStage<?> onNext(ByteBuffer chunk) {
+            while (chunk.hasRemaining()) {
+                bytes.write(chunk.get());
+            }
+            return null;
+        }
+
+        @Override
+        public void onComplete() {
+            body.complete(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.completeExceptionally(throwable);
+        }
+    }
+
+    private static void feed(BodySubscriber subscriber, byte[] body, int chunkSize) {
+        for (int i = 0; i < body.length; i += chunkSize) {
+            subscriber.onNext(ByteBuffer.wrap(body, i, Math.min(chunkSize, body.length - i)));
+        }
+        subscriber.onComplete();
+    }
+
+    @Test
+    public void shouldAcceptEncodingsInOrderOfPreference() {
+        assertEquals("gzip", new ContentDecoder().getAcceptEncoding());
+        assertEquals("zstd, gzip", new ContentDecoder(ContentEncoding.ZSTD, ContentEncoding.GZIP).getAcceptEncoding());
+        assertEquals("identity", new ContentDecoder(ContentEncoding.IDENTITY).getAcceptEncoding());
+        assertEquals("gzip", new ContentDecoder(ContentEncoding.ZSTD, ContentEncoding.GZIP).getNonBlockingAcceptEncoding());
+    }
+
+    @Test
+    public void shouldDecodeGzipWithReusedInflaters() throws IOException {
+        final ContentDecoder decoder = new ContentDecoder();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("{\"id\":\"1\"}", read(decoder.decode(contentEncoding("gzip"), new ByteArrayInputStream(gzip("{\"id\":\"1\"}")))));
+            assertEquals(1, decoder.idleInflaters());
+        }
+    }
+
+    @Test
+    public void shouldDecodeConcatenatedGzipMembers() throws IOException {
+        final InputStream body = new ByteArrayInputStream(gzip("{\"id\":\"1\"}\n", "{\"id\":\"2\"}\n"));
+
+        assertEquals("{\"id\":\"1\"}\n{\"id\":\"2\"}\n", read(new ContentDecoder().decode(contentEncoding("gzip"), body)));
+    }
+
+    @Test
+    public void shouldPassThroughUnencodedBodies() throws IOException {
+        final InputStream body = new ByteArrayInputStream(new byte[0]);
+
+        assertSame(body, new ContentDecoder().decode(new HeadersImpl(), body));
+        assertSame(body, new ContentDecoder().decode(contentEncoding("identity"), body));
+    }
+
+    @Test
+    public void shouldRejectUnknownEncodings() {
+        final InputStream body = new ByteArrayInputStream(new byte[0]);
+
+        assertThrows(IOException.class, () -> new ContentDecoder().decode(contentEncoding("br"), body));
+    }
+
+    @Test
+    public void shouldDecodeGzipChunks() throws Exception {
+        final ContentDecoder decoder = new ContentDecoder();
+        final byte[] body = gzip("{\"id\":\"1\"}\n", "{\"id\":\"2\"}\n");
+
+        for (int chunkSize : new int[] { 1, 7, body.length }) {
+            final CollectingSubscriber collector = new CollectingSubscriber();
+            feed(decoder.decode(contentEncoding("gzip"), collector), body, chunkSize);
+
+            assertEquals("{\"id\":\"1\"}\n{\"id\":\"2\"}\n", collector.body.get());
+            assertEquals(1, decoder.idleInflaters());
+        }
+    }
+
+    @Test
+    public void shouldSignalTruncatedGzipChunks() throws IOException {
+        final byte[] body = gzip("{\"id\":\"1\"}");
+        final CollectingSubscriber collector = new CollectingSubscriber();
+
+        final BodySubscriber subscriber = new ContentDecoder().decode(contentEncoding("gzip"), collector);
+        subscriber.onNext(ByteBuffer.wrap(body, 0, body.length - 1));
+        subscriber.onComplete();
+
+        final ExecutionException e = assertThrows(ExecutionException.class, collector.body::get);
+        assertTrue(e.getCause() instanceof IOException);
+    }
+
+    @Test
+    public void shouldRejectZstdChunks() {
+        assertThrows(IOException.class, () -> new ContentDecoder(ContentEncoding.ZSTD).decode(contentEncoding("zstd"), new CollectingSubscriber()));
+    }
+}
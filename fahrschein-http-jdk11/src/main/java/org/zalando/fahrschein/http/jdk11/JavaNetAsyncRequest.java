@@ -0,0 +1,108 @@
+package org.zalando.fahrschein.http.jdk11;
+
+import org.zalando.fahrschein.http.api.AsyncRequest;
+import org.zalando.fahrschein.http.api.AsyncResponse;
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentDecoder;
+import org.zalando.fahrschein.http.api.ContentEncoding;
+import org.zalando.fahrschein.http.api.Headers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+final class JavaNetAsyncRequest implements AsyncRequest {
+
+    private final HttpRequest.Builder request;
+    private final HttpClient client;
+    private final URI uri;
+    private final String method;
+    private final ContentEncoding contentEncoding;
+    private final CompressorPool compressorPool;
+    private final ContentDecoder contentDecoder;
+    private final Optional<Duration> requestTimeout;
+    private final JavaNetStreamMetrics streamMetrics;
+    private boolean executed;
+    private ByteArrayOutputStream bufferedOutput;
+
+    JavaNetAsyncRequest(URI uri, String method, HttpClient client, Optional<Duration> requestTimeout, ContentEncoding contentEncoding, CompressorPool compressorPool, ContentDecoder contentDecoder, Optional<HttpClient.Version> httpVersion, JavaNetStreamMetrics streamMetrics) {
+        this.uri = uri;
+        this.method = method;
+        this.request = HttpRequest.newBuilder().header(Headers.ACCEPT_ENCODING, contentDecoder.getNonBlockingAcceptEncoding());
+        httpVersion.ifPresent(request::version);
+        this.client = client;
+        this.requestTimeout = requestTimeout;
+        this.contentEncoding = contentEncoding;
+        this.compressorPool = compressorPool;
+        this.contentDecoder = contentDecoder;
+        this.streamMetrics = streamMetrics;
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public URI getURI() {
+        return uri;
+    }
+
+    @Override
+    public Headers getHeaders() {
+        return new JavaNetRequestHeadersDelegate(request);
+    }
+
+    @Override
+    public OutputStream getBody() throws IOException {
+        assertNotExecuted();
+        if (this.bufferedOutput == null) {
+            this.bufferedOutput = new ByteArrayOutputStream(1024);
+            if (ContentEncoding.IDENTITY != this.contentEncoding) {
+                request.setHeader(Headers.CONTENT_ENCODING, this.contentEncoding.value());
+            }
+            return this.compressorPool.wrap(this.contentEncoding, this.bufferedOutput);
+        }
+        return this.bufferedOutput;
+    }
+
+    @Override
+    public CompletableFuture<AsyncResponse> executeAsync() {
+        assertNotExecuted();
+        this.executed = true;
+        requestTimeout.ifPresent(t -> request.timeout(t));
+        final HttpRequest httpRequest = request
+                .uri(this.uri)
+                .method(this.method,
+                        this.bufferedOutput == null
+                                ? HttpRequest.BodyPublishers.noBody()
+                                : HttpRequest.BodyPublishers.ofByteArray(this.bufferedOutput.toByteArray()))
+                .build();
+        // waits for a stream without blocking if the maximum number of concurrent streams is reached
+        return streamMetrics.openAsync().thenCompose(closeStream ->
+                // the body is not consumed before the response is subscribed, so no thread waits for it
+                client.sendAsync(httpRequest, responseInfo -> HttpResponse.BodySubscribers.ofPublisher())
+                        .whenComplete((response, throwable) -> {
+                            if (throwable != null) {
+                                closeStream.run();
+                            }
+                        })
+                        .thenApply(response -> {
+                            streamMetrics.responded(response.version());
+                            return new JavaNetAsyncResponse(response, contentDecoder, closeStream);
+                        }));
+    }
+
+    private void assertNotExecuted() {
+        if (this.executed) {
+            throw new IllegalStateException("Request already executed");
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.zalando.fahrschein.http.jdk11;
+
+import org.zalando.fahrschein.http.api.AsyncResponse;
+import org.zalando.fahrschein.http.api.BodySubscriber;
+import org.zalando.fahrschein.http.api.ContentDecoder;
+import org.zalando.fahrschein.http.api.Headers;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+final class JavaNetAsyncResponse implements AsyncResponse {
+
+    private static final CompletableFuture<Void> READY = CompletableFuture.completedFuture(null);
+
+    private final HttpResponse<Flow.Publisher<List<ByteBuffer>>> r;
+    private final ContentDecoder contentDecoder;
+    private final Runnable closeStream;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private volatile BodyAdapter adapter;
+    private volatile boolean closed;
+
+    JavaNetAsyncResponse(HttpResponse<Flow.Publisher<List<ByteBuffer>>> r, ContentDecoder contentDecoder, Runnable closeStream) {
+        this.r = r;
+        this.contentDecoder = contentDecoder;
+        this.closeStream = closeStream;
+    }
+
+    @Override
+    public int getStatusCode() {
+        return r.statusCode();
+    }
+
+    @Override
+    public Headers getHeaders() {
+        return new JavaNetHeadersDelegate(r.headers());
+    }
+
+    @Override
+    public void subscribe(BodySubscriber subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            throw new IllegalStateException("Response body can only be subscribed once");
+        }
+        final BodySubscriber decoding;
+        try {
+            decoding = contentDecoder.decode(getHeaders(), subscriber);
+        } catch (IOException e) {
+            r.body().subscribe(new CancellingSubscriber());
+            closeStream.run();
+            subscriber.onError(e);
+            return;
+        }
+        final BodyAdapter bodyAdapter = new BodyAdapter(decoding, closeStream);
+        this.adapter = bodyAdapter;
+        r.body().subscribe(bodyAdapter);
+        if (closed) {
+            bodyAdapter.cancel();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        closeStream.run();
+        if (subscribed.compareAndSet(false, true)) {
+            // the connection is only released once the body was consumed or cancelled
+            r.body().subscribe(new CancellingSubscriber());
+        } else {
+            final BodyAdapter bodyAdapter = this.adapter;
+            if (bodyAdapter != null) {
+                bodyAdapter.cancel();
+            }
+        }
+    }
+
+    private static final class CancellingSubscriber implements Flow.Subscriber<List<ByteBuffer>> {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.cancel();
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    /**
+     * Requests the next buffers of the http client once the {@link BodySubscriber} is ready for them, and defers the
+     * terminal signals until the subscriber processed all buffers before.
+     */
+    private static final class BodyAdapter implements Flow.Subscriber<List<ByteBuffer>> {
+
+        private final BodySubscriber subscriber;
+        private final Runnable closeStream;
+        private final AtomicBoolean terminated = new AtomicBoolean();
+        private volatile Flow.Subscription subscription;
+        private volatile CompletableFuture<?> previous = READY;
+        private volatile boolean cancelled;
+
+        BodyAdapter(BodySubscriber subscriber, Runnable closeStream) {
+            this.subscriber = subscriber;
+            this.closeStream = closeStream;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            if (cancelled) {
+                return;
+            }
+            final CompletableFuture<?> ready = deliver(buffers.iterator()).toCompletableFuture();
+            this.previous = ready;
+            ready.whenComplete((ignored, throwable) -> {
+                if (throwable != null) {
+                    subscription.cancel();
+                    terminate(unwrap(throwable));
+                } else if (!cancelled) {
+                    subscription.request(1);
+                }
+            });
+        }
+
+        private CompletionStage<?> deliver(Iterator<ByteBuffer> buffers) {
+            while (buffers.hasNext() && !cancelled) {
+                final ByteBuffer buffer = buffers.next();
+                if (!buffer.hasRemaining()) {
+                    continue;
+                }
+                final CompletionStage<?> ready;
+                try {
+                    ready = subscriber.onNext(buffer);
+                } catch (RuntimeException e) {
+                    final CompletableFuture<Void> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(e);
+                    return failed;
+                }
+                if (ready != null && (!ready.toCompletableFuture().isDone() || ready.toCompletableFuture().isCompletedExceptionally())) {
+                    return ready.thenCompose(ignored -> deliver(buffers));
+                }
+            }
+            return READY;
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            previous.whenComplete((ignored, failure) -> terminate(throwable));
+        }
+
+        @Override
+        public void onComplete() {
+            previous.whenComplete((ignored, failure) -> {
+                if (failure == null) {
+                    terminate(null);
+                }
+            });
+        }
+
+        void cancel() {
+            cancelled = true;
+            final Flow.Subscription subscription = this.subscription;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            previous.whenComplete((ignored, failure) -> terminate(new CancellationException("Response was closed")));
+        }
+
+        private void terminate(Throwable throwable) {
+            if (terminated.compareAndSet(false, true)) {
+                closeStream.run();
+                if (throwable == null) {
+                    subscriber.onComplete();
+                } else {
+                    subscriber.onError(throwable);
+                }
+            }
+        }
+
+        private static Throwable unwrap(Throwable throwable) {
+            return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package org.zalando.fahrschein.http.jdk11;
 
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.ContentEncoding;
-import org.zalando.fahrschein.http.api.ContentType;
 import org.zalando.fahrschein.http.api.Headers;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.Response;
+import org.zalando.fahrschein.http.api.StreamingBody;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -15,10 +17,9 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
-import java.util.Arrays;
-import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 final class JavaNetBufferingRequest implements Request {
 
@@ -27,17 +28,26 @@ final class JavaNetBufferingRequest implements Request {
     private final URI uri;
     private final String method;
     private final ContentEncoding contentEncoding;
+    private final CompressorPool compressorPool;
+    private final ContentDecoder contentDecoder;
     private final Optional<Duration> requestTimeout;
+    private final JavaNetStreamMetrics streamMetrics;
     private boolean executed;
     private ByteArrayOutputStream bufferedOutput;
+    private StreamingBody streamingBody;
+    private long streamingContentLength;
 
-    JavaNetBufferingRequest(URI uri, String method, HttpClient client, Optional<Duration> requestTimeout, ContentEncoding contentEncoding) {
+    JavaNetBufferingRequest(URI uri, String method, HttpClient client, Optional<Duration> requestTimeout, ContentEncoding contentEncoding, CompressorPool compressorPool, ContentDecoder contentDecoder, Optional<HttpClient.Version> httpVersion, JavaNetStreamMetrics streamMetrics) {
         this.uri = uri;
         this.method = method;
-        this.request = HttpRequest.newBuilder().header(Headers.ACCEPT_ENCODING, "gzip");
+        this.request = HttpRequest.newBuilder().header(Headers.ACCEPT_ENCODING, contentDecoder.getAcceptEncoding());
+        httpVersion.ifPresent(request::version);
         this.client = client;
         this.requestTimeout = requestTimeout;
         this.contentEncoding = contentEncoding;
+        this.compressorPool = compressorPool;
+        this.contentDecoder = contentDecoder;
+        this.streamMetrics = streamMetrics;
     }
 
     @Override
@@ -52,59 +62,14 @@ final class JavaNetBufferingRequest implements Request {
 
     @Override
     public Headers getHeaders() {
-        return new Headers() {
-
-            private static final String HEADER_IMPLEMENTATION_IS_WRITE_ONLY = "Header implementation is write-only";
-
-            @Override
-            public List<String> get(String headerName) {
-                throw new UnsupportedOperationException(HEADER_IMPLEMENTATION_IS_WRITE_ONLY);
-            }
-
-            @Override
-            public void add(String headerName, String value) {
-                request.header(headerName, value);
-            }
-
-            @Override
-            public void put(String headerName, String value) {
-                request.header(headerName, value);
-            }
-
-            @Override
-            public String getFirst(String headerName) {
-                throw new UnsupportedOperationException(HEADER_IMPLEMENTATION_IS_WRITE_ONLY);
-            }
-
-            @Override
-            public Set<String> headerNames() {
-                throw new UnsupportedOperationException(HEADER_IMPLEMENTATION_IS_WRITE_ONLY);
-            }
-
-            @Override
-            public long getContentLength() {
-                throw new UnsupportedOperationException(HEADER_IMPLEMENTATION_IS_WRITE_ONLY);
-            }
-
-            @Override
-            public void setContentLength(long contentLength) {
-                throw new UnsupportedOperationException("Content-Length to be set by underlying framework");
-            }
-
-            @Override
-            public ContentType getContentType() {
-                throw new UnsupportedOperationException(HEADER_IMPLEMENTATION_IS_WRITE_ONLY);
-            }
-
-            @Override
-            public void setContentType(ContentType contentType) {
-                request.header(Headers.CONTENT_TYPE, contentType.getValue());
-            }
-        };
+        return new JavaNetRequestHeadersDelegate(request);
     }
 
     @Override
     public OutputStream getBody() throws IOException {
+        if (this.streamingBody != null) {
+            throw new IllegalStateException("Request body is already streamed");
+        }
         if (this.bufferedOutput == null) {
             this.bufferedOutput = new ByteArrayOutputStream(1024);
             // probably premature optimization, but we're omitting the unnecessary
@@ -112,13 +77,33 @@ final class JavaNetBufferingRequest implements Request {
             if (ContentEncoding.IDENTITY != this.contentEncoding) {
                 request.setHeader(Headers.CONTENT_ENCODING, this.contentEncoding.value());
             }
-            return this.contentEncoding.wrap(this.bufferedOutput);
+            return this.compressorPool.wrap(this.contentEncoding, this.bufferedOutput);
         }
         return this.bufferedOutput;
     }
 
+    @Override
+    public void setBody(StreamingBody body, long contentLength) {
+        assertNotExecuted();
+        if (this.bufferedOutput != null) {
+            throw new IllegalStateException("Request body is already buffered");
+        }
+        this.streamingBody = body;
+        this.streamingContentLength = contentLength;
+    }
+
     @Override
     public Response execute() throws IOException {
+        final Runnable closeStream = streamMetrics.open();
+        try {
+            return this.streamingBody != null ? executeStreaming(closeStream) : executeBuffered(closeStream);
+        } catch (IOException | RuntimeException e) {
+            closeStream.run();
+            throw e;
+        }
+    }
+
+    private Response executeBuffered(Runnable closeStream) throws IOException {
         try {
             requestTimeout.ifPresent(t -> request.timeout(t));
             HttpResponse<InputStream> response = client.send(
@@ -131,9 +116,52 @@ final class JavaNetBufferingRequest implements Request {
                             .build(),
                     HttpResponse.BodyHandlers.ofInputStream());
             this.executed = true;
-            return new JavaNetResponse(response);
+            streamMetrics.responded(response.version());
+            return new JavaNetResponse(response, contentDecoder, closeStream);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private Response executeStreaming(Runnable closeStream) throws IOException {
+        final boolean encoded = ContentEncoding.IDENTITY != this.contentEncoding;
+        if (encoded) {
+            request.setHeader(Headers.CONTENT_ENCODING, this.contentEncoding.value());
+        }
+
+        final StreamingBodyPublisher publisher = new StreamingBodyPublisher(encoded ? -1 : this.streamingContentLength);
+        requestTimeout.ifPresent(t -> request.timeout(t));
+        final CompletableFuture<HttpResponse<InputStream>> future = client.sendAsync(
+                request.uri(this.uri).method(this.method, publisher).build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        // unblocks writing if the request fails or the server responds before reading the whole body
+        future.whenComplete((response, throwable) -> publisher.abort());
+
+        try (final OutputStream out = encoded ? this.compressorPool.wrap(this.contentEncoding, publisher.outputStream()) : publisher.outputStream()) {
+            this.streamingBody.writeTo(out);
+        } catch (IOException e) {
+            if (!publisher.isAborted()) {
+                future.cancel(true);
+                throw e;
+            }
+            // the http client stopped consuming the body, the outcome of the request is reported below
+        }
+
+        try {
+            final HttpResponse<InputStream> response = future.get();
+            this.executed = true;
+            this.streamingBody = null;
+            streamMetrics.responded(response.version());
+            return new JavaNetResponse(response, contentDecoder, closeStream);
         } catch (InterruptedException e) {
+            future.cancel(true);
             throw new IOException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
         }
     }
 
@@ -1,5 +1,9 @@
 package org.zalando.fahrschein.http.jdk11;
 
+import org.zalando.fahrschein.http.api.AsyncRequest;
+import org.zalando.fahrschein.http.api.AsyncRequestFactory;
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.ContentEncoding;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.RequestFactory;
@@ -9,11 +13,25 @@ import java.net.http.HttpClient;
 import java.time.Duration;
 import java.util.Optional;
 
-public final class JavaNetRequestFactory implements RequestFactory {
+/**
+ * Creates requests for java.net's {@link HttpClient}. Besides blocking requests it also creates
+ * {@link AsyncRequest asynchronous} ones, which use the client's own threads for sending and receiving.
+ *
+ * With HTTP/2 the client multiplexes event streams, publishing requests and cursor commits to the same host over a
+ * single connection. The client manages its connections itself and does not expose them, so this factory can only
+ * limit and count the streams it opens, see {@link JavaNetStreamMetrics}.
+ */
+public final class JavaNetRequestFactory implements RequestFactory, AsyncRequestFactory {
+
+    private static final Duration DEFAULT_MAX_WAIT_TIME = Duration.ofSeconds(30);
 
     private final HttpClient client;
     private final Optional<Duration> requestTimeout;
     private final ContentEncoding contentEncoding;
+    private final CompressorPool compressorPool;
+    private final ContentDecoder contentDecoder;
+    private final Optional<HttpClient.Version> httpVersion;
+    private final JavaNetStreamMetrics streamMetrics;
 
     /**
      * @param client the HTTP client
@@ -21,14 +39,89 @@ public final class JavaNetRequestFactory implements RequestFactory {
      * @param contentEncoding the encoding for publishing events
      */
     public JavaNetRequestFactory(HttpClient client, Optional<Duration> requestTimeout, ContentEncoding contentEncoding) {
+        this(client, requestTimeout, contentEncoding, new CompressorPool());
+    }
+
+    /**
+     * @param client the HTTP client
+     * @param requestTimeout (optional) the request timeout duration. See {@code java.net.http.HttpRequest.Builder#timeout}.
+     * @param contentEncoding the encoding for publishing events
+     * @param compressorPool reuses compressors across the requests of this factory
+     */
+    public JavaNetRequestFactory(HttpClient client, Optional<Duration> requestTimeout, ContentEncoding contentEncoding, CompressorPool compressorPool) {
+        this(client, requestTimeout, contentEncoding, compressorPool, new ContentDecoder());
+    }
+
+    /**
+     * @param client the HTTP client
+     * @param requestTimeout (optional) the request timeout duration. See {@code java.net.http.HttpRequest.Builder#timeout}.
+     * @param contentEncoding the encoding for publishing events
+     * @param compressorPool reuses compressors across the requests of this factory
+     * @param contentDecoder the accepted encodings of responses and their decoding
+     */
+    public JavaNetRequestFactory(HttpClient client, Optional<Duration> requestTimeout, ContentEncoding contentEncoding, CompressorPool compressorPool, ContentDecoder contentDecoder) {
+        this(client, requestTimeout, contentEncoding, compressorPool, contentDecoder, Optional.empty(), new JavaNetStreamMetrics(Integer.MAX_VALUE, DEFAULT_MAX_WAIT_TIME));
+    }
+
+    private JavaNetRequestFactory(HttpClient client, Optional<Duration> requestTimeout, ContentEncoding contentEncoding, CompressorPool compressorPool, ContentDecoder contentDecoder, Optional<HttpClient.Version> httpVersion, JavaNetStreamMetrics streamMetrics) {
         this.client = client;
         this.requestTimeout = requestTimeout;
         this.contentEncoding = contentEncoding;
+        this.compressorPool = compressorPool;
+        this.contentDecoder = contentDecoder;
+        this.httpVersion = httpVersion;
+        this.streamMetrics = streamMetrics;
+    }
+
+    /**
+     * Overrides the protocol version of the client for the requests of this factory. The client prefers
+     * {@link HttpClient.Version#HTTP_2 HTTP/2} by default and falls back to HTTP/1.1 if the server does not support it,
+     * {@link HttpClient.Version#HTTP_1_1} opens a connection for every concurrent stream instead.
+     */
+    public JavaNetRequestFactory withHttpVersion(HttpClient.Version httpVersion) {
+        if (httpVersion == null) {
+            throw new IllegalArgumentException("HTTP version must not be null");
+        }
+        return new JavaNetRequestFactory(client, requestTimeout, contentEncoding, compressorPool, contentDecoder, Optional.of(httpVersion), streamMetrics);
+    }
+
+    /**
+     * Limits the number of streams that the requests of this factory may open at the same time, waiting up to 30 seconds
+     * for a stream to be closed, see {@link #withMaxConcurrentStreams(int, Duration)}.
+     */
+    public JavaNetRequestFactory withMaxConcurrentStreams(int maxConcurrentStreams) {
+        return withMaxConcurrentStreams(maxConcurrentStreams, DEFAULT_MAX_WAIT_TIME);
+    }
+
+    /**
+     * Limits the number of streams that the requests of this factory may open at the same time. Requests exceeding it
+     * wait until a stream was closed, asynchronous requests without blocking a thread, and fail with an
+     * {@link java.io.IOException} before they are sent if that takes longer than {@code maxWaitTime}. With HTTP/2 the
+     * limit should not exceed the number of concurrent streams the server allows per connection, which long-lived event
+     * streams otherwise exhaust.
+     */
+    public JavaNetRequestFactory withMaxConcurrentStreams(int maxConcurrentStreams, Duration maxWaitTime) {
+        if (maxConcurrentStreams <= 0) {
+            throw new IllegalArgumentException("Maximum number of concurrent streams should be bigger than 0");
+        }
+        if (maxWaitTime == null || maxWaitTime.isNegative()) {
+            throw new IllegalArgumentException("Maximum wait time must not be null or negative");
+        }
+        return new JavaNetRequestFactory(client, requestTimeout, contentEncoding, compressorPool, contentDecoder, httpVersion, new JavaNetStreamMetrics(maxConcurrentStreams, maxWaitTime));
+    }
+
+    public JavaNetStreamMetrics getStreamMetrics() {
+        return streamMetrics;
     }
 
     @Override
     public Request createRequest(URI uri, String method) {
-        return new JavaNetBufferingRequest(uri, method, client, requestTimeout, contentEncoding);
+        return new JavaNetBufferingRequest(uri, method, client, requestTimeout, contentEncoding, compressorPool, contentDecoder, httpVersion, streamMetrics);
+    }
+
+    @Override
+    public AsyncRequest createAsyncRequest(URI uri, String method) {
+        return new JavaNetAsyncRequest(uri, method, client, requestTimeout, contentEncoding, compressorPool, contentDecoder, httpVersion, streamMetrics);
     }
 
 }
@@ -0,0 +1,64 @@
+package org.zalando.fahrschein.http.jdk11;
+
+import org.zalando.fahrschein.http.api.ContentType;
+import org.zalando.fahrschein.http.api.Headers;
+
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Set;
+
+final class JavaNetRequestHeadersDelegate implements Headers {
+
+    private static final String HEADER_IMPLEMENTATION_IS_WRITE_ONLY = "Header implementation is write-only";
+
+    private final HttpRequest.Builder request;
+
+    JavaNetRequestHeadersDelegate(HttpRequest.Builder request) {
+        this.request = request;
+    }
+
+    @Override
+    public List<String> get(String headerName) {
+        throw new UnsupportedOperationException(HEADER_IMPLEMENTATION_IS_WRITE_ONLY);
+    }
+
+    @Override
+    public void add(String headerName, String value) {
+        request.header(headerName, value);
+    }
+
+    @Override
+    public void put(String headerName, String value) {
+        request.setHeader(headerName, value);
+    }
+
+    @Override
+    public String getFirst(String headerName) {
+        throw new UnsupportedOperationException(HEADER_IMPLEMENTATION_IS_WRITE_ONLY);
+    }
+
+    @Override
+    public Set<String> headerNames() {
+        throw new UnsupportedOperationException(HEADER_IMPLEMENTATION_IS_WRITE_ONLY);
+    }
+
+    @Override
+    public long getContentLength() {
+        throw new UnsupportedOperationException(HEADER_IMPLEMENTATION_IS_WRITE_ONLY);
+    }
+
+    @Override
+    public void setContentLength(long contentLength) {
+        throw new UnsupportedOperationException("Content-Length to be set by underlying framework");
+    }
+
+    @Override
+    public ContentType getContentType() {
+        throw new UnsupportedOperationException(HEADER_IMPLEMENTATION_IS_WRITE_ONLY);
+    }
+
+    @Override
+    public void setContentType(ContentType contentType) {
+        request.header(Headers.CONTENT_TYPE, contentType.getValue());
+    }
+}
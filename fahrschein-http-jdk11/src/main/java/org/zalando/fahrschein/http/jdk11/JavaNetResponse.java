@@ -1,20 +1,28 @@
 package org.zalando.fahrschein.http.jdk11;
 
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.Headers;
 import org.zalando.fahrschein.http.api.HeadersImpl;
 import org.zalando.fahrschein.http.api.Response;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.http.HttpResponse;
-import java.util.zip.GZIPInputStream;
 
 final class JavaNetResponse implements Response {
 
     private final HttpResponse<InputStream> r;
+    private final ContentDecoder contentDecoder;
+    private final Runnable closeStream;
+    private final InputStream rawBody;
+    private InputStream body;
 
-    JavaNetResponse(HttpResponse<InputStream> r) {
+    JavaNetResponse(HttpResponse<InputStream> r, ContentDecoder contentDecoder, Runnable closeStream) {
         this.r = r;
+        this.contentDecoder = contentDecoder;
+        this.closeStream = closeStream;
+        this.rawBody = new ClosingStreamAtEndInputStream(r.body(), closeStream);
     }
 
     @Override
@@ -81,19 +89,49 @@ final class JavaNetResponse implements Response {
 
     @Override
     public InputStream getBody() throws IOException {
-        if (this.getHeaders().get(Headers.CONTENT_ENCODING).contains("gzip")) {
-            return new GZIPInputStream(r.body());
+        if (this.body == null) {
+            this.body = contentDecoder.decode(this.getHeaders(), rawBody);
         }
-        return r.body();
+        return this.body;
     }
 
     @Override
     public void close() {
         try {
-            r.body().close();
+            (this.body != null ? this.body : rawBody).close();
         } catch (Exception e) {
             // ignore
+        } finally {
+            closeStream.run();
         }
     }
 
+    /**
+     * Closes the stream once the end of the body was read, the response does not need to be closed for that.
+     */
+    private static final class ClosingStreamAtEndInputStream extends FilterInputStream {
+        private final Runnable closeStream;
+
+        ClosingStreamAtEndInputStream(InputStream in, Runnable closeStream) {
+            super(in);
+            this.closeStream = closeStream;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return atEnd(super.read());
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return atEnd(super.read(b, off, len));
+        }
+
+        private int atEnd(int result) {
+            if (result == -1) {
+                closeStream.run();
+            }
+            return result;
+        }
+    }
 }
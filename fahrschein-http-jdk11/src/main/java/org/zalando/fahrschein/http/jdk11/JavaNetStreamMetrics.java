@@ -0,0 +1,201 @@
+package org.zalando.fahrschein.http.jdk11;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the streams a {@link JavaNetRequestFactory} opened on the connections of its {@link HttpClient}, and limits how
+ * many of them may be open at the same time. A stream is open from sending its request until its response was closed
+ * or the end of its body was read, so a subscription's event stream stays open as long as it is consumed. Requests
+ * exceeding the limit wait in order of arrival until a stream was closed, and fail if none was closed in time.
+ *
+ * The {@link HttpClient} neither exposes its connections nor limits its HTTP/2 streams, so these metrics are counted
+ * per stream. The negotiated protocol version of the streams shows whether they were multiplexed over HTTP/2 connections.
+ */
+public final class JavaNetStreamMetrics {
+
+    private final int maxConcurrentStreams;
+    private final Duration maxWaitTime;
+    private final Object lock = new Object();
+    private final Deque<CompletableFuture<Runnable>> waitingStreams = new ArrayDeque<>();
+    private int activeStreams;
+    private int peakActiveStreams;
+    private final AtomicLong streams = new AtomicLong();
+    private final AtomicLong http2Streams = new AtomicLong();
+    private final AtomicLong rejectedStreams = new AtomicLong();
+
+    JavaNetStreamMetrics(int maxConcurrentStreams, Duration maxWaitTime) {
+        this.maxConcurrentStreams = maxConcurrentStreams;
+        this.maxWaitTime = maxWaitTime;
+    }
+
+    /**
+     * @return the maximum number of streams open at the same time, {@link Integer#MAX_VALUE} if not limited
+     */
+    public int getMaxConcurrentStreams() {
+        return maxConcurrentStreams;
+    }
+
+    /**
+     * @return how long requests wait for a stream to be closed once the maximum number of streams is open
+     */
+    public Duration getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    public int getActiveStreams() {
+        synchronized (lock) {
+            return activeStreams;
+        }
+    }
+
+    public int getPeakActiveStreams() {
+        synchronized (lock) {
+            return peakActiveStreams;
+        }
+    }
+
+    /**
+     * @return the number of requests waiting for a stream to be closed
+     */
+    public int getWaitingStreams() {
+        synchronized (lock) {
+            return waitingStreams.size();
+        }
+    }
+
+    /**
+     * @return the number of streams that received a response
+     */
+    public long getStreams() {
+        return streams.get();
+    }
+
+    /**
+     * @return the number of streams that received a response over HTTP/2
+     */
+    public long getHttp2Streams() {
+        return http2Streams.get();
+    }
+
+    /**
+     * @return the number of requests that were not sent because no stream was closed within the maximum wait time
+     */
+    public long getRejectedStreams() {
+        return rejectedStreams.get();
+    }
+
+    /**
+     * Opens a stream, waiting up to the maximum wait time if the maximum number of concurrent streams is reached.
+     *
+     * @return closes the stream, calling it more than once has no effect
+     */
+    Runnable open() throws IOException {
+        final CompletableFuture<Runnable> stream = openAsync();
+        try {
+            return stream.get();
+        } catch (InterruptedException e) {
+            if (!stream.cancel(false) && !stream.isCompletedExceptionally()) {
+                // the stream was opened in the meantime
+                stream.join().run();
+            }
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a stream");
+        } catch (ExecutionException e) {
+            throw (IOException) e.getCause();
+        }
+    }
+
+    /**
+     * Opens a stream like {@link #open()}, without blocking the calling thread while waiting.
+     *
+     * @return completes with the function closing the stream, or with an {@link IOException} if no stream was closed
+     * within the maximum wait time
+     */
+    CompletableFuture<Runnable> openAsync() {
+        final CompletableFuture<Runnable> stream = new CompletableFuture<>();
+        synchronized (lock) {
+            if (activeStreams < maxConcurrentStreams && waitingStreams.isEmpty()) {
+                activeStreams++;
+                peakActiveStreams = Math.max(peakActiveStreams, activeStreams);
+                stream.complete(closer());
+                return stream;
+            }
+            waitingStreams.addLast(stream);
+        }
+        stream.whenComplete((closeStream, throwable) -> {
+            if (throwable != null) {
+                synchronized (lock) {
+                    waitingStreams.remove(stream);
+                }
+            }
+        });
+        CompletableFuture.delayedExecutor(maxWaitTime.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (stream.completeExceptionally(new IOException(String.format("Maximum number of [%d] concurrent streams reached, no stream was closed within [%s]", maxConcurrentStreams, maxWaitTime)))) {
+                rejectedStreams.incrementAndGet();
+            }
+        });
+        return stream;
+    }
+
+    private Runnable closer() {
+        final AtomicBoolean closed = new AtomicBoolean();
+        return () -> {
+            if (closed.compareAndSet(false, true)) {
+                close();
+            }
+        };
+    }
+
+    /**
+     * Hands the closed stream over to the longest waiting request, skipping requests that timed out or were cancelled.
+     */
+    private void close() {
+        while (true) {
+            final CompletableFuture<Runnable> next;
+            synchronized (lock) {
+                next = waitingStreams.pollFirst();
+                if (next == null) {
+                    activeStreams--;
+                    return;
+                }
+            }
+            // completed outside of the lock, since it sends the waiting request
+            if (next.complete(closer())) {
+                return;
+            }
+        }
+    }
+
+    void responded(HttpClient.Version version) {
+        streams.incrementAndGet();
+        if (version == HttpClient.Version.HTTP_2) {
+            http2Streams.incrementAndGet();
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            return "JavaNetStreamMetrics{" +
+                    "maxConcurrentStreams=" + maxConcurrentStreams +
+                    ", maxWaitTime=" + maxWaitTime +
+                    ", activeStreams=" + activeStreams +
+                    ", peakActiveStreams=" + peakActiveStreams +
+                    ", waitingStreams=" + waitingStreams.size() +
+                    ", streams=" + streams +
+                    ", http2Streams=" + http2Streams +
+                    ", rejectedStreams=" + rejectedStreams +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package org.zalando.fahrschein.http.jdk11;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Flow;
+
+/**
+ * A {@link HttpRequest.BodyPublisher} that is fed by writing to its {@link #outputStream()} on the calling thread,
+ * while the http client consumes the written chunks on its own threads.
+ *
+ * Writing blocks while {@link #MAX_PENDING_CHUNKS} chunks were not yet requested by the http client, so the body is
+ * never buffered completely. Writing fails once the request was aborted.
+ */
+final class StreamingBodyPublisher implements HttpRequest.BodyPublisher {
+
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final int MAX_PENDING_CHUNKS = 4;
+
+    private final long contentLength;
+
+    private final Object lock = new Object();
+    private final Queue<ByteBuffer> pending = new ArrayDeque<>();
+    private Flow.Subscriber<? super ByteBuffer> subscriber;
+    private long demand;
+    private boolean delivering;
+    private boolean completed;
+    private boolean completionSignalled;
+    private boolean cancelled;
+
+    StreamingBodyPublisher(long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        final boolean first;
+        synchronized (lock) {
+            first = this.subscriber == null;
+            if (first) {
+                this.subscriber = subscriber;
+            }
+        }
+
+        if (!first) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Streaming request body can only be sent once"));
+            return;
+        }
+
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    abort();
+                    subscriber.onError(new IllegalArgumentException("Requested number of chunks should be bigger than 0"));
+                    return;
+                }
+                synchronized (lock) {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                abort();
+            }
+        });
+        drain();
+    }
+
+    /**
+     * Makes pending and further writes fail, used when the request ended before the body was written completely.
+     */
+    void abort() {
+        synchronized (lock) {
+            cancelled = true;
+            pending.clear();
+            lock.notifyAll();
+        }
+    }
+
+    boolean isAborted() {
+        synchronized (lock) {
+            return cancelled;
+        }
+    }
+
+    OutputStream outputStream() {
+        return new OutputStream() {
+            private ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+            private boolean closed;
+
+            @Override
+            public void write(int b) throws IOException {
+                checkOpen();
+                if (!chunk.hasRemaining()) {
+                    publishChunk();
+                }
+                chunk.put((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                checkOpen();
+                while (len > 0) {
+                    if (!chunk.hasRemaining()) {
+                        publishChunk();
+                    }
+                    final int count = Math.min(len, chunk.remaining());
+                    chunk.put(b, off, count);
+                    off += count;
+                    len -= count;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (chunk.position() > 0) {
+                    publishChunk();
+                }
+                synchronized (lock) {
+                    completed = true;
+                }
+                drain();
+            }
+
+            private void publishChunk() throws IOException {
+                chunk.flip();
+                enqueue(chunk);
+                chunk = ByteBuffer.allocate(CHUNK_SIZE);
+            }
+
+            private void checkOpen() throws IOException {
+                if (closed) {
+                    throw new IOException("Stream was already closed");
+                }
+            }
+        };
+    }
+
+    private void enqueue(ByteBuffer chunk) throws IOException {
+        synchronized (lock) {
+            while (!cancelled && pending.size() >= MAX_PENDING_CHUNKS) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while writing request body");
+                }
+            }
+            if (cancelled) {
+                throw new IOException("Request was aborted before its body was written");
+            }
+            pending.add(chunk);
+        }
+        drain();
+    }
+
+    /**
+     * Delivers pending chunks as long as there is demand. Only one thread delivers at a time, as required for
+     * signalling the subscriber.
+     */
+    private void drain() {
+        synchronized (lock) {
+            if (delivering || subscriber == null) {
+                return;
+            }
+            delivering = true;
+        }
+
+        while (true) {
+            final ByteBuffer next;
+            synchronized (lock) {
+                if (cancelled) {
+                    delivering = false;
+                    return;
+                }
+                if (demand > 0 && !pending.isEmpty()) {
+                    next = pending.poll();
+                    demand--;
+                    lock.notifyAll();
+                } else if (pending.isEmpty() && completed && !completionSignalled) {
+                    completionSignalled = true;
+                    next = null;
+                } else {
+                    delivering = false;
+                    return;
+                }
+            }
+
+            if (next != null) {
+                subscriber.onNext(next);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+    }
+}
@@ -4,18 +4,37 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.zalando.fahrschein.http.api.AsyncRequestFactory;
+import org.zalando.fahrschein.http.api.AsyncResponse;
+import org.zalando.fahrschein.http.api.BodySubscriber;
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.ContentEncoding;
+import org.zalando.fahrschein.http.api.Headers;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.RequestFactory;
+import org.zalando.fahrschein.http.api.Response;
 import org.zalando.fahrschein.http.test.AbstractRequestFactoryTest;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.http.HttpClient;
 import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 @ExtendWith(MockitoExtension.class)
 public class JavaNetRequestFactoryTest extends AbstractRequestFactoryTest {
@@ -25,6 +44,11 @@ public class JavaNetRequestFactoryTest extends AbstractRequestFactoryTest {
         return new JavaNetRequestFactory(HttpClient.newHttpClient(), Optional.empty(), contentEncoding);
     }
 
+    @Override
+    public RequestFactory requestFactory(ContentDecoder contentDecoder) {
+        return new JavaNetRequestFactory(HttpClient.newHttpClient(), Optional.empty(), ContentEncoding.IDENTITY, new CompressorPool(), contentDecoder);
+    }
+
     @Test
     public void testTimeout() throws IOException {
         // given
@@ -41,4 +65,152 @@ public class JavaNetRequestFactoryTest extends AbstractRequestFactoryTest {
         assertThrows(HttpTimeoutException.class, () -> r.execute());
     }
 
+    @Test
+    public void testAsyncGzippedResponseBody() throws Exception {
+        // given
+        server.createContext("/async-gzipped", exchange -> {
+            exchange.getResponseHeaders().add(Headers.CONTENT_ENCODING, exchange.getRequestHeaders().getFirst(Headers.ACCEPT_ENCODING));
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = new GZIPOutputStream(exchange.getResponseBody())) {
+                out.write("{}".getBytes(UTF_8));
+            }
+        });
+
+        // when
+        AsyncRequestFactory f = new JavaNetRequestFactory(HttpClient.newHttpClient(), Optional.empty(), ContentEncoding.IDENTITY);
+        AsyncResponse response = f.createAsyncRequest(serverAddress.resolve("/async-gzipped"), "GET").executeAsync().get(10, TimeUnit.SECONDS);
+        CompletableFuture<String> body = new CompletableFuture<>();
+        response.subscribe(new BodySubscriber() {
+            private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+            @Override
+            public CompletionStage<?> onNext(ByteBuffer chunk) {
+                while (chunk.hasRemaining()) {
+                    bytes.write(chunk.get());
+                }
+                return null;
+            }
+
+            @Override
+            public void onComplete() {
+                body.complete(new String(bytes.toByteArray(), UTF_8));
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                body.completeExceptionally(throwable);
+            }
+        });
+
+        // then
+        assertEquals(200, response.getStatusCode());
+        assertEquals("{}", body.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testStreamMetrics() throws IOException {
+        // given
+        server.createContext("/metrics", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("{}".getBytes(UTF_8));
+            }
+        });
+        JavaNetRequestFactory f = new JavaNetRequestFactory(HttpClient.newHttpClient(), Optional.empty(), ContentEncoding.IDENTITY)
+                .withHttpVersion(HttpClient.Version.HTTP_1_1);
+
+        // when
+        Response response = f.createRequest(serverAddress.resolve("/metrics"), "GET").execute();
+
+        // then
+        JavaNetStreamMetrics metrics = f.getStreamMetrics();
+        assertEquals(1, metrics.getActiveStreams());
+        response.close();
+        assertEquals(0, metrics.getActiveStreams());
+        assertEquals(1, metrics.getPeakActiveStreams());
+        assertEquals(1, metrics.getStreams());
+        assertEquals(0, metrics.getHttp2Streams());
+    }
+
+    @Test
+    public void testStreamMetricsWhenBodyWasRead() throws IOException {
+        // given
+        server.createContext("/consumed", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("{}".getBytes(UTF_8));
+            }
+        });
+        JavaNetRequestFactory f = new JavaNetRequestFactory(HttpClient.newHttpClient(), Optional.empty(), ContentEncoding.IDENTITY);
+        Response response = f.createRequest(serverAddress.resolve("/consumed"), "GET").execute();
+
+        // when
+        assertEquals("{}", new String(response.getBody().readAllBytes(), UTF_8));
+
+        // then
+        assertEquals(0, f.getStreamMetrics().getActiveStreams());
+        response.close();
+        assertEquals(0, f.getStreamMetrics().getActiveStreams());
+    }
+
+    @Test
+    public void testMaxConcurrentStreams() throws Exception {
+        // given
+        server.createContext("/limited", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("{}".getBytes(UTF_8));
+            }
+        });
+        JavaNetRequestFactory f = new JavaNetRequestFactory(HttpClient.newHttpClient(), Optional.empty(), ContentEncoding.IDENTITY)
+                .withMaxConcurrentStreams(1, Duration.ofSeconds(10));
+        Response open = f.createRequest(serverAddress.resolve("/limited"), "GET").execute();
+
+        // when
+        CompletableFuture<AsyncResponse> waiting = f.createAsyncRequest(serverAddress.resolve("/limited"), "GET").executeAsync();
+
+        // then
+        assertFalse(waiting.isDone());
+        assertEquals(1, f.getStreamMetrics().getWaitingStreams());
+
+        open.close();
+        AsyncResponse response = waiting.get(10, TimeUnit.SECONDS);
+        assertEquals(200, response.getStatusCode());
+        assertEquals(1, f.getStreamMetrics().getActiveStreams());
+        assertEquals(0, f.getStreamMetrics().getWaitingStreams());
+        response.close();
+        assertEquals(0, f.getStreamMetrics().getActiveStreams());
+        assertEquals(1, f.getStreamMetrics().getPeakActiveStreams());
+    }
+
+    @Test
+    public void testMaxConcurrentStreamsWaitTime() throws Exception {
+        // given
+        server.createContext("/exhausted", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("{}".getBytes(UTF_8));
+            }
+        });
+        JavaNetRequestFactory f = new JavaNetRequestFactory(HttpClient.newHttpClient(), Optional.empty(), ContentEncoding.IDENTITY)
+                .withMaxConcurrentStreams(1, Duration.ofMillis(50));
+        Response open = f.createRequest(serverAddress.resolve("/exhausted"), "GET").execute();
+
+        // when
+        IOException blocking = assertThrows(IOException.class, () -> f.createRequest(serverAddress.resolve("/exhausted"), "GET").execute());
+        ExecutionException async = assertThrows(ExecutionException.class, () -> f.createAsyncRequest(serverAddress.resolve("/exhausted"), "GET").executeAsync().get(10, TimeUnit.SECONDS));
+
+        // then
+        assertEquals("Maximum number of [1] concurrent streams reached, no stream was closed within [PT0.05S]", blocking.getMessage());
+        assertTrue(async.getCause() instanceof IOException);
+        assertEquals(2, f.getStreamMetrics().getRejectedStreams());
+        assertEquals(0, f.getStreamMetrics().getWaitingStreams());
+
+        open.close();
+        try (Response response = f.createRequest(serverAddress.resolve("/exhausted"), "GET").execute()) {
+            assertEquals(200, response.getStatusCode());
+        }
+        assertEquals(0, f.getStreamMetrics().getActiveStreams());
+    }
+
 }
@@ -1,10 +1,13 @@
 package org.zalando.fahrschein.http.simple;
 
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.ContentEncoding;
 import org.zalando.fahrschein.http.api.Headers;
 import org.zalando.fahrschein.http.api.HeadersImpl;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.Response;
+import org.zalando.fahrschein.http.api.StreamingBody;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -32,13 +35,19 @@ final class SimpleBufferingRequest implements Request {
     private final HttpURLConnection connection;
     private final Headers headers;
     private final ContentEncoding contentEncoding;
+    private final CompressorPool compressorPool;
+    private final ContentDecoder contentDecoder;
     private ByteArrayOutputStream bufferedOutput;
+    private StreamingBody streamingBody;
+    private long streamingContentLength;
     private boolean executed;
 
-    SimpleBufferingRequest(HttpURLConnection connection, ContentEncoding contentEncoding) {
+    SimpleBufferingRequest(HttpURLConnection connection, ContentEncoding contentEncoding, CompressorPool compressorPool, ContentDecoder contentDecoder) {
         this.connection = connection;
         this.headers = new HeadersImpl();
         this.contentEncoding = contentEncoding;
+        this.compressorPool = compressorPool;
+        this.contentDecoder = contentDecoder;
     }
 
     @Override
@@ -59,7 +68,7 @@ final class SimpleBufferingRequest implements Request {
         final int size = this.bufferedOutput != null ? this.bufferedOutput.size() : 0;
 
         final long contentLength = this.headers.getContentLength();
-        if (contentLength >= 0 && contentLength != size) {
+        if (this.streamingBody == null && contentLength >= 0 && contentLength != size) {
             throw new IllegalStateException("Invalid Content-Length header [" + contentLength + "], request size is [" + size + "]");
         }
 
@@ -73,9 +82,13 @@ final class SimpleBufferingRequest implements Request {
             }
         }
 
-        // allow gzip-compression from server response
+        // allow compression of the server response
         if (connection.getRequestProperty(Headers.ACCEPT_ENCODING) == null) {
-            connection.setRequestProperty(Headers.ACCEPT_ENCODING, "gzip");
+            connection.setRequestProperty(Headers.ACCEPT_ENCODING, this.contentDecoder.getAcceptEncoding());
+        }
+
+        if (this.streamingBody != null) {
+            return executeStreaming();
         }
 
         if (this.connection.getDoOutput()) {
@@ -93,11 +106,40 @@ final class SimpleBufferingRequest implements Request {
             this.connection.getResponseCode();
         }
 
-        final Response result = new SimpleResponse(this.connection);
+        final Response result = new SimpleResponse(this.connection, this.contentDecoder);
         this.bufferedOutput = null;
         return result;
     }
 
+    private Response executeStreaming() throws IOException {
+        final boolean encoded = this.contentEncoding.isSupported(getMethod()) && ContentEncoding.IDENTITY != this.contentEncoding;
+        if (encoded) {
+            this.connection.setRequestProperty(Headers.CONTENT_ENCODING, this.contentEncoding.value());
+        }
+
+        if (this.connection.getDoOutput()) {
+            if (!encoded && this.streamingContentLength >= 0) {
+                this.connection.setFixedLengthStreamingMode(this.streamingContentLength);
+            } else {
+                this.connection.setChunkedStreamingMode(0);
+            }
+        }
+
+        this.connection.connect();
+
+        if (this.connection.getDoOutput()) {
+            try (final OutputStream out = encoded ? this.compressorPool.wrap(this.contentEncoding, this.connection.getOutputStream()) : this.connection.getOutputStream()) {
+                this.streamingBody.writeTo(out);
+            }
+        } else {
+            this.connection.getResponseCode();
+        }
+
+        final Response result = new SimpleResponse(this.connection, this.contentDecoder);
+        this.streamingBody = null;
+        return result;
+    }
+
     @Override
     public final Headers getHeaders() {
         return (this.executed ? new HeadersImpl(this.headers, true) : this.headers);
@@ -106,6 +148,9 @@ final class SimpleBufferingRequest implements Request {
     @Override
     public final OutputStream getBody() throws IOException {
         assertNotExecuted();
+        if (this.streamingBody != null) {
+            throw new IllegalStateException("Request body is already streamed");
+        }
         if (this.bufferedOutput == null) {
             this.bufferedOutput = new ByteArrayOutputStream(1024);
             if (this.contentEncoding.isSupported(getMethod())) {
@@ -114,12 +159,22 @@ final class SimpleBufferingRequest implements Request {
                 if (ContentEncoding.IDENTITY != this.contentEncoding) {
                     this.connection.setRequestProperty(Headers.CONTENT_ENCODING, this.contentEncoding.value());
                 }
-                return this.contentEncoding.wrap(this.bufferedOutput);
+                return this.compressorPool.wrap(this.contentEncoding, this.bufferedOutput);
             }
         }
         return this.bufferedOutput;
     }
 
+    @Override
+    public final void setBody(StreamingBody body, long contentLength) {
+        assertNotExecuted();
+        if (this.bufferedOutput != null) {
+            throw new IllegalStateException("Request body is already buffered");
+        }
+        this.streamingBody = body;
+        this.streamingContentLength = contentLength;
+    }
+
     @Override
     public final Response execute() throws IOException {
         assertNotExecuted();
@@ -1,5 +1,7 @@
 package org.zalando.fahrschein.http.simple;
 
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.ContentEncoding;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.RequestFactory;
@@ -29,9 +31,30 @@ public class SimpleRequestFactory implements RequestFactory {
     private int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
     private int readTimeout = DEFAULT_READ_TIMEOUT;
     private final ContentEncoding contentEncoding;
+    private final CompressorPool compressorPool;
+    private final ContentDecoder contentDecoder;
 
     public SimpleRequestFactory(ContentEncoding contentEncoding) {
+        this(contentEncoding, new CompressorPool());
+    }
+
+    /**
+     * @param contentEncoding the encoding for publishing events
+     * @param compressorPool reuses compressors across the requests of this factory
+     */
+    public SimpleRequestFactory(ContentEncoding contentEncoding, CompressorPool compressorPool) {
+        this(contentEncoding, compressorPool, new ContentDecoder());
+    }
+
+    /**
+     * @param contentEncoding the encoding for publishing events
+     * @param compressorPool reuses compressors across the requests of this factory
+     * @param contentDecoder the accepted encodings of responses and their decoding
+     */
+    public SimpleRequestFactory(ContentEncoding contentEncoding, CompressorPool compressorPool, ContentDecoder contentDecoder) {
         this.contentEncoding = contentEncoding;
+        this.compressorPool = compressorPool;
+        this.contentDecoder = contentDecoder;
     }
 
     /**
@@ -61,7 +84,7 @@ public class SimpleRequestFactory implements RequestFactory {
         HttpURLConnection connection = openConnection(uri.toURL());
         prepareConnection(connection, method);
 
-        return new SimpleBufferingRequest(connection, contentEncoding);
+        return new SimpleBufferingRequest(connection, contentEncoding, compressorPool, contentDecoder);
     }
 
     /**
@@ -1,5 +1,6 @@
 package org.zalando.fahrschein.http.simple;
 
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.Headers;
 import org.zalando.fahrschein.http.api.HeadersImpl;
 import org.zalando.fahrschein.http.api.Response;
@@ -7,7 +8,6 @@ import org.zalando.fahrschein.http.api.Response;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
-import java.util.zip.GZIPInputStream;
 
 /**
  * {@link Response} implementation that uses standard JDK facilities.
@@ -23,11 +23,13 @@ import java.util.zip.GZIPInputStream;
 final class SimpleResponse implements Response {
 
     private final HttpURLConnection connection;
+    private final ContentDecoder contentDecoder;
     private Headers headers;
     private InputStream responseStream;
 
-    SimpleResponse(HttpURLConnection connection) {
+    SimpleResponse(HttpURLConnection connection, ContentDecoder contentDecoder) {
         this.connection = connection;
+        this.contentDecoder = contentDecoder;
     }
 
     @Override
@@ -68,10 +70,8 @@ final class SimpleResponse implements Response {
     public InputStream getBody() throws IOException {
         if (this.responseStream == null) {
             final InputStream errorStream = connection.getErrorStream();
-            this.responseStream = (errorStream != null ? errorStream : connection.getInputStream());
-            if (this.getHeaders().get(Headers.CONTENT_ENCODING).contains("gzip")) {
-                this.responseStream = new GZIPInputStream(this.responseStream);
-            }
+            final InputStream stream = (errorStream != null ? errorStream : connection.getInputStream());
+            this.responseStream = this.contentDecoder.decode(this.getHeaders(), stream);
         }
         return this.responseStream;
     }
@@ -3,6 +3,8 @@ package org.zalando.fahrschein.http.simple;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.ContentEncoding;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.RequestFactory;
@@ -37,4 +39,9 @@ public class SimpleRequestFactoryTest extends AbstractRequestFactoryTest {
     public RequestFactory defaultRequestFactory(ContentEncoding contentEncoding) {
         return new SimpleRequestFactory(contentEncoding);
     }
+
+    @Override
+    public RequestFactory requestFactory(ContentDecoder contentDecoder) {
+        return new SimpleRequestFactory(ContentEncoding.IDENTITY, new CompressorPool(), contentDecoder);
+    }
 }
@@ -1,11 +1,16 @@
 package org.zalando.fahrschein.http.spring;
 
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.util.StreamUtils;
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.ContentEncoding;
 import org.zalando.fahrschein.http.api.Headers;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.Response;
+import org.zalando.fahrschein.http.api.StreamingBody;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -17,10 +22,16 @@ import java.util.zip.GZIPOutputStream;
 class RequestAdapter implements Request {
     private final ClientHttpRequest clientHttpRequest;
     private final ContentEncoding contentEncoding;
+    private final CompressorPool compressorPool;
+    private final ContentDecoder contentDecoder;
 
-    RequestAdapter(ClientHttpRequest clientHttpRequest, ContentEncoding contentEncoding) {
+    RequestAdapter(ClientHttpRequest clientHttpRequest, ContentEncoding contentEncoding, CompressorPool compressorPool, ContentDecoder contentDecoder) {
         this.clientHttpRequest = clientHttpRequest;
         this.contentEncoding = contentEncoding;
+        this.compressorPool = compressorPool;
+        this.contentDecoder = contentDecoder;
+        // set right away, as streaming requests send their headers once the body is written
+        clientHttpRequest.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, contentDecoder.getAcceptEncoding());
     }
 
     @Override
@@ -46,13 +57,39 @@ class RequestAdapter implements Request {
             if (ContentEncoding.IDENTITY != this.contentEncoding) {
                 clientHttpRequest.getHeaders().set(HttpHeaders.CONTENT_ENCODING, contentEncoding.value());
             }
-            return this.contentEncoding.wrap(clientHttpRequest.getBody());
+            return this.compressorPool.wrap(this.contentEncoding, clientHttpRequest.getBody());
         }
         return clientHttpRequest.getBody();
     }
 
+    /**
+     * Streams the body if the underlying request supports it, for example when created by a
+     * {@code SimpleClientHttpRequestFactory} with buffering disabled.
+     */
+    @Override
+    public void setBody(StreamingBody body, long contentLength) throws IOException {
+        if (!(clientHttpRequest instanceof StreamingHttpOutputMessage)) {
+            Request.super.setBody(body, contentLength);
+            return;
+        }
+
+        final boolean encoded = this.contentEncoding.isSupported(getMethod()) && ContentEncoding.IDENTITY != this.contentEncoding;
+        if (encoded) {
+            clientHttpRequest.getHeaders().set(HttpHeaders.CONTENT_ENCODING, contentEncoding.value());
+        } else if (contentLength >= 0) {
+            clientHttpRequest.getHeaders().setContentLength(contentLength);
+        }
+
+        ((StreamingHttpOutputMessage) clientHttpRequest).setBody(outputStream -> {
+            // finishes the compression without closing the stream owned by the request
+            try (final OutputStream out = encoded ? compressorPool.wrap(contentEncoding, StreamUtils.nonClosing(outputStream)) : StreamUtils.nonClosing(outputStream)) {
+                body.writeTo(out);
+            }
+        });
+    }
+
     @Override
     public Response execute() throws IOException {
-        return new ResponseAdapter(clientHttpRequest.execute());
+        return new ResponseAdapter(clientHttpRequest.execute(), contentDecoder);
     }
 }
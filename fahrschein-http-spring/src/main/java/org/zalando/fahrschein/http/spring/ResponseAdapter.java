@@ -1,6 +1,7 @@
 package org.zalando.fahrschein.http.spring;
 
 import org.springframework.http.client.ClientHttpResponse;
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.Headers;
 import org.zalando.fahrschein.http.api.Response;
 
@@ -9,9 +10,12 @@ import java.io.InputStream;
 
 class ResponseAdapter implements Response {
     private final ClientHttpResponse clientHttpResponse;
+    private final ContentDecoder contentDecoder;
+    private InputStream body;
 
-    ResponseAdapter(ClientHttpResponse clientHttpResponse) {
+    ResponseAdapter(ClientHttpResponse clientHttpResponse, ContentDecoder contentDecoder) {
         this.clientHttpResponse = clientHttpResponse;
+        this.contentDecoder = contentDecoder;
     }
 
     @Override
@@ -31,11 +35,22 @@ class ResponseAdapter implements Response {
 
     @Override
     public InputStream getBody() throws IOException {
-        return clientHttpResponse.getBody();
+        if (body == null) {
+            body = contentDecoder.decode(getHeaders(), clientHttpResponse.getBody());
+        }
+        return body;
     }
 
     @Override
     public void close() {
         clientHttpResponse.close();
+        // returns the decompressor, only after closing the response, so that the rest of the body is not read
+        if (body != null) {
+            try {
+                body.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
     }
 }
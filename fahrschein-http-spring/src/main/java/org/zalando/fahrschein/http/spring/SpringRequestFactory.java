@@ -2,6 +2,8 @@ package org.zalando.fahrschein.http.spring;
 
 import org.springframework.http.HttpMethod;
 import org.springframework.http.client.ClientHttpRequestFactory;
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.ContentEncoding;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.RequestFactory;
@@ -12,14 +14,26 @@ import java.net.URI;
 public class SpringRequestFactory implements RequestFactory {
     private final ClientHttpRequestFactory clientRequestFactory;
     private final ContentEncoding contentEncoding;
+    private final CompressorPool compressorPool;
+    private final ContentDecoder contentDecoder;
 
     public SpringRequestFactory(ClientHttpRequestFactory clientRequestFactory, ContentEncoding contentEncoding) {
+        this(clientRequestFactory, contentEncoding, new CompressorPool());
+    }
+
+    public SpringRequestFactory(ClientHttpRequestFactory clientRequestFactory, ContentEncoding contentEncoding, CompressorPool compressorPool) {
+        this(clientRequestFactory, contentEncoding, compressorPool, new ContentDecoder());
+    }
+
+    public SpringRequestFactory(ClientHttpRequestFactory clientRequestFactory, ContentEncoding contentEncoding, CompressorPool compressorPool, ContentDecoder contentDecoder) {
         this.clientRequestFactory = clientRequestFactory;
         this.contentEncoding = contentEncoding;
+        this.compressorPool = compressorPool;
+        this.contentDecoder = contentDecoder;
     }
 
     @Override
     public Request createRequest(URI uri, String method) throws IOException {
-        return new RequestAdapter(clientRequestFactory.createRequest(uri, HttpMethod.valueOf(method)), contentEncoding);
+        return new RequestAdapter(clientRequestFactory.createRequest(uri, HttpMethod.valueOf(method)), contentEncoding, compressorPool, contentDecoder);
     }
 }
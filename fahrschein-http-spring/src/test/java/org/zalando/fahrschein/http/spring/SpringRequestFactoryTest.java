@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.ContentEncoding;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.RequestFactory;
@@ -48,4 +50,10 @@ public class SpringRequestFactoryTest extends AbstractRequestFactoryTest {
         final SpringRequestFactory f = new SpringRequestFactory(clientHttpRequestFactory, contentEncoding);
         return f;
     }
+
+    @Override
+    public RequestFactory requestFactory(ContentDecoder contentDecoder) {
+        final OkHttp3ClientHttpRequestFactory clientHttpRequestFactory = new OkHttp3ClientHttpRequestFactory(new OkHttpClient.Builder().build());
+        return new SpringRequestFactory(clientHttpRequestFactory, ContentEncoding.IDENTITY, new CompressorPool(), contentDecoder);
+    }
 }
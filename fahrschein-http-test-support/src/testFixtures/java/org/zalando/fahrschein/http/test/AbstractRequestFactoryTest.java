@@ -1,6 +1,7 @@
 package org.zalando.fahrschein.http.test;
 
 import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mockito;
+import org.zalando.fahrschein.http.api.ContentDecoder;
 import org.zalando.fahrschein.http.api.ContentEncoding;
 import org.zalando.fahrschein.http.api.ContentType;
 import org.zalando.fahrschein.http.api.Headers;
@@ -40,6 +42,8 @@ public abstract class AbstractRequestFactoryTest {
 
     public abstract RequestFactory defaultRequestFactory(ContentEncoding contentEncoding);
 
+    public abstract RequestFactory requestFactory(ContentDecoder contentDecoder);
+
     protected static HttpServer server;
     protected static URI serverAddress;
 
@@ -77,6 +81,30 @@ public abstract class AbstractRequestFactoryTest {
         assertEquals(expectedResponse, actualResponse);
     }
 
+    @Test
+    public void testNegotiatedResponseEncoding() throws IOException {
+        for (ContentEncoding encoding : new ContentEncoding[]{ContentEncoding.ZSTD, ContentEncoding.GZIP}) {
+            // given
+            String expectedResponse = "{\"items\":[]}";
+            HttpHandler spy = Mockito.spy(new NegotiatingResponseContentHandler(expectedResponse));
+            String requestPath = "/negotiated-" + encoding.value();
+            server.createContext(requestPath, spy);
+
+            // when
+            final RequestFactory f = requestFactory(new ContentDecoder(encoding, ContentEncoding.GZIP));
+            Request r = f.createRequest(serverAddress.resolve(requestPath), "GET");
+            Response executed = r.execute();
+            String actualResponse = readStream(executed.getBody());
+            executed.close();
+
+            // then
+            Mockito.verify(spy).handle(exchangeCaptor.capture());
+            HttpExchange capturedArgument = exchangeCaptor.getValue();
+            assertThat("accept-encoding header", capturedArgument.getRequestHeaders().getFirst("accept-encoding"), startsWith(encoding.value()));
+            assertEquals(expectedResponse, actualResponse);
+        }
+    }
+
     @Test
     public void testEncodedRequestBody() throws IOException {
         for(ContentEncoding encoding : ContentEncoding.values()) {
@@ -116,6 +144,47 @@ public abstract class AbstractRequestFactoryTest {
         assertEquals(responseBody, actualResponse);
     }
 
+    @Test
+    public void testStreamingRequestBody() throws IOException {
+        for(ContentEncoding encoding : ContentEncoding.values()) {
+            doTestStreamingRequestBody(encoding, -1);
+        }
+        doTestStreamingRequestBody(ContentEncoding.IDENTITY, 100_002);
+    }
+
+    void doTestStreamingRequestBody(ContentEncoding encoding, long contentLength) throws IOException {
+        // given
+        final StringBuilder sb = new StringBuilder(100_002).append('"');
+        for (int i = 0; i < 100_000; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        String requestBody = sb.append('"').toString();
+        String responseBody = "{}";
+        SimpleRequestResponseContentHandler spy = Mockito.spy(new SimpleRequestResponseContentHandler(responseBody));
+        String requestPath = "/streaming-" + encoding.value() + (contentLength < 0 ? "-chunked" : "-fixed");
+        server.createContext(requestPath, spy);
+
+        // when
+        final RequestFactory f = defaultRequestFactory(encoding);
+        Request r = f.createRequest(serverAddress.resolve(requestPath), "POST");
+        r.getHeaders().setContentType(ContentType.APPLICATION_JSON);
+        r.setBody(out -> out.write(requestBody.getBytes(UTF_8)), contentLength);
+        Response executed = r.execute();
+        String actualResponse = readStream(executed.getBody());
+
+        // then
+        Mockito.verify(spy).handle(exchangeCaptor.capture());
+        HttpExchange capturedArgument = exchangeCaptor.getValue();
+        assertEquals("POST", capturedArgument.getRequestMethod());
+        if (encoding == ContentEncoding.IDENTITY) {
+            assertThat("no content-encoding header", capturedArgument.getRequestHeaders().get(Headers.CONTENT_ENCODING), is(nullValue()));
+        } else {
+            assertThat("content-encoding header", capturedArgument.getRequestHeaders().get(Headers.CONTENT_ENCODING), equalTo(Arrays.asList(encoding.value())));
+        }
+        assertEquals(requestBody, spy.getRequestBody());
+        assertEquals(responseBody, actualResponse);
+    }
+
     static String readStream(InputStream stream) throws IOException {
         String res = new BufferedReader(
                 new InputStreamReader(stream, UTF_8))
@@ -160,6 +229,35 @@ public abstract class AbstractRequestFactoryTest {
         }
     }
 
+    /**
+     * Encodes the response using the first encoding of the {@code Accept-Encoding} header.
+     */
+    private static class NegotiatingResponseContentHandler implements HttpHandler {
+
+        private final byte[] response;
+
+        NegotiatingResponseContentHandler(String response) {
+            this.response = response.getBytes(UTF_8);
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            final String acceptEncoding = exchange.getRequestHeaders().getFirst(Headers.ACCEPT_ENCODING);
+            final String encoding = acceptEncoding == null ? "identity" : acceptEncoding.split(",")[0].trim();
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (OutputStream out = "zstd".equals(encoding) ? new ZstdOutputStream(bytes) : "gzip".equals(encoding) ? new GZIPOutputStream(bytes) : bytes) {
+                out.write(response);
+            }
+            if (!"identity".equals(encoding)) {
+                exchange.getResponseHeaders().set(Headers.CONTENT_ENCODING, encoding);
+            }
+            exchange.sendResponseHeaders(200, bytes.size());
+            OutputStream responseBody = exchange.getResponseBody();
+            bytes.writeTo(responseBody);
+            responseBody.close();
+        }
+    }
+
     private static class GzippedResponseContentHandler implements HttpHandler {
 
         private final byte[] rawResponse;
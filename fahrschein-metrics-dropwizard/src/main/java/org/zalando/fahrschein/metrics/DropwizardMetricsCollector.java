@@ -1,29 +1,46 @@
 package org.zalando.fahrschein.metrics;
 
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import org.zalando.fahrschein.MetricsCollector;
+import org.zalando.fahrschein.http.api.ContentEncoding;
+
+import java.util.concurrent.TimeUnit;
 
 public class DropwizardMetricsCollector implements MetricsCollector {
 
     public static final String DEFAULT_PREFIX = "org.zalando.fahrschein.";
 
+    private final MetricRegistry metricRegistry;
+    private final String prefix;
+
     private final Meter messagesReceivedMeter;
     private final Meter eventsReceivedMeter;
     private final Meter errorsWhileConsumingMeter;
     private final Meter reconnectionsMeter;
     private final Meter messagesSuccessfullyProcessedMeter;
+    private final Meter batchBudgetExceededMeter;
+    private final Meter outboxEventsDrainedMeter;
+    private volatile long outboxBacklogEvents;
+    private volatile long outboxBacklogBytes;
 
     public DropwizardMetricsCollector(final MetricRegistry metricRegistry) {
         this(metricRegistry, DEFAULT_PREFIX);
     }
 
     public DropwizardMetricsCollector(final MetricRegistry metricRegistry, final String prefix) {
+        this.metricRegistry = metricRegistry;
+        this.prefix = prefix;
         messagesReceivedMeter = metricRegistry.meter(prefix + "messagesReceived");
         eventsReceivedMeter = metricRegistry.meter(prefix + "eventsReceived");
         errorsWhileConsumingMeter = metricRegistry.meter(prefix + "errorsWhileConsuming");
         reconnectionsMeter = metricRegistry.meter(prefix + "reconnections");
         messagesSuccessfullyProcessedMeter = metricRegistry.meter(prefix + "messagesSuccessfullyProcessed");
+        batchBudgetExceededMeter = metricRegistry.meter(prefix + "batchBudgetExceeded");
+        outboxEventsDrainedMeter = metricRegistry.meter(prefix + "outboxEventsDrained");
+        metricRegistry.gauge(prefix + "outboxBacklogEvents", () -> (Gauge<Long>) () -> outboxBacklogEvents);
+        metricRegistry.gauge(prefix + "outboxBacklogBytes", () -> (Gauge<Long>) () -> outboxBacklogBytes);
     }
 
     @Override
@@ -50,4 +67,32 @@ public class DropwizardMetricsCollector implements MetricsCollector {
     public void markMessageSuccessfullyProcessed() {
         messagesSuccessfullyProcessedMeter.mark();
     }
+
+    @Override
+    public void markBatchBudgetExceeded() {
+        batchBudgetExceededMeter.mark();
+    }
+
+    @Override
+    public void markOutboxBacklog(final long events, final long bytes) {
+        outboxBacklogEvents = events;
+        outboxBacklogBytes = bytes;
+    }
+
+    @Override
+    public void markOutboxEventsDrained(final int size) {
+        outboxEventsDrainedMeter.mark(size);
+    }
+
+    /**
+     * Registers the metrics per endpoint and encoding on first use, for example as
+     * {@code requestBody.event-types.foo.events.gzip.compressedBytes}.
+     */
+    @Override
+    public void markRequestBodyEncoded(final String endpoint, final ContentEncoding contentEncoding, final long uncompressedBytes, final long compressedBytes, final long encodingNanos) {
+        final String name = prefix + "requestBody." + endpoint.replaceFirst("^/+", "").replace('/', '.') + "." + contentEncoding.value();
+        metricRegistry.meter(name + ".uncompressedBytes").mark(uncompressedBytes);
+        metricRegistry.meter(name + ".compressedBytes").mark(compressedBytes);
+        metricRegistry.timer(name + ".encodingTime").update(encodingNanos, TimeUnit.NANOSECONDS);
+    }
 }
@@ -1,6 +1,7 @@
 package org.zalando.fahrschein.metrics;
 
 import org.zalando.fahrschein.MetricsCollector;
+import org.zalando.fahrschein.http.api.ContentEncoding;
 
 import java.util.Collection;
 import java.util.LinkedList;
@@ -34,6 +35,26 @@ public class MultiplexingMetricsCollector implements MetricsCollector {
         delegates.stream().forEach(mc -> mc.markMessageSuccessfullyProcessed());
     }
 
+    @Override
+    public void markBatchBudgetExceeded() {
+        delegates.stream().forEach(mc -> mc.markBatchBudgetExceeded());
+    }
+
+    @Override
+    public void markOutboxBacklog(final long events, final long bytes) {
+        delegates.stream().forEach(mc -> mc.markOutboxBacklog(events, bytes));
+    }
+
+    @Override
+    public void markOutboxEventsDrained(final int size) {
+        delegates.stream().forEach(mc -> mc.markOutboxEventsDrained(size));
+    }
+
+    @Override
+    public void markRequestBodyEncoded(final String endpoint, final ContentEncoding contentEncoding, final long uncompressedBytes, final long compressedBytes, final long encodingNanos) {
+        delegates.stream().forEach(mc -> mc.markRequestBodyEncoded(endpoint, contentEncoding, uncompressedBytes, compressedBytes, encodingNanos));
+    }
+
     public MultiplexingMetricsCollector register(final MetricsCollector metricsCollector) {
         delegates.add(metricsCollector);
         return this;
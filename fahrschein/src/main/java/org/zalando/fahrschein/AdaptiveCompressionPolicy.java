@@ -0,0 +1,93 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.http.api.ContentEncoding;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+
+/**
+ * Configures how an {@link AdaptiveCompressionRequestFactory} chooses the encoding of request bodies.
+ *
+ * Bodies smaller than {@link #withMinimumBytes(long) minimumBytes} are sent uncompressed. For bigger ones the encoding
+ * with the lowest estimated cost is used, which is the measured CPU time for encoding the body plus the time for
+ * transferring the encoded body at the given {@link #withNetworkBytesPerSecond(long) network throughput}. Every
+ * {@link #withSampleInterval(int) sampleInterval} requests to an endpoint another encoding is tried, so the estimates
+ * follow changes in the payload.
+ */
+public final class AdaptiveCompressionPolicy {
+
+    public static final long DEFAULT_MINIMUM_BYTES = 1024;
+    public static final long DEFAULT_NETWORK_BYTES_PER_SECOND = 12_500_000;
+    public static final int DEFAULT_SAMPLE_INTERVAL = 100;
+
+    private final long minimumBytes;
+    private final List<ContentEncoding> contentEncodings;
+    private final long networkBytesPerSecond;
+    private final int sampleInterval;
+
+    private AdaptiveCompressionPolicy(long minimumBytes, List<ContentEncoding> contentEncodings, long networkBytesPerSecond, int sampleInterval) {
+        this.minimumBytes = minimumBytes;
+        this.contentEncodings = contentEncodings;
+        this.networkBytesPerSecond = networkBytesPerSecond;
+        this.sampleInterval = sampleInterval;
+    }
+
+    public AdaptiveCompressionPolicy() {
+        this(DEFAULT_MINIMUM_BYTES, Collections.unmodifiableList(Arrays.asList(ContentEncoding.GZIP, ContentEncoding.ZSTD)), DEFAULT_NETWORK_BYTES_PER_SECOND, DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * @param minimumBytes bodies with fewer bytes are never compressed
+     */
+    public AdaptiveCompressionPolicy withMinimumBytes(long minimumBytes) {
+        checkArgument(minimumBytes >= 0, "Minimum bytes should not be negative");
+        return new AdaptiveCompressionPolicy(minimumBytes, contentEncodings, networkBytesPerSecond, sampleInterval);
+    }
+
+    /**
+     * @param contentEncodings the compressing encodings to choose from, in addition to {@link ContentEncoding#IDENTITY}
+     */
+    public AdaptiveCompressionPolicy withContentEncodings(ContentEncoding... contentEncodings) {
+        final Set<ContentEncoding> encodings = new LinkedHashSet<>(Arrays.asList(contentEncodings));
+        encodings.remove(ContentEncoding.IDENTITY);
+        return new AdaptiveCompressionPolicy(minimumBytes, Collections.unmodifiableList(Arrays.asList(encodings.toArray(new ContentEncoding[0]))), networkBytesPerSecond, sampleInterval);
+    }
+
+    /**
+     * @param networkBytesPerSecond the expected throughput to Nakadi, lower values favor stronger compression
+     */
+    public AdaptiveCompressionPolicy withNetworkBytesPerSecond(long networkBytesPerSecond) {
+        checkArgument(networkBytesPerSecond > 0, "Network bytes per second should be positive");
+        return new AdaptiveCompressionPolicy(minimumBytes, contentEncodings, networkBytesPerSecond, sampleInterval);
+    }
+
+    /**
+     * @param sampleInterval the number of requests to an endpoint after which an encoding other than the currently
+     *                       best one is tried
+     */
+    public AdaptiveCompressionPolicy withSampleInterval(int sampleInterval) {
+        checkArgument(sampleInterval > 0, "Sample interval should be positive");
+        return new AdaptiveCompressionPolicy(minimumBytes, contentEncodings, networkBytesPerSecond, sampleInterval);
+    }
+
+    public long getMinimumBytes() {
+        return minimumBytes;
+    }
+
+    public List<ContentEncoding> getContentEncodings() {
+        return contentEncodings;
+    }
+
+    public long getNetworkBytesPerSecond() {
+        return networkBytesPerSecond;
+    }
+
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+}
@@ -0,0 +1,174 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentEncoding;
+import org.zalando.fahrschein.http.api.Headers;
+import org.zalando.fahrschein.http.api.Request;
+import org.zalando.fahrschein.http.api.Response;
+import org.zalando.fahrschein.http.api.StreamingBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+
+/**
+ * Encodes the body once its size is known, using the encoding selected by the {@link CompressionStatistics} of the
+ * endpoint, and records the achieved ratio and CPU time.
+ */
+final class AdaptiveCompressionRequest implements Request {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Counts the bytes written, closing only flushes, as the delegate closes the underlying stream.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    private final Request request;
+    private final String endpoint;
+    private final CompressionStatistics statistics;
+    private final CompressorPool compressorPool;
+    private final MetricsCollector metricsCollector;
+    private ByteArrayOutputStream bufferedOutput;
+    private StreamingBody streamingBody;
+    private long streamingContentLength;
+
+    AdaptiveCompressionRequest(Request request, String endpoint, CompressionStatistics statistics, CompressorPool compressorPool, MetricsCollector metricsCollector) {
+        this.request = request;
+        this.endpoint = endpoint;
+        this.statistics = statistics;
+        this.compressorPool = compressorPool;
+        this.metricsCollector = metricsCollector;
+    }
+
+    @Override
+    public String getMethod() {
+        return request.getMethod();
+    }
+
+    @Override
+    public URI getURI() {
+        return request.getURI();
+    }
+
+    @Override
+    public Headers getHeaders() {
+        return request.getHeaders();
+    }
+
+    @Override
+    public OutputStream getBody() throws IOException {
+        if (!isCompressible()) {
+            return request.getBody();
+        }
+        if (streamingBody != null) {
+            throw new IllegalStateException("Request body is already streamed");
+        }
+        if (bufferedOutput == null) {
+            bufferedOutput = new ByteArrayOutputStream(1024);
+        }
+        return bufferedOutput;
+    }
+
+    @Override
+    public void setBody(StreamingBody body, long contentLength) throws IOException {
+        if (!isCompressible()) {
+            request.setBody(body, contentLength);
+            return;
+        }
+        if (bufferedOutput != null) {
+            throw new IllegalStateException("Request body is already buffered");
+        }
+        this.streamingBody = body;
+        this.streamingContentLength = contentLength;
+    }
+
+    @Override
+    public Response execute() throws IOException {
+        if (bufferedOutput != null) {
+            final ByteArrayOutputStream body = bufferedOutput;
+            final ContentEncoding contentEncoding = select(body.size());
+            try (final OutputStream out = request.getBody()) {
+                encode(contentEncoding, out, body::writeTo);
+            }
+            bufferedOutput = null;
+        } else if (streamingBody != null) {
+            final StreamingBody body = streamingBody;
+            final ContentEncoding contentEncoding = select(streamingContentLength);
+            final long contentLength = ContentEncoding.IDENTITY == contentEncoding ? streamingContentLength : -1;
+            request.setBody(out -> encode(contentEncoding, out, body), contentLength);
+            streamingBody = null;
+        }
+        return request.execute();
+    }
+
+    private boolean isCompressible() {
+        // all encodings support the same methods
+        return ContentEncoding.IDENTITY.isSupported(getMethod());
+    }
+
+    private ContentEncoding select(long contentLength) {
+        final ContentEncoding contentEncoding = statistics.select(contentLength);
+        if (ContentEncoding.IDENTITY != contentEncoding) {
+            request.getHeaders().put(Headers.CONTENT_ENCODING, contentEncoding.value());
+        }
+        return contentEncoding;
+    }
+
+    private void encode(ContentEncoding contentEncoding, OutputStream out, StreamingBody body) throws IOException {
+        final CountingOutputStream compressed = new CountingOutputStream(out);
+        final long start = cpuTime();
+        final OutputStream encoder = compressorPool.wrap(contentEncoding, compressed);
+        final CountingOutputStream uncompressed = new CountingOutputStream(encoder);
+        try {
+            body.writeTo(uncompressed);
+        } finally {
+            // finishes the encoding, even if the body closed the stream it was given
+            encoder.close();
+        }
+        final long nanos = cpuTime() - start;
+
+        statistics.record(contentEncoding, uncompressed.count, compressed.count, nanos);
+        metricsCollector.markRequestBodyEncoded(endpoint, contentEncoding, uncompressed.count, compressed.count, nanos);
+    }
+
+    /**
+     * The CPU time of the current thread, so that time blocked on the connection is not attributed to the encoding.
+     */
+    private static long cpuTime() {
+        if (THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()) {
+            final long cpuTime = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+            if (cpuTime >= 0) {
+                return cpuTime;
+            }
+        }
+        return System.nanoTime();
+    }
+}
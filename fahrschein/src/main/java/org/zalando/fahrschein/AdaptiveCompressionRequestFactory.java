@@ -0,0 +1,89 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentEncoding;
+import org.zalando.fahrschein.http.api.Request;
+import org.zalando.fahrschein.http.api.RequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.zalando.fahrschein.Preconditions.checkNotNull;
+
+/**
+ * Chooses the encoding of each request body depending on its size and on the compression ratio and CPU time measured
+ * for earlier requests to the same endpoint, see {@link AdaptiveCompressionPolicy}.
+ *
+ * The delegate should be created with {@link ContentEncoding#IDENTITY}, as this factory compresses the bodies itself.
+ * The size, compressed size and encoding time of every body are reported to
+ * {@link MetricsCollector#markRequestBodyEncoded(String, ContentEncoding, long, long, long)}, using the path of the
+ * request as endpoint. Names of event types, ids of subscriptions and partitions in the path are replaced by
+ * placeholders like {@code /event-types/{name}/events}, so that the number of endpoints does not grow with them.
+ * Requests without a body, like {@code GET} requests, are passed to the delegate unchanged.
+ */
+public class AdaptiveCompressionRequestFactory implements RequestFactory {
+
+    private final RequestFactory delegate;
+    private final AdaptiveCompressionPolicy policy;
+    private final CompressorPool compressorPool;
+    private final MetricsCollector metricsCollector;
+    private final ConcurrentMap<String, CompressionStatistics> statistics = new ConcurrentHashMap<>();
+
+    public AdaptiveCompressionRequestFactory(RequestFactory delegate) {
+        this(delegate, new AdaptiveCompressionPolicy(), new CompressorPool(), NoMetricsCollector.NO_METRICS_COLLECTOR);
+    }
+
+    public AdaptiveCompressionRequestFactory(RequestFactory delegate, AdaptiveCompressionPolicy policy, CompressorPool compressorPool, MetricsCollector metricsCollector) {
+        this.delegate = checkNotNull(delegate, "Delegate should not be null");
+        this.policy = checkNotNull(policy, "Policy should not be null");
+        this.compressorPool = checkNotNull(compressorPool, "Compressor pool should not be null");
+        this.metricsCollector = checkNotNull(metricsCollector, "Metrics collector should not be null");
+    }
+
+    @Override
+    public Request createRequest(URI uri, String method) throws IOException {
+        if (!hasBody(method)) {
+            return delegate.createRequest(uri, method);
+        }
+        final String endpoint = endpoint(uri.getPath());
+        final CompressionStatistics endpointStatistics = statistics.computeIfAbsent(endpoint, e -> new CompressionStatistics(policy));
+        return new AdaptiveCompressionRequest(delegate.createRequest(uri, method), endpoint, endpointStatistics, compressorPool, metricsCollector);
+    }
+
+    private static boolean hasBody(String method) {
+        switch (method.toUpperCase(Locale.ROOT)) {
+            case "POST":
+            case "PUT":
+            case "PATCH":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static String endpoint(String path) {
+        final String[] segments = path.split("/", -1);
+        for (int i = 1; i < segments.length; i++) {
+            if (segments[i].isEmpty()) {
+                continue;
+            }
+            switch (segments[i - 1]) {
+                case "event-types":
+                    segments[i] = "{name}";
+                    break;
+                case "subscriptions":
+                    segments[i] = "{id}";
+                    break;
+                case "partitions":
+                    segments[i] = "{partition}";
+                    break;
+                default:
+                    break;
+            }
+        }
+        return String.join("/", segments);
+    }
+}
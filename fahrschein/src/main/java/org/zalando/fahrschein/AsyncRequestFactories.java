@@ -0,0 +1,34 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.http.api.AsyncRequestFactory;
+import org.zalando.fahrschein.http.api.RequestFactory;
+
+/**
+ * The request factories wrapping a user supplied {@link RequestFactory} implement {@link AsyncRequestFactory}, but can
+ * only create asynchronous requests if the wrapped factory supports them.
+ */
+final class AsyncRequestFactories {
+
+    interface Wrapper {
+        RequestFactory getDelegate();
+    }
+
+    private AsyncRequestFactories() {
+
+    }
+
+    static boolean supportsAsync(RequestFactory requestFactory) {
+        RequestFactory current = requestFactory;
+        while (current instanceof Wrapper) {
+            current = ((Wrapper) current).getDelegate();
+        }
+        return current instanceof AsyncRequestFactory;
+    }
+
+    static AsyncRequestFactory asAsync(RequestFactory requestFactory) {
+        if (!(requestFactory instanceof AsyncRequestFactory)) {
+            throw new UnsupportedOperationException(String.format("%s does not support asynchronous requests", requestFactory.getClass().getSimpleName()));
+        }
+        return (AsyncRequestFactory) requestFactory;
+    }
+}
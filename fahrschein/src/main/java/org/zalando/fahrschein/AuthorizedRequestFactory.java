@@ -1,12 +1,14 @@
 package org.zalando.fahrschein;
 
+import org.zalando.fahrschein.http.api.AsyncRequest;
+import org.zalando.fahrschein.http.api.AsyncRequestFactory;
 import org.zalando.fahrschein.http.api.Headers;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.RequestFactory;
 import java.io.IOException;
 import java.net.URI;
 
-class AuthorizedRequestFactory implements RequestFactory {
+class AuthorizedRequestFactory implements RequestFactory, AsyncRequestFactory, AsyncRequestFactories.Wrapper {
     private final RequestFactory delegate;
     private final AuthorizationProvider authorizationProvider;
 
@@ -21,4 +23,16 @@ class AuthorizedRequestFactory implements RequestFactory {
         request.getHeaders().put(Headers.AUTHORIZATION, authorizationProvider.getAuthorizationHeader());
         return request;
     }
+
+    @Override
+    public AsyncRequest createAsyncRequest(URI uri, String method) throws IOException {
+        final AsyncRequest request = AsyncRequestFactories.asAsync(delegate).createAsyncRequest(uri, method);
+        request.getHeaders().put(Headers.AUTHORIZATION, authorizationProvider.getAuthorizationHeader());
+        return request;
+    }
+
+    @Override
+    public RequestFactory getDelegate() {
+        return delegate;
+    }
 }
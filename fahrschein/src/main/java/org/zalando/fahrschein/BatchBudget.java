@@ -0,0 +1,28 @@
+package org.zalando.fahrschein;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+
+/**
+ * Limits the number of events and the approximate JSON size of the events that are collected before they are passed to the listener.
+ */
+final class BatchBudget {
+    static final BatchBudget UNLIMITED = new BatchBudget(Integer.MAX_VALUE, Long.MAX_VALUE);
+
+    private final int maxEvents;
+    private final long maxBytes;
+
+    BatchBudget(int maxEvents, long maxBytes) {
+        checkArgument(maxEvents > 0, "Maximum number of events should be bigger than 0");
+        checkArgument(maxBytes > 0, "Maximum number of bytes should be bigger than 0");
+        this.maxEvents = maxEvents;
+        this.maxBytes = maxBytes;
+    }
+
+    boolean isLimited() {
+        return maxEvents != Integer.MAX_VALUE || maxBytes != Long.MAX_VALUE;
+    }
+
+    boolean isExceeded(int events, long bytes) {
+        return events >= maxEvents || bytes >= maxBytes;
+    }
+}
@@ -0,0 +1,48 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.domain.Cursor;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Hands batches that were read by the {@link NakadiReader} over to the code processing them.
+ *
+ * A dispatcher is created for each run of the reader and closed when the reader stops.
+ */
+interface BatchDispatcher {
+
+    @FunctionalInterface
+    interface Factory {
+        BatchDispatcher create(Set<String> eventNames, StreamParameters streamParameters);
+    }
+
+    /**
+     * Processes the batch for the given cursor, either directly or at some later point in time.
+     * Implementations are allowed to block while too many batches are still being processed and
+     * rethrow any exception caused by processing an earlier batch.
+     */
+    void dispatch(Cursor cursor, int eventCount, IORunnable processing) throws IOException;
+
+    /**
+     * Rethrows the exception of a previously dispatched batch, if there was one.
+     */
+    void checkFailure() throws IOException;
+
+    /**
+     * Waits until all dispatched batches were processed and rethrows a possible failure.
+     */
+    void drain() throws IOException;
+
+    /**
+     * Waits for the dispatched batches before reconnecting. Batches following a failed one are dropped, they will
+     * be delivered again after reconnecting since their cursors were not committed. Failures are logged instead of thrown.
+     */
+    void reset();
+
+    /**
+     * Drops batches that did not start yet and waits for the batches in processing, so that the listener is not called
+     * anymore once the stream stopped.
+     */
+    void close();
+}
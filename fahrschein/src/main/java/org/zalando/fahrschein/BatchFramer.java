@@ -0,0 +1,93 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits a stream of event batches, arriving in arbitrary chunks, into the JSON of complete batches. The chunks are
+ * tokenized by Jackson's non-blocking parser, a batch is complete once its top level object is closed.
+ */
+class BatchFramer {
+
+    private static final int MIN_BUFFER_SIZE = 1024;
+
+    static final class Frame extends ByteArrayOutputStream {
+        Frame(int size) {
+            super(size);
+        }
+
+        JsonParser createParser(JsonFactory jsonFactory) throws IOException {
+            return jsonFactory.createParser(buf, 0, count);
+        }
+    }
+
+    private final JsonParser jsonParser;
+    private final ByteArrayFeeder feeder;
+    private Frame frame = new Frame(MIN_BUFFER_SIZE);
+    private long frameStart;
+    private int depth;
+
+    BatchFramer(JsonFactory jsonFactory) throws IOException {
+        this.jsonParser = jsonFactory.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) jsonParser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * @return the batches completed by this chunk, in the order they were received
+     */
+    List<Frame> feed(ByteBuffer chunk) throws IOException {
+        final byte[] bytes;
+        final int offset;
+        final int length = chunk.remaining();
+        if (chunk.hasArray()) {
+            bytes = chunk.array();
+            offset = chunk.arrayOffset() + chunk.position();
+        } else {
+            bytes = new byte[length];
+            offset = 0;
+            chunk.get(bytes);
+        }
+
+        // the byte offsets of the parser count from the start of the stream
+        final long chunkStart = frameStart + frame.size();
+        feeder.feedInput(bytes, offset, offset + length);
+
+        List<Frame> frames = Collections.emptyList();
+        int copied = 0;
+        for (JsonToken token = jsonParser.nextToken(); token != JsonToken.NOT_AVAILABLE; token = jsonParser.nextToken()) {
+            if (token == null) {
+                break;
+            }
+            if (depth == 0 && token != JsonToken.START_OBJECT) {
+                throw new IOException(String.format("Expected [%s] but got [%s]", JsonToken.START_OBJECT, token));
+            }
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd() && --depth == 0) {
+                final int end = (int) (jsonParser.getCurrentLocation().getByteOffset() - chunkStart);
+                frame.write(bytes, offset + copied, end - copied);
+                copied = end;
+
+                if (frames.isEmpty()) {
+                    frames = new ArrayList<>(1);
+                }
+                frames.add(frame);
+                // the next frame is sized after the previous one to avoid growing it
+                frameStart += frame.size();
+                frame = new Frame(Math.max(frame.size(), MIN_BUFFER_SIZE));
+            }
+        }
+        frame.write(bytes, offset + copied, length - copied);
+
+        return frames;
+    }
+}
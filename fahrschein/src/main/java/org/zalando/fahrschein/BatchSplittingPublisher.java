@@ -0,0 +1,238 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.fahrschein.domain.BatchItemResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+
+/**
+ * Publishes a list of events in as many requests as necessary to keep each request body below a size limit.
+ *
+ * Events are serialized one after another and a request is cut as soon as the next event would exceed the limit, so
+ * only the events of the batches that are currently serialized or in flight are kept in serialized form. Once a
+ * request completed, its serialized events are released, unless Nakadi rejected some of them and they are needed to
+ * map the batch item responses to the events. A single event bigger than the limit is sent on its own.
+ *
+ * The outcome of all requests is aggregated per event: if any event was not published, an
+ * {@link EventPublishingException} is thrown whose {@link EventPublishingException#getBatchItemResponses()} contain
+ * one response per event, in the order of the given events. Events of requests that failed without batch item
+ * responses are reported as {@code aborted} with the exception message as detail, the exceptions are attached as
+ * suppressed. If no request succeeded at all and none returned batch item responses, the first exception is rethrown.
+ */
+final class BatchSplittingPublisher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchSplittingPublisher.class);
+
+    private final NakadiClient nakadiClient;
+    private final ObjectMapper objectMapper;
+    private final String eventName;
+    private final long maxBatchBytes;
+    private final Executor executor;
+    private final int maxParallelRequests;
+
+    BatchSplittingPublisher(NakadiClient nakadiClient, ObjectMapper objectMapper, String eventName, long maxBatchBytes, Executor executor, int maxParallelRequests) {
+        checkArgument(maxBatchBytes > 2, "Maximum batch size in bytes should be bigger than 2");
+        checkArgument(maxParallelRequests > 0, "Maximum number of parallel requests should be bigger than 0");
+        this.nakadiClient = nakadiClient;
+        this.objectMapper = objectMapper;
+        this.eventName = eventName;
+        this.maxBatchBytes = maxBatchBytes;
+        this.executor = executor;
+        this.maxParallelRequests = maxParallelRequests;
+    }
+
+    private static final class Batch {
+        private final int offset;
+        private final int size;
+        // released once the request completed, unless batch item responses have to be mapped to the events
+        private List<byte[]> payloads;
+        private IOException failure;
+
+        Batch(int offset, List<byte[]> payloads) {
+            this.offset = offset;
+            this.size = payloads.size();
+            this.payloads = payloads;
+        }
+
+        void complete(IOException failure) {
+            this.failure = failure;
+            if (!(failure instanceof EventPublishingException)) {
+                this.payloads = null;
+            }
+        }
+    }
+
+    <T> void publish(List<T> events) throws IOException {
+        final Semaphore permits = new Semaphore(maxParallelRequests);
+        final List<Batch> batches = new ArrayList<>();
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        try {
+            int offset = 0;
+            List<byte[]> payloads = new ArrayList<>();
+            long batchBytes = 2;
+            for (int i = 0; i < events.size(); i++) {
+                final byte[] payload = objectMapper.writeValueAsBytes(events.get(i));
+                final long eventBytes = payloads.isEmpty() ? payload.length : payload.length + 1;
+                if (!payloads.isEmpty() && batchBytes + eventBytes > maxBatchBytes) {
+                    send(new Batch(offset, payloads), permits, batches, futures);
+                    offset = i;
+                    payloads = new ArrayList<>();
+                    batchBytes = 2 + payload.length;
+                } else {
+                    batchBytes += eventBytes;
+                }
+                payloads.add(payload);
+            }
+            if (!payloads.isEmpty()) {
+                send(new Batch(offset, payloads), permits, batches, futures);
+            }
+        } finally {
+            awaitAll(futures);
+        }
+
+        aggregate(events, batches);
+    }
+
+    private void send(Batch batch, Semaphore permits, List<Batch> batches, List<CompletableFuture<Void>> futures) throws InterruptedIOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a publishing request to complete");
+        }
+
+        batches.add(batch);
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        futures.add(future);
+        try {
+            executor.execute(() -> {
+                try {
+                    nakadiClient.publishSerialized(eventName, batch.payloads);
+                    batch.complete(null);
+                } catch (IOException e) {
+                    batch.complete(e);
+                } catch (RuntimeException e) {
+                    batch.complete(new IOException(e));
+                } finally {
+                    permits.release();
+                    future.complete(null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            batch.complete(new IOException("Publishing request was rejected", e));
+            permits.release();
+            future.complete(null);
+        }
+    }
+
+    private static void awaitAll(List<CompletableFuture<Void>> futures) throws InterruptedIOException {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for publishing requests to complete");
+        } catch (ExecutionException e) {
+            // futures are only completed normally
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private <T> void aggregate(List<T> events, List<Batch> batches) throws IOException {
+        final BatchItemResponse[] responses = new BatchItemResponse[events.size()];
+        final List<IOException> failures = new ArrayList<>();
+        boolean anyPublished = false;
+        boolean anyItemResponses = false;
+
+        for (Batch batch : batches) {
+            final IOException failure = batch.failure;
+            if (failure == null) {
+                anyPublished = true;
+                fill(responses, batch.offset, batch.size, new BatchItemResponse(null, BatchItemResponse.PublishingStatus.SUBMITTED, BatchItemResponse.Step.NONE, null));
+            } else if (failure instanceof EventPublishingException && mapResponses(responses, batch, (EventPublishingException) failure)) {
+                anyItemResponses = true;
+            } else {
+                LOG.warn("Publishing of [{}] events for [{}] failed", batch.size, eventName, failure);
+                failures.add(failure);
+                fill(responses, batch.offset, batch.size, new BatchItemResponse(null, BatchItemResponse.PublishingStatus.ABORTED, BatchItemResponse.Step.NONE, String.valueOf(failure.getMessage())));
+            }
+        }
+
+        if (!anyPublished && !anyItemResponses && !failures.isEmpty()) {
+            final IOException first = failures.get(0);
+            for (int i = 1; i < failures.size(); i++) {
+                if (failures.get(i) != first) {
+                    first.addSuppressed(failures.get(i));
+                }
+            }
+            throw first;
+        }
+
+        final List<BatchItemResponse> failedResponses = new ArrayList<>();
+        final List<T> failedEvents = new ArrayList<>();
+        for (int i = 0; i < responses.length; i++) {
+            if (responses[i].getPublishingStatus() != BatchItemResponse.PublishingStatus.SUBMITTED) {
+                failedResponses.add(responses[i]);
+                failedEvents.add(events.get(i));
+            }
+        }
+
+        if (!failedResponses.isEmpty()) {
+            final EventPublishingException exception = new EventPublishingException(failedResponses.toArray(new BatchItemResponse[0]), responses, failedEvents);
+            for (IOException failure : failures) {
+                exception.addSuppressed(failure);
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Copies the batch item responses of a partially failed batch into the aggregated responses, returns {@code false}
+     * if the failed events could not be determined.
+     */
+    private boolean mapResponses(BatchItemResponse[] responses, Batch batch, EventPublishingException exception) {
+        final List<Integer> indexes = new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) {
+                return batch.offset + index;
+            }
+
+            @Override
+            public int size() {
+                return batch.size;
+            }
+        };
+
+        final List<Integer> failed = PartialBatchRetry.mapFailedEvents(indexes, exception,
+                index -> EidExtractor.fromPayload(objectMapper, batch.payloads.get(index - batch.offset)));
+        if (failed == null) {
+            return false;
+        }
+
+        fill(responses, batch.offset, batch.size, new BatchItemResponse(null, BatchItemResponse.PublishingStatus.SUBMITTED, BatchItemResponse.Step.NONE, null));
+        final BatchItemResponse[] failedResponses = exception.getResponses();
+        for (int i = 0; i < failed.size(); i++) {
+            responses[failed.get(i)] = failedResponses[i];
+        }
+        return true;
+    }
+
+    private static void fill(BatchItemResponse[] responses, int offset, int length, BatchItemResponse response) {
+        for (int i = offset; i < offset + length; i++) {
+            responses[i] = response;
+        }
+    }
+}
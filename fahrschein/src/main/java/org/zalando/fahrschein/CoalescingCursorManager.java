@@ -0,0 +1,243 @@
+package org.zalando.fahrschein;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.fahrschein.domain.Cursor;
+import org.zalando.fahrschein.http.api.RequestFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+import static org.zalando.fahrschein.Preconditions.checkState;
+
+/**
+ * A {@link ManagedCursorManager} that does not commit every batch on its own. Instead it keeps the latest cursor
+ * per event type and partition and commits all of them in a single request, either when {@code maxPendingBatches}
+ * batches were processed or when {@code flushInterval} elapsed. Outstanding cursors are also committed before the
+ * stream closes its connection and when this cursor manager is closed.
+ *
+ * Since commits happen in the background, commit failures are not propagated to the stream but reported to a
+ * {@link CursorCommitFailureHandler}. The flush interval should be well below the commit timeout of the subscription,
+ * which defaults to 60 seconds.
+ */
+public class CoalescingCursorManager extends ManagedCursorManager implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CoalescingCursorManager.class);
+
+    private static final CursorCommitFailureHandler LOGGING_FAILURE_HANDLER = (cursors, exception) ->
+            LOG.warn("Could not commit cursors of [{}] batches", cursors.size(), exception);
+
+    private static final class StreamKey {
+        private final String subscriptionId;
+        private final String streamId;
+
+        StreamKey(String subscriptionId, String streamId) {
+            this.subscriptionId = subscriptionId;
+            this.streamId = streamId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            StreamKey that = (StreamKey) o;
+            return Objects.equals(subscriptionId, that.subscriptionId) && Objects.equals(streamId, that.streamId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(subscriptionId, streamId);
+        }
+    }
+
+    private static final class PartitionKey {
+        private final StreamKey stream;
+        private final String eventName;
+        private final String partition;
+
+        PartitionKey(StreamKey stream, String eventName, String partition) {
+            this.stream = stream;
+            this.eventName = eventName;
+            this.partition = partition;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            PartitionKey that = (PartitionKey) o;
+            return Objects.equals(stream, that.stream) && Objects.equals(eventName, that.eventName) && Objects.equals(partition, that.partition);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(stream, eventName, partition);
+        }
+    }
+
+    private static final class PendingCommit {
+        private final List<Cursor> latest = new ArrayList<>();
+        private final List<Cursor> covered = new ArrayList<>();
+    }
+
+    private final int maxPendingBatches;
+    private final long flushIntervalNanos;
+    private final CursorCommitFailureHandler failureHandler;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private final Object flushLock = new Object();
+    private Map<PartitionKey, Cursor> latestCursors = new LinkedHashMap<>();
+    private List<PartitionKey> coveredBatches = new ArrayList<>();
+    private List<Cursor> coveredCursors = new ArrayList<>();
+    private boolean flushScheduled;
+    private boolean closed;
+
+    public CoalescingCursorManager(URI baseUri, RequestFactory clientHttpRequestFactory, AuthorizationProvider authorizationProvider, int maxPendingBatches, long flushInterval, TimeUnit timeUnit) {
+        this(baseUri, clientHttpRequestFactory, authorizationProvider, maxPendingBatches, flushInterval, timeUnit, LOGGING_FAILURE_HANDLER);
+    }
+
+    public CoalescingCursorManager(URI baseUri, RequestFactory clientHttpRequestFactory, AuthorizationProvider authorizationProvider, int maxPendingBatches, long flushInterval, TimeUnit timeUnit, CursorCommitFailureHandler failureHandler) {
+        this(baseUri, NakadiClientBuilder.wrapClientHttpRequestFactory(clientHttpRequestFactory, authorizationProvider), maxPendingBatches, flushInterval, timeUnit, failureHandler);
+    }
+
+    CoalescingCursorManager(URI baseUri, RequestFactory clientHttpRequestFactory, int maxPendingBatches, long flushInterval, TimeUnit timeUnit, CursorCommitFailureHandler failureHandler) {
+        super(baseUri, clientHttpRequestFactory, true);
+        checkArgument(maxPendingBatches > 0, "Maximum number of pending batches should be bigger than 0");
+        checkArgument(flushInterval > 0, "Flush interval should be bigger than 0");
+
+        this.maxPendingBatches = maxPendingBatches;
+        this.flushIntervalNanos = timeUnit.toNanos(flushInterval);
+        this.failureHandler = failureHandler;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("fahrschein-cursor-commit"));
+        this.scheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, timeUnit);
+    }
+
+    /**
+     * @return a cursor manager with the same settings and its own background commits
+     */
+    @Override
+    CoalescingCursorManager copy() {
+        return new CoalescingCursorManager(getBaseUri(), getClientHttpRequestFactory(), maxPendingBatches, flushIntervalNanos, TimeUnit.NANOSECONDS, failureHandler);
+    }
+
+    @Override
+    public void onSuccess(String eventName, Cursor cursor) throws IOException {
+        final SubscriptionStream stream = getStream(eventName);
+        final PartitionKey key = new PartitionKey(new StreamKey(stream.getSubscriptionId(), stream.getStreamId()), eventName, cursor.getPartition());
+
+        synchronized (lock) {
+            checkState(!closed, "Cursor manager was already closed");
+
+            latestCursors.put(key, cursor);
+            coveredBatches.add(key);
+            coveredCursors.add(cursor);
+
+            if (coveredCursors.size() >= maxPendingBatches && !flushScheduled) {
+                flushScheduled = true;
+                try {
+                    scheduler.execute(this::flushQuietly);
+                } catch (RejectedExecutionException e) {
+                    flushScheduled = false;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onSuccess(String eventName, List<Cursor> cursors) throws IOException {
+        for (Cursor cursor : cursors) {
+            onSuccess(eventName, cursor);
+        }
+    }
+
+    /**
+     * Commits all outstanding cursors, one request per subscription stream. Failures are reported to the failure
+     * handler, the first failure is also rethrown.
+     */
+    @Override
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            final Map<PartitionKey, Cursor> latest;
+            final List<PartitionKey> batches;
+            final List<Cursor> cursors;
+            synchronized (lock) {
+                latest = latestCursors;
+                batches = coveredBatches;
+                cursors = coveredCursors;
+                latestCursors = new LinkedHashMap<>();
+                coveredBatches = new ArrayList<>();
+                coveredCursors = new ArrayList<>();
+                flushScheduled = false;
+            }
+
+            if (latest.isEmpty()) {
+                return;
+            }
+
+            final Map<StreamKey, PendingCommit> commits = new LinkedHashMap<>();
+            for (Map.Entry<PartitionKey, Cursor> entry : latest.entrySet()) {
+                commits.computeIfAbsent(entry.getKey().stream, key -> new PendingCommit()).latest.add(entry.getValue());
+            }
+            for (int i = 0; i < batches.size(); i++) {
+                commits.get(batches.get(i).stream).covered.add(cursors.get(i));
+            }
+
+            IOException failure = null;
+            for (Map.Entry<StreamKey, PendingCommit> entry : commits.entrySet()) {
+                final StreamKey stream = entry.getKey();
+                final PendingCommit commit = entry.getValue();
+                try {
+                    commit(stream.subscriptionId, stream.streamId, commit.latest);
+                } catch (IOException e) {
+                    failureHandler.onCommitFailure(commit.covered, e);
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            // already reported to the failure handler
+        } catch (RuntimeException e) {
+            LOG.error("Unexpected exception while committing cursors", e);
+        }
+    }
+
+    /**
+     * Stops the background commits and commits all outstanding cursors.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        scheduler.shutdown();
+        flush();
+    }
+}
@@ -0,0 +1,120 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.http.api.ContentEncoding;
+
+import java.util.List;
+
+/**
+ * Running compression ratio and CPU cost of the encodings used for the request bodies of one endpoint.
+ */
+final class CompressionStatistics {
+
+    // selections of each encoding before choosing by cost
+    private static final int WARM_UP_SELECTIONS = 3;
+    // weight of a new sample in the moving averages
+    private static final double SAMPLE_WEIGHT = 0.2;
+
+    private final AdaptiveCompressionPolicy policy;
+    private final double networkNanosPerByte;
+    private final ContentEncoding[] contentEncodings;
+    private final double[] ratios;
+    private final double[] nanosPerByte;
+    private final int[] samples;
+    private final int[] selections;
+    private final long[] lastSelected;
+    private long requests;
+
+    CompressionStatistics(AdaptiveCompressionPolicy policy) {
+        final List<ContentEncoding> candidates = policy.getContentEncodings();
+        this.policy = policy;
+        this.networkNanosPerByte = 1_000_000_000.0 / policy.getNetworkBytesPerSecond();
+        this.contentEncodings = new ContentEncoding[candidates.size() + 1];
+        this.contentEncodings[0] = ContentEncoding.IDENTITY;
+        for (int i = 0; i < candidates.size(); i++) {
+            this.contentEncodings[i + 1] = candidates.get(i);
+        }
+        this.ratios = new double[contentEncodings.length];
+        this.nanosPerByte = new double[contentEncodings.length];
+        this.samples = new int[contentEncodings.length];
+        this.selections = new int[contentEncodings.length];
+        this.lastSelected = new long[contentEncodings.length];
+    }
+
+    /**
+     * @param contentLength the size of the body before encoding, or {@code -1} if unknown
+     */
+    synchronized ContentEncoding select(long contentLength) {
+        if (contentEncodings.length == 1 || (contentLength >= 0 && contentLength < policy.getMinimumBytes())) {
+            return ContentEncoding.IDENTITY;
+        }
+        requests++;
+
+        int selected = -1;
+        for (int i = 0; i < contentEncodings.length && selected < 0; i++) {
+            if (selections[i] < WARM_UP_SELECTIONS) {
+                selected = i;
+            }
+        }
+        if (selected < 0) {
+            selected = cheapest();
+            if (requests % policy.getSampleInterval() == 0) {
+                selected = leastRecentlySelected(selected);
+            }
+        }
+
+        selections[selected]++;
+        lastSelected[selected] = requests;
+        return contentEncodings[selected];
+    }
+
+    synchronized void record(ContentEncoding contentEncoding, long uncompressedBytes, long compressedBytes, long nanos) {
+        final int index = indexOf(contentEncoding);
+        if (index < 0 || uncompressedBytes <= 0) {
+            return;
+        }
+        final double ratio = (double) compressedBytes / uncompressedBytes;
+        final double cost = (double) Math.max(nanos, 0) / uncompressedBytes;
+        if (samples[index] == 0) {
+            ratios[index] = ratio;
+            nanosPerByte[index] = cost;
+        } else {
+            ratios[index] += SAMPLE_WEIGHT * (ratio - ratios[index]);
+            nanosPerByte[index] += SAMPLE_WEIGHT * (cost - nanosPerByte[index]);
+        }
+        samples[index]++;
+    }
+
+    private int cheapest() {
+        // encodings without samples yet, for example because their requests failed, are not considered
+        int cheapest = 0;
+        for (int i = 1; i < contentEncodings.length; i++) {
+            if (samples[i] > 0 && (samples[cheapest] == 0 || cost(i) < cost(cheapest))) {
+                cheapest = i;
+            }
+        }
+        return cheapest;
+    }
+
+    private int leastRecentlySelected(int except) {
+        int result = except;
+        for (int i = 0; i < contentEncodings.length; i++) {
+            if (i != except && (result == except || lastSelected[i] < lastSelected[result])) {
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    private double cost(int index) {
+        return nanosPerByte[index] + ratios[index] * networkNanosPerByte;
+    }
+
+    private int indexOf(ContentEncoding contentEncoding) {
+        for (int i = 0; i < contentEncodings.length; i++) {
+            if (contentEncodings[i] == contentEncoding) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,39 +1,54 @@
 package org.zalando.fahrschein;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 
 import org.zalando.fahrschein.domain.Cursor;
 
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableList;
+
 @SuppressWarnings("serial")
 public class CursorCommitException extends IOException {
     private final int statusCode;
-    private final Cursor cursor;
+    private final List<Cursor> cursors;
     private final String subscriptionId;
 
     public CursorCommitException(int statusCode, Cursor cursor, String subscriptionId, IOException cause) {
-        super(formatMessage(statusCode, cursor, subscriptionId, Optional.empty()), cause);
+        this(statusCode, singletonList(cursor), subscriptionId, cause);
+    }
+
+    public CursorCommitException(int statusCode, Cursor cursor, String subscriptionId, String responseBody) {
+        this(statusCode, singletonList(cursor), subscriptionId, responseBody);
+    }
+
+    public CursorCommitException(int statusCode, List<Cursor> cursors, String subscriptionId, IOException cause) {
+        super(formatMessage(statusCode, cursors, subscriptionId, Optional.empty()), cause);
         this.statusCode = statusCode;
-        this.cursor = cursor;
+        this.cursors = unmodifiableList(cursors);
         this.subscriptionId = subscriptionId;
     }
 
-    public CursorCommitException(int statusCode, Cursor cursor, String subscriptionId, String responseBody) {
-        super(formatMessage(statusCode, cursor, subscriptionId, Optional.of(responseBody)));
+    public CursorCommitException(int statusCode, List<Cursor> cursors, String subscriptionId, String responseBody) {
+        super(formatMessage(statusCode, cursors, subscriptionId, Optional.of(responseBody)));
         this.statusCode = statusCode;
-        this.cursor = cursor;
+        this.cursors = unmodifiableList(cursors);
         this.subscriptionId = subscriptionId;
     }
 
-    private static String formatMessage(int statusCode, Cursor cursor, String subscriptionId, Optional<String> responseBody) {
+    private static String formatMessage(int statusCode, List<Cursor> cursors, String subscriptionId, Optional<String> responseBody) {
+        final Cursor cursor = cursors.get(0);
         String msg;
         switch (statusCode) {
             case 422:
-                msg = String.format(
-                    "Cursor for subscription [%s] and event type [%s] in partition [%s] with offset [%s] failed to commit because of status code 422 (Unprocessable Entity). " +
+                msg = (cursors.size() == 1
+                    ? String.format("Cursor for subscription [%s] and event type [%s] in partition [%s] with offset [%s]",
+                        nullSafe(subscriptionId), nullSafe(cursor.getEventType()), cursor.getPartition(), cursor.getOffset())
+                    : String.format("[%d] cursors for subscription [%s]", cursors.size(), nullSafe(subscriptionId))) +
+                    " failed to commit because of status code 422 (Unprocessable Entity). " +
                     "This likely means that the processing time of the batch exceeded the timeout (defaults to 60 seconds). " + 
-                    "In such case, you may want to investigate the slowness in the processing, and/or reduce the batch size.", 
-                    nullSafe(subscriptionId), nullSafe(cursor.getEventType()), cursor.getPartition(), cursor.getOffset()) +
+                    "In such case, you may want to investigate the slowness in the processing, and/or reduce the batch size." +
                     responseBody.map(s -> String.format(" Response body: [%s]", s)).orElse("");
                 break;
             default: 
@@ -49,8 +64,18 @@ public class CursorCommitException extends IOException {
         return Optional.ofNullable(s).orElse("");
     }
 
+    /**
+     * @return the first cursor that failed to commit
+     */
     public Cursor getCursor() {
-        return cursor;
+        return cursors.get(0);
+    }
+
+    /**
+     * @return all cursors that were part of the failed commit request
+     */
+    public List<Cursor> getCursors() {
+        return cursors;
     }
 
     public String getSubscriptionId() {
@@ -0,0 +1,20 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.domain.Cursor;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Gets notified when cursors that were committed asynchronously could not be committed.
+ */
+@FunctionalInterface
+public interface CursorCommitFailureHandler {
+
+    /**
+     * @param cursors the cursors of all batches covered by the failed commit, in the order they were processed
+     * @param exception the reason of the failure
+     */
+    void onCommitFailure(List<Cursor> cursors, IOException exception);
+
+}
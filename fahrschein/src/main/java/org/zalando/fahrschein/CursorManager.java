@@ -25,4 +25,11 @@ public interface CursorManager {
 
     }
 
+    /**
+     * Commits cursors that were acknowledged but not yet committed. Called by the stream before its connection is closed.
+     */
+    default void flush() throws IOException {
+
+    }
+
 }
@@ -0,0 +1,25 @@
+package org.zalando.fahrschein;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the daemon threads of the dispatchers, publishers and executors of this library. The first thread is named
+ * after the given name, later threads get a counter appended.
+ */
+final class DaemonThreadFactory implements ThreadFactory {
+    private final String threadName;
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    DaemonThreadFactory(String threadName) {
+        this.threadName = threadName;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        final int count = threadCount.getAndIncrement();
+        final Thread thread = new Thread(runnable, count == 0 ? threadName : threadName + "-" + count);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,37 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.domain.Cursor;
+
+import java.io.IOException;
+
+class DirectBatchDispatcher implements BatchDispatcher {
+    public static final BatchDispatcher INSTANCE = new DirectBatchDispatcher();
+
+    private DirectBatchDispatcher() {
+    }
+
+    @Override
+    public void dispatch(Cursor cursor, int eventCount, IORunnable processing) throws IOException {
+        processing.run();
+    }
+
+    @Override
+    public void checkFailure() {
+        // nothing to do, exceptions are thrown directly by dispatch
+    }
+
+    @Override
+    public void drain() {
+        // nothing to do
+    }
+
+    @Override
+    public void reset() {
+        // nothing to do
+    }
+
+    @Override
+    public void close() {
+        // nothing to do
+    }
+}
@@ -0,0 +1,53 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the {@code eid} from the metadata of an event, used to map batch item responses back to their events.
+ */
+final class EidExtractor {
+
+    private static final String EID_POINTER = "/metadata/eid";
+
+    private EidExtractor() {
+    }
+
+    @Nullable
+    static String fromEvent(ObjectMapper objectMapper, Object event) {
+        try {
+            return textValue(objectMapper.valueToTree(event));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    static String fromPayload(ObjectMapper objectMapper, byte[] payload) {
+        try {
+            return textValue(objectMapper.readTree(payload));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    static String fromPayload(ObjectMapper objectMapper, ByteBuffer payload) {
+        final byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        return fromPayload(objectMapper, bytes);
+    }
+
+    @Nullable
+    private static String textValue(@Nullable JsonNode event) {
+        if (event == null) {
+            return null;
+        }
+        final JsonNode eid = event.at(EID_POINTER);
+        return eid.isTextual() ? eid.textValue() : null;
+    }
+}
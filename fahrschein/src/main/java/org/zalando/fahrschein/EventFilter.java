@@ -0,0 +1,107 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.zalando.fahrschein.domain.Metadata;
+
+import javax.annotation.concurrent.Immutable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static java.util.Collections.singleton;
+import static java.util.Collections.unmodifiableSet;
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+
+/**
+ * Decides whether an event is passed to the listener, based on some of its top-level fields.
+ * Only the fields needed by the filter are decoded before the decision, the remaining fields of
+ * non-matching events are skipped without being decoded or bound.
+ */
+@Immutable
+public final class EventFilter {
+
+    /**
+     * Tests the top-level fields of an event, binding metadata with the reader of the {@link FilteringEventReader}.
+     */
+    @FunctionalInterface
+    interface Condition {
+        boolean test(ObjectNode fields, ObjectReader metadataReader);
+    }
+
+    private final Set<String> fields;
+    private final Condition predicate;
+
+    private EventFilter(Set<String> fields, Condition predicate) {
+        this.fields = unmodifiableSet(fields);
+        this.predicate = predicate;
+    }
+
+    /**
+     * Filters on the metadata of the event. Events without metadata are passed to the predicate as {@code null}.
+     */
+    public static EventFilter metadata(Predicate<Metadata> predicate) {
+        return new EventFilter(singleton("metadata"), (fields, metadataReader) -> {
+            final JsonNode metadata = fields.get("metadata");
+            return predicate.test(metadata == null || metadata.isNull() ? null : readMetadata(metadataReader, metadata));
+        });
+    }
+
+    /**
+     * Filters on the value at the given JSON pointer, for example {@code /metadata/event_type} or {@code /data/status}.
+     * Values that do not exist are passed to the predicate as {@link com.fasterxml.jackson.databind.node.MissingNode}.
+     */
+    public static EventFilter path(String jsonPointer, Predicate<JsonNode> predicate) {
+        final JsonPointer pointer = JsonPointer.compile(jsonPointer);
+        checkArgument(pointer.getMatchingProperty() != null, "JSON pointer should start with a property name");
+        return new EventFilter(singleton(pointer.getMatchingProperty()), (fields, metadataReader) -> predicate.test(fields.at(pointer)));
+    }
+
+    public EventFilter and(EventFilter other) {
+        return new EventFilter(union(fields, other.fields), (fields, metadataReader) -> this.predicate.test(fields, metadataReader) && other.predicate.test(fields, metadataReader));
+    }
+
+    public EventFilter or(EventFilter other) {
+        return new EventFilter(union(fields, other.fields), (fields, metadataReader) -> this.predicate.test(fields, metadataReader) || other.predicate.test(fields, metadataReader));
+    }
+
+    public EventFilter negate() {
+        return new EventFilter(fields, (fields, metadataReader) -> !predicate.test(fields, metadataReader));
+    }
+
+    Set<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * @param fields the top-level fields of the event that are used by this filter, missing fields are not contained
+     * @param metadataReader created by {@link #metadataReader(ObjectMapper)}
+     */
+    boolean test(ObjectNode fields, ObjectReader metadataReader) {
+        return predicate.test(fields, metadataReader);
+    }
+
+    static ObjectReader metadataReader(ObjectMapper objectMapper) {
+        return objectMapper.readerFor(Metadata.class).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    private static Metadata readMetadata(ObjectReader metadataReader, JsonNode metadata) {
+        try {
+            return metadataReader.readValue(metadata);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Set<String> union(Set<String> first, Set<String> second) {
+        final Set<String> union = new HashSet<>(first);
+        union.addAll(second);
+        return union;
+    }
+}
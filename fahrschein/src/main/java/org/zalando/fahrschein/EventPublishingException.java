@@ -2,21 +2,40 @@ package org.zalando.fahrschein;
 
 import org.zalando.fahrschein.domain.BatchItemResponse;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Formatter;
+import java.util.List;
 import java.util.Locale;
 
 /**
  * Thrown in case the client wasn't able to publish the given batch of events to Nakadi.
  *
  * The response will contain an array of {@code BatchItemResponse}.
+ *
+ * When thrown by {@link NakadiClient#publish(String, List)}, the exception also carries the events that were not
+ * published, in the same order as their failed responses.
  */
 public class EventPublishingException extends IOException {
     private final BatchItemResponse[] responses;
+    @Nullable
+    private final BatchItemResponse[] batchItemResponses;
+    private final List<?> failedEvents;
 
     public EventPublishingException(BatchItemResponse[] responses) {
+        this(responses, null, Collections.emptyList());
+    }
+
+    EventPublishingException(BatchItemResponse[] responses, @Nullable BatchItemResponse[] batchItemResponses) {
+        this(responses, batchItemResponses, Collections.emptyList());
+    }
+
+    EventPublishingException(BatchItemResponse[] responses, @Nullable BatchItemResponse[] batchItemResponses, List<?> failedEvents) {
         super(formatMessage(responses));
         this.responses = responses;
+        this.batchItemResponses = batchItemResponses;
+        this.failedEvents = failedEvents;
     }
 
     private static String formatMessage(BatchItemResponse[] responses) {
@@ -33,7 +52,26 @@ public class EventPublishingException extends IOException {
         return fmt.toString();
     }
 
+    /**
+     * The responses of all events that were not submitted.
+     */
     public BatchItemResponse[] getResponses() {
         return responses;
     }
+
+    /**
+     * All responses returned by Nakadi, including those of submitted events. Nakadi reports them in the order of the
+     * published events. Returns {@code null} if the exception was not created from a Nakadi response.
+     */
+    @Nullable
+    public BatchItemResponse[] getBatchItemResponses() {
+        return batchItemResponses;
+    }
+
+    /**
+     * The events corresponding to {@link #getResponses()}, or an empty list if they could not be determined.
+     */
+    public List<?> getFailedEvents() {
+        return failedEvents;
+    }
 }
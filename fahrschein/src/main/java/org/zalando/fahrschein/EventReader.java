@@ -3,8 +3,18 @@ package org.zalando.fahrschein;
 import com.fasterxml.jackson.core.JsonParser;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 
 public interface EventReader<T> {
     List<T> read(JsonParser jsonParser) throws IOException;
+
+    /**
+     * Reads the events lazily while the returned iterator is consumed. Exceptions while reading are thrown as {@link java.io.UncheckedIOException}.
+     * The default implementation reads all events at once, readers used with a batch budget should override it,
+     * otherwise batches are read completely before they are split and their size is not measured.
+     */
+    default Iterator<T> readIterator(JsonParser jsonParser) throws IOException {
+        return read(jsonParser).iterator();
+    }
 }
@@ -0,0 +1,18 @@
+package org.zalando.fahrschein;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives events that could not be published, for example to write them to a dead letter queue.
+ */
+@FunctionalInterface
+public interface FailedEventHandler<T> {
+
+    /**
+     * @param events the events that were not published, in the order they were passed for publishing
+     * @param exception the reason of the last failure, an {@link EventPublishingException} if Nakadi rejected the events
+     */
+    void onFailedEvents(List<T> events, IOException exception);
+
+}
@@ -0,0 +1,121 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.zalando.fahrschein.JsonParserHelper.expectToken;
+
+/**
+ * Binds only the events that match an {@link EventFilter}. Fields of an event are buffered until all fields
+ * needed by the filter were read, the remaining fields of non-matching events are skipped.
+ *
+ * Events and metadata that can not be bound are passed to {@link #onMappingException(JsonMappingException)} like in
+ * the {@link MappingEventReader}, an event with metadata that can not be bound is skipped if it returns normally.
+ */
+public class FilteringEventReader<T> extends MappingEventReader<T> {
+    private final ObjectMapper objectMapper;
+    private final ObjectReader eventReader;
+    private final ObjectReader metadataReader;
+    private final EventFilter eventFilter;
+
+    public FilteringEventReader(Class<T> eventClass, ObjectMapper objectMapper, EventFilter eventFilter) {
+        super(eventClass, objectMapper);
+        this.objectMapper = objectMapper;
+        this.eventReader = objectMapper.readerFor(eventClass);
+        this.metadataReader = EventFilter.metadataReader(objectMapper);
+        this.eventFilter = eventFilter;
+    }
+
+    /**
+     * Reads and filters the events lazily, so that non-matching events are skipped while the iterator is consumed.
+     */
+    @Override
+    public Iterator<T> readIterator(JsonParser jsonParser) throws IOException {
+        expectToken(jsonParser, JsonToken.START_ARRAY);
+
+        return new JsonArrayIterator<T>(jsonParser) {
+            @Override
+            protected T readElement(JsonParser jsonParser, JsonToken token) throws IOException {
+                expectToken(token, JsonToken.START_OBJECT);
+
+                final TokenBuffer tokens = readIfMatching(jsonParser);
+                if (tokens == null) {
+                    return null;
+                }
+                try {
+                    return eventReader.readValue(tokens.asParser());
+                } catch (JsonMappingException e) {
+                    onMappingException(e);
+                    return null;
+                }
+            }
+        };
+    }
+
+    private TokenBuffer readIfMatching(JsonParser jsonParser) throws IOException {
+        final Set<String> missingFields = new HashSet<>(eventFilter.getFields());
+        final ObjectNode filterFields = objectMapper.createObjectNode();
+        final TokenBuffer tokens = new TokenBuffer(jsonParser);
+        boolean decided = false;
+
+        tokens.writeStartObject();
+        for (JsonToken token = jsonParser.nextToken(); token != JsonToken.END_OBJECT; token = jsonParser.nextToken()) {
+            expectToken(token, JsonToken.FIELD_NAME);
+
+            final String field = jsonParser.getCurrentName();
+            jsonParser.nextToken();
+            tokens.writeFieldName(field);
+
+            if (!decided && missingFields.remove(field)) {
+                final JsonNode value = objectMapper.readTree(jsonParser);
+                filterFields.set(field, value);
+                objectMapper.writeTree(tokens, value);
+
+                if (missingFields.isEmpty()) {
+                    if (!matches(filterFields)) {
+                        skipRemainingFields(jsonParser);
+                        return null;
+                    }
+                    decided = true;
+                }
+            } else {
+                tokens.copyCurrentStructure(jsonParser);
+            }
+        }
+        tokens.writeEndObject();
+
+        return decided || matches(filterFields) ? tokens : null;
+    }
+
+    private boolean matches(ObjectNode filterFields) throws IOException {
+        try {
+            return eventFilter.test(filterFields, metadataReader);
+        } catch (UncheckedIOException e) {
+            if (e.getCause() instanceof JsonMappingException) {
+                onMappingException((JsonMappingException) e.getCause());
+                return false;
+            }
+            throw e.getCause();
+        }
+    }
+
+    private static void skipRemainingFields(JsonParser jsonParser) throws IOException {
+        for (JsonToken token = jsonParser.nextToken(); token != JsonToken.END_OBJECT; token = jsonParser.nextToken()) {
+            expectToken(token, JsonToken.FIELD_NAME);
+            jsonParser.nextToken();
+            jsonParser.skipChildren();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.zalando.fahrschein;
 
+import org.zalando.fahrschein.http.api.AsyncRequest;
+import org.zalando.fahrschein.http.api.AsyncRequestFactory;
 import org.zalando.fahrschein.http.api.Headers;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.RequestFactory;
@@ -7,7 +9,7 @@ import org.zalando.fahrschein.http.api.RequestFactory;
 import java.io.IOException;
 import java.net.URI;
 
-public class IdentityAcceptEncodingRequestFactory implements RequestFactory {
+public class IdentityAcceptEncodingRequestFactory implements RequestFactory, AsyncRequestFactory, AsyncRequestFactories.Wrapper {
 
     private final RequestFactory delegate;
 
@@ -21,4 +23,16 @@ public class IdentityAcceptEncodingRequestFactory implements RequestFactory {
         request.getHeaders().put(Headers.ACCEPT_ENCODING, "identity");
         return request;
     }
+
+    @Override
+    public AsyncRequest createAsyncRequest(URI uri, String method) throws IOException {
+        AsyncRequest request = AsyncRequestFactories.asAsync(delegate).createAsyncRequest(uri, method);
+        request.getHeaders().put(Headers.ACCEPT_ENCODING, "identity");
+        return request;
+    }
+
+    @Override
+    public RequestFactory getDelegate() {
+        return delegate;
+    }
 }
@@ -0,0 +1,73 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static org.zalando.fahrschein.JsonParserHelper.expectToken;
+
+/**
+ * Reads the elements of a JSON array one at a time while the iterator is consumed, for implementing
+ * {@link EventReader#readIterator(JsonParser)}. The start of the array has to be read already. Exceptions while
+ * reading are thrown as {@link UncheckedIOException}.
+ */
+abstract class JsonArrayIterator<T> implements Iterator<T> {
+    private final JsonParser jsonParser;
+    @Nullable
+    private T next;
+    private boolean done;
+
+    JsonArrayIterator(JsonParser jsonParser) {
+        this.jsonParser = jsonParser;
+    }
+
+    /**
+     * Reads the element starting at the current token.
+     *
+     * @return the element, or {@code null} to skip it
+     */
+    @Nullable
+    protected abstract T readElement(JsonParser jsonParser, JsonToken token) throws IOException;
+
+    /**
+     * Called once after the end of the array was read.
+     */
+    protected void onEnd() throws IOException {
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (next == null && !done) {
+                final JsonToken token = jsonParser.nextToken();
+                if (token == JsonToken.END_ARRAY) {
+                    done = true;
+                    onEnd();
+                } else {
+                    if (token == null) {
+                        expectToken(token, JsonToken.END_ARRAY);
+                    }
+                    next = readElement(jsonParser, token);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return next != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final T result = next;
+        next = null;
+        return result;
+    }
+}
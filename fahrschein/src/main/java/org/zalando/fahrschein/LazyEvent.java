@@ -0,0 +1,44 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.zalando.fahrschein.domain.Event;
+import org.zalando.fahrschein.domain.Metadata;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+
+/**
+ * An event of which only the {@link Metadata} was decoded. The complete event is kept as buffered tokens
+ * and only bound to a class when {@link #bindTo(Class)} is called, so events that are dropped or routed based
+ * on their metadata are never fully deserialized.
+ */
+public final class LazyEvent implements Event {
+    @Nullable
+    private final Metadata metadata;
+    private final TokenBuffer tokens;
+    private final ObjectMapper objectMapper;
+
+    LazyEvent(@Nullable Metadata metadata, TokenBuffer tokens, ObjectMapper objectMapper) {
+        this.metadata = metadata;
+        this.tokens = tokens;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return the metadata of the event, or {@code null} if the event has none, for example for undefined event types
+     */
+    @Override
+    @Nullable
+    public Metadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Deserializes the complete event, including its metadata, into the given class.
+     * Can be called several times, even with different classes.
+     */
+    public <T> T bindTo(Class<T> eventClass) throws IOException {
+        return objectMapper.readValue(tokens.asParser(), eventClass);
+    }
+}
@@ -0,0 +1,91 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.zalando.fahrschein.domain.Metadata;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.zalando.fahrschein.JsonParserHelper.expectToken;
+
+/**
+ * Reads events as {@link LazyEvent}s, only decoding their metadata and buffering the remaining tokens for binding on demand.
+ */
+public class LazyEventReader implements EventReader<LazyEvent> {
+    private final ObjectMapper objectMapper;
+    private final ObjectReader metadataReader;
+
+    public LazyEventReader() {
+        this(DefaultObjectMapper.INSTANCE);
+    }
+
+    /**
+     * @param objectMapper used to bind events in {@link LazyEvent#bindTo(Class)}
+     */
+    public LazyEventReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.metadataReader = objectMapper.readerFor(Metadata.class).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    @Override
+    public List<LazyEvent> read(JsonParser jsonParser) throws IOException {
+        final Iterator<LazyEvent> eventIterator = readIterator(jsonParser);
+
+        final List<LazyEvent> events = new ArrayList<>();
+        try {
+            while (eventIterator.hasNext()) {
+                events.add(eventIterator.next());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return events;
+    }
+
+    @Override
+    public Iterator<LazyEvent> readIterator(JsonParser jsonParser) throws IOException {
+        expectToken(jsonParser, JsonToken.START_ARRAY);
+
+        return new JsonArrayIterator<LazyEvent>(jsonParser) {
+            @Override
+            protected LazyEvent readElement(JsonParser jsonParser, JsonToken token) throws IOException {
+                expectToken(token, JsonToken.START_OBJECT);
+                return readEvent(jsonParser);
+            }
+        };
+    }
+
+    private LazyEvent readEvent(JsonParser jsonParser) throws IOException {
+        final TokenBuffer tokens = new TokenBuffer(jsonParser);
+        Metadata metadata = null;
+
+        tokens.writeStartObject();
+        for (JsonToken token = jsonParser.nextToken(); token != JsonToken.END_OBJECT; token = jsonParser.nextToken()) {
+            expectToken(token, JsonToken.FIELD_NAME);
+
+            final String field = jsonParser.getCurrentName();
+            tokens.writeFieldName(field);
+            jsonParser.nextToken();
+
+            if ("metadata".equals(field)) {
+                final TokenBuffer metadataTokens = new TokenBuffer(jsonParser);
+                metadataTokens.copyCurrentStructure(jsonParser);
+                metadata = metadataReader.readValue(metadataTokens.asParser());
+                tokens.append(metadataTokens);
+            } else {
+                tokens.copyCurrentStructure(jsonParser);
+            }
+        }
+        tokens.writeEndObject();
+
+        return new LazyEvent(metadata, tokens, objectMapper);
+    }
+}
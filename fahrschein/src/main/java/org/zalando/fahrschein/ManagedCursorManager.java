@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zalando.fahrschein.domain.Cursor;
+import org.zalando.fahrschein.domain.CursorCommitResult;
 import org.zalando.fahrschein.domain.Subscription;
 import org.zalando.fahrschein.http.api.ContentType;
 import org.zalando.fahrschein.http.api.Request;
@@ -25,6 +26,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static org.zalando.fahrschein.NakadiClientBuilder.wrapClientHttpRequestFactory;
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+import static org.zalando.fahrschein.Preconditions.checkState;
 import static java.util.Collections.singletonList;
 
 public class ManagedCursorManager implements CursorManager {
@@ -71,6 +74,19 @@ public class ManagedCursorManager implements CursorManager {
         }
     }
 
+    static final class CursorCommitResultWrapper {
+        private final List<CursorCommitResult> items;
+
+        @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
+        CursorCommitResultWrapper(@JsonProperty("items") List<CursorCommitResult> items) {
+            this.items = items;
+        }
+
+        public List<CursorCommitResult> getItems() {
+            return items;
+        }
+    }
+
     private final URI baseUri;
     private final RequestFactory clientHttpRequestFactory;
     private final ObjectMapper objectMapper;
@@ -91,6 +107,22 @@ public class ManagedCursorManager implements CursorManager {
         this.streams = new ConcurrentHashMap<>();
     }
 
+    /**
+     * @return a cursor manager for another stream, using the same connection settings. Subclasses return a copy of
+     * their own type, the caller closes it once the stream ended if it is {@link java.io.Closeable}.
+     */
+    ManagedCursorManager copy() {
+        return new ManagedCursorManager(baseUri, clientHttpRequestFactory, true);
+    }
+
+    URI getBaseUri() {
+        return baseUri;
+    }
+
+    RequestFactory getClientHttpRequestFactory() {
+        return clientHttpRequestFactory;
+    }
+
     @Override
     public void addSubscription(Subscription subscription) {
         for(String eventName: subscription.getEventTypes()){
@@ -109,39 +141,75 @@ public class ManagedCursorManager implements CursorManager {
 
     @Override
     public void onSuccess(String eventName, Cursor cursor) throws IOException, CursorCommitException {
-
         final SubscriptionStream stream = streams.get(eventName);
-        final String subscriptionId = stream.getSubscriptionId();
+        commit(stream.getSubscriptionId(), stream.getStreamId(), singletonList(cursor));
+    }
+
+    /**
+     * Commits cursors of several partitions and event types of the given subscription in a single request.
+     *
+     * @return the result for each cursor, in the order of the given cursors
+     */
+    public List<CursorCommitResult> commit(Subscription subscription, List<Cursor> cursors) throws IOException, CursorCommitException {
+        checkArgument(!cursors.isEmpty(), "Cursors should not be empty");
+        checkArgument(!subscription.getEventTypes().isEmpty(), "Subscription should have at least one event type");
+
+        final SubscriptionStream stream = streams.get(subscription.getEventTypes().iterator().next());
+        checkState(stream != null && stream.getStreamId() != null, "No stream was opened for subscription [%s]", subscription.getId());
+
+        return commit(subscription.getId(), stream.getStreamId(), cursors);
+    }
+
+    List<CursorCommitResult> commit(String subscriptionId, String streamId, List<Cursor> cursors) throws IOException, CursorCommitException {
         final URI subscriptionUrl = baseUri.resolve(String.format("/subscriptions/%s/cursors", subscriptionId));
 
-        LOG.debug("Committing cursors for subscription [{}] to event [{}] in partition [{}] with offset [{}]", subscriptionId, stream.getEventName(), cursor.getPartition(), cursor.getOffset());
+        if (LOG.isDebugEnabled()) {
+            for (Cursor cursor : cursors) {
+                LOG.debug("Committing cursors for subscription [{}] to event [{}] in partition [{}] with offset [{}]", subscriptionId, cursor.getEventType(), cursor.getPartition(), cursor.getOffset());
+            }
+        }
 
         final Request request = clientHttpRequestFactory.createRequest(subscriptionUrl, "POST");
 
         request.getHeaders().setContentType(ContentType.APPLICATION_JSON);
-        request.getHeaders().put("X-Nakadi-StreamId", stream.getStreamId());
+        request.getHeaders().put("X-Nakadi-StreamId", streamId);
 
         try (OutputStream os = request.getBody()) {
-            objectMapper.writeValue(os, new CursorWrapper(singletonList(cursor)));
+            objectMapper.writeValue(os, new CursorWrapper(cursors));
         }
 
         try (final Response response = request.execute()) {
 
             final int status = response.getStatusCode();
             if (status == 204) {
-                LOG.debug("Successfully committed cursor for subscription [{}] to event [{}] in partition [{}] with offset [{}]", subscriptionId, eventName, cursor.getPartition(), cursor.getOffset());
+                LOG.debug("Successfully committed [{}] cursors for subscription [{}]", cursors.size(), subscriptionId);
+                return cursors.stream().map(cursor -> new CursorCommitResult(cursor, CursorCommitResult.Result.COMMITTED)).collect(Collectors.toList());
             } else if (status == 200) {
-                LOG.warn("Cursor for subscription [{}] to event [{}] in partition [{}] with offset [{}] was already committed", subscriptionId, eventName, cursor.getPartition(), cursor.getOffset());
+                final List<CursorCommitResult> results;
+                try (InputStream is = response.getBody()) {
+                    results = objectMapper.readValue(is, CursorCommitResultWrapper.class).getItems();
+                }
+                for (CursorCommitResult result : results) {
+                    if (!result.isCommitted()) {
+                        final Cursor cursor = result.getCursor();
+                        LOG.warn("Cursor for subscription [{}] to event [{}] in partition [{}] with offset [{}] was already committed", subscriptionId, cursor.getEventType(), cursor.getPartition(), cursor.getOffset());
+                    }
+                }
+                return results;
             } else {
-                throw new CursorCommitException(status, cursor, subscriptionId, inputStreamToString(response.getBody()));
+                throw new CursorCommitException(status, cursors, subscriptionId, inputStreamToString(response.getBody()));
             }
         } catch (IOProblem e) {
             // in order to not have to refactor the entire ProblemHandlingRequest class,
             // we are catching the error here and re-throwing a more specific one
-            throw new CursorCommitException(e.getStatusCode(), cursor, subscriptionId, e);
+            throw new CursorCommitException(e.getStatusCode(), cursors, subscriptionId, e);
         }
     }
 
+    SubscriptionStream getStream(String eventName) {
+        return streams.get(eventName);
+    }
+
     private String inputStreamToString(InputStream inputStream) {
         return new BufferedReader(new InputStreamReader(inputStream))
             .lines().collect(Collectors.joining("\n"));
@@ -149,8 +217,9 @@ public class ManagedCursorManager implements CursorManager {
 
     @Override
     public void onSuccess(String eventName, List<Cursor> cursors) throws IOException {
-        for (Cursor cursor : cursors) {
-            onSuccess(eventName, cursor);
+        if (!cursors.isEmpty()) {
+            final SubscriptionStream stream = streams.get(eventName);
+            commit(stream.getSubscriptionId(), stream.getStreamId(), cursors);
         }
     }
 
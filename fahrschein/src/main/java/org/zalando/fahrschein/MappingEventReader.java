@@ -8,8 +8,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import static org.zalando.fahrschein.JsonParserHelper.expectToken;
 
@@ -24,37 +27,81 @@ public class MappingEventReader<T> implements EventReader<T> {
 
     @Override
     public List<T> read(JsonParser jsonParser) throws IOException {
-        expectToken(jsonParser, JsonToken.START_ARRAY);
-        jsonParser.clearCurrentToken();
-
-        final MappingIterator<T> eventIterator = eventReader.readValues(jsonParser);
+        final Iterator<T> eventIterator = readIterator(jsonParser);
 
         final List<T> events = new ArrayList<>();
-        while (true) {
-            try {
-                // MappingIterator#hasNext can theoretically also throw RuntimeExceptions, that's why we use this strange loop structure
-                if (eventIterator.hasNext()) {
-                    events.add(eventClass.cast(eventIterator.next()));
-                } else {
-                    break;
-                }
-            } catch (RuntimeException e) {
-                final Throwable cause = e.getCause();
-                if (cause instanceof JsonMappingException) {
-                    onMappingException((JsonMappingException) cause);
-                } else if (cause instanceof IOException) {
-                    throw (IOException)cause;
-                } else {
-                    throw e;
-                }
+        try {
+            while (eventIterator.hasNext()) {
+                events.add(eventIterator.next());
             }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
         return events;
 
     }
 
+    @Override
+    public Iterator<T> readIterator(JsonParser jsonParser) throws IOException {
+        expectToken(jsonParser, JsonToken.START_ARRAY);
+        jsonParser.clearCurrentToken();
+
+        return new EventIterator(eventReader.readValues(jsonParser));
+    }
+
     protected void onMappingException(JsonMappingException exception) throws IOException {
         throw exception;
     }
 
+    private final class EventIterator implements Iterator<T> {
+        private final MappingIterator<T> delegate;
+        private boolean hasNext;
+        private boolean done;
+        private T next;
+
+        EventIterator(MappingIterator<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!hasNext && !done) {
+                try {
+                    // MappingIterator#hasNext can theoretically also throw RuntimeExceptions, that's why we use this strange loop structure
+                    if (delegate.hasNext()) {
+                        next = eventClass.cast(delegate.next());
+                        hasNext = true;
+                    } else {
+                        done = true;
+                    }
+                } catch (RuntimeException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof JsonMappingException) {
+                        try {
+                            onMappingException((JsonMappingException) cause);
+                        } catch (IOException ioException) {
+                            throw new UncheckedIOException(ioException);
+                        }
+                    } else if (cause instanceof IOException) {
+                        throw new UncheckedIOException((IOException) cause);
+                    } else {
+                        throw e;
+                    }
+                }
+            }
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final T result = next;
+            next = null;
+            hasNext = false;
+            return result;
+        }
+    }
+
 }
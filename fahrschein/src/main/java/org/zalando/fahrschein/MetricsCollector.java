@@ -1,5 +1,7 @@
 package org.zalando.fahrschein;
 
+import org.zalando.fahrschein.http.api.ContentEncoding;
+
 public interface MetricsCollector {
     void markMessageReceived();
 
@@ -10,4 +12,33 @@ public interface MetricsCollector {
     void markReconnection();
 
     void markMessageSuccessfullyProcessed();
+
+    /**
+     * Called when a batch is split into several parts, because it exceeded the configured batch budget.
+     */
+    default void markBatchBudgetExceeded() {
+    }
+
+    /**
+     * Called whenever the number of events in a {@link NakadiOutbox} that were not yet published changes.
+     */
+    default void markOutboxBacklog(long events, long bytes) {
+    }
+
+    /**
+     * Called when events were published from a {@link NakadiOutbox}.
+     */
+    default void markOutboxEventsDrained(int size) {
+    }
+
+    /**
+     * Called when a request body to the given endpoint was written by an {@link AdaptiveCompressionRequestFactory}.
+     *
+     * @param endpoint the path of the request, with names and ids replaced by placeholders like {@code /event-types/{name}/events}
+     * @param uncompressedBytes the size of the body before encoding
+     * @param compressedBytes the size of the body after encoding
+     * @param encodingNanos the CPU time spent for writing and encoding the body
+     */
+    default void markRequestBodyEncoded(String endpoint, ContentEncoding contentEncoding, long uncompressedBytes, long compressedBytes, long encodingNanos) {
+    }
 }
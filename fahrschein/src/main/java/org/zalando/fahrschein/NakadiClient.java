@@ -17,13 +17,19 @@ import org.zalando.fahrschein.http.api.Response;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 import static org.zalando.fahrschein.Preconditions.checkArgument;
+import static org.zalando.fahrschein.Preconditions.checkNotNull;
 import static org.zalando.fahrschein.Preconditions.checkState;
 
 /**
@@ -35,6 +41,8 @@ public class NakadiClient {
     private static final TypeReference<List<Partition>> LIST_OF_PARTITIONS = new TypeReference<List<Partition>>() {
     };
 
+    private static final int TRANSFER_BUFFER_BYTES = 8 * 1024;
+
     private final URI baseUri;
     private final RequestFactory requestFactory;
     private final ObjectMapper internalObjectMapper;
@@ -90,15 +98,160 @@ public class NakadiClient {
 
         request.getHeaders().setContentType(ContentType.APPLICATION_JSON);
 
-        try (final OutputStream body = request.getBody()) {
-            objectMapper.writeValue(body, events);
+        request.setBody(body -> objectMapper.writeValue(body, events));
+
+        try (final Response response = request.execute()) {
+            LOG.debug("Successfully published [{}] events for [{}]", events.size(), eventName);
+        } catch (EventPublishingException e) {
+            throw withFailedEvents(e, events, event -> EidExtractor.fromEvent(objectMapper, event));
+        }
+    }
+
+    private static <T> EventPublishingException withFailedEvents(EventPublishingException e, List<T> events, Function<T, String> eidExtractor) {
+        final List<T> failedEvents = PartialBatchRetry.mapFailedEvents(events, e, eidExtractor);
+        if (failedEvents == null) {
+            return e;
+        }
+        final EventPublishingException exception = new EventPublishingException(e.getResponses(), e.getBatchItemResponses(), failedEvents);
+        exception.setStackTrace(e.getStackTrace());
+        return exception;
+    }
+
+    /**
+     * Writes the given events to the endpoint provided by the eventName. If Nakadi does not accept some of the events,
+     * only those are published again using the given {@code BackoffStrategy}. Events that failed validation or
+     * partitioning are not retried.
+     *
+     * @param eventName where the event should be written to
+     * @param events that should be written
+     * @param backoffStrategy used for retrying the events that were not accepted
+     * @param failedEventHandler receives the events that could not be published, after retries were exhausted
+     * @param <T> Type of the Event
+     * @throws InterruptedIOException if interrupted while waiting for a retry, remaining events are passed to the handler first
+     */
+    public <T> void publish(String eventName, List<T> events, BackoffStrategy backoffStrategy, FailedEventHandler<T> failedEventHandler) throws InterruptedIOException {
+        checkNotNull(backoffStrategy, "Backoff strategy should not be null");
+        checkNotNull(failedEventHandler, "Failed event handler should not be null");
+
+        final PartialBatchRetry<T> retry = new PartialBatchRetry<>(batch -> publish(eventName, batch), event -> EidExtractor.fromEvent(objectMapper, event), backoffStrategy, failedEventHandler);
+        retry.publish(events);
+    }
+
+    /**
+     * Writes the given events to the endpoint provided by the eventName, using as many requests as necessary to keep
+     * each request body below {@code maxBatchBytes}.
+     *
+     * @param eventName where the event should be written to
+     * @param events that should be written
+     * @param maxBatchBytes the maximum size of a request body, a single event bigger than this is sent on its own
+     * @param <T> Type of the Event
+     * @throws EventPublishingException if any event was not published, with one batch item response per event
+     * @throws IOException if no request succeeded
+     */
+    public <T> void publishInBatches(String eventName, List<T> events, long maxBatchBytes) throws EventPublishingException, IOException {
+        publishInBatches(eventName, events, maxBatchBytes, Runnable::run, 1);
+    }
+
+    /**
+     * Writes the given events like {@link #publishInBatches(String, List, long)}, sending up to
+     * {@code maxParallelRequests} requests concurrently using the given executor. Events of different requests might
+     * be published in a different order than given.
+     */
+    public <T> void publishInBatches(String eventName, List<T> events, long maxBatchBytes, Executor executor, int maxParallelRequests) throws EventPublishingException, IOException {
+        new BatchSplittingPublisher(this, objectMapper, eventName, maxBatchBytes, executor, maxParallelRequests).publish(events);
+    }
+
+    /**
+     * Writes the given events, each already serialized as a UTF-8 encoded json object, to the endpoint provided by the
+     * eventName. The events are copied into the request body as they are, without parsing or validating them.
+     *
+     * @param eventName where the event should be written to
+     * @param events the serialized events
+     * @throws IOException in case we fail to reach Nakadi
+     * @throws EventPublishingException In case Nakadi returns an Erroneous response, {@link EventPublishingException#getFailedEvents()} returns the arrays of the failed events
+     */
+    public void publishSerialized(String eventName, List<byte[]> events) throws EventPublishingException, IOException {
+        long eventBytes = 0;
+        for (byte[] event : events) {
+            eventBytes += event.length;
+        }
+        publishSerialized(eventName, events, eventBytes, OutputStream::write, event -> EidExtractor.fromPayload(objectMapper, event));
+    }
+
+    /**
+     * Writes the given events like {@link #publishSerialized(String, List)}, for events held in buffers, for example
+     * the {@link RawEvent#asByteBuffer() buffers} of events read using a {@link RawEventReader}. The remaining bytes
+     * of each buffer are written, the positions of the buffers are not changed.
+     *
+     * @throws EventPublishingException In case Nakadi returns an Erroneous response, {@link EventPublishingException#getFailedEvents()} returns the buffers of the failed events
+     */
+    public void publishSerializedBuffers(String eventName, List<ByteBuffer> events) throws EventPublishingException, IOException {
+        long eventBytes = 0;
+        for (ByteBuffer event : events) {
+            eventBytes += event.remaining();
         }
+        final byte[] transferBuffer = new byte[(int) Math.min(eventBytes, TRANSFER_BUFFER_BYTES)];
+        publishSerialized(eventName, events, eventBytes, (body, event) -> write(body, event, transferBuffer), event -> EidExtractor.fromPayload(objectMapper, event));
+    }
+
+    @FunctionalInterface
+    private interface EventWriter<E> {
+        void write(OutputStream body, E event) throws IOException;
+    }
+
+    private <E> void publishSerialized(String eventName, List<E> events, long eventBytes, EventWriter<E> eventWriter, Function<E, String> eidExtractor) throws EventPublishingException, IOException {
+        final URI uri = baseUri.resolve(String.format("/event-types/%s/events", eventName));
+        final Request request = requestFactory.createRequest(uri, "POST");
+
+        request.getHeaders().setContentType(ContentType.APPLICATION_JSON);
+
+        request.setBody(body -> {
+            body.write('[');
+            for (int i = 0; i < events.size(); i++) {
+                if (i > 0) {
+                    body.write(',');
+                }
+                eventWriter.write(body, events.get(i));
+            }
+            body.write(']');
+        }, Math.max(eventBytes + events.size() + 1, 2));
 
         try (final Response response = request.execute()) {
             LOG.debug("Successfully published [{}] events for [{}]", events.size(), eventName);
+        } catch (EventPublishingException e) {
+            throw withFailedEvents(e, events, eidExtractor);
+        }
+    }
+
+    private static void write(OutputStream body, ByteBuffer event, byte[] transferBuffer) throws IOException {
+        if (event.hasArray()) {
+            body.write(event.array(), event.arrayOffset() + event.position(), event.remaining());
+            return;
+        }
+        // read-only and direct buffers do not expose their array
+        final ByteBuffer source = event.duplicate();
+        while (source.hasRemaining()) {
+            final int length = Math.min(source.remaining(), transferBuffer.length);
+            source.get(transferBuffer, 0, length);
+            body.write(transferBuffer, 0, length);
         }
     }
 
+    /**
+     * Build an asynchronous publisher that collects events into batches for the given eventName.
+     */
+    public NakadiPublisherBuilder publisher(String eventName) {
+        return new NakadiPublisherBuilder(this, objectMapper, eventName);
+    }
+
+    /**
+     * Build an outbox for the given eventName, which stores events in the given directory until they were published.
+     * The directory can only be used by one outbox at a time.
+     */
+    public NakadiOutboxBuilder outbox(String eventName, Path directory) {
+        return new NakadiOutboxBuilder(this, objectMapper, eventName, directory);
+    }
+
     /**
      * Create a subscription for a single event type.
      *
@@ -175,6 +328,29 @@ public class NakadiClient {
         return new StreamBuilders.SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, subscription);
     }
 
+    /**
+     * Runs several streams of the subscription, each with its own copy of the {@link ManagedCursorManager} or
+     * {@link CoalescingCursorManager} of this client, see {@link StreamSupervisor}.
+     */
+    public StreamSupervisorBuilder supervise(Subscription subscription) {
+        checkState(cursorManager instanceof ManagedCursorManager, "Subscription api requires a ManagedCursorManager");
+        checkState(cursorManager.getClass() == ManagedCursorManager.class || cursorManager.getClass() == CoalescingCursorManager.class,
+                "Supervised streams require a ManagedCursorManager or CoalescingCursorManager, [%s] can not be copied for each stream", cursorManager.getClass().getName());
+        final ManagedCursorManager managedCursorManager = (ManagedCursorManager) cursorManager;
+
+        return new StreamSupervisorBuilder(subscription, cursorManagerDecorator -> {
+            final ManagedCursorManager streamCursorManager = managedCursorManager.copy();
+            streamCursorManager.addSubscription(subscription);
+            return new StreamBuilders.SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManagerDecorator.apply(streamCursorManager), objectMapper, subscription);
+        }, () -> {
+            int partitions = 0;
+            for (String eventName : subscription.getEventTypes()) {
+                partitions += getPartitions(eventName).size();
+            }
+            return partitions;
+        });
+    }
+
     public StreamBuilder.LowLevelStreamBuilder stream(String eventName) {
         return new StreamBuilders.LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, eventName);
     }
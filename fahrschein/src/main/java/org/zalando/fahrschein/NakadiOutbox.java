@@ -0,0 +1,269 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.fahrschein.domain.BatchItemResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores events on local disk before they are published, so that producers can keep publishing while Nakadi is
+ * unavailable.
+ *
+ * {@link #publish(Object)} appends the serialized event to memory-mapped segment files and returns without waiting
+ * for Nakadi. A background thread drains the stored events in batches of up to {@code maxBatchEvents} events or
+ * {@code maxBatchBytes} bytes and acknowledges them once they were published, which deletes segments of which all
+ * events were published. Failed requests are retried using the {@link BackoffStrategy} until they succeed. Events
+ * that Nakadi rejected during validation or partitioning are passed to the {@link FailedEventHandler}, as are events
+ * rejected with a client error problem like {@code 413 Payload Too Large}, for which the events of the batch are
+ * published one by one to find the rejected ones. Unauthorized, timed out and throttled requests are retried.
+ *
+ * The segment files are not synced to the storage device, stored events survive a crash of the JVM but can be lost
+ * if the operating system crashes or the machine loses power.
+ *
+ * Events that were not yet acknowledged are published after a restart of the JVM, which can publish events twice if
+ * the JVM stopped after they were published but before they were acknowledged. Consumers should deduplicate by
+ * {@code eid}. Events are published in the order they were stored, except that events of a batch that failed are
+ * retried after the events of the same batch that Nakadi accepted.
+ *
+ * Instances are created using {@link NakadiClient#outbox(String, java.nio.file.Path)}.
+ */
+public class NakadiOutbox<T> implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NakadiOutbox.class);
+
+    private final NakadiClient nakadiClient;
+    private final ObjectMapper objectMapper;
+    private final String eventName;
+    private final OutboxLog log;
+    private final int maxBatchEvents;
+    private final long maxBatchBytes;
+    private final long drainIntervalNanos;
+    private final BackoffStrategy backoffStrategy;
+    private final FailedEventHandler<byte[]> failedEventHandler;
+    private final MetricsCollector metricsCollector;
+    private final Thread drainingThread;
+    private final Object lock = new Object();
+
+    private volatile boolean closed;
+    // guarded by lock
+    private boolean requestInFlight;
+
+    NakadiOutbox(NakadiClient nakadiClient, ObjectMapper objectMapper, String eventName, OutboxLog log, int maxBatchEvents, long maxBatchBytes, long drainIntervalNanos, BackoffStrategy backoffStrategy, FailedEventHandler<byte[]> failedEventHandler, MetricsCollector metricsCollector) {
+        this.nakadiClient = nakadiClient;
+        this.objectMapper = objectMapper;
+        this.eventName = eventName;
+        this.log = log;
+        this.maxBatchEvents = maxBatchEvents;
+        this.maxBatchBytes = maxBatchBytes;
+        this.drainIntervalNanos = drainIntervalNanos;
+        this.backoffStrategy = backoffStrategy;
+        this.failedEventHandler = failedEventHandler;
+        this.metricsCollector = metricsCollector;
+        this.drainingThread = new DaemonThreadFactory("fahrschein-outbox-" + eventName).newThread(this::drain);
+        this.drainingThread.start();
+    }
+
+    /**
+     * Stores the event for publishing. Returns once the event was written to the outbox, not when it was published.
+     *
+     * @throws IllegalStateException if the outbox was already closed
+     */
+    public void publish(T event) throws IOException {
+        log.append(objectMapper.writeValueAsBytes(event));
+    }
+
+    /**
+     * The number of stored events that were not yet published.
+     */
+    public long getBacklogEvents() {
+        return log.getBacklogEvents();
+    }
+
+    /**
+     * The size in bytes of the stored events that were not yet published.
+     */
+    public long getBacklogBytes() {
+        return log.getBacklogBytes();
+    }
+
+    /**
+     * Stops draining and closes the segment files. The request in flight is awaited but not retried if it fails, stored
+     * events that were not yet published are kept for the next time the outbox is opened.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            // a request in flight is not interrupted, the draining thread stops once it completed
+            if (!requestInFlight) {
+                drainingThread.interrupt();
+            }
+        }
+        try {
+            drainingThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the outbox to stop draining");
+        } finally {
+            log.close();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!closed) {
+                try {
+                    drainBatch();
+                } catch (RuntimeException e) {
+                    LOG.error("Draining of outbox for [{}] failed", eventName, e);
+                    TimeUnit.NANOSECONDS.sleep(drainIntervalNanos);
+                }
+            }
+        } catch (InterruptedException e) {
+            if (!closed) {
+                LOG.warn("Draining of outbox for [{}] was interrupted", eventName);
+            }
+        }
+    }
+
+    private void drainBatch() throws InterruptedException {
+        final OutboxLog.Batch batch = log.read(maxBatchEvents, maxBatchBytes);
+        if (batch == null) {
+            TimeUnit.NANOSECONDS.sleep(drainIntervalNanos);
+            return;
+        }
+
+        publish(batch.getPayloads());
+        log.acknowledge(batch);
+        metricsCollector.markOutboxEventsDrained(batch.getPayloads().size());
+
+        if (batch.isEndOfLog() && batch.getPayloads().size() < maxBatchEvents) {
+            // let more events accumulate for the next batch
+            TimeUnit.NANOSECONDS.sleep(drainIntervalNanos);
+        }
+    }
+
+    /**
+     * Publishes the events, retrying the events that failed until all were either published or rejected permanently.
+     */
+    private void publish(List<byte[]> payloads) throws InterruptedException {
+        final Deque<List<byte[]>> remaining = new ArrayDeque<>();
+        remaining.add(payloads);
+        while (!remaining.isEmpty()) {
+            try {
+                backoffStrategy.call(0, null, () -> {
+                    publishFirst(remaining);
+                    return null;
+                });
+            } catch (BackoffException e) {
+                LOG.warn("Could not publish [{}] events of [{}] from outbox, will retry", remaining.getFirst().size(), eventName, e.getCause());
+                TimeUnit.NANOSECONDS.sleep(drainIntervalNanos);
+            }
+        }
+    }
+
+    /**
+     * Publishes the first of the remaining requests. It is removed once it needs no retry, events that still have to be
+     * retried stay first.
+     */
+    private void publishFirst(Deque<List<byte[]>> remaining) throws IOException {
+        final List<byte[]> events = remaining.getFirst();
+        startRequest();
+        boolean failed = true;
+        try {
+            nakadiClient.publishSerialized(eventName, events);
+            remaining.removeFirst();
+            failed = false;
+        } catch (EventPublishingException e) {
+            final List<byte[]> retryable = retryableEvents(events, e);
+            remaining.removeFirst();
+            if (retryable.isEmpty()) {
+                failed = false;
+                return;
+            }
+            remaining.addFirst(retryable);
+            throw e;
+        } catch (IOProblem e) {
+            if (!isPermanentProblem(e)) {
+                throw e;
+            }
+            remaining.removeFirst();
+            failed = false;
+            if (events.size() == 1) {
+                failedEventHandler.onFailedEvents(events, e);
+            } else {
+                LOG.warn("Nakadi rejected [{}] events of [{}] from outbox with status [{}], publishing them one by one", events.size(), eventName, e.getStatusCode());
+                for (int i = events.size() - 1; i >= 0; i--) {
+                    remaining.addFirst(Collections.singletonList(events.get(i)));
+                }
+            }
+        } finally {
+            endRequest(failed);
+        }
+    }
+
+    /**
+     * Client errors are permanent, except for expired tokens, timeouts and throttling.
+     */
+    private static boolean isPermanentProblem(IOProblem problem) {
+        final int statusCode = problem.getStatusCode();
+        return statusCode >= 400 && statusCode < 500 && statusCode != 401 && statusCode != 408 && statusCode != 429;
+    }
+
+    private void startRequest() throws InterruptedIOException {
+        synchronized (lock) {
+            if (closed) {
+                throw new InterruptedIOException("Outbox was closed");
+            }
+            requestInFlight = true;
+        }
+    }
+
+    private void endRequest(boolean failed) {
+        synchronized (lock) {
+            requestInFlight = false;
+            if (closed && failed) {
+                // stops the backoff instead of retrying
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private List<byte[]> retryableEvents(List<byte[]> events, EventPublishingException exception) {
+        final List<byte[]> failed = PartialBatchRetry.mapFailedEvents(events, exception, payload -> EidExtractor.fromPayload(objectMapper, payload));
+        if (failed == null) {
+            // the rejected events are unknown, retrying all of them would fail forever if any was rejected permanently
+            for (BatchItemResponse response : exception.getResponses()) {
+                if (PartialBatchRetry.isPermanentFailure(response)) {
+                    failedEventHandler.onFailedEvents(events, exception);
+                    return Collections.emptyList();
+                }
+            }
+            return events;
+        }
+
+        final List<byte[]> permanent = new ArrayList<>();
+        final List<byte[]> retryable = new ArrayList<>(failed.size());
+        for (int i = 0; i < failed.size(); i++) {
+            if (PartialBatchRetry.isPermanentFailure(exception.getResponses()[i])) {
+                permanent.add(failed.get(i));
+            } else {
+                retryable.add(failed.get(i));
+            }
+        }
+        if (!permanent.isEmpty()) {
+            failedEventHandler.onFailedEvents(permanent, exception);
+        }
+        return retryable;
+    }
+}
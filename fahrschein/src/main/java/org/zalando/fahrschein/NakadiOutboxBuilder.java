@@ -0,0 +1,125 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+import static org.zalando.fahrschein.Preconditions.checkNotNull;
+
+public final class NakadiOutboxBuilder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NakadiOutboxBuilder.class);
+
+    static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+    static final int DEFAULT_MAX_BATCH_EVENTS = 1000;
+    static final long DEFAULT_MAX_BATCH_BYTES = 4 * 1024 * 1024;
+    static final long DEFAULT_DRAIN_INTERVAL_MILLIS = 100;
+    static final BackoffStrategy DEFAULT_BACKOFF_STRATEGY = new ExponentialBackoffStrategy(ExponentialBackoffStrategy.DEFAULT_INITIAL_DELAY, ExponentialBackoffStrategy.DEFAULT_BACKOFF_FACTOR, 60 * 1000L, -1);
+
+    private final NakadiClient nakadiClient;
+    private final ObjectMapper objectMapper;
+    private final String eventName;
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxBatchEvents;
+    private final long maxBatchBytes;
+    private final long drainIntervalNanos;
+    private final BackoffStrategy backoffStrategy;
+    private final FailedEventHandler<byte[]> failedEventHandler;
+    private final MetricsCollector metricsCollector;
+
+    NakadiOutboxBuilder(NakadiClient nakadiClient, ObjectMapper objectMapper, String eventName, Path directory) {
+        this(nakadiClient, objectMapper, eventName, directory, DEFAULT_SEGMENT_BYTES, DEFAULT_MAX_BATCH_EVENTS, DEFAULT_MAX_BATCH_BYTES,
+                TimeUnit.MILLISECONDS.toNanos(DEFAULT_DRAIN_INTERVAL_MILLIS), DEFAULT_BACKOFF_STRATEGY,
+                (events, exception) -> LOG.warn("Dropping [{}] events of [{}] from outbox that were rejected by Nakadi", events.size(), eventName, exception),
+                NoMetricsCollector.NO_METRICS_COLLECTOR);
+    }
+
+    private NakadiOutboxBuilder(NakadiClient nakadiClient, ObjectMapper objectMapper, String eventName, Path directory, int segmentBytes, int maxBatchEvents, long maxBatchBytes, long drainIntervalNanos, BackoffStrategy backoffStrategy, FailedEventHandler<byte[]> failedEventHandler, MetricsCollector metricsCollector) {
+        this.nakadiClient = nakadiClient;
+        this.objectMapper = objectMapper;
+        this.eventName = checkNotNull(eventName, "Event name should not be null");
+        this.directory = checkNotNull(directory, "Outbox directory should not be null");
+        this.segmentBytes = segmentBytes;
+        this.maxBatchEvents = maxBatchEvents;
+        this.maxBatchBytes = maxBatchBytes;
+        this.drainIntervalNanos = drainIntervalNanos;
+        this.backoffStrategy = backoffStrategy;
+        this.failedEventHandler = failedEventHandler;
+        this.metricsCollector = metricsCollector;
+    }
+
+    /**
+     * The size of the segment files events are stored in. A segment is deleted once all of its events were published.
+     */
+    public NakadiOutboxBuilder withSegmentBytes(int segmentBytes) {
+        checkArgument(segmentBytes > OutboxLog.HEADER_BYTES + OutboxLog.RECORD_HEADER_BYTES, "Segment size should be bigger than " + (OutboxLog.HEADER_BYTES + OutboxLog.RECORD_HEADER_BYTES));
+        return new NakadiOutboxBuilder(nakadiClient, objectMapper, eventName, directory, segmentBytes, maxBatchEvents, maxBatchBytes, drainIntervalNanos, backoffStrategy, failedEventHandler, metricsCollector);
+    }
+
+    /**
+     * The maximum number of stored events that are published in one request.
+     */
+    public NakadiOutboxBuilder withMaxBatchEvents(int maxBatchEvents) {
+        checkArgument(maxBatchEvents > 0, "Maximum number of events per batch should be bigger than 0");
+        return new NakadiOutboxBuilder(nakadiClient, objectMapper, eventName, directory, segmentBytes, maxBatchEvents, maxBatchBytes, drainIntervalNanos, backoffStrategy, failedEventHandler, metricsCollector);
+    }
+
+    /**
+     * The maximum size of the stored events that are published in one request. A single event bigger than this is sent on its own.
+     */
+    public NakadiOutboxBuilder withMaxBatchBytes(long maxBatchBytes) {
+        checkArgument(maxBatchBytes > 0, "Maximum batch size in bytes should be bigger than 0");
+        return new NakadiOutboxBuilder(nakadiClient, objectMapper, eventName, directory, segmentBytes, maxBatchEvents, maxBatchBytes, drainIntervalNanos, backoffStrategy, failedEventHandler, metricsCollector);
+    }
+
+    /**
+     * The time the draining thread waits for new events once all stored events were published.
+     */
+    public NakadiOutboxBuilder withDrainInterval(long drainInterval, TimeUnit timeUnit) {
+        checkArgument(drainInterval > 0, "Drain interval should be bigger than 0");
+        return new NakadiOutboxBuilder(nakadiClient, objectMapper, eventName, directory, segmentBytes, maxBatchEvents, maxBatchBytes, timeUnit.toNanos(drainInterval), backoffStrategy, failedEventHandler, metricsCollector);
+    }
+
+    /**
+     * Used for retrying failed requests. Once the strategy gives up, the events are retried again after the drain
+     * interval, stored events are never dropped because Nakadi is unavailable.
+     */
+    public NakadiOutboxBuilder withBackoffStrategy(BackoffStrategy backoffStrategy) {
+        return new NakadiOutboxBuilder(nakadiClient, objectMapper, eventName, directory, segmentBytes, maxBatchEvents, maxBatchBytes, drainIntervalNanos, checkNotNull(backoffStrategy, "Backoff strategy should not be null"), failedEventHandler, metricsCollector);
+    }
+
+    /**
+     * Receives the serialized events that Nakadi rejected during validation or partitioning, which are not retried.
+     * By default they are logged and dropped.
+     */
+    public NakadiOutboxBuilder withFailedEventHandler(FailedEventHandler<byte[]> failedEventHandler) {
+        return new NakadiOutboxBuilder(nakadiClient, objectMapper, eventName, directory, segmentBytes, maxBatchEvents, maxBatchBytes, drainIntervalNanos, backoffStrategy, checkNotNull(failedEventHandler, "Failed event handler should not be null"), metricsCollector);
+    }
+
+    /**
+     * Receives the backlog of stored events and the number of events published from the outbox.
+     */
+    public NakadiOutboxBuilder withMetricsCollector(MetricsCollector metricsCollector) {
+        return new NakadiOutboxBuilder(nakadiClient, objectMapper, eventName, directory, segmentBytes, maxBatchEvents, maxBatchBytes, drainIntervalNanos, backoffStrategy, failedEventHandler, checkNotNull(metricsCollector, "Metrics collector should not be null"));
+    }
+
+    public NakadiOutboxBuilder withObjectMapper(ObjectMapper objectMapper) {
+        return new NakadiOutboxBuilder(nakadiClient, checkNotNull(objectMapper, "Object mapper should not be null"), eventName, directory, segmentBytes, maxBatchEvents, maxBatchBytes, drainIntervalNanos, backoffStrategy, failedEventHandler, metricsCollector);
+    }
+
+    /**
+     * Opens the outbox, recovering the events that were stored but not published before, and starts draining them.
+     *
+     * @throws IOException if the directory can not be opened or is already used by another outbox
+     */
+    public <T> NakadiOutbox<T> build() throws IOException {
+        final OutboxLog log = OutboxLog.open(directory, segmentBytes, metricsCollector);
+        return new NakadiOutbox<>(nakadiClient, objectMapper, eventName, log, maxBatchEvents, maxBatchBytes, drainIntervalNanos, backoffStrategy, failedEventHandler, metricsCollector);
+    }
+}
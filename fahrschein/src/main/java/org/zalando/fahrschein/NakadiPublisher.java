@@ -0,0 +1,363 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects events from any number of threads and publishes them in batches to a single event type.
+ *
+ * Events are serialized when they are passed to {@link #publish(Object)} and kept in a bounded buffer. A batch is sent
+ * once it reaches {@code maxBatchEvents} events or {@code maxBatchBytes} bytes, or when its oldest event waited for
+ * the linger time. Up to {@code maxInFlightRequests} batches are sent concurrently, the buffer keeps filling meanwhile.
+ *
+ * With a partition key extractor, events are buffered in {@code maxInFlightRequests} shards selected by the hash of
+ * their key, and each shard has at most one request in flight. Events with the same key are therefore published in
+ * the order they were passed to the publisher, while different shards are sent concurrently. A rejected event is not
+ * retried if Nakadi accepted a later event with the same key from its batch, its future fails instead.
+ *
+ * The future returned for each event completes when the event was accepted by Nakadi, or exceptionally with the
+ * exception that failed it. If Nakadi accepts only part of a batch, only the futures of the rejected events fail.
+ * With a {@link BackoffStrategy}, rejected events are retried on their own before their futures fail, while the
+ * retry blocks one of the in-flight requests.
+ *
+ * Instances are created using {@link NakadiClient#publisher(String)}.
+ */
+public class NakadiPublisher<T> implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NakadiPublisher.class);
+
+    private static final class PendingEvent {
+        private final byte[] payload;
+        @Nullable
+        private final Object key;
+        private final long enqueuedAt;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingEvent(byte[] payload, @Nullable Object key, long enqueuedAt) {
+            this.payload = payload;
+            this.key = key;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private static final class Shard {
+        private final Queue<PendingEvent> buffer = new ArrayDeque<>();
+        private long bufferedBytes;
+        private boolean inFlight;
+    }
+
+    private static final class Batch {
+        private final Shard shard;
+        private final List<PendingEvent> events;
+
+        Batch(Shard shard, List<PendingEvent> events) {
+            this.shard = shard;
+            this.events = events;
+        }
+    }
+
+    private final NakadiClient nakadiClient;
+    private final ObjectMapper objectMapper;
+    private final String eventName;
+    private final int maxBatchEvents;
+    private final long maxBatchBytes;
+    private final long lingerNanos;
+    private final int maxBufferedEvents;
+    private final Semaphore inFlightRequests;
+    private final ExecutorService requestExecutor;
+    private final Thread batchingThread;
+    private final PartialBatchRetry<PendingEvent> retry;
+    @Nullable
+    private final Function<? super T, ?> partitionKeyExtractor;
+
+    private final Object lock = new Object();
+    private final Shard[] shards;
+    private int bufferedEvents;
+    private int nextShard;
+    private boolean flushRequested;
+    private boolean closed;
+
+    NakadiPublisher(NakadiClient nakadiClient, ObjectMapper objectMapper, String eventName, int maxBatchEvents, long maxBatchBytes, long lingerNanos, int maxBufferedEvents, int maxInFlightRequests, @Nullable BackoffStrategy backoffStrategy, @Nullable Function<? super T, ?> partitionKeyExtractor) {
+        this.nakadiClient = nakadiClient;
+        this.objectMapper = objectMapper;
+        this.eventName = eventName;
+        this.maxBatchEvents = maxBatchEvents;
+        this.maxBatchBytes = maxBatchBytes;
+        this.lingerNanos = lingerNanos;
+        this.maxBufferedEvents = maxBufferedEvents;
+        this.inFlightRequests = new Semaphore(maxInFlightRequests);
+        this.partitionKeyExtractor = partitionKeyExtractor;
+        this.shards = new Shard[partitionKeyExtractor == null ? 1 : maxInFlightRequests];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+        this.retry = new PartialBatchRetry<>(this::sendBatch, pendingEvent -> EidExtractor.fromPayload(objectMapper, pendingEvent.payload), backoffStrategy, (events, exception) -> complete(events, exception),
+                partitionKeyExtractor == null ? null : pendingEvent -> pendingEvent.key);
+        this.requestExecutor = Executors.newFixedThreadPool(maxInFlightRequests, new DaemonThreadFactory("fahrschein-publisher-" + eventName + "-request"));
+        this.batchingThread = new DaemonThreadFactory("fahrschein-publisher-" + eventName).newThread(this::collectBatches);
+        this.batchingThread.start();
+    }
+
+    /**
+     * Adds the event to the next batch. Blocks while the buffer is full.
+     *
+     * @return a future that completes once the event was published
+     */
+    public CompletableFuture<Void> publish(T event) {
+        final Object key = partitionKeyExtractor == null ? null : partitionKeyExtractor.apply(event);
+        final Shard shard = shards[Math.floorMod(Objects.hashCode(key), shards.length)];
+        final byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            return failed(e);
+        }
+
+        final PendingEvent pendingEvent = new PendingEvent(payload, key, System.nanoTime());
+        synchronized (lock) {
+            while (!closed && bufferedEvents >= maxBufferedEvents) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return failed(new InterruptedIOException("Interrupted while waiting for space in the publishing buffer"));
+                }
+            }
+            if (closed) {
+                return failed(new IllegalStateException("Publisher was already closed"));
+            }
+
+            final boolean wasEmpty = shard.buffer.isEmpty();
+            shard.buffer.add(pendingEvent);
+            shard.bufferedBytes += payload.length;
+            bufferedEvents++;
+            if (wasEmpty || isBatchComplete(shard)) {
+                lock.notifyAll();
+            }
+        }
+        return pendingEvent.future;
+    }
+
+    /**
+     * Sends all buffered events without waiting for the linger time.
+     *
+     * @return a future that completes once all events that were buffered at the time of the call were published
+     */
+    public CompletableFuture<Void> flush() {
+        final List<CompletableFuture<Void>> futures;
+        synchronized (lock) {
+            futures = new ArrayList<>(bufferedEvents);
+            for (Shard shard : shards) {
+                for (PendingEvent pendingEvent : shard.buffer) {
+                    futures.add(pendingEvent.future);
+                }
+            }
+            flushRequested = true;
+            lock.notifyAll();
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Stops accepting new events and blocks until all buffered events were published or failed.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            batchingThread.join();
+            requestExecutor.shutdown();
+            requestExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for pending events to be published");
+        }
+    }
+
+    private void collectBatches() {
+        while (true) {
+            final Batch batch;
+            try {
+                batch = awaitBatch();
+            } catch (InterruptedException e) {
+                LOG.warn("Publishing of events for [{}] was interrupted", eventName);
+                failRemaining(new InterruptedIOException("Publisher was interrupted"));
+                return;
+            }
+            if (batch == null) {
+                return;
+            }
+
+            try {
+                inFlightRequests.acquire();
+                requestExecutor.execute(() -> send(batch));
+            } catch (InterruptedException e) {
+                LOG.warn("Publishing of events for [{}] was interrupted", eventName);
+                final InterruptedIOException exception = new InterruptedIOException("Publisher was interrupted");
+                complete(batch.events, exception);
+                failRemaining(exception);
+                return;
+            } catch (RejectedExecutionException e) {
+                inFlightRequests.release();
+                complete(batch.events, e);
+                release(batch.shard);
+            }
+        }
+    }
+
+    /**
+     * Waits until the next batch is ready to be sent. Returns {@code null} when the publisher is closed and the
+     * buffer is empty.
+     */
+    @Nullable
+    private Batch awaitBatch() throws InterruptedException {
+        synchronized (lock) {
+            while (true) {
+                if (bufferedEvents == 0) {
+                    flushRequested = false;
+                    if (closed) {
+                        return null;
+                    }
+                    lock.wait();
+                    continue;
+                }
+
+                final long now = System.nanoTime();
+                long nextDeadline = Long.MAX_VALUE;
+                // start after the shard that was sent last, so a busy shard does not starve the others
+                for (int i = 0; i < shards.length; i++) {
+                    final int index = (nextShard + i) % shards.length;
+                    final Shard shard = shards[index];
+                    final PendingEvent oldest = shard.buffer.peek();
+                    if (oldest == null || shard.inFlight) {
+                        continue;
+                    }
+                    final long remaining = oldest.enqueuedAt + lingerNanos - now;
+                    if (closed || flushRequested || remaining <= 0 || isBatchComplete(shard)) {
+                        nextShard = (index + 1) % shards.length;
+                        return takeBatch(shard);
+                    }
+                    nextDeadline = Math.min(nextDeadline, remaining);
+                }
+
+                if (nextDeadline == Long.MAX_VALUE) {
+                    // all shards with buffered events have a request in flight
+                    lock.wait();
+                } else {
+                    TimeUnit.NANOSECONDS.timedWait(lock, nextDeadline);
+                }
+            }
+        }
+    }
+
+    // must be called while holding the lock
+    private Batch takeBatch(Shard shard) {
+        final List<PendingEvent> batch = new ArrayList<>(Math.min(shard.buffer.size(), maxBatchEvents));
+        long batchBytes = 0;
+        while (batch.size() < maxBatchEvents) {
+            final PendingEvent next = shard.buffer.peek();
+            if (next == null || (!batch.isEmpty() && batchBytes + next.payload.length + 1 > maxBatchBytes)) {
+                break;
+            }
+            shard.buffer.poll();
+            batch.add(next);
+            batchBytes += next.payload.length + 1;
+            shard.bufferedBytes -= next.payload.length;
+        }
+        bufferedEvents -= batch.size();
+        // only partitioned publishers keep the order within a shard
+        shard.inFlight = partitionKeyExtractor != null;
+        // wake up publishing threads waiting for space
+        lock.notifyAll();
+        return new Batch(shard, batch);
+    }
+
+    // must be called while holding the lock
+    private boolean isBatchComplete(Shard shard) {
+        return shard.buffer.size() >= maxBatchEvents || shard.bufferedBytes + shard.buffer.size() >= maxBatchBytes;
+    }
+
+    private void release(Shard shard) {
+        if (partitionKeyExtractor != null) {
+            synchronized (lock) {
+                shard.inFlight = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void send(Batch batch) {
+        try {
+            retry.publish(batch.events);
+        } catch (Throwable throwable) {
+            LOG.warn("Could not publish batch of [{}] events for [{}]", batch.events.size(), eventName, throwable);
+            complete(batch.events, throwable);
+        } finally {
+            // events that were not passed to the failed event handler were published
+            complete(batch.events, null);
+            inFlightRequests.release();
+            release(batch.shard);
+        }
+    }
+
+    private void sendBatch(List<PendingEvent> batch) throws IOException {
+        final List<byte[]> payloads = new ArrayList<>(batch.size());
+        for (PendingEvent pendingEvent : batch) {
+            payloads.add(pendingEvent.payload);
+        }
+        nakadiClient.publishSerialized(eventName, payloads);
+    }
+
+    private void failRemaining(Throwable throwable) {
+        final List<PendingEvent> remaining = new ArrayList<>();
+        synchronized (lock) {
+            closed = true;
+            for (Shard shard : shards) {
+                remaining.addAll(shard.buffer);
+                shard.buffer.clear();
+                shard.bufferedBytes = 0;
+            }
+            bufferedEvents = 0;
+            lock.notifyAll();
+        }
+        complete(remaining, throwable);
+    }
+
+    private static void complete(List<PendingEvent> batch, @Nullable Throwable throwable) {
+        for (PendingEvent pendingEvent : batch) {
+            if (throwable == null) {
+                pendingEvent.future.complete(null);
+            } else {
+                pendingEvent.future.completeExceptionally(throwable);
+            }
+        }
+    }
+
+    private static CompletableFuture<Void> failed(Throwable throwable) {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+}
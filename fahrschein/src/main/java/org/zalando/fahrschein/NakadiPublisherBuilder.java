@@ -0,0 +1,119 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+import static org.zalando.fahrschein.Preconditions.checkNotNull;
+
+public final class NakadiPublisherBuilder {
+
+    static final int DEFAULT_MAX_BATCH_EVENTS = 500;
+    static final long DEFAULT_MAX_BATCH_BYTES = 1024 * 1024;
+    static final long DEFAULT_LINGER_MILLIS = 10;
+    static final int DEFAULT_MAX_BUFFERED_EVENTS = 10_000;
+    static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS = 1;
+
+    private final NakadiClient nakadiClient;
+    private final ObjectMapper objectMapper;
+    private final String eventName;
+    private final int maxBatchEvents;
+    private final long maxBatchBytes;
+    private final long lingerNanos;
+    private final int maxBufferedEvents;
+    private final int maxInFlightRequests;
+    @Nullable
+    private final BackoffStrategy backoffStrategy;
+
+    NakadiPublisherBuilder(NakadiClient nakadiClient, ObjectMapper objectMapper, String eventName) {
+        this(nakadiClient, objectMapper, eventName, DEFAULT_MAX_BATCH_EVENTS, DEFAULT_MAX_BATCH_BYTES, TimeUnit.MILLISECONDS.toNanos(DEFAULT_LINGER_MILLIS), DEFAULT_MAX_BUFFERED_EVENTS, DEFAULT_MAX_IN_FLIGHT_REQUESTS, null);
+    }
+
+    private NakadiPublisherBuilder(NakadiClient nakadiClient, ObjectMapper objectMapper, String eventName, int maxBatchEvents, long maxBatchBytes, long lingerNanos, int maxBufferedEvents, int maxInFlightRequests, @Nullable BackoffStrategy backoffStrategy) {
+        this.nakadiClient = nakadiClient;
+        this.objectMapper = objectMapper;
+        this.eventName = checkNotNull(eventName, "Event name should not be null");
+        this.maxBatchEvents = maxBatchEvents;
+        this.maxBatchBytes = maxBatchBytes;
+        this.lingerNanos = lingerNanos;
+        this.maxBufferedEvents = maxBufferedEvents;
+        this.maxInFlightRequests = maxInFlightRequests;
+        this.backoffStrategy = backoffStrategy;
+    }
+
+    /**
+     * A batch is sent as soon as it contains this many events.
+     */
+    public NakadiPublisherBuilder withMaxBatchEvents(int maxBatchEvents) {
+        checkArgument(maxBatchEvents > 0, "Maximum number of events per batch should be bigger than 0");
+        return new NakadiPublisherBuilder(nakadiClient, objectMapper, eventName, maxBatchEvents, maxBatchBytes, lingerNanos, maxBufferedEvents, maxInFlightRequests, backoffStrategy);
+    }
+
+    /**
+     * A batch is sent as soon as its serialized events reach this size. A single event bigger than this is sent on its own.
+     */
+    public NakadiPublisherBuilder withMaxBatchBytes(long maxBatchBytes) {
+        checkArgument(maxBatchBytes > 0, "Maximum batch size in bytes should be bigger than 0");
+        return new NakadiPublisherBuilder(nakadiClient, objectMapper, eventName, maxBatchEvents, maxBatchBytes, lingerNanos, maxBufferedEvents, maxInFlightRequests, backoffStrategy);
+    }
+
+    /**
+     * The time an event waits for more events to join its batch before an incomplete batch is sent.
+     */
+    public NakadiPublisherBuilder withLinger(long linger, TimeUnit timeUnit) {
+        checkArgument(linger >= 0, "Linger time should not be negative");
+        return new NakadiPublisherBuilder(nakadiClient, objectMapper, eventName, maxBatchEvents, maxBatchBytes, timeUnit.toNanos(linger), maxBufferedEvents, maxInFlightRequests, backoffStrategy);
+    }
+
+    /**
+     * Publishing blocks while this many events are waiting to be sent.
+     */
+    public NakadiPublisherBuilder withMaxBufferedEvents(int maxBufferedEvents) {
+        checkArgument(maxBufferedEvents > 0, "Maximum number of buffered events should be bigger than 0");
+        return new NakadiPublisherBuilder(nakadiClient, objectMapper, eventName, maxBatchEvents, maxBatchBytes, lingerNanos, maxBufferedEvents, maxInFlightRequests, backoffStrategy);
+    }
+
+    /**
+     * The number of batches that are sent concurrently. With more than one request in flight, batches might be
+     * published in a different order than their events were passed to the publisher, unless the publisher is
+     * created with a partition key using {@link #build(Function)}.
+     */
+    public NakadiPublisherBuilder withMaxInFlightRequests(int maxInFlightRequests) {
+        checkArgument(maxInFlightRequests > 0, "Maximum number of in-flight requests should be bigger than 0");
+        return new NakadiPublisherBuilder(nakadiClient, objectMapper, eventName, maxBatchEvents, maxBatchBytes, lingerNanos, maxBufferedEvents, maxInFlightRequests, backoffStrategy);
+    }
+
+    /**
+     * Retries events that Nakadi did not accept, without sending the rest of their batch again. Events that failed
+     * validation or partitioning are not retried.
+     */
+    public NakadiPublisherBuilder withRetries(BackoffStrategy backoffStrategy) {
+        return new NakadiPublisherBuilder(nakadiClient, objectMapper, eventName, maxBatchEvents, maxBatchBytes, lingerNanos, maxBufferedEvents, maxInFlightRequests, checkNotNull(backoffStrategy, "Backoff strategy should not be null"));
+    }
+
+    public NakadiPublisherBuilder withObjectMapper(ObjectMapper objectMapper) {
+        return new NakadiPublisherBuilder(nakadiClient, checkNotNull(objectMapper, "Object mapper should not be null"), eventName, maxBatchEvents, maxBatchBytes, lingerNanos, maxBufferedEvents, maxInFlightRequests, backoffStrategy);
+    }
+
+    /**
+     * Creates the publisher and starts its background threads, which are stopped by {@link NakadiPublisher#close()}.
+     */
+    public <T> NakadiPublisher<T> build() {
+        return new NakadiPublisher<>(nakadiClient, objectMapper, eventName, maxBatchEvents, maxBatchBytes, lingerNanos, maxBufferedEvents, maxInFlightRequests, backoffStrategy, null);
+    }
+
+    /**
+     * Creates a publisher that keeps the order of events with the same partition key, typically the fields used by a
+     * hash partitioned event type. Events are grouped by the hash of their key into {@code maxInFlightRequests}
+     * shards. Each shard has at most one request in flight, while different shards are sent concurrently.
+     *
+     * @param partitionKeyExtractor returns the partition key of an event, compared using its {@code hashCode}
+     */
+    public <T> NakadiPublisher<T> build(Function<? super T, ?> partitionKeyExtractor) {
+        checkNotNull(partitionKeyExtractor, "Partition key extractor should not be null");
+        return new NakadiPublisher<>(nakadiClient, objectMapper, eventName, maxBatchEvents, maxBatchBytes, lingerNanos, maxBufferedEvents, maxInFlightRequests, backoffStrategy, partitionKeyExtractor);
+    }
+}
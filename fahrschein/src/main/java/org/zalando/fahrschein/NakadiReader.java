@@ -18,13 +18,17 @@ import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
@@ -46,11 +50,17 @@ class NakadiReader<T> implements IORunnable {
     private final Optional<Subscription> subscription;
     private final Optional<Lock> lock;
     private final EventReader<T> eventReader;
+    @Nullable
     private final Listener<T> listener;
+    @Nullable
+    private final StreamingListener<T> streamingListener;
     private final BatchHandler batchHandler;
+    private final Supplier<BatchDispatcher> batchDispatcherFactory;
+    private final BatchBudget batchBudget;
 
     private final JsonFactory jsonFactory;
     private final ObjectWriter cursorHeaderWriter;
+    private final TextCanonicalizer cursorValues = new TextCanonicalizer();
 
     private final MetricsCollector metricsCollector;
 
@@ -62,6 +72,22 @@ class NakadiReader<T> implements IORunnable {
     }
 
     NakadiReader(URI uri, RequestFactory requestFactory, BackoffStrategy backoffStrategy, CursorManager cursorManager, Set<String> eventNames, Optional<Subscription> subscription, Optional<Lock> lock, EventReader<T> eventReader, Listener<T> listener, BatchHandler batchHandler, final MetricsCollector metricsCollector) {
+        this(uri, requestFactory, backoffStrategy, cursorManager, eventNames, subscription, lock, eventReader, listener, batchHandler, metricsCollector, () -> DirectBatchDispatcher.INSTANCE);
+    }
+
+    NakadiReader(URI uri, RequestFactory requestFactory, BackoffStrategy backoffStrategy, CursorManager cursorManager, Set<String> eventNames, Optional<Subscription> subscription, Optional<Lock> lock, EventReader<T> eventReader, Listener<T> listener, BatchHandler batchHandler, final MetricsCollector metricsCollector, Supplier<BatchDispatcher> batchDispatcherFactory) {
+        this(uri, requestFactory, backoffStrategy, cursorManager, eventNames, subscription, lock, eventReader, listener, batchHandler, metricsCollector, batchDispatcherFactory, BatchBudget.UNLIMITED);
+    }
+
+    NakadiReader(URI uri, RequestFactory requestFactory, BackoffStrategy backoffStrategy, CursorManager cursorManager, Set<String> eventNames, Optional<Subscription> subscription, Optional<Lock> lock, EventReader<T> eventReader, Listener<T> listener, BatchHandler batchHandler, final MetricsCollector metricsCollector, Supplier<BatchDispatcher> batchDispatcherFactory, BatchBudget batchBudget) {
+        this(uri, requestFactory, backoffStrategy, cursorManager, eventNames, subscription, lock, eventReader, listener, null, batchHandler, metricsCollector, batchDispatcherFactory, batchBudget);
+    }
+
+    NakadiReader(URI uri, RequestFactory requestFactory, BackoffStrategy backoffStrategy, CursorManager cursorManager, Set<String> eventNames, Optional<Subscription> subscription, Optional<Lock> lock, EventReader<T> eventReader, StreamingListener<T> streamingListener, BatchHandler batchHandler, final MetricsCollector metricsCollector) {
+        this(uri, requestFactory, backoffStrategy, cursorManager, eventNames, subscription, lock, eventReader, null, streamingListener, batchHandler, metricsCollector, () -> DirectBatchDispatcher.INSTANCE, BatchBudget.UNLIMITED);
+    }
+
+    private NakadiReader(URI uri, RequestFactory requestFactory, BackoffStrategy backoffStrategy, CursorManager cursorManager, Set<String> eventNames, Optional<Subscription> subscription, Optional<Lock> lock, EventReader<T> eventReader, @Nullable Listener<T> listener, @Nullable StreamingListener<T> streamingListener, BatchHandler batchHandler, final MetricsCollector metricsCollector, Supplier<BatchDispatcher> batchDispatcherFactory, BatchBudget batchBudget) {
 
         checkState(subscription.isPresent() || eventNames.size() == 1, "Low level api only supports reading from a single event");
 
@@ -74,20 +100,44 @@ class NakadiReader<T> implements IORunnable {
         this.lock = lock;
         this.eventReader = eventReader;
         this.listener = listener;
+        this.streamingListener = streamingListener;
         this.batchHandler = batchHandler;
         this.metricsCollector = metricsCollector;
+        this.batchDispatcherFactory = batchDispatcherFactory;
+        this.batchBudget = batchBudget;
+
+        if (batchBudget.isLimited() && !readsLazily(eventReader)) {
+            LOG.warn("[{}] does not implement readIterator, batches are read completely before the batch budget splits them", eventReader.getClass().getName());
+        }
 
         this.jsonFactory = DefaultObjectMapper.INSTANCE.getFactory();
         this.cursorHeaderWriter = DefaultObjectMapper.INSTANCE.writerFor(COLLECTION_OF_CURSORS);
     }
 
+    private static boolean readsLazily(EventReader<?> eventReader) {
+        try {
+            return !eventReader.getClass().getMethod("readIterator", JsonParser.class).isDefault();
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
     static final class Batch<T> {
         private final Cursor cursor;
         private final List<T> events;
+        private final boolean commitCursor;
 
         Batch(Cursor cursor, List<T> events) {
+            this(cursor, events, true);
+        }
+
+        /**
+         * @param commitCursor false for all but the last part of a batch that was split because it exceeded the batch budget
+         */
+        Batch(Cursor cursor, List<T> events, boolean commitCursor) {
             this.cursor = cursor;
             this.events = events;
+            this.commitCursor = commitCursor;
         }
 
         Cursor getCursor() {
@@ -97,6 +147,10 @@ class NakadiReader<T> implements IORunnable {
         List<T> getEvents() {
             return events;
         }
+
+        boolean isCommitCursor() {
+            return commitCursor;
+        }
     }
 
     static class JsonInput implements Closeable {
@@ -172,7 +226,7 @@ class NakadiReader<T> implements IORunnable {
     }
 
     @Nullable
-    private String getCursorsHeader() throws IOException {
+    String getCursorsHeader() throws IOException {
         if (!subscription.isPresent()) {
             final Collection<Cursor> lockedCursors = getLockedCursors();
 
@@ -199,6 +253,16 @@ class NakadiReader<T> implements IORunnable {
         return eventName != null ? eventName : eventNames.iterator().next();
     }
 
+    private void dispatchBatch(final Batch<T> batch, final BatchDispatcher batchDispatcher) throws IOException {
+        final Cursor cursor = batch.getCursor();
+        batchDispatcher.dispatch(cursor, batch.getEvents().size(), () -> {
+            processBatch(batch);
+            if (batch.isCommitCursor()) {
+                metricsCollector.markMessageSuccessfullyProcessed();
+            }
+        });
+    }
+
     private void processBatch(final Batch<T> batch) throws IOException {
         final Cursor cursor = batch.getCursor();
         final String eventName = getCurrentEventName(cursor);
@@ -207,7 +271,9 @@ class NakadiReader<T> implements IORunnable {
             public void run() throws IOException {
                 try {
                     listener.accept(batch.getEvents());
-                    cursorManager.onSuccess(eventName, cursor);
+                    if (batch.isCommitCursor()) {
+                        cursorManager.onSuccess(eventName, cursor);
+                    }
                 } catch (EventAlreadyProcessedException e) {
                     LOG.info("Events for [{}] partition [{}] at offset [{}] were already processed", eventName, cursor.getPartition(), cursor.getOffset());
                 } catch (Throwable throwable) {
@@ -219,6 +285,108 @@ class NakadiReader<T> implements IORunnable {
         });
     }
 
+    private void processStreamingBatch(final Cursor cursor, final Iterator<T> eventIterator) throws IOException {
+        final String eventName = getCurrentEventName(cursor);
+        final CountingIterator<T> events = new CountingIterator<>(eventIterator);
+        try {
+            batchHandler.processBatch(new IORunnable() {
+                @Override
+                public void run() throws IOException {
+                    try {
+                        streamingListener.accept(events);
+                        if (events.hasNext()) {
+                            throw new EventProcessingException("Listener did not consume all events of the batch");
+                        }
+                        cursorManager.onSuccess(eventName, cursor);
+                    } catch (EventAlreadyProcessedException e) {
+                        LOG.info("Events for [{}] partition [{}] at offset [{}] were already processed", eventName, cursor.getPartition(), cursor.getOffset());
+                        while (events.hasNext()) {
+                            events.next();
+                        }
+                    } catch (Throwable throwable) {
+                        LOG.warn("Exception while processing events for [{}] on partition [{}] at offset [{}]", eventName, cursor.getPartition(), cursor.getOffset(), throwable);
+
+                        throw throwable;
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        metricsCollector.markEventsReceived(events.getCount());
+        metricsCollector.markMessageSuccessfullyProcessed();
+    }
+
+    /**
+     * Dispatches parts of the batch as soon as they exceed the batch budget, without committing the cursor.
+     * The remaining events are returned and dispatched as usual, which then commits the cursor.
+     */
+    private List<T> readEventsWithinBudget(final JsonParser jsonParser, final Cursor cursor, final BatchDispatcher batchDispatcher) throws IOException {
+        final Iterator<T> eventIterator = eventReader.readIterator(jsonParser);
+
+        List<T> events = new ArrayList<>();
+        long startOffset = jsonParser.getCurrentLocation().getByteOffset();
+        boolean exceeded = false;
+
+        try {
+            while (eventIterator.hasNext()) {
+                final long offset = jsonParser.getCurrentLocation().getByteOffset();
+                if (!events.isEmpty() && batchBudget.isExceeded(events.size(), startOffset < 0 ? 0 : offset - startOffset)) {
+                    if (!exceeded) {
+                        LOG.debug("Splitting batch for [{}] partition [{}] at offset [{}] because it exceeds the batch budget", getCurrentEventName(cursor), cursor.getPartition(), cursor.getOffset());
+                        metricsCollector.markBatchBudgetExceeded();
+                        exceeded = true;
+                    }
+                    metricsCollector.markEventsReceived(events.size());
+                    dispatchBatch(new Batch<>(cursor, Collections.unmodifiableList(events), false), batchDispatcher);
+                    events = new ArrayList<>();
+                    startOffset = offset;
+                }
+                events.add(eventIterator.next());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return events;
+    }
+
+    private static final class CountingIterator<T> implements Iterator<T> {
+        private final Iterator<T> delegate;
+        private int count;
+
+        CountingIterator(Iterator<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public T next() {
+            final T next = delegate.next();
+            count++;
+            return next;
+        }
+
+        int getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Partitions and event types repeat in every batch, reading them like this avoids allocating new strings for them.
+     */
+    @Nullable
+    private String nextCanonicalTextValue(JsonParser jsonParser) throws IOException {
+        if (jsonParser.nextToken() != JsonToken.VALUE_STRING) {
+            return null;
+        }
+        return cursorValues.canonicalize(jsonParser.getTextCharacters(), jsonParser.getTextOffset(), jsonParser.getTextLength());
+    }
+
     private Cursor readCursor(JsonParser jsonParser) throws IOException {
         String partition = null;
         String offset = null;
@@ -231,13 +399,13 @@ class NakadiReader<T> implements IORunnable {
             String field = jsonParser.getCurrentName();
             switch (field) {
                 case "partition":
-                    partition = jsonParser.nextTextValue();
+                    partition = nextCanonicalTextValue(jsonParser);
                     break;
                 case "offset":
                     offset = jsonParser.nextTextValue();
                     break;
                 case "event_type":
-                    eventType = jsonParser.nextTextValue();
+                    eventType = nextCanonicalTextValue(jsonParser);
                     break;
                 case "cursor_token":
                     cursorToken = jsonParser.nextTextValue();
@@ -273,6 +441,17 @@ class NakadiReader<T> implements IORunnable {
      * @VisibleForTesting
      */
     void runInternal() throws IOException, BackoffException {
+        final BatchDispatcher batchDispatcher = batchDispatcherFactory.get();
+        try {
+            runInternal(batchDispatcher);
+        } finally {
+            batchDispatcher.close();
+            // commits cursors of batches that completed while closing
+            flushCursors();
+        }
+    }
+
+    private void runInternal(final BatchDispatcher batchDispatcher) throws IOException, BackoffException {
         LOG.info("Starting to listen for events for {}", eventNames);
 
         JsonInput jsonInput = openJsonInput();
@@ -287,7 +466,7 @@ class NakadiReader<T> implements IORunnable {
                     throw new InterruptedIOException("Interrupted");
                 }
 
-                readBatch(jsonParser);
+                readBatch(jsonParser, batchDispatcher);
 
                 errorCount = 0;
             } catch (IOException e) {
@@ -302,7 +481,13 @@ class NakadiReader<T> implements IORunnable {
                     LOG.info("Got [{}] [{}] while reading events for {}", e.getClass().getSimpleName(), e.getMessage(), eventNames, e);
                 }
 
-                jsonInput.close();
+                try {
+                    batchDispatcher.reset();
+
+                    flushCursors();
+                } finally {
+                    jsonInput.close();
+                }
 
                 if (wasInterrupted || Thread.currentThread().isInterrupted()) {
                     LOG.warn("Thread was interrupted");
@@ -326,29 +511,50 @@ class NakadiReader<T> implements IORunnable {
                 LOG.warn("Got [{}] [{}] while reading events for {}", e.getClass().getSimpleName(), e.getMessage(), eventNames, e);
 
                 try {
-                    jsonInput.close();
+                    flushCursors();
                 } catch (Throwable suppressed) {
-                    e.addSuppressed(e);
+                    e.addSuppressed(suppressed);
+                } finally {
+                    try {
+                        jsonInput.close();
+                    } catch (Throwable suppressed) {
+                        e.addSuppressed(suppressed);
+                    }
                 }
                 throw e;
             }
         }
     }
 
+    void flushCursors() {
+        try {
+            cursorManager.flush();
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not commit outstanding cursors for {}", eventNames, e);
+        }
+    }
+
     /*
      * @VisibleForTesting
      */
     void readSingleBatch() throws IOException {
+        final BatchDispatcher batchDispatcher = batchDispatcherFactory.get();
         try (final JsonInput jsonInput = openJsonInput()) {
             final JsonParser jsonParser = jsonInput.getJsonParser();
-            readBatch(jsonParser);
+            readBatch(jsonParser, batchDispatcher);
+            batchDispatcher.drain();
+            cursorManager.flush();
         } catch (IOException e) {
             metricsCollector.markErrorWhileConsuming();
             throw e;
+        } finally {
+            batchDispatcher.close();
         }
     }
 
-    private void readBatch(final JsonParser jsonParser) throws IOException {
+    void readBatch(final JsonParser jsonParser, final BatchDispatcher batchDispatcher) throws IOException {
+        batchDispatcher.checkFailure();
+
         LOG.debug("Waiting for next batch of events for {}", eventNames);
 
         expectToken(jsonParser, JsonToken.START_OBJECT);
@@ -356,6 +562,7 @@ class NakadiReader<T> implements IORunnable {
 
         Cursor cursor = null;
         List<T> events = null;
+        boolean streamed = false;
 
         while (jsonParser.nextToken() != JsonToken.END_OBJECT) {
             final String field = jsonParser.getCurrentName();
@@ -365,7 +572,14 @@ class NakadiReader<T> implements IORunnable {
                     break;
                 }
                 case "events": {
-                    events = eventReader.read(jsonParser);
+                    if (streamingListener != null && cursor != null) {
+                        processStreamingBatch(cursor, eventReader.readIterator(jsonParser));
+                        streamed = true;
+                    } else if (batchBudget.isLimited() && cursor != null) {
+                        events = readEventsWithinBudget(jsonParser, cursor, batchDispatcher);
+                    } else {
+                        events = eventReader.read(jsonParser);
+                    }
                     break;
                 }
                 case "info": {
@@ -390,16 +604,21 @@ class NakadiReader<T> implements IORunnable {
         final String eventName = getCurrentEventName(cursor);
         LOG.debug("Cursor for [{}] partition [{}] at offset [{}]", eventName, cursor.getPartition(), cursor.getOffset());
 
+        if (streamed) {
+            return;
+        }
+
         if (events == null) {
             metricsCollector.markEventsReceived(0);
+        } else if (streamingListener != null) {
+            // the cursor came after the events, so they were already read
+            processStreamingBatch(cursor, events.iterator());
         } else {
             metricsCollector.markEventsReceived(events.size());
 
             final Batch<T> batch = new Batch<>(cursor, Collections.unmodifiableList(events));
 
-            processBatch(batch);
-
-            metricsCollector.markMessageSuccessfullyProcessed();
+            dispatchBatch(batch, batchDispatcher);
         }
     }
 }
@@ -1,5 +1,7 @@
 package org.zalando.fahrschein;
 
+import org.zalando.fahrschein.http.api.ContentEncoding;
+
 public class NoMetricsCollector implements MetricsCollector {
 
     public static final NoMetricsCollector NO_METRICS_COLLECTOR = new NoMetricsCollector();
@@ -29,4 +31,24 @@ public class NoMetricsCollector implements MetricsCollector {
         // do nothing
     }
 
+    @Override
+    public void markBatchBudgetExceeded() {
+        // do nothing
+    }
+
+    @Override
+    public void markOutboxBacklog(final long events, final long bytes) {
+        // do nothing
+    }
+
+    @Override
+    public void markOutboxEventsDrained(final int size) {
+        // do nothing
+    }
+
+    @Override
+    public void markRequestBodyEncoded(final String endpoint, final ContentEncoding contentEncoding, final long uncompressedBytes, final long compressedBytes, final long encodingNanos) {
+        // do nothing
+    }
+
 }
@@ -0,0 +1,269 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.fahrschein.domain.Subscription;
+import org.zalando.fahrschein.http.api.AsyncRequest;
+import org.zalando.fahrschein.http.api.AsyncRequestFactory;
+import org.zalando.fahrschein.http.api.AsyncResponse;
+import org.zalando.fahrschein.http.api.BodySubscriber;
+
+import javax.annotation.Nullable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.zalando.fahrschein.Preconditions.checkState;
+
+/**
+ * Consumes a stream like {@link NakadiReader}, but without a thread waiting for events. The body is delivered in chunks
+ * by an {@link AsyncRequestFactory}, split into batches by Jackson's non-blocking parser, and complete batches are read
+ * and passed to the listener on an {@link Executor}, one after another. The next chunk is only requested after the
+ * batches of the previous one were processed, so a slow listener slows down reading just like with blocking reads.
+ *
+ * Cursor handling, batch budgets and metrics are shared with the {@link NakadiReader}. Reconnecting uses the
+ * {@link BackoffStrategy} on a thread of the executor, which might sleep between attempts.
+ */
+class NonBlockingNakadiReader<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NonBlockingNakadiReader.class);
+
+    private final NakadiReader<T> nakadiReader;
+    private final URI uri;
+    private final AsyncRequestFactory requestFactory;
+    private final BackoffStrategy backoffStrategy;
+    private final CursorManager cursorManager;
+    private final Set<String> eventNames;
+    private final Optional<Subscription> subscription;
+    private final MetricsCollector metricsCollector;
+    private final Executor executor;
+    private final JsonFactory jsonFactory;
+
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    @Nullable
+    private volatile AsyncResponse response;
+    private volatile int errorCount;
+
+    /**
+     * @param nakadiReader reads and dispatches the framed batches
+     */
+    NonBlockingNakadiReader(NakadiReader<T> nakadiReader, URI uri, AsyncRequestFactory requestFactory, BackoffStrategy backoffStrategy, CursorManager cursorManager, Set<String> eventNames, Optional<Subscription> subscription, MetricsCollector metricsCollector, Executor executor) {
+        this.nakadiReader = nakadiReader;
+        this.uri = uri;
+        this.requestFactory = requestFactory;
+        this.backoffStrategy = backoffStrategy;
+        this.cursorManager = cursorManager;
+        this.eventNames = eventNames;
+        this.subscription = subscription;
+        this.metricsCollector = metricsCollector;
+        this.executor = executor;
+        this.jsonFactory = DefaultObjectMapper.INSTANCE.getFactory();
+    }
+
+    /**
+     * Connects on a thread of the executor. Like {@link NakadiReader#run()}, failing to connect initially is not retried.
+     *
+     * @return a future that completes exceptionally once the stream stopped because of an error, cancelling it stops the stream
+     */
+    CompletableFuture<Void> start() {
+        checkState(started.compareAndSet(false, true), "Reader was already started");
+
+        completion.whenComplete((ignored, throwable) -> {
+            if (completion.isCancelled()) {
+                LOG.info("Stopped listening for events for {}", eventNames);
+                closeResponse();
+            }
+        });
+
+        execute(() -> {
+            LOG.info("Starting to listen for events for {}", eventNames);
+            try {
+                openResponseAsync().whenComplete((response, throwable) -> {
+                    if (throwable != null) {
+                        completion.completeExceptionally(unwrap(throwable));
+                        return;
+                    }
+                    try {
+                        subscribe(response);
+                    } catch (Throwable subscribeFailure) {
+                        response.close();
+                        completion.completeExceptionally(subscribeFailure);
+                    }
+                });
+            } catch (Throwable throwable) {
+                completion.completeExceptionally(throwable);
+            }
+        });
+
+        return completion;
+    }
+
+    private CompletableFuture<AsyncResponse> openResponseAsync() throws IOException {
+        final String cursorsHeader = nakadiReader.getCursorsHeader();
+        final AsyncRequest request = requestFactory.createAsyncRequest(uri, "GET");
+        if (cursorsHeader != null) {
+            request.getHeaders().put("X-Nakadi-Cursors", cursorsHeader);
+        }
+
+        return request.executeAsync().thenApply(response -> {
+            try {
+                final String streamId = response.getHeaders().getFirst("X-Nakadi-StreamId");
+                if (subscription.isPresent() && streamId != null) {
+                    cursorManager.addStreamId(subscription.get(), streamId);
+                }
+            } catch (Throwable throwable) {
+                response.close();
+                throw throwable;
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Waits for the connection, as needed by the {@link BackoffStrategy}.
+     */
+    private AsyncResponse openResponse() throws IOException {
+        try {
+            return openResponseAsync().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while connecting");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+
+    private void subscribe(AsyncResponse response) throws IOException {
+        this.response = response;
+        if (completion.isDone()) {
+            // stopped while connecting
+            response.close();
+            return;
+        }
+        final BatchFramer batchFramer = new BatchFramer(jsonFactory);
+
+        response.subscribe(new BodySubscriber() {
+            @Override
+            public CompletionStage<?> onNext(ByteBuffer chunk) {
+                final CompletableFuture<Void> processed = new CompletableFuture<>();
+                try {
+                    final List<BatchFramer.Frame> frames = batchFramer.feed(chunk);
+                    if (frames.isEmpty()) {
+                        return null;
+                    }
+                    executor.execute(() -> {
+                        try {
+                            for (BatchFramer.Frame frame : frames) {
+                                try (JsonParser jsonParser = frame.createParser(jsonFactory)) {
+                                    nakadiReader.readBatch(jsonParser, DirectBatchDispatcher.INSTANCE);
+                                }
+                                errorCount = 0;
+                            }
+                            processed.complete(null);
+                        } catch (Throwable throwable) {
+                            processed.completeExceptionally(throwable);
+                        }
+                    });
+                } catch (Throwable throwable) {
+                    processed.completeExceptionally(throwable);
+                }
+                return processed;
+            }
+
+            @Override
+            public void onComplete() {
+                reconnectOrStop(new EOFException("Stream was closed"));
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                reconnectOrStop(unwrap(throwable));
+            }
+        });
+    }
+
+    private void reconnectOrStop(Throwable throwable) {
+        execute(() -> {
+            closeResponse();
+
+            if (completion.isDone()) {
+                nakadiReader.flushCursors();
+                return;
+            }
+
+            if (!(throwable instanceof IOException)) {
+                LOG.warn("Got [{}] [{}] while reading events for {}", throwable.getClass().getSimpleName(), throwable.getMessage(), eventNames, throwable);
+                nakadiReader.flushCursors();
+                completion.completeExceptionally(throwable);
+                return;
+            }
+
+            final IOException e = (IOException) throwable;
+            metricsCollector.markErrorWhileConsuming();
+
+            if (errorCount > 0) {
+                LOG.warn("Got [{}] [{}] while reading events for {} after [{}] retries", e.getClass().getSimpleName(), e.getMessage(), eventNames, errorCount, e);
+            } else {
+                LOG.info("Got [{}] [{}] while reading events for {}", e.getClass().getSimpleName(), e.getMessage(), eventNames, e);
+            }
+
+            nakadiReader.flushCursors();
+
+            try {
+                LOG.debug("Reconnecting after [{}] errors", errorCount);
+                final AsyncResponse response = backoffStrategy.call(errorCount, e, this::openResponse);
+                LOG.info("Reconnected after [{}] errors", errorCount);
+                metricsCollector.markReconnection();
+                errorCount++;
+                subscribe(response);
+            } catch (BackoffException backoffException) {
+                completion.completeExceptionally(backoffException.getCause());
+            } catch (InterruptedException interruptedException) {
+                LOG.warn("Interrupted during reconnection", interruptedException);
+                Thread.currentThread().interrupt();
+                completion.completeExceptionally(interruptedException);
+            } catch (Throwable other) {
+                completion.completeExceptionally(other);
+            }
+        });
+    }
+
+    private void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            closeResponse();
+            completion.completeExceptionally(e);
+        }
+    }
+
+    private void closeResponse() {
+        final AsyncResponse response = this.response;
+        if (response != null) {
+            response.close();
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package org.zalando.fahrschein;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+import static org.zalando.fahrschein.Preconditions.checkState;
+
+/**
+ * An append-only log of serialized events, stored in memory-mapped segment files of a local directory.
+ *
+ * Each segment starts with a header containing the offset up to which its records were acknowledged, followed by
+ * records of a length, a CRC32 checksum and the payload. The length is written last, so a record that was only
+ * partially written when the JVM stopped is detected by its checksum and ignored on recovery, together with
+ * everything after it. Segments are rolled once the next record does not fit and deleted once all their records were
+ * acknowledged.
+ *
+ * Records are appended by any number of threads, but read and acknowledged by a single thread.
+ */
+final class OutboxLog implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutboxLog.class);
+
+    private static final int MAGIC = 0x46534f42;
+    private static final int ACKNOWLEDGED_OFFSET_POSITION = 8;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_HEADER_BYTES = 8;
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final String LOCK_FILE = "outbox.lock";
+
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writeOffset = HEADER_BYTES;
+        private int acknowledgedOffset = HEADER_BYTES;
+
+        Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    static final class Batch {
+        private final Segment segment;
+        private final List<byte[]> payloads;
+        private final int endOffset;
+        private final long bytes;
+        private final boolean endOfLog;
+
+        Batch(Segment segment, List<byte[]> payloads, int endOffset, long bytes, boolean endOfLog) {
+            this.segment = segment;
+            this.payloads = payloads;
+            this.endOffset = endOffset;
+            this.bytes = bytes;
+            this.endOfLog = endOfLog;
+        }
+
+        List<byte[]> getPayloads() {
+            return payloads;
+        }
+
+        /**
+         * Whether this batch contains the last record that was appended when it was read.
+         */
+        boolean isEndOfLog() {
+            return endOfLog;
+        }
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final MetricsCollector metricsCollector;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private long backlogEvents;
+    private long backlogBytes;
+    private boolean closed;
+
+    private OutboxLog(Path directory, int segmentBytes, MetricsCollector metricsCollector, FileChannel lockChannel, FileLock lock) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.metricsCollector = metricsCollector;
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+    }
+
+    /**
+     * Opens the log in the given directory, recovering all records that were not yet acknowledged.
+     *
+     * @throws IOException if the directory is used by another log or contains a file that is not a segment of a log
+     */
+    static OutboxLog open(Path directory, int segmentBytes, MetricsCollector metricsCollector) throws IOException {
+        checkArgument(segmentBytes > HEADER_BYTES + RECORD_HEADER_BYTES, "Segment size should be bigger than " + (HEADER_BYTES + RECORD_HEADER_BYTES));
+
+        Files.createDirectories(directory);
+        final FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // already locked within this JVM
+            lock = null;
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Outbox directory [" + directory + "] is already in use");
+        }
+
+        final OutboxLog log = new OutboxLog(directory, segmentBytes, metricsCollector, lockChannel, lock);
+        try {
+            log.recover();
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+        return log;
+    }
+
+    private void recover() throws IOException {
+        final List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        // segment ids are zero-padded, so the file names sort in the order the segments were created
+        Collections.sort(paths);
+
+        boolean corruptTail = false;
+        for (Path path : paths) {
+            if (Files.size(path) < HEADER_BYTES) {
+                // the JVM stopped before a new segment was mapped, so it contains no records
+                Files.delete(path);
+                continue;
+            }
+            final Segment segment = mapSegment(segmentId(path), path, 0);
+            corruptTail = recoverSegment(segment);
+            segments.add(segment);
+        }
+
+        while (segments.size() > 1 && isAcknowledged(segments.peekFirst())) {
+            deleteFirst();
+        }
+
+        final Segment last = segments.peekLast();
+        if (last == null || corruptTail) {
+            // never append behind a partially written record
+            segments.add(createSegment(last == null ? 0 : last.id + 1, segmentBytes));
+        }
+
+        if (backlogEvents > 0) {
+            LOG.info("Recovered [{}] events in [{}] segments from outbox [{}]", backlogEvents, segments.size(), directory);
+        }
+        metricsCollector.markOutboxBacklog(backlogEvents, backlogBytes);
+    }
+
+    private static long segmentId(Path path) throws IOException {
+        final String fileName = path.getFileName().toString();
+        try {
+            return Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IOException("Unexpected file [" + path + "] in outbox directory", e);
+        }
+    }
+
+    /**
+     * Determines the write and acknowledged offsets of an existing segment and returns {@code true} if the segment
+     * ends with a partially written record.
+     */
+    private boolean recoverSegment(Segment segment) throws IOException {
+        final MappedByteBuffer buffer = segment.buffer;
+        final int magic = buffer.getInt(0);
+        if (magic == 0 && buffer.getLong(ACKNOWLEDGED_OFFSET_POSITION) == 0) {
+            // the JVM stopped before the header of a new segment was written
+            writeHeader(buffer);
+        } else if (magic != MAGIC) {
+            throw new IOException("File [" + segment.path + "] is not an outbox segment");
+        }
+
+        final CRC32 crc = new CRC32();
+        int offset = HEADER_BYTES;
+        boolean corruptTail = false;
+        while (offset + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            final int length = buffer.getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || length > buffer.capacity() - offset - RECORD_HEADER_BYTES || checksum(crc, buffer, offset + RECORD_HEADER_BYTES, length) != buffer.getInt(offset + 4)) {
+                LOG.warn("Ignoring partially written record at offset [{}] of outbox segment [{}]", offset, segment.path);
+                corruptTail = true;
+                break;
+            }
+            offset += RECORD_HEADER_BYTES + length;
+        }
+        segment.writeOffset = offset;
+
+        final long acknowledgedOffset = buffer.getLong(ACKNOWLEDGED_OFFSET_POSITION);
+        segment.acknowledgedOffset = (int) Math.max(HEADER_BYTES, Math.min(acknowledgedOffset, offset));
+
+        for (int position = segment.acknowledgedOffset; position < segment.writeOffset; ) {
+            final int length = buffer.getInt(position);
+            backlogEvents++;
+            backlogBytes += length;
+            position += RECORD_HEADER_BYTES + length;
+        }
+        return corruptTail;
+    }
+
+    private static int checksum(CRC32 crc, ByteBuffer buffer, int offset, int length) {
+        final ByteBuffer payload = buffer.duplicate();
+        payload.position(offset);
+        payload.limit(offset + length);
+        crc.reset();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private Segment createSegment(long id, int size) throws IOException {
+        final Segment segment = mapSegment(id, directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX)), size);
+        writeHeader(segment.buffer);
+        return segment;
+    }
+
+    private static void writeHeader(MappedByteBuffer buffer) {
+        buffer.putLong(ACKNOWLEDGED_OFFSET_POSITION, HEADER_BYTES);
+        buffer.putInt(0, MAGIC);
+    }
+
+    private static Segment mapSegment(long id, Path path, int size) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            final long mappedSize = size > 0 ? size : channel.size();
+            if (mappedSize < HEADER_BYTES || mappedSize > Integer.MAX_VALUE) {
+                throw new IOException("Outbox segment [" + path + "] has an invalid size of [" + mappedSize + "] bytes");
+            }
+            return new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a serialized event. A payload bigger than the segment size is written to a segment of its own.
+     */
+    synchronized void append(byte[] payload) throws IOException {
+        checkState(!closed, "Outbox was already closed");
+        checkArgument(payload.length > 0, "Payload should not be empty");
+
+        Segment segment = segments.getLast();
+        final long recordBytes = (long) RECORD_HEADER_BYTES + payload.length;
+        if (segment.writeOffset + recordBytes > segment.buffer.capacity()) {
+            checkArgument(HEADER_BYTES + recordBytes <= Integer.MAX_VALUE, "Payload is too big for an outbox segment");
+            segment.buffer.force();
+            segment = createSegment(segment.id + 1, (int) Math.max(segmentBytes, HEADER_BYTES + recordBytes));
+            segments.add(segment);
+        }
+
+        final MappedByteBuffer buffer = segment.buffer;
+        final int offset = segment.writeOffset;
+        final CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+
+        final ByteBuffer record = buffer.duplicate();
+        record.position(offset + RECORD_HEADER_BYTES);
+        record.put(payload);
+        buffer.putInt(offset + 4, (int) crc.getValue());
+        // the length marks the record as complete
+        buffer.putInt(offset, payload.length);
+
+        segment.writeOffset = offset + (int) recordBytes;
+        backlogEvents++;
+        backlogBytes += payload.length;
+        metricsCollector.markOutboxBacklog(backlogEvents, backlogBytes);
+    }
+
+    /**
+     * Reads the oldest records that were not yet acknowledged, returns {@code null} if there are none. A batch never
+     * spans more than one segment, a single record bigger than {@code maxBytes} is returned on its own.
+     */
+    @Nullable
+    Batch read(int maxEvents, long maxBytes) {
+        final Segment segment;
+        final int start;
+        final int end;
+        final boolean lastSegment;
+        final ByteBuffer buffer;
+        synchronized (this) {
+            checkState(!closed, "Outbox was already closed");
+            while (segments.size() > 1 && isAcknowledged(segments.peekFirst())) {
+                deleteFirst();
+            }
+            segment = segments.getFirst();
+            start = segment.acknowledgedOffset;
+            end = segment.writeOffset;
+            lastSegment = segments.size() == 1;
+            // only the records up to the write offset are read, which were written before this lock was released
+            buffer = segment.buffer.duplicate();
+        }
+        if (start == end) {
+            return null;
+        }
+
+        final List<byte[]> payloads = new ArrayList<>();
+        int offset = start;
+        long bytes = 0;
+        while (offset < end && payloads.size() < maxEvents) {
+            final int length = buffer.getInt(offset);
+            if (!payloads.isEmpty() && bytes + length > maxBytes) {
+                break;
+            }
+            final byte[] payload = new byte[length];
+            buffer.position(offset + RECORD_HEADER_BYTES);
+            buffer.get(payload);
+            payloads.add(payload);
+            bytes += length;
+            offset += RECORD_HEADER_BYTES + length;
+        }
+        return new Batch(segment, payloads, offset, bytes, lastSegment && offset == end);
+    }
+
+    /**
+     * Marks the records of a batch as published, deleting its segment once all of its records were acknowledged.
+     */
+    synchronized void acknowledge(Batch batch) {
+        checkState(!closed, "Outbox was already closed");
+        final Segment segment = batch.segment;
+        checkState(segment == segments.peekFirst() && segment.acknowledgedOffset < batch.endOffset, "Batch was already acknowledged");
+
+        segment.acknowledgedOffset = batch.endOffset;
+        segment.buffer.putLong(ACKNOWLEDGED_OFFSET_POSITION, batch.endOffset);
+        backlogEvents -= batch.payloads.size();
+        backlogBytes -= batch.bytes;
+        if (segments.size() > 1 && isAcknowledged(segment)) {
+            deleteFirst();
+        }
+        metricsCollector.markOutboxBacklog(backlogEvents, backlogBytes);
+    }
+
+    private static boolean isAcknowledged(Segment segment) {
+        return segment.acknowledgedOffset == segment.writeOffset;
+    }
+
+    private void deleteFirst() {
+        final Segment segment = segments.removeFirst();
+        try {
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            // the segment is deleted on the next recovery, as all of its records were acknowledged
+            LOG.warn("Could not delete acknowledged outbox segment [{}]", segment.path, e);
+        }
+    }
+
+    synchronized long getBacklogEvents() {
+        return backlogEvents;
+    }
+
+    synchronized long getBacklogBytes() {
+        return backlogBytes;
+    }
+
+    /**
+     * Writes all segments to the storage device and releases the directory.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        IOException exception = null;
+        for (Segment segment : segments) {
+            try {
+                segment.buffer.force();
+                segment.channel.close();
+            } catch (IOException e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        segments.clear();
+        try {
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            if (exception == null) {
+                exception = e;
+            } else {
+                exception.addSuppressed(e);
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
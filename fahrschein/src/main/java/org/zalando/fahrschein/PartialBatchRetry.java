@@ -0,0 +1,239 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.domain.BatchItemResponse;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Publishes a batch and retries only the events that Nakadi did not accept.
+ *
+ * Failed batch item responses are mapped back to their events by index, Nakadi reports them in the order of the
+ * published events. If the number of responses does not match or an {@code eid} contradicts the event at that index,
+ * the mapping falls back to the {@code eid} of the events. If the failed events can not be determined at all, the
+ * whole batch is considered failed.
+ *
+ * Events that failed validation or partitioning would fail again and are passed to the {@link FailedEventHandler}
+ * immediately, as are events that still failed once the {@link BackoffStrategy} gave up.
+ *
+ * With an ordering key, a failed event is not retried if a later event with the same key in its batch was accepted,
+ * since retrying would publish it after that event. It is passed to the {@link FailedEventHandler} instead.
+ */
+final class PartialBatchRetry<E> {
+
+    @FunctionalInterface
+    interface BatchSender<E> {
+        void send(List<E> events) throws IOException;
+    }
+
+    private final BatchSender<E> sender;
+    private final Function<E, String> eidExtractor;
+    @Nullable
+    private final BackoffStrategy backoffStrategy;
+    private final FailedEventHandler<E> failedEventHandler;
+    @Nullable
+    private final Function<E, ?> orderingKey;
+
+    /**
+     * @param eidExtractor returns the {@code eid} from the metadata of an event or {@code null}, only used when events can not be mapped by index
+     * @param backoffStrategy used for retrying failed events, if {@code null} events are not retried
+     */
+    PartialBatchRetry(BatchSender<E> sender, Function<E, String> eidExtractor, @Nullable BackoffStrategy backoffStrategy, FailedEventHandler<E> failedEventHandler) {
+        this(sender, eidExtractor, backoffStrategy, failedEventHandler, null);
+    }
+
+    /**
+     * @param orderingKey returns the key of events whose order has to be kept, if {@code null} events may be reordered by retries
+     */
+    PartialBatchRetry(BatchSender<E> sender, Function<E, String> eidExtractor, @Nullable BackoffStrategy backoffStrategy, FailedEventHandler<E> failedEventHandler, @Nullable Function<E, ?> orderingKey) {
+        this.sender = sender;
+        this.eidExtractor = eidExtractor;
+        this.backoffStrategy = backoffStrategy;
+        this.failedEventHandler = failedEventHandler;
+        this.orderingKey = orderingKey;
+    }
+
+    /**
+     * Returns normally once every event was either published or passed to the failed event handler.
+     */
+    void publish(List<E> events) throws InterruptedIOException {
+        final List<E> retryable;
+        final IOException failure;
+        try {
+            sender.send(events);
+            return;
+        } catch (EventPublishingException e) {
+            failure = e;
+            retryable = failedEvents(events, e, backoffStrategy != null);
+            if (retryable.isEmpty()) {
+                return;
+            }
+            if (backoffStrategy == null) {
+                failedEventHandler.onFailedEvents(retryable, e);
+                return;
+            }
+        } catch (IOException e) {
+            if (backoffStrategy == null) {
+                failedEventHandler.onFailedEvents(events, e);
+                return;
+            }
+            failure = e;
+            retryable = events;
+        }
+
+        retry(retryable, failure);
+    }
+
+    private void retry(List<E> events, IOException initialException) throws InterruptedIOException {
+        final List<List<E>> remaining = new ArrayList<>(Collections.singletonList(events));
+        try {
+            backoffStrategy.call(1, initialException, () -> {
+                final List<E> batch = remaining.get(0);
+                try {
+                    sender.send(batch);
+                    remaining.set(0, Collections.emptyList());
+                    return null;
+                } catch (EventPublishingException e) {
+                    final List<E> failed = failedEvents(batch, e, true);
+                    remaining.set(0, failed);
+                    if (failed.isEmpty()) {
+                        return null;
+                    }
+                    throw e;
+                }
+            });
+        } catch (BackoffException e) {
+            failedEventHandler.onFailedEvents(remaining.get(0), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException exception = new InterruptedIOException("Interrupted while retrying to publish events");
+            failedEventHandler.onFailedEvents(remaining.get(0), exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * Returns the events that were not accepted. If {@code retrying}, events that can not succeed on retry or would
+     * be reordered by it are passed to the failed event handler and not returned.
+     */
+    private List<E> failedEvents(List<E> events, EventPublishingException exception, boolean retrying) {
+        final BatchItemResponse[] responses = exception.getResponses();
+        final List<E> failed = mapFailedEvents(events, exception, eidExtractor);
+        if (failed == null) {
+            return events;
+        }
+        if (!retrying) {
+            return failed;
+        }
+
+        final Set<E> overtaken = overtakenEvents(events, failed);
+        final List<E> permanent = new ArrayList<>();
+        final List<E> retryable = new ArrayList<>(failed.size());
+        for (int i = 0; i < failed.size(); i++) {
+            if (isPermanentFailure(responses[i]) || overtaken.contains(failed.get(i))) {
+                permanent.add(failed.get(i));
+            } else {
+                retryable.add(failed.get(i));
+            }
+        }
+        if (!permanent.isEmpty()) {
+            failedEventHandler.onFailedEvents(permanent, exception);
+        }
+        return retryable;
+    }
+
+    /**
+     * Returns the failed events that are followed by an accepted event with the same ordering key.
+     */
+    private Set<E> overtakenEvents(List<E> events, List<E> failed) {
+        final Set<E> overtaken = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (orderingKey == null) {
+            return overtaken;
+        }
+        final Set<E> failedEvents = Collections.newSetFromMap(new IdentityHashMap<>(failed.size() * 2));
+        failedEvents.addAll(failed);
+        final Set<Object> acceptedKeys = new HashSet<>();
+        for (int i = events.size() - 1; i >= 0; i--) {
+            final E event = events.get(i);
+            final Object key = orderingKey.apply(event);
+            if (!failedEvents.contains(event)) {
+                acceptedKeys.add(key);
+            } else if (acceptedKeys.contains(key)) {
+                overtaken.add(event);
+            }
+        }
+        return overtaken;
+    }
+
+    /**
+     * Returns the events corresponding to the failed responses in the same order, or {@code null} if they can not be determined.
+     */
+    @Nullable
+    static <E> List<E> mapFailedEvents(List<E> events, EventPublishingException exception, Function<E, String> eidExtractor) {
+        final BatchItemResponse[] batchItemResponses = exception.getBatchItemResponses();
+        final BatchItemResponse[] failedResponses = exception.getResponses();
+        if (batchItemResponses != null && batchItemResponses.length == events.size()) {
+            final List<E> failed = new ArrayList<>(failedResponses.length);
+            for (int i = 0; i < batchItemResponses.length; i++) {
+                final BatchItemResponse response = batchItemResponses[i];
+                if (response.getPublishingStatus() != BatchItemResponse.PublishingStatus.SUBMITTED) {
+                    final E event = events.get(i);
+                    if (!matchesEid(response, event, eidExtractor)) {
+                        return mapFailedEventsByEid(events, failedResponses, eidExtractor);
+                    }
+                    failed.add(event);
+                }
+            }
+            return failed;
+        }
+        return mapFailedEventsByEid(events, failedResponses, eidExtractor);
+    }
+
+    private static <E> boolean matchesEid(BatchItemResponse response, E event, Function<E, String> eidExtractor) {
+        final String responseEid = response.getEid();
+        if (responseEid == null) {
+            return true;
+        }
+        final String eventEid = eidExtractor.apply(event);
+        return eventEid == null || responseEid.equals(eventEid);
+    }
+
+    @Nullable
+    private static <E> List<E> mapFailedEventsByEid(List<E> events, BatchItemResponse[] failedResponses, Function<E, String> eidExtractor) {
+        final Map<String, Queue<E>> eventsByEid = new HashMap<>(events.size() * 2);
+        for (E event : events) {
+            final String eid = eidExtractor.apply(event);
+            if (eid != null) {
+                eventsByEid.computeIfAbsent(eid, key -> new ArrayDeque<>(1)).add(event);
+            }
+        }
+
+        final List<E> failed = new ArrayList<>(failedResponses.length);
+        for (BatchItemResponse response : failedResponses) {
+            final Queue<E> candidates = response.getEid() == null ? null : eventsByEid.get(response.getEid());
+            final E event = candidates == null ? null : candidates.poll();
+            if (event == null) {
+                return null;
+            }
+            failed.add(event);
+        }
+        return failed;
+    }
+
+    static boolean isPermanentFailure(BatchItemResponse response) {
+        return response.getPublishingStatus() == BatchItemResponse.PublishingStatus.FAILED
+                && (response.getStep() == BatchItemResponse.Step.VALIDATING || response.getStep() == BatchItemResponse.Step.PARTITIONING);
+    }
+}
@@ -0,0 +1,312 @@
+package org.zalando.fahrschein;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.fahrschein.domain.Cursor;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+
+/**
+ * Processes batches on separate threads, so that the reading thread can already decode the next batch
+ * while the listener is still busy with the current one.
+ *
+ * Batches are assigned to lanes, batches of the same lane are processed one after another in the order they were dispatched.
+ * With a single lane, ordering and commit semantics are the same as for direct processing. With one lane per partition,
+ * batches of different partitions are processed concurrently while ordering inside each partition is kept.
+ *
+ * The reading thread blocks when {@code maxInFlightBatches} batches or more than {@code maxInFlightEvents} events are
+ * waiting for or currently in processing.
+ */
+class PipelinedBatchDispatcher implements BatchDispatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PipelinedBatchDispatcher.class);
+
+    static final class PartitionKey {
+        private final String eventType;
+        private final String partition;
+
+        PartitionKey(Cursor cursor) {
+            this.eventType = cursor.getEventType();
+            this.partition = cursor.getPartition();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            PartitionKey that = (PartitionKey) o;
+            return Objects.equals(eventType, that.eventType) && Objects.equals(partition, that.partition);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(eventType, partition);
+        }
+    }
+
+    private final class Batch implements Runnable {
+        private final long generation;
+        private final int eventCount;
+        private final IORunnable processing;
+
+        Batch(long generation, int eventCount, IORunnable processing) {
+            this.generation = generation;
+            this.eventCount = eventCount;
+            this.processing = processing;
+        }
+
+        @Override
+        public void run() {
+            process(generation, eventCount, processing);
+        }
+    }
+
+    private final class Lane implements Runnable {
+        private final Queue<Batch> batches = new ArrayDeque<>();
+        private boolean scheduled;
+
+        // must be called while holding the lock
+        boolean add(Batch batch) {
+            batches.add(batch);
+            if (scheduled) {
+                return false;
+            }
+            scheduled = true;
+            return true;
+        }
+
+        // must be called while holding the lock
+        void unschedule() {
+            for (Batch batch; (batch = batches.poll()) != null; ) {
+                inFlightBatches--;
+                inFlightEvents -= batch.eventCount;
+            }
+            scheduled = false;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                final Batch batch;
+                synchronized (lock) {
+                    batch = batches.poll();
+                    if (batch == null) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                batch.run();
+            }
+        }
+    }
+
+    private final ExecutorService executorService;
+    private final boolean shutdownExecutorService;
+    private final int maxInFlightBatches;
+    private final int maxInFlightEvents;
+    private final Function<Cursor, Object> laneKey;
+
+    private final Object lock = new Object();
+    private final Map<Object, Lane> lanes = new HashMap<>();
+    private int inFlightBatches;
+    private int inFlightEvents;
+    private long generation;
+    private Throwable failure;
+
+    PipelinedBatchDispatcher(int maxInFlightBatches, String threadName) {
+        this(Executors.newSingleThreadExecutor(new DaemonThreadFactory(threadName)), true, maxInFlightBatches, Integer.MAX_VALUE, cursor -> threadName);
+    }
+
+    /**
+     * @param executorService executes the lanes, for partition parallel processing this should provide more than one thread
+     * @param shutdownExecutorService whether the executor service is owned by this dispatcher and should be shut down on close
+     * @param maxInFlightBatches the maximum number of batches that are waiting for or in processing
+     * @param maxInFlightEvents the maximum number of events that are waiting for or in processing, a single batch is always accepted
+     * @param laneKey assigns batches to lanes based on their cursor
+     */
+    PipelinedBatchDispatcher(ExecutorService executorService, boolean shutdownExecutorService, int maxInFlightBatches, int maxInFlightEvents, Function<Cursor, Object> laneKey) {
+        checkArgument(maxInFlightBatches > 0, "Maximum number of in-flight batches should be bigger than 0");
+        checkArgument(maxInFlightEvents > 0, "Maximum number of in-flight events should be bigger than 0");
+
+        this.executorService = executorService;
+        this.shutdownExecutorService = shutdownExecutorService;
+        this.maxInFlightBatches = maxInFlightBatches;
+        this.maxInFlightEvents = maxInFlightEvents;
+        this.laneKey = laneKey;
+    }
+
+    static PipelinedBatchDispatcher partitionParallel(ExecutorService executorService, boolean shutdownExecutorService, int maxInFlightBatches, int maxInFlightEvents) {
+        return new PipelinedBatchDispatcher(executorService, shutdownExecutorService, maxInFlightBatches, maxInFlightEvents, PartitionKey::new);
+    }
+
+    @Override
+    public void dispatch(Cursor cursor, int eventCount, IORunnable processing) throws IOException {
+        final Lane lane;
+        final boolean schedule;
+        synchronized (lock) {
+            while (failure == null && !hasCapacityFor(eventCount)) {
+                awaitProcessing();
+            }
+            rethrowFailure();
+
+            inFlightBatches++;
+            inFlightEvents += eventCount;
+            final long currentGeneration = generation;
+
+            lane = lanes.computeIfAbsent(laneKey.apply(cursor), key -> new Lane());
+            schedule = lane.add(new Batch(currentGeneration, eventCount, processing));
+        }
+
+        if (schedule) {
+            try {
+                executorService.execute(lane);
+            } catch (RejectedExecutionException e) {
+                // the lane was not started, so none of its batches will be processed
+                synchronized (lock) {
+                    lane.unschedule();
+                    lock.notifyAll();
+                }
+                throw new IOException("Batch processing was rejected by the executor", e);
+            }
+        }
+    }
+
+    // must be called while holding the lock
+    private boolean hasCapacityFor(int eventCount) {
+        return inFlightBatches < maxInFlightBatches && (inFlightEvents == 0 || inFlightEvents + eventCount <= maxInFlightEvents);
+    }
+
+    private void process(long batchGeneration, int eventCount, IORunnable processing) {
+        try {
+            if (isCurrent(batchGeneration)) {
+                processing.run();
+            }
+        } catch (Throwable throwable) {
+            synchronized (lock) {
+                if (batchGeneration == generation && failure == null) {
+                    failure = throwable;
+                } else {
+                    LOG.debug("Ignoring exception from dropped batch", throwable);
+                }
+            }
+        } finally {
+            synchronized (lock) {
+                inFlightBatches--;
+                inFlightEvents -= eventCount;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private boolean isCurrent(long batchGeneration) {
+        synchronized (lock) {
+            return batchGeneration == generation && failure == null;
+        }
+    }
+
+    @Override
+    public void checkFailure() throws IOException {
+        synchronized (lock) {
+            rethrowFailure();
+        }
+    }
+
+    @Override
+    public void drain() throws IOException {
+        synchronized (lock) {
+            while (failure == null && inFlightBatches > 0) {
+                awaitProcessing();
+            }
+            rethrowFailure();
+        }
+    }
+
+    @Override
+    public void reset() {
+        synchronized (lock) {
+            while (inFlightBatches > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    generation++;
+                    break;
+                }
+            }
+            if (failure != null) {
+                LOG.warn("Dropped remaining batches after exception in batch processing", failure);
+                failure = null;
+                generation++;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            // batches that did not start yet are dropped
+            generation++;
+        }
+        if (shutdownExecutorService) {
+            executorService.shutdownNow();
+            try {
+                executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            // the executor is shared, the dropped batches are still taken from the lanes
+            synchronized (lock) {
+                while (inFlightBatches > 0) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    // must be called while holding the lock
+    private void awaitProcessing() throws InterruptedIOException {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for batch processing");
+        }
+    }
+
+    // must be called while holding the lock
+    private void rethrowFailure() throws IOException {
+        final Throwable throwable = failure;
+        if (throwable != null) {
+            failure = null;
+            generation++;
+            if (throwable instanceof IOException) {
+                throw (IOException) throwable;
+            } else if (throwable instanceof RuntimeException) {
+                throw (RuntimeException) throwable;
+            } else if (throwable instanceof Error) {
+                throw (Error) throwable;
+            } else {
+                throw new IOException(throwable);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.zalando.fahrschein.http.api.AsyncRequest;
+import org.zalando.fahrschein.http.api.AsyncResponse;
+import org.zalando.fahrschein.http.api.BodySubscriber;
+import org.zalando.fahrschein.http.api.Headers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Handles problem responses of {@link AsyncRequest}s like {@link ProblemHandlingRequest}. The body of these responses
+ * is read completely before the problem is reported.
+ */
+class ProblemHandlingAsyncRequest implements AsyncRequest {
+
+    private final AsyncRequest request;
+    private final ObjectMapper objectMapper;
+
+    ProblemHandlingAsyncRequest(AsyncRequest request) {
+        this.request = request;
+        this.objectMapper = DefaultObjectMapper.INSTANCE;
+    }
+
+    @Override
+    public CompletableFuture<AsyncResponse> executeAsync() {
+        return request.executeAsync().thenCompose(response -> {
+            final int statusCode = response.getStatusCode();
+            if (!ProblemHandlingRequest.indicatesProblem(statusCode)) {
+                return CompletableFuture.completedFuture(response);
+            }
+            return readBody(response).thenApply(body -> {
+                try {
+                    // asynchronous responses have no status text
+                    ProblemHandlingRequest.handleProblemResponse(objectMapper, statusCode, "", response.getHeaders(), () -> new ByteArrayInputStream(body));
+                    return response;
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                } finally {
+                    response.close();
+                }
+            });
+        });
+    }
+
+    private static CompletableFuture<byte[]> readBody(AsyncResponse response) {
+        final CompletableFuture<byte[]> result = new CompletableFuture<>();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        response.subscribe(new BodySubscriber() {
+            @Override
+            public CompletionStage<?> onNext(ByteBuffer chunk) {
+                while (chunk.hasRemaining()) {
+                    bytes.write(chunk.get());
+                }
+                return null;
+            }
+
+            @Override
+            public void onComplete() {
+                result.complete(bytes.toByteArray());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                result.completeExceptionally(throwable);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public String getMethod() {
+        return request.getMethod();
+    }
+
+    @Override
+    public URI getURI() {
+        return request.getURI();
+    }
+
+    @Override
+    public Headers getHeaders() {
+        return request.getHeaders();
+    }
+
+    @Override
+    public OutputStream getBody() throws IOException {
+        return request.getBody();
+    }
+}
@@ -7,8 +7,10 @@ import org.zalando.fahrschein.http.api.ContentType;
 import org.zalando.fahrschein.http.api.Headers;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.Response;
+import org.zalando.fahrschein.http.api.StreamingBody;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.ArrayList;
@@ -36,27 +38,8 @@ class ProblemHandlingRequest implements Request {
 
         try {
             final int statusCode = response.getStatusCode();
-            if (statusCode == 207 || statusCode >= 400) {
-                final String statusText = response.getStatusText();
-                final Headers headers = response.getHeaders();
-                final ContentType contentType = headers.getContentType();
-
-                if (contentType == null || mightBeProblematic(contentType)) {
-
-                    final JsonNode json = objectMapper.readTree(response.getBody());
-
-                    if (isBatchItemResponse(json)) {
-                        handleBatchItemResponse(json);
-                    } else if (isAuthError(json)) {
-                        handleAuthError(json, statusCode);
-                    } else if (isProblem(json)) {
-                        handleProblem(json, statusCode);
-                    } else {
-                        throw new IOProblem(DEFAULT_PROBLEM_TYPE, statusText, statusCode);
-                    }
-                } else {
-                    throw new IOProblem(DEFAULT_PROBLEM_TYPE, statusText, statusCode);
-                }
+            if (indicatesProblem(statusCode)) {
+                handleProblemResponse(objectMapper, statusCode, response.getStatusText(), response.getHeaders(), response::getBody);
             }
         } catch (Throwable throwable) {
             try {
@@ -70,6 +53,34 @@ class ProblemHandlingRequest implements Request {
         return response;
     }
 
+    static boolean indicatesProblem(int statusCode) {
+        return statusCode == 207 || statusCode >= 400;
+    }
+
+    /**
+     * Throws an {@link IOProblem}, or an {@link EventPublishingException} if some events of a batch were not published.
+     */
+    static void handleProblemResponse(ObjectMapper objectMapper, int statusCode, String statusText, Headers headers, IOCallable<InputStream> body) throws IOException {
+        final ContentType contentType = headers.getContentType();
+
+        if (contentType == null || mightBeProblematic(contentType)) {
+
+            final JsonNode json = objectMapper.readTree(body.call());
+
+            if (isBatchItemResponse(json)) {
+                handleBatchItemResponse(objectMapper, json);
+            } else if (isAuthError(json)) {
+                handleAuthError(json, statusCode);
+            } else if (isProblem(json)) {
+                handleProblem(json, statusCode);
+            } else {
+                throw new IOProblem(DEFAULT_PROBLEM_TYPE, statusText, statusCode);
+            }
+        } else {
+            throw new IOProblem(DEFAULT_PROBLEM_TYPE, statusText, statusCode);
+        }
+    }
+
     private static boolean mightBeProblematic(final ContentType contentType) {
         final String type = contentType.getType();
         final String subtype = contentType.getSubtype();
@@ -90,7 +101,7 @@ class ProblemHandlingRequest implements Request {
         return json.isArray() && json.size() > 0 && json.get(0).has("publishing_status");
     }
 
-    private void handleProblem(final JsonNode rootNode, final int statusCode) throws IOException {
+    private static void handleProblem(final JsonNode rootNode, final int statusCode) throws IOException {
         final JsonNode typeNode = rootNode.get("type");
         final String type = typeNode == null ? "about:blank" : typeNode.asText();
 
@@ -105,14 +116,14 @@ class ProblemHandlingRequest implements Request {
         throw new IOProblem(URI.create(type), title, statusCode, detail, instance == null ? null : URI.create(instance));
     }
 
-    private void handleAuthError(final JsonNode rootNode, final int statusCode) throws IOProblem {
+    private static void handleAuthError(final JsonNode rootNode, final int statusCode) throws IOProblem {
         final String error = rootNode.get("error").asText();
         final String description = rootNode.get("error_description").asText();
 
         throw new IOProblem(DEFAULT_PROBLEM_TYPE, error, statusCode, description);
     }
 
-    private void handleBatchItemResponse(JsonNode rootNode) throws IOException {
+    private static void handleBatchItemResponse(ObjectMapper objectMapper, JsonNode rootNode) throws IOException {
         final BatchItemResponse[] responses = objectMapper.treeToValue(rootNode, BatchItemResponse[].class);
         final List<BatchItemResponse> failed = new ArrayList<>(responses.length);
         for (BatchItemResponse batchItemResponse : responses) {
@@ -121,8 +132,8 @@ class ProblemHandlingRequest implements Request {
             }
         }
         if (!failed.isEmpty()) {
-            // TODO: attach corresponding events?
-            throw new EventPublishingException(failed.toArray(new BatchItemResponse[failed.size()]));
+            // the corresponding events are attached by the publishing code, which maps responses back by index and eid
+            throw new EventPublishingException(failed.toArray(new BatchItemResponse[failed.size()]), responses);
         }
     }
 
@@ -146,4 +157,9 @@ class ProblemHandlingRequest implements Request {
         return request.getBody();
     }
 
+    @Override
+    public void setBody(StreamingBody body, long contentLength) throws IOException {
+        request.setBody(body, contentLength);
+    }
+
 }
@@ -1,12 +1,14 @@
 package org.zalando.fahrschein;
 
+import org.zalando.fahrschein.http.api.AsyncRequest;
+import org.zalando.fahrschein.http.api.AsyncRequestFactory;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.RequestFactory;
 
 import java.io.IOException;
 import java.net.URI;
 
-class ProblemHandlingRequestFactory implements RequestFactory {
+class ProblemHandlingRequestFactory implements RequestFactory, AsyncRequestFactory, AsyncRequestFactories.Wrapper {
     private final RequestFactory delegate;
 
     public ProblemHandlingRequestFactory(RequestFactory delegate) {
@@ -18,4 +20,15 @@ class ProblemHandlingRequestFactory implements RequestFactory {
         final Request request = delegate.createRequest(uri, method);
         return new ProblemHandlingRequest(request);
     }
+
+    @Override
+    public AsyncRequest createAsyncRequest(URI uri, String method) throws IOException {
+        final AsyncRequest request = AsyncRequestFactories.asAsync(delegate).createAsyncRequest(uri, method);
+        return new ProblemHandlingAsyncRequest(request);
+    }
+
+    @Override
+    public RequestFactory getDelegate() {
+        return delegate;
+    }
 }
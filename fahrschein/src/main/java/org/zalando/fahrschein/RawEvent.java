@@ -0,0 +1,58 @@
+package org.zalando.fahrschein;
+
+import javax.annotation.concurrent.Immutable;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A view on the UTF-8 encoded JSON of a single event. Events share the buffer they were read into, a whole batch when
+ * read by {@link RawEventReader#read}, or a chunk of about 64 KiB when read lazily for a batch budget, so accessing an
+ * event does not copy its bytes unless explicitly requested by {@link #toByteArray()}. An event keeps its whole buffer
+ * reachable.
+ */
+@Immutable
+public final class RawEvent {
+    private final byte[] buffer;
+    private final int offset;
+    private final int length;
+
+    RawEvent(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return a read-only buffer containing the bytes of this event, without copying them
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(buffer, offset, length).slice().asReadOnlyBuffer();
+    }
+
+    public InputStream asInputStream() {
+        return new ByteArrayInputStream(buffer, offset, length);
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(buffer, offset, length);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOfRange(buffer, offset, offset + length);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, offset, length, UTF_8);
+    }
+}
@@ -0,0 +1,114 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.zalando.fahrschein.JsonParserHelper.expectToken;
+
+/**
+ * Copies the JSON of each event into a byte buffer without binding it to objects or building a tree,
+ * for consumers that only forward events to another sink. The events are copied token by token,
+ * so insignificant whitespace is not preserved.
+ */
+public class RawEventReader implements EventReader<RawEvent> {
+
+    private static final int MIN_BUFFER_SIZE = 1024;
+    // events read lazily are written into buffers of about this size, so each part of a split batch only pins its own buffers
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final class BatchBuffer extends ByteArrayOutputStream {
+        BatchBuffer(int size) {
+            super(size);
+        }
+
+        byte[] getBuffer() {
+            return buf;
+        }
+    }
+
+    private final JsonFactory jsonFactory;
+
+    public RawEventReader() {
+        this(DefaultObjectMapper.INSTANCE.getFactory());
+    }
+
+    public RawEventReader(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    public List<RawEvent> read(JsonParser jsonParser) throws IOException {
+        expectToken(jsonParser, JsonToken.START_ARRAY);
+
+        // all events of a batch are written into one buffer, which grows with the batch instead of being sized after
+        // earlier ones, so a single big batch does not make every following batch allocate and pin a big buffer
+        final BatchBuffer buffer = new BatchBuffer(MIN_BUFFER_SIZE);
+        final List<int[]> slices = new ArrayList<>();
+
+        try (JsonGenerator jsonGenerator = jsonFactory.createGenerator(buffer)) {
+            jsonGenerator.setRootValueSeparator(null);
+
+            for (JsonToken token = jsonParser.nextToken(); token != JsonToken.END_ARRAY; token = jsonParser.nextToken()) {
+                if (token == null) {
+                    expectToken(token, JsonToken.END_ARRAY);
+                }
+                final int start = buffer.size();
+                jsonGenerator.copyCurrentStructure(jsonParser);
+                jsonGenerator.flush();
+                slices.add(new int[] { start, buffer.size() - start });
+            }
+        }
+
+        final byte[] bytes = buffer.getBuffer();
+        final List<RawEvent> events = new ArrayList<>(slices.size());
+        for (int[] slice : slices) {
+            events.add(new RawEvent(bytes, slice[0], slice[1]));
+        }
+        return events;
+    }
+
+    @Override
+    public Iterator<RawEvent> readIterator(JsonParser jsonParser) throws IOException {
+        expectToken(jsonParser, JsonToken.START_ARRAY);
+
+        return new JsonArrayIterator<RawEvent>(jsonParser) {
+            private BatchBuffer buffer;
+            private JsonGenerator jsonGenerator;
+
+            @Override
+            protected RawEvent readElement(JsonParser jsonParser, JsonToken token) throws IOException {
+                if (jsonGenerator == null || buffer.size() >= CHUNK_SIZE) {
+                    final int size = jsonGenerator == null ? MIN_BUFFER_SIZE : CHUNK_SIZE;
+                    closeChunk();
+                    buffer = new BatchBuffer(size);
+                    jsonGenerator = jsonFactory.createGenerator(buffer);
+                    jsonGenerator.setRootValueSeparator(null);
+                }
+                final int start = buffer.size();
+                jsonGenerator.copyCurrentStructure(jsonParser);
+                jsonGenerator.flush();
+                // the buffer may be replaced when it grows later, the event keeps referencing the one containing it
+                return new RawEvent(buffer.getBuffer(), start, buffer.size() - start);
+            }
+
+            @Override
+            protected void onEnd() throws IOException {
+                closeChunk();
+            }
+
+            private void closeChunk() throws IOException {
+                if (jsonGenerator != null) {
+                    jsonGenerator.close();
+                }
+            }
+        };
+    }
+}
@@ -6,6 +6,9 @@ import org.zalando.fahrschein.domain.Partition;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 public interface StreamBuilder {
 
@@ -18,6 +21,16 @@ public interface StreamBuilder {
         SubscriptionStreamBuilder withBatchHandler(BatchHandler batchHandler);
         @Override
         SubscriptionStreamBuilder withStreamParameters(StreamParameters streamParameters);
+        @Override
+        SubscriptionStreamBuilder withPipelinedProcessing(int maxInFlightBatches);
+        @Override
+        SubscriptionStreamBuilder withPartitionParallelism(int workers, int maxInFlightBatches);
+        @Override
+        SubscriptionStreamBuilder withPartitionParallelism(ExecutorService executorService, int maxInFlightBatches);
+        @Override
+        SubscriptionStreamBuilder withEventFilter(EventFilter eventFilter);
+        @Override
+        SubscriptionStreamBuilder withBatchBudget(int maxEvents, long maxBytes);
     }
 
     interface LowLevelStreamBuilder extends StreamBuilder {
@@ -29,6 +42,16 @@ public interface StreamBuilder {
         LowLevelStreamBuilder withBatchHandler(BatchHandler batchHandler);
         @Override
         LowLevelStreamBuilder withStreamParameters(StreamParameters streamParameters);
+        @Override
+        LowLevelStreamBuilder withPipelinedProcessing(int maxInFlightBatches);
+        @Override
+        LowLevelStreamBuilder withPartitionParallelism(int workers, int maxInFlightBatches);
+        @Override
+        LowLevelStreamBuilder withPartitionParallelism(ExecutorService executorService, int maxInFlightBatches);
+        @Override
+        LowLevelStreamBuilder withEventFilter(EventFilter eventFilter);
+        @Override
+        LowLevelStreamBuilder withBatchBudget(int maxEvents, long maxBytes);
 
         LowLevelStreamBuilder withLock(Lock lock);
 
@@ -47,10 +70,80 @@ public interface StreamBuilder {
 
     StreamBuilder withBackoffStrategy(BackoffStrategy backoffStrategy);
 
+    /**
+     * Decodes the next batches on the reading thread while the listener is still processing the current one.
+     * Batches are passed to the listener on a separate thread, in the same order as they were received, and
+     * their cursors are committed after the listener returned, just like without pipelining.
+     *
+     * @param maxInFlightBatches the number of batches that can be waiting for or in processing before reading blocks
+     */
+    StreamBuilder withPipelinedProcessing(int maxInFlightBatches);
+
+    /**
+     * Processes batches of different partitions concurrently using a pool of worker threads, which is created when the stream is started.
+     * Batches of the same partition are still processed one after another in the order they were received.
+     * The number of events in processing never exceeds {@link StreamParameters#withMaxUncommittedEvents(int)}, if configured.
+     *
+     * @param workers the number of worker threads
+     * @param maxInFlightBatches the number of batches that can be waiting for or in processing before reading blocks
+     */
+    StreamBuilder withPartitionParallelism(int workers, int maxInFlightBatches);
+
+    /**
+     * Processes batches of different partitions concurrently using the given {@code ExecutorService}, for example one
+     * creating a virtual thread per task. The executor service is not shut down when the stream stops.
+     *
+     * @see #withPartitionParallelism(int, int)
+     */
+    StreamBuilder withPartitionParallelism(ExecutorService executorService, int maxInFlightBatches);
+
+    /**
+     * Only passes events matching the filter to the listener, other events are skipped without being bound.
+     * Cursors of batches are committed as usual, even if no event of the batch matched.
+     * Only applies to listeners registered with an event class, custom {@link EventReader}s have to filter on their own.
+     */
+    StreamBuilder withEventFilter(EventFilter eventFilter);
+
+    /**
+     * Limits how many events are collected before they are passed to the listener. Batches exceeding the budget are
+     * passed to the listener in several parts, the cursor is committed after the last part was processed.
+     * The size is approximated by the JSON size of the events. Use {@link Integer#MAX_VALUE} or {@link Long#MAX_VALUE} to not limit one of them.
+     *
+     * Events are only read as far as the budget allows if the {@link EventReader} implements
+     * {@link EventReader#readIterator(com.fasterxml.jackson.core.JsonParser)}, like the readers of this library do.
+     * Other readers read the whole batch first and are only limited by the number of events.
+     *
+     * @param maxEvents the maximum number of events passed to the listener at once
+     * @param maxBytes the approximate maximum JSON size of the events passed to the listener at once
+     */
+    StreamBuilder withBatchBudget(int maxEvents, long maxBytes);
+
     <T> IORunnable runnable(Class<T> eventClass, Listener<T> listener);
     <T> IORunnable runnable(EventReader<T> eventReader, Listener<T> listener);
 
     <T> void listen(Class<T> eventClass, Listener<T> listener) throws IOException;
     <T> void listen(EventReader<T> eventReader, Listener<T> listener) throws IOException;
 
+    /**
+     * Passes the events of each batch to the listener while they are still being read from the stream,
+     * instead of collecting the whole batch in a list first. Can not be combined with pipelined processing
+     * or partition parallelism, since events are read on the thread that calls the listener.
+     */
+    <T> IORunnable streamingRunnable(Class<T> eventClass, StreamingListener<T> listener);
+    <T> IORunnable streamingRunnable(EventReader<T> eventReader, StreamingListener<T> listener);
+
+    <T> void listenStreaming(Class<T> eventClass, StreamingListener<T> listener) throws IOException;
+    <T> void listenStreaming(EventReader<T> eventReader, StreamingListener<T> listener) throws IOException;
+
+    /**
+     * Consumes the stream without blocking the calling thread or waiting for events on any other thread. The body is
+     * read by an {@link org.zalando.fahrschein.http.api.AsyncRequestFactory} and batches are passed to the listener on
+     * the executor, one after another. Reconnecting with the backoff strategy also happens on the executor. Can not be
+     * combined with pipelined processing or partition parallelism.
+     *
+     * @return a future that completes exceptionally when the stream stopped because of an error, cancelling it stops the stream
+     */
+    <T> CompletableFuture<Void> listenAsync(Class<T> eventClass, Listener<T> listener, Executor executor);
+    <T> CompletableFuture<Void> listenAsync(EventReader<T> eventReader, Listener<T> listener, Executor executor);
+
 }
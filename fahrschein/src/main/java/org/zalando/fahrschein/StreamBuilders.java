@@ -5,6 +5,7 @@ import org.zalando.fahrschein.domain.Cursor;
 import org.zalando.fahrschein.domain.Lock;
 import org.zalando.fahrschein.domain.Partition;
 import org.zalando.fahrschein.domain.Subscription;
+import org.zalando.fahrschein.http.api.AsyncRequestFactory;
 import org.zalando.fahrschein.http.api.RequestFactory;
 
 import javax.annotation.Nullable;
@@ -15,11 +16,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static java.util.Optional.ofNullable;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+import static org.zalando.fahrschein.Preconditions.checkNotNull;
+import static org.zalando.fahrschein.Preconditions.checkState;
 
 class StreamBuilders {
     abstract static class AbstractStreamBuilder implements StreamBuilder {
@@ -35,8 +43,14 @@ class StreamBuilders {
         protected final BatchHandler batchHandler;
         @Nullable
         protected final MetricsCollector metricsCollector;
+        @Nullable
+        protected final BatchDispatcher.Factory batchDispatcherFactory;
+        @Nullable
+        protected final EventFilter eventFilter;
+        @Nullable
+        protected final BatchBudget batchBudget;
 
-        protected AbstractStreamBuilder(URI baseUri, RequestFactory requestFactory, CursorManager cursorManager, ObjectMapper objectMapper, @Nullable BackoffStrategy backoffStrategy, @Nullable StreamParameters streamParameters, @Nullable BatchHandler batchHandler, @Nullable MetricsCollector metricsCollector) {
+        protected AbstractStreamBuilder(URI baseUri, RequestFactory requestFactory, CursorManager cursorManager, ObjectMapper objectMapper, @Nullable BackoffStrategy backoffStrategy, @Nullable StreamParameters streamParameters, @Nullable BatchHandler batchHandler, @Nullable MetricsCollector metricsCollector, @Nullable BatchDispatcher.Factory batchDispatcherFactory, @Nullable EventFilter eventFilter, @Nullable BatchBudget batchBudget) {
             this.baseUri = baseUri;
             this.requestFactory = requestFactory;
             this.cursorManager = cursorManager;
@@ -45,6 +59,9 @@ class StreamBuilders {
             this.streamParameters = streamParameters;
             this.batchHandler = batchHandler;
             this.metricsCollector = metricsCollector;
+            this.batchDispatcherFactory = batchDispatcherFactory;
+            this.eventFilter = eventFilter;
+            this.batchBudget = batchBudget;
         }
 
         protected abstract URI getURI(String queryString);
@@ -75,15 +92,104 @@ class StreamBuilders {
             final BackoffStrategy backoffStrategy = this.backoffStrategy != null ? this.backoffStrategy : new EqualJitterBackoffStrategy();
             final MetricsCollector metricsCollector = this.metricsCollector != null ? this.metricsCollector : NoMetricsCollector.NO_METRICS_COLLECTOR;
             final BatchHandler batchHandler = this.batchHandler != null ? this.batchHandler : DefaultBatchHandler.INSTANCE;
+            final BatchDispatcher.Factory batchDispatcherFactory = this.batchDispatcherFactory != null ? this.batchDispatcherFactory : (names, parameters) -> DirectBatchDispatcher.INSTANCE;
+            final BatchBudget batchBudget = this.batchBudget != null ? this.batchBudget : BatchBudget.UNLIMITED;
 
             return new NakadiReader<>(uri, requestFactory, backoffStrategy, cursorManager,
-                    eventNames, subscription, lock, eventReader, listener, batchHandler, metricsCollector);
+                    eventNames, subscription, lock, eventReader, listener, batchHandler, metricsCollector, () -> batchDispatcherFactory.create(eventNames, streamParameters), batchBudget);
+        }
+
+        @Override
+        public final <T> void listenStreaming(Class<T> eventClass, StreamingListener<T> listener) throws IOException {
+            streamingRunnable(eventClass, listener).run();
+        }
+
+        @Override
+        public final <T> void listenStreaming(EventReader<T> eventReader, StreamingListener<T> listener) throws IOException {
+            streamingRunnable(eventReader, listener).run();
+        }
+
+        @Override
+        public final <T> IORunnable streamingRunnable(Class<T> eventClass, StreamingListener<T> listener) {
+            return streamingRunnable(eventReader(eventClass), listener);
+        }
+
+        @Override
+        public final <T> IORunnable streamingRunnable(EventReader<T> eventReader, StreamingListener<T> listener) {
+            checkState(batchDispatcherFactory == null, "Streaming listeners can not be combined with pipelined processing or partition parallelism");
+
+            final StreamParameters streamParameters = this.streamParameters != null ? this.streamParameters : new StreamParameters();
+            final String queryString = streamParameters.toQueryString();
+
+            final BackoffStrategy backoffStrategy = this.backoffStrategy != null ? this.backoffStrategy : new EqualJitterBackoffStrategy();
+            final MetricsCollector metricsCollector = this.metricsCollector != null ? this.metricsCollector : NoMetricsCollector.NO_METRICS_COLLECTOR;
+            final BatchHandler batchHandler = this.batchHandler != null ? this.batchHandler : DefaultBatchHandler.INSTANCE;
+
+            return new NakadiReader<>(getURI(queryString), requestFactory, backoffStrategy, cursorManager,
+                    getEventNames(), getSubscription(), getLock(), eventReader, listener, batchHandler, metricsCollector);
+        }
+
+        @Override
+        public final <T> CompletableFuture<Void> listenAsync(Class<T> eventClass, Listener<T> listener, Executor executor) {
+            return listenAsync(eventReader(eventClass), listener, executor);
+        }
+
+        @Override
+        public final <T> CompletableFuture<Void> listenAsync(EventReader<T> eventReader, Listener<T> listener, Executor executor) {
+            checkNotNull(executor, "Executor should not be null");
+            checkState(batchDispatcherFactory == null, "Asynchronous listening can not be combined with pipelined processing or partition parallelism");
+            checkState(AsyncRequestFactories.supportsAsync(requestFactory), "RequestFactory does not support asynchronous requests");
+
+            final StreamParameters streamParameters = this.streamParameters != null ? this.streamParameters : new StreamParameters();
+            final String queryString = streamParameters.toQueryString();
+
+            final URI uri = getURI(queryString);
+            final Set<String> eventNames = getEventNames();
+            final Optional<Subscription> subscription = getSubscription();
+
+            final BackoffStrategy backoffStrategy = this.backoffStrategy != null ? this.backoffStrategy : new EqualJitterBackoffStrategy();
+            final MetricsCollector metricsCollector = this.metricsCollector != null ? this.metricsCollector : NoMetricsCollector.NO_METRICS_COLLECTOR;
+            final BatchHandler batchHandler = this.batchHandler != null ? this.batchHandler : DefaultBatchHandler.INSTANCE;
+            final BatchBudget batchBudget = this.batchBudget != null ? this.batchBudget : BatchBudget.UNLIMITED;
+
+            final NakadiReader<T> nakadiReader = new NakadiReader<>(uri, requestFactory, backoffStrategy, cursorManager,
+                    eventNames, subscription, getLock(), eventReader, listener, batchHandler, metricsCollector, () -> DirectBatchDispatcher.INSTANCE, batchBudget);
+
+            return new NonBlockingNakadiReader<>(nakadiReader, uri, (AsyncRequestFactory) requestFactory, backoffStrategy, cursorManager,
+                    eventNames, subscription, metricsCollector, executor).start();
+        }
+
+        protected static BatchDispatcher.Factory pipelined(int maxInFlightBatches) {
+            checkArgument(maxInFlightBatches > 0, "Maximum number of in-flight batches should be bigger than 0");
+            return (eventNames, streamParameters) -> new PipelinedBatchDispatcher(maxInFlightBatches, threadName("fahrschein-pipeline-", eventNames));
+        }
+
+        protected static BatchDispatcher.Factory partitionParallel(int workers, int maxInFlightBatches) {
+            checkArgument(workers > 0, "Number of workers should be bigger than 0");
+            checkArgument(maxInFlightBatches > 0, "Maximum number of in-flight batches should be bigger than 0");
+            return (eventNames, streamParameters) -> {
+                final ExecutorService executorService = Executors.newFixedThreadPool(workers, new DaemonThreadFactory(threadName("fahrschein-worker-", eventNames)));
+                return PipelinedBatchDispatcher.partitionParallel(executorService, true, maxInFlightBatches, streamParameters.getMaxUncommittedEvents().orElse(Integer.MAX_VALUE));
+            };
+        }
+
+        protected static BatchDispatcher.Factory partitionParallel(ExecutorService executorService, int maxInFlightBatches) {
+            checkNotNull(executorService, "ExecutorService should not be null");
+            checkArgument(maxInFlightBatches > 0, "Maximum number of in-flight batches should be bigger than 0");
+            return (eventNames, streamParameters) -> PipelinedBatchDispatcher.partitionParallel(executorService, false, maxInFlightBatches, streamParameters.getMaxUncommittedEvents().orElse(Integer.MAX_VALUE));
+        }
+
+        private static String threadName(String prefix, Set<String> eventNames) {
+            return prefix + String.join(",", eventNames);
         }
 
         @Override
         public final <T> IORunnable runnable(Class<T> eventClass, Listener<T> listener) {
-            final EventReader<T> eventReader = new MappingEventReader<>(eventClass, objectMapper);
-            return runnable(eventReader, listener);
+            return runnable(eventReader(eventClass), listener);
+        }
+
+        private <T> EventReader<T> eventReader(Class<T> eventClass) {
+            return eventFilter != null ? new FilteringEventReader<>(eventClass, objectMapper, eventFilter) : new MappingEventReader<>(eventClass, objectMapper);
         }
 
     }
@@ -92,11 +198,11 @@ class StreamBuilders {
         private final Subscription subscription;
 
         SubscriptionStreamBuilderImpl(URI baseUri, RequestFactory clientHttpRequestFactory, CursorManager cursorManager, ObjectMapper objectMapper, Subscription subscription) {
-            this(baseUri, clientHttpRequestFactory, cursorManager, objectMapper, null, null, null, null, subscription);
+            this(baseUri, clientHttpRequestFactory, cursorManager, objectMapper, null, null, null, null, null, null, null, subscription);
         }
 
-        private SubscriptionStreamBuilderImpl(URI baseUri, RequestFactory clientHttpRequestFactory, CursorManager cursorManager, ObjectMapper objectMapper, @Nullable BackoffStrategy backoffStrategy, @Nullable StreamParameters streamParameters, @Nullable BatchHandler batchHandler, @Nullable MetricsCollector metricsCollector, Subscription subscription) {
-            super(baseUri, clientHttpRequestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector);
+        private SubscriptionStreamBuilderImpl(URI baseUri, RequestFactory clientHttpRequestFactory, CursorManager cursorManager, ObjectMapper objectMapper, @Nullable BackoffStrategy backoffStrategy, @Nullable StreamParameters streamParameters, @Nullable BatchHandler batchHandler, @Nullable MetricsCollector metricsCollector, @Nullable BatchDispatcher.Factory batchDispatcherFactory, @Nullable EventFilter eventFilter, @Nullable BatchBudget batchBudget, Subscription subscription) {
+            super(baseUri, clientHttpRequestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, batchBudget);
             this.subscription = subscription;
         }
 
@@ -122,27 +228,53 @@ class StreamBuilders {
 
         @Override
         public SubscriptionStreamBuilder withBackoffStrategy(BackoffStrategy backoffStrategy) {
-            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, subscription);
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, batchBudget, subscription);
         }
 
         @Override
         public SubscriptionStreamBuilder withBatchHandler(BatchHandler batchHandler) {
-            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, subscription);
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, batchBudget, subscription);
         }
 
         @Override
         public SubscriptionStreamBuilder withMetricsCollector(MetricsCollector metricsCollector) {
-            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, subscription);
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, batchBudget, subscription);
         }
 
         @Override
         public SubscriptionStreamBuilder withStreamParameters(StreamParameters streamParameters) {
-            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, subscription);
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, batchBudget, subscription);
         }
 
         @Override
         public SubscriptionStreamBuilder withObjectMapper(ObjectMapper objectMapper) {
-            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, subscription);
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, batchBudget, subscription);
+        }
+
+        @Override
+        public SubscriptionStreamBuilder withPipelinedProcessing(int maxInFlightBatches) {
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, pipelined(maxInFlightBatches), eventFilter, batchBudget, subscription);
+        }
+
+        @Override
+        public SubscriptionStreamBuilder withPartitionParallelism(int workers, int maxInFlightBatches) {
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, partitionParallel(workers, maxInFlightBatches), eventFilter, batchBudget, subscription);
+        }
+
+        @Override
+        public SubscriptionStreamBuilder withPartitionParallelism(ExecutorService executorService, int maxInFlightBatches) {
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, partitionParallel(executorService, maxInFlightBatches), eventFilter, batchBudget, subscription);
+        }
+
+        @Override
+        public SubscriptionStreamBuilder withEventFilter(EventFilter eventFilter) {
+            checkNotNull(eventFilter, "EventFilter should not be null");
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, batchBudget, subscription);
+        }
+
+        @Override
+        public SubscriptionStreamBuilder withBatchBudget(int maxEvents, long maxBytes) {
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, new BatchBudget(maxEvents, maxBytes), subscription);
         }
     }
 
@@ -151,11 +283,11 @@ class StreamBuilders {
         private final Lock lock;
 
         LowLevelStreamBuilderImpl(URI baseUri, RequestFactory clientHttpRequestFactory, CursorManager cursorManager, ObjectMapper objectMapper, String eventName) {
-            this(baseUri, clientHttpRequestFactory, cursorManager, objectMapper, null, null, null, null, eventName, null);
+            this(baseUri, clientHttpRequestFactory, cursorManager, objectMapper, null, null, null, null, null, null, null, eventName, null);
         }
 
-        private LowLevelStreamBuilderImpl(URI baseUri, RequestFactory clientHttpRequestFactory, CursorManager cursorManager, ObjectMapper objectMapper, @Nullable BackoffStrategy backoffStrategy, @Nullable StreamParameters streamParameters, @Nullable BatchHandler batchHandler, @Nullable MetricsCollector metricsCollector, String eventName, @Nullable Lock lock) {
-            super(baseUri, clientHttpRequestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector);
+        private LowLevelStreamBuilderImpl(URI baseUri, RequestFactory clientHttpRequestFactory, CursorManager cursorManager, ObjectMapper objectMapper, @Nullable BackoffStrategy backoffStrategy, @Nullable StreamParameters streamParameters, @Nullable BatchHandler batchHandler, @Nullable MetricsCollector metricsCollector, @Nullable BatchDispatcher.Factory batchDispatcherFactory, @Nullable EventFilter eventFilter, @Nullable BatchBudget batchBudget, String eventName, @Nullable Lock lock) {
+            super(baseUri, clientHttpRequestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, batchBudget);
             this.eventName = eventName;
             this.lock = lock;
         }
@@ -182,32 +314,58 @@ class StreamBuilders {
 
         @Override
         public LowLevelStreamBuilder withBackoffStrategy(BackoffStrategy backoffStrategy) {
-            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eventName, lock);
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, batchBudget, eventName, lock);
         }
 
         @Override
         public LowLevelStreamBuilder withMetricsCollector(MetricsCollector metricsCollector) {
-            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eventName, lock);
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, batchBudget, eventName, lock);
         }
 
         @Override
         public LowLevelStreamBuilder withBatchHandler(BatchHandler batchHandler) {
-            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eventName, lock);
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, batchBudget, eventName, lock);
         }
 
         @Override
         public LowLevelStreamBuilder withStreamParameters(StreamParameters streamParameters) {
-            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eventName, lock);
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, batchBudget, eventName, lock);
         }
 
         @Override
         public LowLevelStreamBuilder withObjectMapper(ObjectMapper objectMapper) {
-            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eventName, lock);
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, batchBudget, eventName, lock);
+        }
+
+        @Override
+        public LowLevelStreamBuilder withPipelinedProcessing(int maxInFlightBatches) {
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, pipelined(maxInFlightBatches), eventFilter, batchBudget, eventName, lock);
+        }
+
+        @Override
+        public LowLevelStreamBuilder withPartitionParallelism(int workers, int maxInFlightBatches) {
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, partitionParallel(workers, maxInFlightBatches), eventFilter, batchBudget, eventName, lock);
+        }
+
+        @Override
+        public LowLevelStreamBuilder withPartitionParallelism(ExecutorService executorService, int maxInFlightBatches) {
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, partitionParallel(executorService, maxInFlightBatches), eventFilter, batchBudget, eventName, lock);
+        }
+
+        @Override
+        public LowLevelStreamBuilder withEventFilter(EventFilter eventFilter) {
+            checkNotNull(eventFilter, "EventFilter should not be null");
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, batchBudget, eventName, lock);
+        }
+
+        @Override
+        public LowLevelStreamBuilder withBatchBudget(int maxEvents, long maxBytes) {
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, new BatchBudget(maxEvents, maxBytes), eventName, lock);
         }
 
         @Override
         public LowLevelStreamBuilder withLock(Lock lock) {
-            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eventName, lock);
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, batchDispatcherFactory, eventFilter, batchBudget, eventName, lock);
         }
 
         /**
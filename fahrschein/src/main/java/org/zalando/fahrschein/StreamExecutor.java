@@ -0,0 +1,159 @@
+package org.zalando.fahrschein;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+
+/**
+ * Runs stream runnables, like the ones returned by {@link StreamBuilder#runnable(Class, Listener)}, each on its own
+ * thread. A blocking stream occupies its thread for its whole life, mostly waiting for the next batch, so on JDKs with
+ * virtual threads every stream gets a virtual thread. Otherwise at most {@code maxPlatformThreads} streams run on
+ * platform threads and further streams are rejected instead of waiting for a free thread.
+ *
+ * {@link #shutdown()} interrupts all streams, which stop after the batch they are currently reading.
+ */
+public final class StreamExecutor implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamExecutor.class);
+
+    private final ExecutorService executorService;
+    private final boolean virtualThreads;
+    private final String threadName;
+    private final int maxPlatformThreads;
+    private final AtomicInteger runningStreams = new AtomicInteger();
+
+    private StreamExecutor(ExecutorService executorService, boolean virtualThreads, String threadName, int maxPlatformThreads) {
+        this.executorService = executorService;
+        this.virtualThreads = virtualThreads;
+        this.threadName = threadName;
+        this.maxPlatformThreads = maxPlatformThreads;
+    }
+
+    /**
+     * Uses virtual threads if the JDK supports them, or a bounded pool of platform threads otherwise.
+     *
+     * @param threadName the prefix for the names of the stream threads
+     * @param maxPlatformThreads the maximum number of streams running at once without virtual threads
+     */
+    public static StreamExecutor create(String threadName, int maxPlatformThreads) {
+        checkArgument(maxPlatformThreads > 0, "Maximum number of platform threads should be bigger than 0");
+        final ExecutorService virtualThreadExecutor = virtualThreadExecutor(threadName);
+        if (virtualThreadExecutor != null) {
+            return new StreamExecutor(virtualThreadExecutor, true, threadName, maxPlatformThreads);
+        }
+        LOG.info("Virtual threads are not available, running at most [{}] streams on platform threads", maxPlatformThreads);
+        return new StreamExecutor(platformThreadExecutor(threadName, maxPlatformThreads), false, threadName, maxPlatformThreads);
+    }
+
+    /**
+     * Always uses a bounded pool of platform threads, even if virtual threads are available.
+     */
+    public static StreamExecutor platformThreads(String threadName, int maxThreads) {
+        checkArgument(maxThreads > 0, "Maximum number of platform threads should be bigger than 0");
+        return new StreamExecutor(platformThreadExecutor(threadName, maxThreads), false, threadName, maxThreads);
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread per task via reflection, since this library still supports
+     * Java 8.
+     *
+     * @return the executor, or {@code null} if the JDK has no virtual threads or they are not enabled
+     */
+    @Nullable
+    static ExecutorService virtualThreadExecutor(String threadName) {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Object builder = builderClass.getMethod("name", String.class, long.class)
+                    .invoke(Thread.class.getMethod("ofVirtual").invoke(null), threadName + "-", 0L);
+            final ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, threadFactory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // before Java 21 or with preview features disabled
+            LOG.debug("Virtual threads are not available", e);
+            return null;
+        }
+    }
+
+    private static ExecutorService platformThreadExecutor(String threadName, int maxThreads) {
+        return new ThreadPoolExecutor(0, maxThreads, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), new DaemonThreadFactory(threadName));
+    }
+
+    /**
+     * Starts the stream on a new thread. The returned future completes when the stream stopped, with the
+     * {@link java.io.IOException} it failed with, if any. Cancelling the future interrupts the stream.
+     *
+     * @throws RejectedExecutionException if the executor was shut down or all platform threads are in use
+     */
+    public Future<?> submit(IORunnable runnable) {
+        try {
+            return executorService.submit(() -> {
+                runningStreams.incrementAndGet();
+                try {
+                    runnable.run();
+                    return null;
+                } finally {
+                    runningStreams.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (executorService.isShutdown()) {
+                throw e;
+            }
+            throw new RejectedExecutionException(String.format("All [%d] stream threads of [%s] are in use", maxPlatformThreads, threadName), e);
+        }
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getRunningStreams() {
+        return runningStreams.get();
+    }
+
+    /**
+     * Interrupts all running streams and rejects new ones.
+     */
+    public void shutdown() {
+        executorService.shutdownNow();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executorService.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Interrupts all running streams and waits until they stopped.
+     */
+    @Override
+    public void close() {
+        shutdown();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+                LOG.warn("Still waiting for [{}] streams of [{}] to stop", runningStreams.get(), threadName);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package org.zalando.fahrschein;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.fahrschein.domain.Cursor;
+import org.zalando.fahrschein.domain.Subscription;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.zalando.fahrschein.Preconditions.checkState;
+
+/**
+ * Runs several streams of one subscription, so that Nakadi distributes its partitions between them. Every stream has
+ * its own cursor manager, since commits have to use the id of the stream that received the batch. A stream that stops
+ * with an exception, for example after its reconnection attempts were exhausted, is restarted with the restart
+ * {@link BackoffStrategy}.
+ *
+ * {@link #close()} lets streams finish and commit the batch they are currently processing, and interrupts streams that
+ * are waiting for the next batch.
+ */
+public final class StreamSupervisor implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamSupervisor.class);
+
+    public enum State {
+        /** Connecting for the first time, or again after a restart. */
+        STARTING,
+        /** Connected, Nakadi assigned a stream id. */
+        RUNNING,
+        /** Stopped with an exception and waiting to be restarted. */
+        RESTARTING,
+        /** Stopped after the supervisor was closed. */
+        STOPPED,
+        /** Stopped with an exception after restarts were given up. */
+        FAILED
+    }
+
+    interface RunnableFactory<T> {
+        IORunnable create(StreamBuilder.SubscriptionStreamBuilder streamBuilder, Listener<T> listener);
+    }
+
+    /**
+     * A snapshot of the health of a single stream.
+     */
+    public static final class StreamHealth {
+        private final int index;
+        private final State state;
+        @Nullable
+        private final String streamId;
+        private final int restarts;
+        private final long batches;
+        @Nullable
+        private final Instant lastBatch;
+        @Nullable
+        private final Throwable lastFailure;
+
+        StreamHealth(int index, State state, @Nullable String streamId, int restarts, long batches, @Nullable Instant lastBatch, @Nullable Throwable lastFailure) {
+            this.index = index;
+            this.state = state;
+            this.streamId = streamId;
+            this.restarts = restarts;
+            this.batches = batches;
+            this.lastBatch = lastBatch;
+            this.lastFailure = lastFailure;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * @return the id Nakadi assigned to the current connection of the stream
+         */
+        public Optional<String> getStreamId() {
+            return Optional.ofNullable(streamId);
+        }
+
+        public int getRestarts() {
+            return restarts;
+        }
+
+        /**
+         * @return the number of batches passed to the listener, parts of batches exceeding the batch budget are counted separately
+         */
+        public long getBatches() {
+            return batches;
+        }
+
+        public Optional<Instant> getLastBatch() {
+            return Optional.ofNullable(lastBatch);
+        }
+
+        public Optional<Throwable> getLastFailure() {
+            return Optional.ofNullable(lastFailure);
+        }
+
+        @Override
+        public String toString() {
+            return "StreamHealth{" +
+                    "index=" + index +
+                    ", state=" + state +
+                    ", streamId='" + streamId + '\'' +
+                    ", restarts=" + restarts +
+                    ", batches=" + batches +
+                    ", lastBatch=" + lastBatch +
+                    ", lastFailure=" + lastFailure +
+                    '}';
+        }
+    }
+
+    private final Subscription subscription;
+    private final Function<SupervisedStream, IORunnable> runnables;
+    private final StreamExecutor streamExecutor;
+    private final boolean ownsStreamExecutor;
+    private final BackoffStrategy restartBackoffStrategy;
+    private final long shutdownTimeoutMillis;
+    private final List<SupervisedStream> streams;
+    private final CountDownLatch stopped;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean stopping;
+
+    <T> StreamSupervisor(Subscription subscription, int streams, StreamSupervisorBuilder.StreamBuilderFactory streamBuilderFactory, RunnableFactory<T> runnableFactory, Listener<T> listener, StreamExecutor streamExecutor, boolean ownsStreamExecutor, BackoffStrategy restartBackoffStrategy, long shutdownTimeoutMillis) {
+        this.subscription = subscription;
+        this.runnables = stream -> runnableFactory.create(streamBuilderFactory.create(stream::decorate), stream.decorate(listener));
+        this.streamExecutor = streamExecutor;
+        this.ownsStreamExecutor = ownsStreamExecutor;
+        this.restartBackoffStrategy = restartBackoffStrategy;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        final List<SupervisedStream> supervisedStreams = new ArrayList<>(streams);
+        for (int i = 0; i < streams; i++) {
+            supervisedStreams.add(new SupervisedStream(i));
+        }
+        this.streams = Collections.unmodifiableList(supervisedStreams);
+        this.stopped = new CountDownLatch(streams);
+    }
+
+    void start() {
+        checkState(started.compareAndSet(false, true), "Supervisor was already started");
+        LOG.info("Starting [{}] streams for subscription [{}]", streams.size(), subscription.getId());
+        for (int i = 0; i < streams.size(); i++) {
+            final SupervisedStream stream = streams.get(i);
+            try {
+                streamExecutor.submit(() -> supervise(stream));
+            } catch (RejectedExecutionException e) {
+                for (SupervisedStream notStarted : streams.subList(i, streams.size())) {
+                    notStarted.state = State.FAILED;
+                    notStarted.lastFailure = e;
+                    stopped.countDown();
+                }
+                close();
+                throw e;
+            }
+        }
+    }
+
+    private void supervise(SupervisedStream stream) {
+        stream.thread = Thread.currentThread();
+        try {
+            int errorCount = 0;
+            while (!stopping && !Thread.currentThread().isInterrupted()) {
+                final long batches = stream.batches.get();
+                try {
+                    stream.state = State.STARTING;
+                    try {
+                        runnables.apply(stream).run();
+                    } finally {
+                        stream.closeCursorManager();
+                    }
+                    // the stream only returns normally when it was interrupted
+                    break;
+                } catch (IOException | RuntimeException e) {
+                    if (stopping) {
+                        break;
+                    }
+                    if (stream.batches.get() != batches) {
+                        errorCount = 0;
+                    }
+                    LOG.warn("Stream [{}] of subscription [{}] stopped with [{}] [{}] after [{}] restarts", stream.index, subscription.getId(), e.getClass().getSimpleName(), e.getMessage(), errorCount, e);
+                    stream.lastFailure = e;
+                    stream.state = State.RESTARTING;
+                    try {
+                        // only waits, the stream is started again by the loop
+                        restartBackoffStrategy.call(errorCount, e instanceof IOException ? (IOException) e : new IOException(e), () -> null);
+                    } catch (BackoffException backoffException) {
+                        LOG.error("Giving up restarting stream [{}] of subscription [{}]", stream.index, subscription.getId());
+                        stream.state = State.FAILED;
+                        return;
+                    } catch (InterruptedException interruptedException) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    errorCount++;
+                    stream.restarts++;
+                }
+            }
+            stream.state = State.STOPPED;
+        } catch (Throwable throwable) {
+            stream.lastFailure = throwable;
+            stream.state = State.FAILED;
+            throw throwable;
+        } finally {
+            stream.streamId = null;
+            stopped.countDown();
+        }
+    }
+
+    public List<StreamHealth> getHealth() {
+        final List<StreamHealth> health = new ArrayList<>(streams.size());
+        for (SupervisedStream stream : streams) {
+            health.add(stream.health());
+        }
+        return health;
+    }
+
+    /**
+     * @return whether no stream failed or stopped
+     */
+    public boolean isHealthy() {
+        for (SupervisedStream stream : streams) {
+            if (stream.state == State.FAILED || stream.state == State.STOPPED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops all streams, waiting up to the shutdown timeout for them to finish and commit their current batch.
+     */
+    @Override
+    public void close() {
+        stopping = true;
+        for (SupervisedStream stream : streams) {
+            stream.stopIfIdle();
+        }
+        try {
+            if (!stopped.await(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                LOG.warn("Interrupting streams of subscription [{}] that did not stop within [{}] ms", subscription.getId(), shutdownTimeoutMillis);
+                for (SupervisedStream stream : streams) {
+                    stream.interrupt();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (ownsStreamExecutor) {
+                streamExecutor.shutdown();
+            }
+        }
+        LOG.info("Stopped streams for subscription [{}]", subscription.getId());
+    }
+
+    private final class SupervisedStream {
+        private final int index;
+        @Nullable
+        private volatile Thread thread;
+        private volatile State state = State.STARTING;
+        @Nullable
+        private volatile String streamId;
+        private volatile int restarts;
+        private final AtomicLong batches = new AtomicLong();
+        @Nullable
+        private volatile Instant lastBatch;
+        @Nullable
+        private volatile Throwable lastFailure;
+        // whether the stream thread is between passing a batch to the listener and committing it
+        private volatile boolean processing;
+        // the cursor manager of the current run, each run gets its own copy
+        @Nullable
+        private CursorManager cursorManager;
+
+        SupervisedStream(int index) {
+            this.index = index;
+        }
+
+        StreamHealth health() {
+            return new StreamHealth(index, state, streamId, restarts, batches.get(), lastBatch, lastFailure);
+        }
+
+        void stopIfIdle() {
+            if (!processing) {
+                interrupt();
+            }
+        }
+
+        void interrupt() {
+            final Thread thread = this.thread;
+            if (thread != null && state != State.STOPPED && state != State.FAILED) {
+                thread.interrupt();
+            }
+        }
+
+        private boolean onStreamThread() {
+            return Thread.currentThread() == thread;
+        }
+
+        /**
+         * Interrupts the stream after it committed a batch, if the supervisor is stopping.
+         */
+        private void processed() {
+            if (onStreamThread()) {
+                processing = false;
+                if (stopping) {
+                    thread.interrupt();
+                }
+            }
+        }
+
+        <T> Listener<T> decorate(Listener<T> listener) {
+            return events -> {
+                if (onStreamThread()) {
+                    processing = true;
+                }
+                boolean accepted = false;
+                try {
+                    listener.accept(events);
+                    accepted = true;
+                } finally {
+                    lastBatch = Instant.now();
+                    batches.incrementAndGet();
+                    if (!accepted) {
+                        processed();
+                    }
+                }
+            };
+        }
+
+        /**
+         * Closes the cursor manager of the run that ended, committing its outstanding cursors.
+         */
+        void closeCursorManager() {
+            final CursorManager cursorManager = this.cursorManager;
+            this.cursorManager = null;
+            if (cursorManager instanceof Closeable) {
+                try {
+                    ((Closeable) cursorManager).close();
+                } catch (IOException | RuntimeException e) {
+                    LOG.warn("Could not close cursor manager of stream [{}] of subscription [{}]", index, subscription.getId(), e);
+                }
+            }
+        }
+
+        CursorManager decorate(CursorManager cursorManager) {
+            this.cursorManager = cursorManager;
+            return new CursorManager() {
+                @Override
+                public void onSuccess(String eventName, Cursor cursor) throws IOException {
+                    try {
+                        cursorManager.onSuccess(eventName, cursor);
+                    } finally {
+                        processed();
+                    }
+                }
+
+                @Override
+                public void onSuccess(String eventName, List<Cursor> cursors) throws IOException {
+                    try {
+                        cursorManager.onSuccess(eventName, cursors);
+                    } finally {
+                        processed();
+                    }
+                }
+
+                @Override
+                public Collection<Cursor> getCursors(String eventName) throws IOException {
+                    return cursorManager.getCursors(eventName);
+                }
+
+                @Override
+                public void addSubscription(Subscription subscription) {
+                    cursorManager.addSubscription(subscription);
+                }
+
+                @Override
+                public void addStreamId(Subscription subscription, String streamId) {
+                    cursorManager.addStreamId(subscription, streamId);
+                    SupervisedStream.this.streamId = streamId;
+                    state = State.RUNNING;
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    cursorManager.flush();
+                }
+            };
+        }
+    }
+}
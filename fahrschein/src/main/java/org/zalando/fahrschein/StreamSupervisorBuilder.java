@@ -0,0 +1,119 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.domain.Subscription;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+import static org.zalando.fahrschein.Preconditions.checkNotNull;
+
+/**
+ * Configures a {@link StreamSupervisor} for a subscription. All streams share the {@link org.zalando.fahrschein.http.api.RequestFactory}
+ * of the {@link NakadiClient}, which should therefore pool its connections.
+ */
+public final class StreamSupervisorBuilder {
+
+    private static final long DEFAULT_SHUTDOWN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * Creates the stream builder of a single stream, with its own cursor manager decorated by the supervisor.
+     */
+    interface StreamBuilderFactory {
+        StreamBuilder.SubscriptionStreamBuilder create(UnaryOperator<CursorManager> cursorManagerDecorator);
+    }
+
+    private final Subscription subscription;
+    private final StreamBuilderFactory streamBuilderFactory;
+    private final IOCallable<Integer> partitionCount;
+    private final int streams;
+    private final UnaryOperator<StreamBuilder.SubscriptionStreamBuilder> streamConfiguration;
+    @Nullable
+    private final StreamExecutor streamExecutor;
+    @Nullable
+    private final BackoffStrategy restartBackoffStrategy;
+    private final long shutdownTimeoutMillis;
+
+    StreamSupervisorBuilder(Subscription subscription, StreamBuilderFactory streamBuilderFactory, IOCallable<Integer> partitionCount) {
+        this(subscription, streamBuilderFactory, partitionCount, 1, UnaryOperator.identity(), null, null, DEFAULT_SHUTDOWN_TIMEOUT_MILLIS);
+    }
+
+    private StreamSupervisorBuilder(Subscription subscription, StreamBuilderFactory streamBuilderFactory, IOCallable<Integer> partitionCount, int streams, UnaryOperator<StreamBuilder.SubscriptionStreamBuilder> streamConfiguration, @Nullable StreamExecutor streamExecutor, @Nullable BackoffStrategy restartBackoffStrategy, long shutdownTimeoutMillis) {
+        this.subscription = subscription;
+        this.streamBuilderFactory = streamBuilderFactory;
+        this.partitionCount = partitionCount;
+        this.streams = streams;
+        this.streamConfiguration = streamConfiguration;
+        this.streamExecutor = streamExecutor;
+        this.restartBackoffStrategy = restartBackoffStrategy;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+    }
+
+    /**
+     * @param streams the number of streams consuming the subscription, at most the number of its partitions
+     */
+    public StreamSupervisorBuilder withStreams(int streams) {
+        checkArgument(streams > 0, "Number of streams should be bigger than 0");
+        return new StreamSupervisorBuilder(subscription, streamBuilderFactory, partitionCount, streams, streamConfiguration, streamExecutor, restartBackoffStrategy, shutdownTimeoutMillis);
+    }
+
+    /**
+     * Configures the stream builder of every stream, for example its stream parameters or batch budget.
+     */
+    public StreamSupervisorBuilder withStreamConfiguration(UnaryOperator<StreamBuilder.SubscriptionStreamBuilder> streamConfiguration) {
+        checkNotNull(streamConfiguration, "Stream configuration should not be null");
+        return new StreamSupervisorBuilder(subscription, streamBuilderFactory, partitionCount, streams, streamConfiguration, streamExecutor, restartBackoffStrategy, shutdownTimeoutMillis);
+    }
+
+    /**
+     * Runs the streams on the given executor, which is not shut down with the supervisor. By default every supervisor
+     * creates its own {@link StreamExecutor}.
+     */
+    public StreamSupervisorBuilder withStreamExecutor(StreamExecutor streamExecutor) {
+        checkNotNull(streamExecutor, "StreamExecutor should not be null");
+        return new StreamSupervisorBuilder(subscription, streamBuilderFactory, partitionCount, streams, streamConfiguration, streamExecutor, restartBackoffStrategy, shutdownTimeoutMillis);
+    }
+
+    /**
+     * Delays restarting a stream that stopped with an exception, after its own reconnection attempts were exhausted.
+     * Restarts are given up once the strategy throws a {@link BackoffException}, the failure count is reset whenever
+     * a stream processed a batch.
+     */
+    public StreamSupervisorBuilder withRestartBackoffStrategy(BackoffStrategy restartBackoffStrategy) {
+        checkNotNull(restartBackoffStrategy, "BackoffStrategy should not be null");
+        return new StreamSupervisorBuilder(subscription, streamBuilderFactory, partitionCount, streams, streamConfiguration, streamExecutor, restartBackoffStrategy, shutdownTimeoutMillis);
+    }
+
+    /**
+     * Limits how long {@link StreamSupervisor#close()} waits for streams to finish their current batch.
+     */
+    public StreamSupervisorBuilder withShutdownTimeout(long timeout, TimeUnit unit) {
+        checkArgument(timeout >= 0, "Shutdown timeout should not be negative");
+        return new StreamSupervisorBuilder(subscription, streamBuilderFactory, partitionCount, streams, streamConfiguration, streamExecutor, restartBackoffStrategy, unit.toMillis(timeout));
+    }
+
+    public <T> StreamSupervisor start(Class<T> eventClass, Listener<T> listener) throws IOException {
+        return start((streamBuilder, streamListener) -> streamBuilder.runnable(eventClass, streamListener), listener);
+    }
+
+    public <T> StreamSupervisor start(EventReader<T> eventReader, Listener<T> listener) throws IOException {
+        return start((streamBuilder, streamListener) -> streamBuilder.runnable(eventReader, streamListener), listener);
+    }
+
+    private <T> StreamSupervisor start(StreamSupervisor.RunnableFactory<T> runnableFactory, Listener<T> listener) throws IOException {
+        checkNotNull(listener, "Listener should not be null");
+        final int partitions = partitionCount.call();
+        checkArgument(streams <= partitions, "Number of streams [%d] should not be bigger than the number of partitions [%d] of subscription [%s]", streams, partitions, subscription.getId());
+
+        final boolean ownsStreamExecutor = this.streamExecutor == null;
+        final StreamExecutor streamExecutor = ownsStreamExecutor ? StreamExecutor.create("fahrschein-" + subscription.getId(), streams) : this.streamExecutor;
+        final BackoffStrategy restartBackoffStrategy = this.restartBackoffStrategy != null ? this.restartBackoffStrategy : new EqualJitterBackoffStrategy();
+
+        final StreamSupervisor streamSupervisor = new StreamSupervisor(subscription, streams, decorator -> streamConfiguration.apply(streamBuilderFactory.create(decorator)),
+                runnableFactory, listener, streamExecutor, ownsStreamExecutor, restartBackoffStrategy, shutdownTimeoutMillis);
+        streamSupervisor.start();
+        return streamSupervisor;
+    }
+}
@@ -0,0 +1,18 @@
+package org.zalando.fahrschein;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Receives the events of a batch while they are still being read from the stream, without collecting them in a list first.
+ *
+ * The iterator is only valid during the call and has to be consumed completely, the cursor of the batch is committed afterwards.
+ * If the listener returns before all events were consumed, the batch is not committed and the stream reconnects.
+ * Exceptions while reading events are thrown from the iterator as {@link java.io.UncheckedIOException}.
+ */
+@FunctionalInterface
+public interface StreamingListener<T> {
+
+    void accept(Iterator<T> events) throws IOException, EventAlreadyProcessedException;
+
+}
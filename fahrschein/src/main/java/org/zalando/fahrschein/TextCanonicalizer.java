@@ -0,0 +1,63 @@
+package org.zalando.fahrschein;
+
+/**
+ * Returns the same {@code String} instance for repeated values, like partitions and event types of cursors,
+ * without allocating a new {@code String} when the value was already seen. Once the table is half full,
+ * new values are no longer cached, to keep memory bounded for unexpected input.
+ *
+ * Not thread-safe, each reader uses its own instance.
+ */
+final class TextCanonicalizer {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final String[] table;
+    private int size;
+
+    TextCanonicalizer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    TextCanonicalizer(int capacity) {
+        this.table = new String[Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1];
+    }
+
+    String canonicalize(char[] chars, int offset, int length) {
+        final int mask = table.length - 1;
+        int index = hash(chars, offset, length) & mask;
+
+        while (true) {
+            final String candidate = table[index];
+            if (candidate == null) {
+                final String value = new String(chars, offset, length);
+                if (size < table.length / 2) {
+                    table[index] = value;
+                    size++;
+                }
+                return value;
+            } else if (matches(candidate, chars, offset, length)) {
+                return candidate;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private static int hash(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String candidate, char[] chars, int offset, int length) {
+        if (candidate.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (candidate.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,45 @@
+package org.zalando.fahrschein.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+public final class CursorCommitResult {
+
+    public enum Result {
+        COMMITTED("committed"), OUTDATED("outdated");
+
+        private final String value;
+
+        Result(String value) {
+            this.value = value;
+        }
+
+        @Override
+        @JsonValue
+        public String toString() {
+            return value;
+        }
+    }
+
+    private final Cursor cursor;
+    private final Result result;
+
+    @JsonCreator
+    public CursorCommitResult(@JsonProperty("cursor") Cursor cursor, @JsonProperty("result") Result result) {
+        this.cursor = cursor;
+        this.result = result;
+    }
+
+    public Cursor getCursor() {
+        return cursor;
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
+    public boolean isCommitted() {
+        return result == Result.COMMITTED;
+    }
+}
@@ -0,0 +1,190 @@
+package org.zalando.fahrschein;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.fahrschein.http.api.CompressorPool;
+import org.zalando.fahrschein.http.api.ContentEncoding;
+import org.zalando.fahrschein.http.api.Headers;
+import org.zalando.fahrschein.http.api.HeadersImpl;
+import org.zalando.fahrschein.http.api.Request;
+import org.zalando.fahrschein.http.api.RequestFactory;
+import org.zalando.fahrschein.http.api.Response;
+import org.zalando.fahrschein.http.api.StreamingBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class AdaptiveCompressionRequestFactoryTest {
+
+    private static final URI EVENTS_URI = URI.create("http://example.com/event-types/foobar/events");
+
+    private static final class RecordingRequest implements Request {
+        private final String method;
+        private final URI uri;
+        private final Headers headers = new HeadersImpl();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private long contentLength = -2;
+
+        RecordingRequest(URI uri, String method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public String getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        public Headers getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void setBody(StreamingBody body, long contentLength) throws IOException {
+            this.contentLength = contentLength;
+            body.writeTo(this.body);
+        }
+
+        @Override
+        public Response execute() {
+            return mock(Response.class);
+        }
+    }
+
+    private RecordingRequest lastRequest;
+    private final RequestFactory delegate = (uri, method) -> lastRequest = new RecordingRequest(uri, method);
+    private final MetricsCollector metricsCollector = mock(MetricsCollector.class);
+
+    private AdaptiveCompressionRequestFactory factory(AdaptiveCompressionPolicy policy) {
+        return new AdaptiveCompressionRequestFactory(delegate, policy, new CompressorPool(), metricsCollector);
+    }
+
+    private static byte[] payload(int events) {
+        final StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < events; i++) {
+            sb.append(i == 0 ? "" : ",").append("{\"metadata\":{\"eid\":\"").append(i).append("\"},\"id\":\"some-id\"}");
+        }
+        return sb.append("]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private void post(RequestFactory factory, byte[] body) throws IOException {
+        final Request request = factory.createRequest(EVENTS_URI, "POST");
+        try (OutputStream out = request.getBody()) {
+            out.write(body);
+        }
+        request.execute();
+    }
+
+    @Test
+    public void shouldNotCompressSmallBodies() throws IOException {
+        final byte[] body = payload(1);
+
+        post(factory(new AdaptiveCompressionPolicy()), body);
+
+        assertNull(lastRequest.getHeaders().getFirst(Headers.CONTENT_ENCODING));
+        assertArrayEquals(body, lastRequest.body.toByteArray());
+        verify(metricsCollector).markRequestBodyEncoded(eq("/event-types/{name}/events"), eq(ContentEncoding.IDENTITY), eq((long) body.length), eq((long) body.length), anyLong());
+    }
+
+    @Test
+    public void shouldChooseCompressionOnceMeasured() throws IOException {
+        final byte[] body = payload(1000);
+        final AdaptiveCompressionRequestFactory factory = factory(new AdaptiveCompressionPolicy()
+                .withContentEncodings(ContentEncoding.GZIP)
+                .withNetworkBytesPerSecond(1000));
+
+        // each encoding is measured a few times first
+        for (int i = 0; i < 3; i++) {
+            post(factory, body);
+            assertNull(lastRequest.getHeaders().getFirst(Headers.CONTENT_ENCODING));
+        }
+        for (int i = 0; i < 3; i++) {
+            post(factory, body);
+            assertEquals("gzip", lastRequest.getHeaders().getFirst(Headers.CONTENT_ENCODING));
+        }
+
+        post(factory, body);
+
+        assertEquals("gzip", lastRequest.getHeaders().getFirst(Headers.CONTENT_ENCODING));
+        assertArrayEquals(body, gunzip(lastRequest.body.toByteArray()));
+    }
+
+    @Test
+    public void shouldStreamCompressedBodiesWithoutContentLength() throws IOException {
+        final byte[] body = payload(1000);
+        final AdaptiveCompressionRequestFactory factory = factory(new AdaptiveCompressionPolicy()
+                .withContentEncodings(ContentEncoding.GZIP)
+                .withNetworkBytesPerSecond(1000));
+
+        for (int i = 0; i < 4; i++) {
+            final Request request = factory.createRequest(EVENTS_URI, "POST");
+            request.setBody(out -> out.write(body), body.length);
+            request.execute();
+        }
+
+        assertEquals(-1, lastRequest.contentLength);
+        assertArrayEquals(body, gunzip(lastRequest.body.toByteArray()));
+    }
+
+    @Test
+    public void shouldPassThroughRequestsWithoutCompressionSupport() throws IOException {
+        final Request request = factory(new AdaptiveCompressionPolicy()).createRequest(EVENTS_URI, "PUT");
+        request.setBody(out -> out.write(payload(1000)), -1);
+
+        assertEquals(-1, lastRequest.contentLength);
+        assertArrayEquals(payload(1000), lastRequest.body.toByteArray());
+    }
+
+    @Test
+    public void shouldPassThroughRequestsWithoutBody() throws IOException {
+        final Request request = factory(new AdaptiveCompressionPolicy()).createRequest(EVENTS_URI, "GET");
+
+        assertSame(lastRequest, request);
+    }
+
+    @Test
+    public void shouldReplaceNamesAndIdsInEndpoints() {
+        assertEquals("/event-types/{name}/events", AdaptiveCompressionRequestFactory.endpoint("/event-types/foobar/events"));
+        assertEquals("/event-types/{name}/partitions/{partition}", AdaptiveCompressionRequestFactory.endpoint("/event-types/foobar/partitions/0"));
+        assertEquals("/subscriptions/{id}/cursors", AdaptiveCompressionRequestFactory.endpoint("/subscriptions/1234/cursors"));
+        assertEquals("/nakadi/subscriptions", AdaptiveCompressionRequestFactory.endpoint("/nakadi/subscriptions"));
+        assertEquals("/event-types/", AdaptiveCompressionRequestFactory.endpoint("/event-types/"));
+    }
+}
@@ -2,6 +2,8 @@ package org.zalando.fahrschein;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.zalando.fahrschein.http.api.AsyncRequest;
+import org.zalando.fahrschein.http.api.AsyncRequestFactory;
 import org.zalando.fahrschein.http.api.Headers;
 import org.zalando.fahrschein.http.api.HeadersImpl;
 import org.zalando.fahrschein.http.api.Request;
@@ -13,10 +15,12 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.ArgumentMatchers.any;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 public class AuthorizedRequestFactoryTest {
 
@@ -46,6 +50,21 @@ public class AuthorizedRequestFactoryTest {
         assertThat(request.getHeaders().getFirst(Headers.AUTHORIZATION), equalTo(BEARER_TOKEN));
     }
 
+    @Test
+    public void shouldAddAuthorizationHeaderToAsyncRequest() throws IOException {
+        final RequestFactory asyncDelegate = mock(RequestFactory.class, withSettings().extraInterfaces(AsyncRequestFactory.class));
+        final AsyncRequest asyncRequest = mock(AsyncRequest.class);
+        when(asyncRequest.getHeaders()).thenReturn(new HeadersImpl());
+        when(((AsyncRequestFactory) asyncDelegate).createAsyncRequest(any(), anyString())).thenReturn(asyncRequest);
+
+        final AsyncRequest request = new AuthorizedRequestFactory(asyncDelegate, () -> BEARER_TOKEN).createAsyncRequest(URI.create("localhost"), "GET");
+        assertThat(request.getHeaders().getFirst(Headers.AUTHORIZATION), equalTo(BEARER_TOKEN));
+    }
+
+    @Test
+    public void shouldRejectAsyncRequestsIfDelegateDoesNotSupportThem() {
+        assertThrows(UnsupportedOperationException.class, () -> unit.createAsyncRequest(URI.create("localhost"), "GET"));
+    }
 
     private static Request mockRequest() {
         final Request request = mock(Request.class);
@@ -0,0 +1,72 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchFramerTest {
+
+    private static final String FIRST = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"1\"},\"events\":[{\"id\":\"{[\\\"}\"}]}";
+    private static final String SECOND = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"2\"},\"info\":{\"debug\":\"}\"}}";
+
+    private final JsonFactory jsonFactory = new ObjectMapper().getFactory();
+
+    private List<String> frame(byte[] body, int chunkSize, boolean direct) throws IOException {
+        final BatchFramer batchFramer = new BatchFramer(jsonFactory);
+        final List<String> batches = new ArrayList<>();
+        for (int i = 0; i < body.length; i += chunkSize) {
+            final int length = Math.min(chunkSize, body.length - i);
+            final ByteBuffer chunk;
+            if (direct) {
+                chunk = ByteBuffer.allocateDirect(length);
+                chunk.put(body, i, length);
+                chunk.flip();
+            } else {
+                chunk = ByteBuffer.wrap(body, i, length);
+            }
+            for (BatchFramer.Frame frame : batchFramer.feed(chunk)) {
+                try (JsonParser jsonParser = frame.createParser(jsonFactory)) {
+                    batches.add(jsonParser.readValueAsTree().toString());
+                }
+            }
+        }
+        return batches;
+    }
+
+    @Test
+    public void shouldFrameBatchesSplitOverChunks() throws IOException {
+        final byte[] body = (FIRST + "\n" + SECOND + "\n").getBytes(StandardCharsets.UTF_8);
+
+        for (int chunkSize = 1; chunkSize <= body.length; chunkSize++) {
+            assertEquals(asList(FIRST, SECOND), frame(body, chunkSize, false));
+            assertEquals(asList(FIRST, SECOND), frame(body, chunkSize, true));
+        }
+    }
+
+    @Test
+    public void shouldKeepIncompleteBatch() throws IOException {
+        final BatchFramer batchFramer = new BatchFramer(jsonFactory);
+
+        assertTrue(batchFramer.feed(ByteBuffer.wrap(FIRST.substring(0, 10).getBytes(StandardCharsets.UTF_8))).isEmpty());
+        assertEquals(1, batchFramer.feed(ByteBuffer.wrap((FIRST.substring(10) + "\n").getBytes(StandardCharsets.UTF_8))).size());
+    }
+
+    @Test
+    public void shouldRejectBatchesThatAreNoObjects() throws IOException {
+        final BatchFramer batchFramer = new BatchFramer(jsonFactory);
+
+        assertThrows(IOException.class, () -> batchFramer.feed(ByteBuffer.wrap("[1]\n".getBytes(StandardCharsets.UTF_8))));
+    }
+}
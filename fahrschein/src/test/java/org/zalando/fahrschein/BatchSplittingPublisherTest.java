@@ -0,0 +1,102 @@
+package org.zalando.fahrschein;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.fahrschein.domain.BatchItemResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class BatchSplittingPublisherTest {
+
+    private final NakadiClient nakadiClient = mock(NakadiClient.class);
+    private final List<String> requests = new ArrayList<>();
+
+    private void recordRequests(String failingEvent, IOException failure) throws IOException {
+        doAnswer(invocation -> {
+            final List<byte[]> payloads = invocation.getArgument(1);
+            final StringBuilder body = new StringBuilder();
+            for (byte[] payload : payloads) {
+                body.append(new String(payload, StandardCharsets.UTF_8));
+            }
+            synchronized (requests) {
+                requests.add(body.toString());
+            }
+            if (failingEvent != null && body.toString().contains(failingEvent)) {
+                throw failure;
+            }
+            return null;
+        }).when(nakadiClient).publishSerialized(eq("foobar"), anyList());
+    }
+
+    private static List<NakadiClientTest.SomeEvent> events(String... ids) {
+        final List<NakadiClientTest.SomeEvent> events = new ArrayList<>();
+        for (String id : ids) {
+            events.add(new NakadiClientTest.SomeEvent(id));
+        }
+        return events;
+    }
+
+    @Test
+    public void shouldSplitEventsBySize() throws IOException {
+        recordRequests(null, null);
+
+        // each event is 10 bytes, a request body with two events 23 bytes
+        new BatchSplittingPublisher(nakadiClient, DefaultObjectMapper.INSTANCE, "foobar", 23, Runnable::run, 1)
+                .publish(events("1", "2", "3", "4", "5"));
+
+        assertThat(requests, contains("{\"id\":\"1\"}{\"id\":\"2\"}", "{\"id\":\"3\"}{\"id\":\"4\"}", "{\"id\":\"5\"}"));
+    }
+
+    @Test
+    public void shouldSendEventBiggerThanLimitOnItsOwn() throws IOException {
+        recordRequests(null, null);
+
+        new BatchSplittingPublisher(nakadiClient, DefaultObjectMapper.INSTANCE, "foobar", 5, Runnable::run, 1)
+                .publish(events("1", "2"));
+
+        assertThat(requests, contains("{\"id\":\"1\"}", "{\"id\":\"2\"}"));
+    }
+
+    @Test
+    public void shouldAggregateResponsesPerEvent() throws IOException {
+        recordRequests("\"3\"", new IOException("Connection reset"));
+
+        final EventPublishingException exception = assertThrows(EventPublishingException.class, () ->
+                new BatchSplittingPublisher(nakadiClient, DefaultObjectMapper.INSTANCE, "foobar", 23, Executors.newFixedThreadPool(2), 2)
+                        .publish(events("1", "2", "3", "4", "5")));
+
+        assertThat(requests, containsInAnyOrder("{\"id\":\"1\"}{\"id\":\"2\"}", "{\"id\":\"3\"}{\"id\":\"4\"}", "{\"id\":\"5\"}"));
+        assertEquals(5, exception.getBatchItemResponses().length);
+        assertThat(exception.getBatchItemResponses()[1].getPublishingStatus(), equalTo(BatchItemResponse.PublishingStatus.SUBMITTED));
+        assertThat(exception.getBatchItemResponses()[2].getPublishingStatus(), equalTo(BatchItemResponse.PublishingStatus.ABORTED));
+        assertThat(exception.getBatchItemResponses()[3].getPublishingStatus(), equalTo(BatchItemResponse.PublishingStatus.ABORTED));
+        assertThat(exception.getBatchItemResponses()[4].getPublishingStatus(), equalTo(BatchItemResponse.PublishingStatus.SUBMITTED));
+        assertThat(exception.getFailedEvents(), contains(hasProperty("id", equalTo("3")), hasProperty("id", equalTo("4"))));
+    }
+
+    @Test
+    public void shouldRethrowWhenNothingWasPublished() throws IOException {
+        recordRequests("id", new IOException("Connection refused"));
+
+        final IOException exception = assertThrows(IOException.class, () ->
+                new BatchSplittingPublisher(nakadiClient, DefaultObjectMapper.INSTANCE, "foobar", 23, Runnable::run, 1)
+                        .publish(events("1", "2", "3")));
+
+        assertEquals("Connection refused", exception.getMessage());
+    }
+}
@@ -0,0 +1,115 @@
+package org.zalando.fahrschein;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.zalando.fahrschein.domain.Cursor;
+import org.zalando.fahrschein.domain.Subscription;
+import org.zalando.fahrschein.http.api.ContentType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CoalescingCursorManagerTest {
+    private MockServer server;
+    private List<Cursor> failedCursors;
+    private CoalescingCursorManager cursorManager;
+
+    @BeforeEach
+    public void setup() {
+        this.server = new MockServer();
+        this.failedCursors = new ArrayList<>();
+        this.cursorManager = new CoalescingCursorManager(URI.create("http://example.com/"), this.server, null, 100, 1, TimeUnit.HOURS,
+                (cursors, exception) -> failedCursors.addAll(cursors));
+
+        final Subscription subscription = new Subscription("1234", "nakadi-client-test", Collections.singleton("foo"), "bar", OffsetDateTime.now(), null);
+        cursorManager.addSubscription(subscription);
+        cursorManager.addStreamId(subscription, "stream-id");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        cursorManager.close();
+    }
+
+    @Test
+    public void shouldCommitLatestCursorPerPartitionInSingleRequest() throws IOException {
+        server.expectRequestTo("http://example.com/subscriptions/1234/cursors", "POST")
+                .andExpectHeader("X-Nakadi-StreamId", "stream-id")
+                .andExpectJsonPath("$.items.length()", equalTo(2))
+                .andExpectJsonPath("$.items[0].partition", equalTo("0"))
+                .andExpectJsonPath("$.items[0].offset", equalTo("20"))
+                .andExpectJsonPath("$.items[1].partition", equalTo("1"))
+                .andExpectJsonPath("$.items[1].offset", equalTo("15"))
+                .andRespondWith(204)
+                .setup();
+
+        cursorManager.onSuccess("foo", new Cursor("0", "10", "foo", "token"));
+        cursorManager.onSuccess("foo", new Cursor("1", "15", "foo", "token"));
+        cursorManager.onSuccess("foo", new Cursor("0", "20", "foo", "token"));
+
+        cursorManager.flush();
+
+        server.verify();
+        assertThat(failedCursors, hasSize(0));
+    }
+
+    @Test
+    public void shouldReportAllCoveredBatchesWhenCommitFails() throws IOException {
+        server.expectRequestTo("http://example.com/subscriptions/1234/cursors", "POST")
+                .andExpectJsonPath("$.items.length()", equalTo(1))
+                .andRespondWith(422, ContentType.TEXT_PLAIN, "Session with stream id stream-id not found")
+                .setup();
+
+        final Cursor cursor1 = new Cursor("0", "10", "foo", "token");
+        final Cursor cursor2 = new Cursor("0", "20", "foo", "token");
+        cursorManager.onSuccess("foo", asList(cursor1, cursor2));
+
+        final CursorCommitException exception = assertThrows(CursorCommitException.class, () -> cursorManager.flush());
+
+        server.verify();
+        assertEquals(422, exception.getStatusCode());
+        assertThat(exception.getCursors(), contains(cursor2));
+        assertThat(failedCursors, contains(cursor1, cursor2));
+    }
+
+    @Test
+    public void shouldNotCommitWithoutPendingCursors() throws IOException {
+        cursorManager.flush();
+    }
+
+    @Test
+    public void shouldCopyWithSameSettings() throws IOException {
+        server.expectRequestTo("http://example.com/subscriptions/1234/cursors", "POST")
+                .andExpectHeader("X-Nakadi-StreamId", "other-stream-id")
+                .andRespondWith(422, ContentType.TEXT_PLAIN, "Session with stream id other-stream-id not found")
+                .setup();
+
+        final Subscription subscription = new Subscription("1234", "nakadi-client-test", Collections.singleton("foo"), "bar", OffsetDateTime.now(), null);
+        final Cursor cursor = new Cursor("0", "10", "foo", "token");
+
+        try (CoalescingCursorManager copy = cursorManager.copy()) {
+            copy.addSubscription(subscription);
+            copy.addStreamId(subscription, "other-stream-id");
+            copy.onSuccess("foo", cursor);
+
+            assertThrows(CursorCommitException.class, copy::flush);
+        }
+
+        server.verify();
+        assertThat(failedCursors, contains(cursor));
+    }
+}
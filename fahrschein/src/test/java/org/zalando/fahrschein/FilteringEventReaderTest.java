@@ -0,0 +1,122 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FilteringEventReaderTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class OrderEvent {
+        private String orderNumber;
+
+        public String getOrderNumber() {
+            return orderNumber;
+        }
+
+        public void setOrderNumber(String orderNumber) {
+            this.orderNumber = orderNumber;
+        }
+    }
+
+    private static final String EVENTS = "[" +
+            "{\"orderNumber\":\"1\",\"metadata\":{\"eid\":\"a\",\"event_type\":\"order-placed\",\"partition\":\"0\"}}," +
+            "{\"metadata\":{\"eid\":\"b\",\"event_type\":\"order-cancelled\",\"partition\":\"1\"},\"orderNumber\":\"2\",\"unknownField\":{\"not\":\"bound\"}}," +
+            "{\"orderNumber\":\"3\",\"metadata\":{\"eid\":\"c\",\"event_type\":\"order-placed\",\"partition\":\"1\"}}," +
+            "{\"orderNumber\":\"4\"}" +
+            "]";
+
+    @Test
+    public void shouldOnlyBindEventsMatchingMetadata() throws IOException {
+        final EventFilter eventFilter = EventFilter.metadata(metadata -> metadata != null && "order-placed".equals(metadata.getEventType()));
+
+        assertEquals(asList("1", "3"), read(eventFilter));
+    }
+
+    @Test
+    public void shouldFilterOnJsonPointer() throws IOException {
+        final EventFilter eventFilter = EventFilter.path("/metadata/partition", partition -> "1".equals(partition.asText()))
+                .and(EventFilter.path("/metadata/event_type", eventType -> eventType.asText().endsWith("cancelled")));
+
+        assertEquals(asList("2"), read(eventFilter));
+    }
+
+    @Test
+    public void shouldPassMissingFieldsToFilter() throws IOException {
+        final EventFilter eventFilter = EventFilter.path("/metadata", metadata -> metadata.isMissingNode());
+
+        assertEquals(asList("4"), read(eventFilter));
+    }
+
+    @Test
+    public void shouldPassMappingExceptionsToHandler() throws IOException {
+        final String events = "[" +
+                "{\"orderNumber\":{\"not\":\"a string\"},\"metadata\":{\"event_type\":\"order-placed\"}}," +
+                "{\"orderNumber\":\"2\",\"metadata\":{\"event_type\":{\"not\":\"a string\"}}}," +
+                "{\"orderNumber\":\"3\",\"metadata\":{\"event_type\":\"order-placed\"}}" +
+                "]";
+        final List<JsonMappingException> exceptions = new ArrayList<>();
+        final FilteringEventReader<OrderEvent> eventReader = new FilteringEventReader<OrderEvent>(OrderEvent.class, objectMapper, EventFilter.metadata(metadata -> true)) {
+            @Override
+            protected void onMappingException(JsonMappingException exception) {
+                exceptions.add(exception);
+            }
+        };
+
+        final List<String> orderNumbers = eventReader.read(objectMapper.getFactory().createParser(events)).stream().map(OrderEvent::getOrderNumber).collect(toList());
+
+        assertEquals(asList("3"), orderNumbers);
+        assertEquals(2, exceptions.size());
+    }
+
+    @Test
+    public void shouldReadMetadataWithConfiguredObjectMapper() throws IOException {
+        final ObjectMapper upperCasing = new ObjectMapper().registerModule(new SimpleModule().addDeserializer(String.class, new StdDeserializer<String>(String.class) {
+            @Override
+            public String deserialize(JsonParser jsonParser, DeserializationContext context) throws IOException {
+                return jsonParser.getValueAsString().toUpperCase(Locale.ROOT);
+            }
+        }));
+        final EventFilter eventFilter = EventFilter.metadata(metadata -> metadata != null && "ORDER-CANCELLED".equals(metadata.getEventType()));
+        final FilteringEventReader<OrderEvent> eventReader = new FilteringEventReader<>(OrderEvent.class, upperCasing, eventFilter);
+
+        final List<String> orderNumbers = eventReader.read(upperCasing.getFactory().createParser(EVENTS)).stream().map(OrderEvent::getOrderNumber).collect(toList());
+
+        assertEquals(asList("2"), orderNumbers);
+    }
+
+    @Test
+    public void shouldFilterEventsLazily() throws IOException {
+        final EventFilter eventFilter = EventFilter.metadata(metadata -> metadata != null && "order-placed".equals(metadata.getEventType()));
+        final JsonParser jsonParser = objectMapper.getFactory().createParser(EVENTS);
+
+        final Iterator<OrderEvent> events = new FilteringEventReader<>(OrderEvent.class, objectMapper, eventFilter).readIterator(jsonParser);
+
+        assertEquals("1", events.next().getOrderNumber());
+        assertTrue(jsonParser.getCurrentLocation().getCharOffset() < EVENTS.indexOf("order-cancelled"));
+        assertEquals("3", events.next().getOrderNumber());
+    }
+
+    private List<String> read(EventFilter eventFilter) throws IOException {
+        final JsonParser jsonParser = objectMapper.getFactory().createParser(EVENTS);
+        final FilteringEventReader<OrderEvent> eventReader = new FilteringEventReader<>(OrderEvent.class, objectMapper, eventFilter);
+        return eventReader.read(jsonParser).stream().map(OrderEvent::getOrderNumber).collect(toList());
+    }
+}
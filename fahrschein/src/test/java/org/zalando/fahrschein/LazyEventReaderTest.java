@@ -0,0 +1,51 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LazyEventReaderTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LazyEventReader eventReader = new LazyEventReader(objectMapper);
+
+    public static class OrderEvent {
+        private String orderNumber;
+
+        public String getOrderNumber() {
+            return orderNumber;
+        }
+
+        public void setOrderNumber(String orderNumber) {
+            this.orderNumber = orderNumber;
+        }
+    }
+
+    @Test
+    public void shouldDecodeMetadataAndBindPayloadOnDemand() throws IOException {
+        final JsonParser jsonParser = objectMapper.getFactory().createParser("[" +
+                "{\"orderNumber\":\"123\",\"metadata\":{\"event_type\":\"sales-order-placed\",\"eid\":\"5678\",\"partition\":\"1\",\"flow_id\":\"flow\",\"parent_eids\":[\"1234\"]},\"items\":[{\"sku\":\"abc\"}]}," +
+                "{\"orderNumber\":\"456\"}]");
+
+        final List<LazyEvent> events = eventReader.read(jsonParser);
+
+        assertThat(events, hasSize(2));
+        assertEquals("sales-order-placed", events.get(0).getMetadata().getEventType());
+        assertEquals("1", events.get(0).getMetadata().getPartition());
+        assertEquals("flow", events.get(0).getMetadata().getFlowId());
+        assertNull(events.get(1).getMetadata());
+
+        final JsonNode node = events.get(0).bindTo(JsonNode.class);
+        assertEquals("5678", node.get("metadata").get("eid").asText());
+        assertEquals("abc", node.get("items").get(0).get("sku").asText());
+        assertEquals("456", events.get(1).bindTo(OrderEvent.class).getOrderNumber());
+    }
+}
@@ -3,6 +3,7 @@ package org.zalando.fahrschein;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.zalando.fahrschein.domain.Cursor;
+import org.zalando.fahrschein.domain.CursorCommitResult;
 import org.zalando.fahrschein.domain.Subscription;
 import org.zalando.fahrschein.http.api.ContentType;
 
@@ -12,13 +13,17 @@ import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 
+import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class ManagedCursorManagerTest {
@@ -105,6 +110,51 @@ public class ManagedCursorManagerTest {
         }
     }
 
+    @Test
+    public void shouldCommitCursorsOfAllEventTypesInSingleRequest() throws IOException {
+        server.expectRequestTo("http://example.com/subscriptions/1234/cursors", "POST")
+                .andExpectHeader("X-Nakadi-StreamId", "stream-id")
+                .andExpectJsonPath("$.items.length()", equalTo(2))
+                .andExpectJsonPath("$.items[0].event_type", equalTo("foo"))
+                .andExpectJsonPath("$.items[1].event_type", equalTo("bar"))
+                .andRespondWith(200, ContentType.APPLICATION_JSON, "{\"items\":[" +
+                        "{\"cursor\":{\"partition\":\"0\",\"offset\":\"10\",\"event_type\":\"foo\",\"cursor_token\":\"token\"},\"result\":\"committed\"}," +
+                        "{\"cursor\":{\"partition\":\"1\",\"offset\":\"20\",\"event_type\":\"bar\",\"cursor_token\":\"token\"},\"result\":\"outdated\"}]}")
+                .setup();
+
+        final Subscription subscription = new Subscription("1234", "nakadi-client-test", new LinkedHashSet<>(asList("foo", "bar")), "bar", OffsetDateTime.now(), null);
+        cursorManager.addSubscription(subscription);
+        cursorManager.addStreamId(subscription, "stream-id");
+
+        final List<CursorCommitResult> results = cursorManager.commit(subscription, asList(new Cursor("0", "10", "foo", "token"), new Cursor("1", "20", "bar", "token")));
+
+        server.verify();
+        assertThat(results, hasSize(2));
+        assertEquals(new Cursor("0", "10", "foo", "token"), results.get(0).getCursor());
+        assertEquals(CursorCommitResult.Result.COMMITTED, results.get(0).getResult());
+        assertEquals(new Cursor("1", "20", "bar", "token"), results.get(1).getCursor());
+        assertEquals(CursorCommitResult.Result.OUTDATED, results.get(1).getResult());
+    }
+
+    @Test
+    public void shouldReportAllCursorsAsCommittedOnNoContent() throws IOException {
+        server.expectRequestTo("http://example.com/subscriptions/1234/cursors", "POST")
+                .andExpectJsonPath("$.items.length()", equalTo(2))
+                .andRespondWith(204)
+                .setup();
+
+        final Subscription subscription = new Subscription("1234", "nakadi-client-test", Collections.singleton("foo"), "bar", OffsetDateTime.now(), null);
+        cursorManager.addSubscription(subscription);
+        cursorManager.addStreamId(subscription, "stream-id");
+
+        final List<CursorCommitResult> results = cursorManager.commit(subscription, asList(new Cursor("0", "10", "foo", "token"), new Cursor("1", "20", "foo", "token")));
+
+        server.verify();
+        assertThat(results, hasSize(2));
+        assertTrue(results.get(0).isCommitted());
+        assertTrue(results.get(1).isCommitted());
+    }
+
     @Test
     public void shouldGetCursors() throws IOException {
         server.expectRequestTo("http://example.com/subscriptions/1234/cursors", "GET")
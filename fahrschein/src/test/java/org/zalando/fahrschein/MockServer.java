@@ -13,6 +13,7 @@ import org.zalando.fahrschein.http.api.HeadersImpl;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.RequestFactory;
 import org.zalando.fahrschein.http.api.Response;
+import org.zalando.fahrschein.http.api.StreamingBody;
 
 import javax.annotation.Nullable;
 import java.io.ByteArrayInputStream;
@@ -26,6 +27,9 @@ import java.util.Map;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -123,6 +127,8 @@ class MockServer implements RequestFactory {
         when(request.getURI()).thenReturn(expectedUri);
         when(request.getMethod()).thenReturn(expectedMethod);
         when(request.getBody()).thenReturn(requestBody = new ByteArrayOutputStream());
+        doCallRealMethod().when(request).setBody(any(StreamingBody.class), anyLong());
+        doCallRealMethod().when(request).setBody(any(StreamingBody.class));
         when(request.getHeaders()).thenReturn(requestHeaders = new HeadersImpl());
 
         requestFactory = mock(RequestFactory.class);
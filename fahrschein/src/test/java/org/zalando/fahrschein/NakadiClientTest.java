@@ -9,6 +9,9 @@ import org.zalando.fahrschein.http.api.ContentType;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -16,6 +19,8 @@ import java.util.Set;
 
 import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.notNullValue;
@@ -285,6 +290,71 @@ public class NakadiClientTest {
         assertEquals("Event publishing of [event-one] returned status [failed] in step [validating] with detail [baz]", expectedException.getMessage());
     }
 
+    @Test
+    public void shouldAttachFailedEventsWhenPublishing() throws IOException {
+        server.expectRequestTo("http://example.com/event-types/foobar/events", "POST")
+                .andRespondWith(207, ContentType.APPLICATION_JSON, "[{\"publishing_status\":\"submitted\"},{\"eid\":\"event-two\",\"publishing_status\":\"failed\",\"step\":\"publishing\"}]")
+                .setup();
+
+        final SomeEvent second = new SomeEvent("2");
+        final EventPublishingException expectedException = assertThrows(EventPublishingException.class, () -> {
+            client.publish("foobar", asList(new SomeEvent("1"), second));
+        });
+        server.verify();
+
+        assertThat(expectedException.getFailedEvents(), contains(second));
+    }
+
+    @Test
+    public void shouldPublishSerializedEvents() throws IOException {
+        server.expectRequestTo("http://example.com/event-types/foobar/events", "POST")
+                .andExpectJsonPath("$.length()", equalTo(2))
+                .andExpectJsonPath("$[0].id", equalTo("1"))
+                .andExpectJsonPath("$[1].id", equalTo("2"))
+                .andRespondWith(200)
+                .setup();
+
+        client.publishSerialized("foobar", asList("{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8), "{\"id\":\"2\"}".getBytes(StandardCharsets.UTF_8)));
+
+        server.verify();
+    }
+
+    @Test
+    public void shouldPublishSerializedBuffersWithoutChangingTheirPosition() throws IOException {
+        server.expectRequestTo("http://example.com/event-types/foobar/events", "POST")
+                .andExpectJsonPath("$.length()", equalTo(2))
+                .andExpectJsonPath("$[0].id", equalTo("1"))
+                .andExpectJsonPath("$[1].id", equalTo("2"))
+                .andRespondWith(200)
+                .setup();
+
+        final ByteBuffer first = ByteBuffer.wrap("{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+        final byte[] second = "{\"id\":\"2\"}".getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(second.length);
+        direct.put(second).flip();
+
+        client.publishSerializedBuffers("foobar", asList(first, direct));
+
+        server.verify();
+        assertEquals(0, first.position());
+        assertEquals(0, direct.position());
+    }
+
+    @Test
+    public void shouldAttachFailedSerializedEventsWhenPublishing() throws IOException {
+        server.expectRequestTo("http://example.com/event-types/foobar/events", "POST")
+                .andRespondWith(207, ContentType.APPLICATION_JSON, "[{\"publishing_status\":\"submitted\"},{\"eid\":\"event-two\",\"publishing_status\":\"failed\",\"step\":\"publishing\"}]")
+                .setup();
+
+        final byte[] second = "{\"id\":\"2\"}".getBytes(StandardCharsets.UTF_8);
+        final EventPublishingException expectedException = assertThrows(EventPublishingException.class, () -> {
+            client.publishSerialized("foobar", asList("{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8), second));
+        });
+        server.verify();
+
+        assertThat(expectedException.getFailedEvents(), contains(second));
+    }
+
     @Test
     public void shouldHandleSuccessFulMultiStatusWhenPublishing() throws IOException {
         server.expectRequestTo("http://example.com/event-types/foobar/events", "POST")
@@ -316,4 +386,18 @@ public class NakadiClientTest {
 
     }
 
+    @Test
+    public void shouldRejectCursorManagersThatCanNotBeCopiedForSupervisedStreams() {
+        final ManagedCursorManager cursorManager = new ManagedCursorManager(URI.create("http://example.com/"), server) {
+        };
+        final NakadiClient nakadiClient = NakadiClient.builder(URI.create("http://example.com/"), server)
+                .withCursorManager(cursorManager)
+                .build();
+        final Subscription subscription = new Subscription("1234", "nakadi-client-test", Collections.singleton("foo"), "bar", OffsetDateTime.now(), null);
+
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, () -> nakadiClient.supervise(subscription));
+
+        assertThat(exception.getMessage(), containsString("can not be copied for each stream"));
+    }
+
 }
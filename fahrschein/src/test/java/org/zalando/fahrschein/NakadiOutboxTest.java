@@ -0,0 +1,234 @@
+package org.zalando.fahrschein;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.zalando.fahrschein.domain.BatchItemResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class NakadiOutboxTest {
+
+    @TempDir
+    Path directory;
+
+    private final NakadiClient nakadiClient = mock(NakadiClient.class);
+    private final List<String> published = new ArrayList<>();
+
+    private NakadiOutboxBuilder outbox() {
+        return new NakadiOutboxBuilder(nakadiClient, DefaultObjectMapper.INSTANCE, "foobar", directory)
+                .withDrainInterval(10, TimeUnit.MILLISECONDS)
+                .withBackoffStrategy(new ExponentialBackoffStrategy(10, 1, 10, -1));
+    }
+
+    private void recordPublished(List<byte[]> payloads) {
+        synchronized (published) {
+            for (byte[] payload : payloads) {
+                published.add(new String(payload, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static void awaitBacklog(NakadiOutbox<?> outbox) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (outbox.getBacklogEvents() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, outbox.getBacklogEvents());
+    }
+
+    @Test
+    public void shouldPublishStoredEventsOnceNakadiIsAvailable() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (attempts.incrementAndGet() <= 2) {
+                throw new IOException("Connection refused");
+            }
+            recordPublished(invocation.getArgument(1));
+            return null;
+        }).when(nakadiClient).publishSerialized(eq("foobar"), anyList());
+
+        try (NakadiOutbox<NakadiClientTest.SomeEvent> outbox = outbox().build()) {
+            outbox.publish(new NakadiClientTest.SomeEvent("1"));
+            outbox.publish(new NakadiClientTest.SomeEvent("2"));
+
+            awaitBacklog(outbox);
+        }
+
+        assertThat(published, contains("{\"id\":\"1\"}", "{\"id\":\"2\"}"));
+    }
+
+    @Test
+    public void shouldPublishStoredEventsAfterReopening() throws Exception {
+        final CountDownLatch attempted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            attempted.countDown();
+            throw new IOException("Connection refused");
+        }).when(nakadiClient).publishSerialized(eq("foobar"), anyList());
+
+        try (NakadiOutbox<NakadiClientTest.SomeEvent> outbox = outbox().build()) {
+            outbox.publish(new NakadiClientTest.SomeEvent("1"));
+            assertTrue(attempted.await(5, TimeUnit.SECONDS));
+        }
+
+        doAnswer(invocation -> {
+            recordPublished(invocation.getArgument(1));
+            return null;
+        }).when(nakadiClient).publishSerialized(eq("foobar"), anyList());
+
+        try (NakadiOutbox<NakadiClientTest.SomeEvent> outbox = outbox().build()) {
+            assertEquals(1, outbox.getBacklogEvents());
+            awaitBacklog(outbox);
+        }
+
+        assertThat(published, contains("{\"id\":\"1\"}"));
+    }
+
+    @Test
+    public void shouldCompleteRequestInFlightWhenClosing() throws Exception {
+        final CountDownLatch requested = new CountDownLatch(1);
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        doAnswer(invocation -> {
+            requested.countDown();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+                throw e;
+            }
+            recordPublished(invocation.getArgument(1));
+            return null;
+        }).when(nakadiClient).publishSerialized(eq("foobar"), anyList());
+
+        try (NakadiOutbox<NakadiClientTest.SomeEvent> outbox = outbox().build()) {
+            outbox.publish(new NakadiClientTest.SomeEvent("1"));
+            assertTrue(requested.await(5, TimeUnit.SECONDS));
+        }
+
+        assertFalse(interrupted.get());
+        assertThat(published, contains("{\"id\":\"1\"}"));
+    }
+
+    @Test
+    public void shouldPassPermanentlyRejectedEventsToHandler() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (attempts.incrementAndGet() == 1) {
+                final BatchItemResponse invalid = new BatchItemResponse(null, BatchItemResponse.PublishingStatus.FAILED, BatchItemResponse.Step.VALIDATING, "invalid");
+                final BatchItemResponse aborted = new BatchItemResponse(null, BatchItemResponse.PublishingStatus.ABORTED, BatchItemResponse.Step.PUBLISHING, "timeout");
+                final BatchItemResponse submitted = new BatchItemResponse(null, BatchItemResponse.PublishingStatus.SUBMITTED, BatchItemResponse.Step.NONE, null);
+                throw new EventPublishingException(new BatchItemResponse[]{invalid, aborted}, new BatchItemResponse[]{submitted, invalid, aborted});
+            }
+            recordPublished(invocation.getArgument(1));
+            return null;
+        }).when(nakadiClient).publishSerialized(eq("foobar"), anyList());
+
+        // stored before the outbox starts publishing, so all are sent in one batch
+        try (OutboxLog log = OutboxLog.open(directory, NakadiOutboxBuilder.DEFAULT_SEGMENT_BYTES, NoMetricsCollector.NO_METRICS_COLLECTOR)) {
+            for (String id : asList("1", "2", "3")) {
+                log.append(("{\"id\":\"" + id + "\"}").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        final List<String> rejected = new ArrayList<>();
+        try (NakadiOutbox<NakadiClientTest.SomeEvent> outbox = outbox()
+                .withFailedEventHandler((events, exception) -> {
+                    for (byte[] event : events) {
+                        rejected.add(new String(event, StandardCharsets.UTF_8));
+                    }
+                })
+                .build()) {
+
+            awaitBacklog(outbox);
+        }
+
+        assertThat(rejected, contains("{\"id\":\"2\"}"));
+        assertThat(published, contains("{\"id\":\"3\"}"));
+    }
+
+    @Test
+    public void shouldPassEventsRejectedWithClientErrorToHandler() throws Exception {
+        doAnswer(invocation -> {
+            final List<byte[]> payloads = invocation.getArgument(1);
+            for (byte[] payload : payloads) {
+                if (new String(payload, StandardCharsets.UTF_8).contains("\"2\"")) {
+                    throw new IOProblem(URI.create("about:blank"), "Payload Too Large", 413);
+                }
+            }
+            recordPublished(payloads);
+            return null;
+        }).when(nakadiClient).publishSerialized(eq("foobar"), anyList());
+
+        storeEvents("1", "2", "3");
+
+        final List<String> rejected = new ArrayList<>();
+        try (NakadiOutbox<NakadiClientTest.SomeEvent> outbox = outbox()
+                .withFailedEventHandler((events, exception) -> {
+                    for (byte[] event : events) {
+                        rejected.add(new String(event, StandardCharsets.UTF_8));
+                    }
+                })
+                .build()) {
+
+            awaitBacklog(outbox);
+        }
+
+        assertThat(rejected, contains("{\"id\":\"2\"}"));
+        assertThat(published, contains("{\"id\":\"1\"}", "{\"id\":\"3\"}"));
+    }
+
+    @Test
+    public void shouldPassUnmappableRejectedEventsToHandler() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            attempts.incrementAndGet();
+            final BatchItemResponse invalid = new BatchItemResponse("unknown-eid", BatchItemResponse.PublishingStatus.FAILED, BatchItemResponse.Step.VALIDATING, "invalid");
+            throw new EventPublishingException(new BatchItemResponse[]{invalid});
+        }).when(nakadiClient).publishSerialized(eq("foobar"), anyList());
+
+        storeEvents("1", "2");
+
+        final List<String> rejected = new ArrayList<>();
+        try (NakadiOutbox<NakadiClientTest.SomeEvent> outbox = outbox()
+                .withFailedEventHandler((events, exception) -> {
+                    for (byte[] event : events) {
+                        rejected.add(new String(event, StandardCharsets.UTF_8));
+                    }
+                })
+                .build()) {
+
+            awaitBacklog(outbox);
+        }
+
+        assertEquals(1, attempts.get());
+        assertThat(rejected, contains("{\"id\":\"1\"}", "{\"id\":\"2\"}"));
+    }
+
+    // stored before the outbox starts publishing, so all are sent in one batch
+    private void storeEvents(String... ids) throws IOException {
+        try (OutboxLog log = OutboxLog.open(directory, NakadiOutboxBuilder.DEFAULT_SEGMENT_BYTES, NoMetricsCollector.NO_METRICS_COLLECTOR)) {
+            for (String id : ids) {
+                log.append(("{\"id\":\"" + id + "\"}").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
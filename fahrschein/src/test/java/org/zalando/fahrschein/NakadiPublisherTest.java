@@ -0,0 +1,197 @@
+package org.zalando.fahrschein;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.zalando.fahrschein.domain.BatchItemResponse;
+import org.zalando.fahrschein.http.api.ContentType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class NakadiPublisherTest {
+
+    private MockServer server;
+    private NakadiClient client;
+
+    @BeforeEach
+    public void setup() {
+        this.server = new MockServer();
+        this.client = NakadiClient.builder(URI.create("http://example.com/"), server)
+                .withCursorManager(mock(CursorManager.class))
+                .build();
+    }
+
+    @Test
+    public void shouldPublishBatchOnceMaxEventsReached() throws Exception {
+        server.expectRequestTo("http://example.com/event-types/foobar/events", "POST")
+                .andExpectJsonPath("$.length()", equalTo(2))
+                .andExpectJsonPath("$[0].id", equalTo("1"))
+                .andExpectJsonPath("$[1].id", equalTo("2"))
+                .andRespondWith(200)
+                .setup();
+
+        try (final NakadiPublisher<NakadiClientTest.SomeEvent> publisher = client.publisher("foobar")
+                .withMaxBatchEvents(2)
+                .withLinger(1, TimeUnit.HOURS)
+                .build()) {
+
+            final CompletableFuture<Void> first = publisher.publish(new NakadiClientTest.SomeEvent("1"));
+            final CompletableFuture<Void> second = publisher.publish(new NakadiClientTest.SomeEvent("2"));
+
+            CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        }
+
+        server.verify();
+    }
+
+    @Test
+    public void shouldPublishRemainingEventsOnClose() throws IOException {
+        server.expectRequestTo("http://example.com/event-types/foobar/events", "POST")
+                .andExpectJsonPath("$.length()", equalTo(1))
+                .andExpectJsonPath("$[0].id", equalTo("1"))
+                .andRespondWith(200)
+                .setup();
+
+        final CompletableFuture<Void> future;
+        try (final NakadiPublisher<NakadiClientTest.SomeEvent> publisher = client.publisher("foobar")
+                .withLinger(1, TimeUnit.HOURS)
+                .build()) {
+            future = publisher.publish(new NakadiClientTest.SomeEvent("1"));
+        }
+
+        server.verify();
+        assertTrue(future.isDone());
+        assertTrue(!future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void shouldFailFuturesOfFailedBatch() throws IOException {
+        server.expectRequestTo("http://example.com/event-types/foobar/events", "POST")
+                .andRespondWith(422, ContentType.APPLICATION_JSON, "[{\"eid\":\"some-event\",\"publishing_status\":\"aborted\",\"step\":\"publishing\",\"detail\":\"baz\"}]")
+                .setup();
+
+        final CompletableFuture<Void> future;
+        try (final NakadiPublisher<NakadiClientTest.SomeEvent> publisher = client.publisher("foobar").build()) {
+            future = publisher.publish(new NakadiClientTest.SomeEvent("1"));
+            final ExecutionException exception = assertThrows(ExecutionException.class, () -> publisher.flush().get(5, TimeUnit.SECONDS));
+            assertThat(exception.getCause(), instanceOf(EventPublishingException.class));
+        }
+
+        server.verify();
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void shouldRejectEventsAfterClose() throws IOException {
+        final NakadiPublisher<NakadiClientTest.SomeEvent> publisher = client.publisher("foobar").build();
+        publisher.close();
+
+        final ExecutionException exception = assertThrows(ExecutionException.class, () -> publisher.publish(new NakadiClientTest.SomeEvent("1")).get());
+        assertThat(exception.getCause(), instanceOf(IllegalStateException.class));
+    }
+
+    @Test
+    public void shouldKeepOrderWithinPartitionKey() throws Exception {
+        final NakadiClient nakadiClient = mock(NakadiClient.class);
+        final List<String> requestsA = new ArrayList<>();
+        final List<String> requestsB = new ArrayList<>();
+        final CountDownLatch otherShardSent = new CountDownLatch(1);
+        final AtomicBoolean sentConcurrently = new AtomicBoolean();
+        doAnswer(invocation -> {
+            final List<byte[]> payloads = invocation.getArgument(1);
+            final String body = new String(payloads.get(0), StandardCharsets.UTF_8);
+            if (body.contains("\"a1\"")) {
+                // keys "a" and "b" are in different shards, so "b1" is sent while "a1" is in flight
+                sentConcurrently.set(otherShardSent.await(5, TimeUnit.SECONDS));
+            } else if (body.contains("\"b1\"")) {
+                otherShardSent.countDown();
+            }
+            final List<String> requests = body.contains("\"a") ? requestsA : requestsB;
+            synchronized (requests) {
+                requests.add(body);
+            }
+            return null;
+        }).when(nakadiClient).publishSerialized(eq("foobar"), anyList());
+
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        try (final NakadiPublisher<NakadiClientTest.SomeEvent> publisher = new NakadiPublisherBuilder(nakadiClient, DefaultObjectMapper.INSTANCE, "foobar")
+                .withMaxBatchEvents(1)
+                .withMaxInFlightRequests(2)
+                .withLinger(0, TimeUnit.MILLISECONDS)
+                .<NakadiClientTest.SomeEvent>build(event -> event.getId().substring(0, 1))) {
+
+            for (String id : new String[]{"a1", "b1", "a2", "b2", "a3", "b3"}) {
+                futures.add(publisher.publish(new NakadiClientTest.SomeEvent(id)));
+            }
+        }
+
+        assertTrue(sentConcurrently.get());
+        assertThat(requestsA, contains("{\"id\":\"a1\"}", "{\"id\":\"a2\"}", "{\"id\":\"a3\"}"));
+        assertThat(requestsB, contains("{\"id\":\"b1\"}", "{\"id\":\"b2\"}", "{\"id\":\"b3\"}"));
+        for (CompletableFuture<Void> future : futures) {
+            assertFalse(future.isCompletedExceptionally());
+        }
+    }
+
+    @Test
+    public void shouldNotReorderEventsWithSameKeyWhenRetryingPartialFailure() throws Exception {
+        final NakadiClient nakadiClient = mock(NakadiClient.class);
+        final List<String> requests = new ArrayList<>();
+        doAnswer(invocation -> {
+            final List<byte[]> payloads = invocation.getArgument(1);
+            final List<String> bodies = new ArrayList<>();
+            for (byte[] payload : payloads) {
+                bodies.add(new String(payload, StandardCharsets.UTF_8));
+            }
+            requests.add(String.join(",", bodies));
+            if (requests.size() == 1) {
+                final BatchItemResponse[] responses = {
+                        new BatchItemResponse(null, BatchItemResponse.PublishingStatus.FAILED, BatchItemResponse.Step.PUBLISHING, null),
+                        new BatchItemResponse(null, BatchItemResponse.PublishingStatus.SUBMITTED, BatchItemResponse.Step.PUBLISHING, null),
+                        new BatchItemResponse(null, BatchItemResponse.PublishingStatus.FAILED, BatchItemResponse.Step.PUBLISHING, null)};
+                throw new EventPublishingException(new BatchItemResponse[]{responses[0], responses[2]}, responses);
+            }
+            return null;
+        }).when(nakadiClient).publishSerialized(eq("foobar"), anyList());
+
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        try (final NakadiPublisher<NakadiClientTest.SomeEvent> publisher = new NakadiPublisherBuilder(nakadiClient, DefaultObjectMapper.INSTANCE, "foobar")
+                .withMaxBatchEvents(3)
+                .withMaxInFlightRequests(1)
+                .withLinger(1, TimeUnit.HOURS)
+                .withRetries(new ExponentialBackoffStrategy(1, 1.0, 1, 3))
+                .<NakadiClientTest.SomeEvent>build(event -> event.getId().substring(0, 1))) {
+
+            for (String id : new String[]{"a1", "a2", "b1"}) {
+                futures.add(publisher.publish(new NakadiClientTest.SomeEvent(id)));
+            }
+        }
+
+        // "a1" would be published after "a2" if it was retried
+        assertThat(requests, contains("{\"id\":\"a1\"},{\"id\":\"a2\"},{\"id\":\"b1\"}", "{\"id\":\"b1\"}"));
+        final ExecutionException exception = assertThrows(ExecutionException.class, () -> futures.get(0).get());
+        assertThat(exception.getCause(), instanceOf(EventPublishingException.class));
+        assertFalse(futures.get(1).isCompletedExceptionally());
+        assertFalse(futures.get(2).isCompletedExceptionally());
+    }
+}
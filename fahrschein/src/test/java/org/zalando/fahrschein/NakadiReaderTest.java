@@ -19,6 +19,7 @@ import java.io.EOFException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.SequenceInputStream;
 import java.io.UncheckedIOException;
@@ -28,6 +29,7 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -41,6 +43,7 @@ import java.util.concurrent.TimeoutException;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
@@ -53,6 +56,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -421,6 +425,207 @@ public class NakadiReaderTest {
         }
     }
 
+    @Test
+    public void shouldProcessEventsAndCommitCursorsInOrderWithPipelinedProcessing() throws IOException, EventAlreadyProcessedException {
+        final Response response = mock(Response.class);
+        final String input = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"1\"},\"events\":[{\"id\":\"1\"}]}" +
+                "{\"cursor\":{\"partition\":\"1\",\"offset\":\"2\"},\"events\":[{\"id\":\"2\"}]}" +
+                "{\"cursor\":{\"partition\":\"0\",\"offset\":\"3\"},\"events\":[{\"id\":\"3\"}]}";
+        final ByteArrayInputStream initialInputStream = new ByteArrayInputStream(input.getBytes("utf-8"));
+        final ByteArrayInputStream emptyInputStream = new ByteArrayInputStream(new byte[0]);
+        when(response.getBody()).thenReturn(initialInputStream, emptyInputStream);
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+
+        final List<String> ids = Collections.synchronizedList(new ArrayList<>());
+
+        final NoBackoffStrategy backoffStrategy = new NoBackoffStrategy();
+        final NakadiReader<String> nakadiReader = new NakadiReader<>(uri, RequestFactory, backoffStrategy, cursorManager, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), new StringPropertyExtractingEventReader("id"), ids::addAll, DefaultBatchHandler.INSTANCE, NoMetricsCollector.NO_METRICS_COLLECTOR, () -> new PipelinedBatchDispatcher(2, "pipeline-test"));
+
+        BackoffException expectedException = assertThrows(BackoffException.class, () -> {
+            nakadiReader.runInternal();
+        });
+
+        assertBackoffException(expectedException, 0, IOException.class, "Stream was closed");
+        assertEquals(asList("1", "2", "3"), ids);
+
+        final ArgumentCaptor<Cursor> argumentCaptor = ArgumentCaptor.forClass(Cursor.class);
+        verify(cursorManager, times(3)).onSuccess(ArgumentMatchers.eq(EVENT_NAME), argumentCaptor.capture());
+        assertEquals(asList("1", "2", "3"), argumentCaptor.getAllValues().stream().map(Cursor::getOffset).collect(toList()));
+    }
+
+    @Test
+    public void shouldProcessPartitionsConcurrentlyWithPartitionParallelism() throws IOException {
+        final Response response = mock(Response.class);
+        final String input = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"1\"},\"events\":[{\"id\":\"1\"}]}" +
+                "{\"cursor\":{\"partition\":\"0\",\"offset\":\"2\"},\"events\":[{\"id\":\"2\"}]}" +
+                "{\"cursor\":{\"partition\":\"1\",\"offset\":\"3\"},\"events\":[{\"id\":\"3\"}]}";
+        final ByteArrayInputStream initialInputStream = new ByteArrayInputStream(input.getBytes("utf-8"));
+        final ByteArrayInputStream emptyInputStream = new ByteArrayInputStream(new byte[0]);
+        when(response.getBody()).thenReturn(initialInputStream, emptyInputStream);
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+
+        final List<String> ids = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch otherPartitionProcessed = new CountDownLatch(1);
+
+        // the first batch of partition 0 only completes after partition 1 was processed
+        final Listener<String> listener = events -> {
+            if (events.contains("1")) {
+                try {
+                    assertThat("Partition 1 should be processed concurrently", otherPartitionProcessed.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+            ids.addAll(events);
+            if (events.contains("3")) {
+                otherPartitionProcessed.countDown();
+            }
+        };
+
+        final NoBackoffStrategy backoffStrategy = new NoBackoffStrategy();
+        final NakadiReader<String> nakadiReader = new NakadiReader<>(uri, RequestFactory, backoffStrategy, cursorManager, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), new StringPropertyExtractingEventReader("id"), listener, DefaultBatchHandler.INSTANCE, NoMetricsCollector.NO_METRICS_COLLECTOR,
+                () -> PipelinedBatchDispatcher.partitionParallel(Executors.newFixedThreadPool(2), true, 4, Integer.MAX_VALUE));
+
+        BackoffException expectedException = assertThrows(BackoffException.class, () -> {
+            nakadiReader.runInternal();
+        });
+
+        assertBackoffException(expectedException, 0, IOException.class, "Stream was closed");
+        assertEquals(asList("3", "1", "2"), ids);
+        verify(cursorManager, times(3)).onSuccess(ArgumentMatchers.eq(EVENT_NAME), ArgumentMatchers.any(Cursor.class));
+    }
+
+    @Test
+    public void shouldPropagateListenerExceptionWithPipelinedProcessing() throws IOException {
+        final Response response = mock(Response.class);
+        final String input = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"1\"},\"events\":[{\"id\":\"1\"}]}\n" +
+                "{\"cursor\":{\"partition\":\"0\",\"offset\":\"2\"},\"events\":[{\"id\":\"2\"}]}\n";
+        when(response.getBody()).thenReturn(new ByteArrayInputStream(input.getBytes("utf-8")));
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+
+        final Listener<String> listener = events -> {
+            throw new IllegalStateException("from listener");
+        };
+
+        final NoBackoffStrategy backoffStrategy = new NoBackoffStrategy();
+        final NakadiReader<String> nakadiReader = new NakadiReader<>(uri, RequestFactory, backoffStrategy, cursorManager, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), new StringPropertyExtractingEventReader("id"), listener, DefaultBatchHandler.INSTANCE, NoMetricsCollector.NO_METRICS_COLLECTOR, () -> new PipelinedBatchDispatcher(1, "pipeline-test"));
+
+        IllegalStateException expectedException = assertThrows(IllegalStateException.class, () -> {
+            nakadiReader.run();
+        });
+
+        assertEquals("from listener", expectedException.getMessage());
+        verify(response).close();
+        verify(cursorManager, times(0)).onSuccess(ArgumentMatchers.eq(EVENT_NAME), ArgumentMatchers.any(Cursor.class));
+    }
+
+    @Test
+    public void shouldCommitCursorAfterStreamingListenerConsumedAllEvents() throws IOException {
+        final Response response = mock(Response.class);
+        final String input = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"1\"},\"events\":[{\"id\":\"1\"},{\"id\":\"2\"}]}" +
+                "{\"cursor\":{\"partition\":\"0\",\"offset\":\"3\"},\"events\":[{\"id\":\"3\"},{\"id\":\"4\"}]}";
+        final ByteArrayInputStream initialInputStream = new ByteArrayInputStream(input.getBytes("utf-8"));
+        when(response.getBody()).thenReturn(initialInputStream);
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+
+        final List<String> ids = new ArrayList<>();
+        final StreamingListener<SomeEvent> streamingListener = events -> {
+            while (events.hasNext()) {
+                final SomeEvent event = events.next();
+                ids.add(event.getId());
+                if ("3".equals(event.getId())) {
+                    return;
+                }
+            }
+        };
+
+        final NoBackoffStrategy backoffStrategy = new NoBackoffStrategy();
+        final NakadiReader<SomeEvent> nakadiReader = new NakadiReader<>(uri, RequestFactory, backoffStrategy, cursorManager, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), new MappingEventReader<>(SomeEvent.class, objectMapper), streamingListener, DefaultBatchHandler.INSTANCE, NoMetricsCollector.NO_METRICS_COLLECTOR);
+
+        BackoffException expectedException = assertThrows(BackoffException.class, () -> {
+            nakadiReader.runInternal();
+        });
+
+        assertBackoffException(expectedException, 0, EventProcessingException.class, "Listener did not consume all events of the batch");
+        assertEquals(asList("1", "2", "3"), ids);
+
+        final ArgumentCaptor<Cursor> argumentCaptor = ArgumentCaptor.forClass(Cursor.class);
+        verify(cursorManager).onSuccess(ArgumentMatchers.eq(EVENT_NAME), argumentCaptor.capture());
+        assertEquals("1", argumentCaptor.getValue().getOffset());
+    }
+
+    @Test
+    public void shouldSplitBatchesExceedingBudgetAndCommitCursorOnce() throws IOException {
+        final Response response = mock(Response.class);
+        final String input = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"5\"},\"events\":[{\"id\":\"1\"},{\"id\":\"2\"},{\"id\":\"3\"},{\"id\":\"4\"},{\"id\":\"5\"}]}";
+        final ByteArrayInputStream initialInputStream = new ByteArrayInputStream(input.getBytes("utf-8"));
+        when(response.getBody()).thenReturn(initialInputStream);
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+
+        final List<List<String>> batches = new ArrayList<>();
+        final Listener<SomeEvent> batchListener = events -> batches.add(events.stream().map(SomeEvent::getId).collect(toList()));
+        final MetricsCollector metricsCollector = mock(MetricsCollector.class);
+
+        final NoBackoffStrategy backoffStrategy = new NoBackoffStrategy();
+        final NakadiReader<SomeEvent> nakadiReader = new NakadiReader<>(uri, RequestFactory, backoffStrategy, cursorManager, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), new MappingEventReader<>(SomeEvent.class, objectMapper), batchListener, DefaultBatchHandler.INSTANCE, metricsCollector, () -> DirectBatchDispatcher.INSTANCE, new BatchBudget(2, Long.MAX_VALUE));
+
+        BackoffException expectedException = assertThrows(BackoffException.class, () -> {
+            nakadiReader.runInternal();
+        });
+
+        assertBackoffException(expectedException, 0, IOException.class, "Stream was closed");
+        assertEquals(asList(asList("1", "2"), asList("3", "4"), singletonList("5")), batches);
+
+        verify(cursorManager).onSuccess(ArgumentMatchers.eq(EVENT_NAME), ArgumentMatchers.any(Cursor.class));
+        verify(metricsCollector).markBatchBudgetExceeded();
+        verify(metricsCollector).markMessageSuccessfullyProcessed();
+    }
+
+    @Test
+    public void shouldSplitFilteredBatchesExceedingByteBudget() throws IOException {
+        final Response response = mock(Response.class);
+        final String input = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"5\"},\"events\":[{\"id\":\"1\"},{\"id\":\"2\"},{\"id\":\"3\"},{\"id\":\"4\"},{\"id\":\"5\"}]}";
+        when(response.getBody()).thenReturn(new ByteArrayInputStream(input.getBytes("utf-8")));
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+
+        final List<List<String>> batches = new ArrayList<>();
+        final Listener<SomeEvent> batchListener = events -> batches.add(events.stream().map(SomeEvent::getId).collect(toList()));
+        final EventFilter eventFilter = EventFilter.path("/id", id -> !"2".equals(id.asText()));
+
+        final NoBackoffStrategy backoffStrategy = new NoBackoffStrategy();
+        final NakadiReader<SomeEvent> nakadiReader = new NakadiReader<>(uri, RequestFactory, backoffStrategy, cursorManager, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), new FilteringEventReader<>(SomeEvent.class, objectMapper, eventFilter), batchListener, DefaultBatchHandler.INSTANCE, NoMetricsCollector.NO_METRICS_COLLECTOR, () -> DirectBatchDispatcher.INSTANCE, new BatchBudget(Integer.MAX_VALUE, 10));
+
+        assertThrows(BackoffException.class, nakadiReader::runInternal);
+
+        // every event is about as big as the budget, so the filtered events are passed to the listener one by one
+        assertEquals(asList(singletonList("1"), singletonList("3"), singletonList("4"), singletonList("5")), batches);
+        verify(cursorManager).onSuccess(ArgumentMatchers.eq(EVENT_NAME), ArgumentMatchers.any(Cursor.class));
+    }
+
     @Test
     public void shouldFailWithoutCursors() throws IOException {
         final Response response = mock(Response.class);
@@ -645,6 +850,50 @@ public class NakadiReaderTest {
         }
     }
 
+    @Test
+    public void shouldCloseOnRuntimeExceptionWhenFlushingCursorsFails() throws IOException {
+        final Response response = mock(Response.class);
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream("{\"cursor\":{\"partition\":\"123\",\"offset\":\"456\"},\"events\":[{\"id\":\"789\"}]}".getBytes("utf-8"));
+        when(response.getBody()).thenReturn(inputStream);
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+        doThrow(new IllegalStateException("from failure handler")).when(cursorManager).flush();
+
+        final Listener<SomeEvent> listener = events -> {
+            throw new RuntimeException("from listener");
+        };
+
+        final NakadiReader<SomeEvent> nakadiReader = new NakadiReader<>(uri, RequestFactory, new NoBackoffStrategy(), cursorManager, objectMapper, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), SomeEvent.class, listener);
+
+        final RuntimeException exception = assertThrows(RuntimeException.class, nakadiReader::run);
+
+        assertEquals("from listener", exception.getMessage());
+        verify(cursorManager, times(2)).flush();
+        verify(response).close();
+    }
+
+    @Test
+    public void shouldCloseWhenFlushingCursorsFailsBeforeReconnecting() throws IOException {
+        final Response response = mock(Response.class);
+        when(response.getBody()).thenReturn(new ByteArrayInputStream("{\"cursor\":{\"partition\":\"123\",\"offset\":\"456\"},\"events\":[".getBytes("utf-8")));
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+        doThrow(new IllegalStateException("from failure handler")).when(cursorManager).flush();
+
+        final NakadiReader<SomeEvent> nakadiReader = new NakadiReader<>(uri, RequestFactory, new NoBackoffStrategy(), cursorManager, objectMapper, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), SomeEvent.class, events -> {});
+
+        assertThrows(BackoffException.class, nakadiReader::runInternal);
+
+        verify(cursorManager, times(2)).flush();
+        verify(response).close();
+    }
+
     @Test
     public void shouldStopAndResumeReading() throws IOException, InterruptedException, EventAlreadyProcessedException {
         final InetAddress loopbackAddress = InetAddress.getLoopbackAddress();
@@ -0,0 +1,244 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.zalando.fahrschein.domain.Cursor;
+import org.zalando.fahrschein.http.api.AsyncRequest;
+import org.zalando.fahrschein.http.api.AsyncRequestFactory;
+import org.zalando.fahrschein.http.api.AsyncResponse;
+import org.zalando.fahrschein.http.api.BodySubscriber;
+import org.zalando.fahrschein.http.api.Headers;
+import org.zalando.fahrschein.http.api.HeadersImpl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NonBlockingNakadiReaderTest {
+
+    private static final String EVENT_NAME = "some-event";
+    private static final Executor DIRECT = Runnable::run;
+
+    private final URI uri = URI.create("http://example.com/events");
+    private final RecordingCursorManager cursorManager = new RecordingCursorManager();
+    private final List<String> events = new ArrayList<>();
+
+    public static class SomeEvent {
+        private String id;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+    }
+
+    static class RecordingCursorManager implements CursorManager {
+        private final List<Cursor> cursors = new ArrayList<>();
+
+        @Override
+        public void onSuccess(String eventName, Cursor cursor) {
+            cursors.add(cursor);
+        }
+
+        @Override
+        public void onSuccess(String eventName, List<Cursor> cursors) {
+            this.cursors.addAll(cursors);
+        }
+
+        @Override
+        public Collection<Cursor> getCursors(String eventName) {
+            return cursors.isEmpty() ? Collections.emptyList() : Collections.singletonList(cursors.get(cursors.size() - 1));
+        }
+    }
+
+    static class ChunkedResponse implements AsyncResponse {
+        private final List<byte[]> chunks;
+        private final boolean endless;
+        private BodySubscriber subscriber;
+        private boolean closed;
+
+        ChunkedResponse(String body, int chunkSize, boolean endless) {
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            this.chunks = new ArrayList<>();
+            for (int i = 0; i < bytes.length; i += chunkSize) {
+                final byte[] chunk = new byte[Math.min(chunkSize, bytes.length - i)];
+                System.arraycopy(bytes, i, chunk, 0, chunk.length);
+                chunks.add(chunk);
+            }
+            this.endless = endless;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return 200;
+        }
+
+        @Override
+        public Headers getHeaders() {
+            return new HeadersImpl();
+        }
+
+        @Override
+        public void subscribe(BodySubscriber subscriber) {
+            this.subscriber = subscriber;
+            for (byte[] chunk : chunks) {
+                final CompletionStage<?> ready = subscriber.onNext(ByteBuffer.wrap(chunk));
+                if (ready != null) {
+                    ready.toCompletableFuture().join();
+                }
+            }
+            if (!endless) {
+                subscriber.onComplete();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                if (endless && subscriber != null) {
+                    subscriber.onError(new CancellationException());
+                }
+            }
+        }
+    }
+
+    static class FakeRequestFactory implements AsyncRequestFactory {
+        private final List<AsyncResponse> responses;
+        private final List<Headers> requestHeaders = new ArrayList<>();
+
+        FakeRequestFactory(AsyncResponse... responses) {
+            this.responses = new ArrayList<>(asList(responses));
+        }
+
+        @Override
+        public AsyncRequest createAsyncRequest(URI uri, String method) {
+            final Headers headers = new HeadersImpl();
+            requestHeaders.add(headers);
+            return new AsyncRequest() {
+                @Override
+                public String getMethod() {
+                    return method;
+                }
+
+                @Override
+                public URI getURI() {
+                    return uri;
+                }
+
+                @Override
+                public Headers getHeaders() {
+                    return headers;
+                }
+
+                @Override
+                public OutputStream getBody() {
+                    return new ByteArrayOutputStream();
+                }
+
+                @Override
+                public CompletableFuture<AsyncResponse> executeAsync() {
+                    final CompletableFuture<AsyncResponse> response = new CompletableFuture<>();
+                    if (responses.isEmpty()) {
+                        response.completeExceptionally(new IOException("Connection refused"));
+                    } else {
+                        response.complete(responses.remove(0));
+                    }
+                    return response;
+                }
+            };
+        }
+    }
+
+    private static String batch(String offset, String... ids) {
+        final StringBuilder sb = new StringBuilder("{\"cursor\":{\"partition\":\"0\",\"offset\":\"").append(offset).append("\"}");
+        if (ids.length > 0) {
+            sb.append(",\"events\":[");
+            for (int i = 0; i < ids.length; i++) {
+                sb.append(i > 0 ? "," : "").append("{\"id\":\"").append(ids[i]).append("\"}");
+            }
+            sb.append("]");
+        }
+        return sb.append("}\n").toString();
+    }
+
+    private NonBlockingNakadiReader<SomeEvent> reader(AsyncRequestFactory requestFactory, BackoffStrategy backoffStrategy) {
+        final Listener<SomeEvent> listener = batch -> batch.forEach(event -> events.add(event.getId()));
+        final NakadiReader<SomeEvent> nakadiReader = new NakadiReader<>(uri, null, backoffStrategy, cursorManager, singleton(EVENT_NAME),
+                Optional.empty(), Optional.empty(), new MappingEventReader<>(SomeEvent.class, new ObjectMapper()), listener,
+                DefaultBatchHandler.INSTANCE, NoMetricsCollector.NO_METRICS_COLLECTOR, () -> DirectBatchDispatcher.INSTANCE, BatchBudget.UNLIMITED);
+        return new NonBlockingNakadiReader<>(nakadiReader, uri, requestFactory, backoffStrategy, cursorManager, singleton(EVENT_NAME),
+                Optional.empty(), NoMetricsCollector.NO_METRICS_COLLECTOR, DIRECT);
+    }
+
+    @Test
+    public void shouldReadBatchesArrivingInChunks() {
+        final ChunkedResponse response = new ChunkedResponse(batch("1", "a", "b") + batch("2") + batch("3", "c"), 7, false);
+
+        final CompletableFuture<Void> completion = reader(new FakeRequestFactory(response), new NoBackoffStrategy()).start();
+
+        final ExecutionException e = assertThrows(ExecutionException.class, completion::get);
+        assertTrue(e.getCause() instanceof EOFException);
+        assertEquals(asList("a", "b", "c"), events);
+        assertEquals(2, cursorManager.cursors.size());
+        assertEquals("3", cursorManager.cursors.get(1).getOffset());
+        assertTrue(response.closed);
+    }
+
+    @Test
+    public void shouldReconnectWithLastCursor() {
+        final FakeRequestFactory requestFactory = new FakeRequestFactory(
+                new ChunkedResponse(batch("1", "a"), 5, false),
+                new ChunkedResponse(batch("2", "b"), 5, false));
+
+        final CompletableFuture<Void> completion = reader(requestFactory, new ExponentialBackoffStrategy(1, 1.0, 1, 1)).start();
+
+        assertThrows(ExecutionException.class, completion::get);
+        assertEquals(asList("a", "b"), events);
+        assertNull(requestFactory.requestHeaders.get(0).getFirst("X-Nakadi-Cursors"));
+        assertEquals("[{\"partition\":\"0\",\"offset\":\"1\"}]", requestFactory.requestHeaders.get(1).getFirst("X-Nakadi-Cursors"));
+    }
+
+    @Test
+    public void shouldFailWhenInitialConnectionFails() {
+        final CompletableFuture<Void> completion = reader(new FakeRequestFactory(), new NoBackoffStrategy()).start();
+
+        final ExecutionException e = assertThrows(ExecutionException.class, completion::get);
+        assertEquals("Connection refused", e.getCause().getMessage());
+    }
+
+    @Test
+    public void shouldCloseResponseWhenCancelled() {
+        final ChunkedResponse response = new ChunkedResponse(batch("1", "a"), 5, true);
+
+        final CompletableFuture<Void> completion = reader(new FakeRequestFactory(response), new NoBackoffStrategy()).start();
+        completion.cancel(true);
+
+        assertTrue(response.closed);
+        assertEquals(asList("a"), events);
+    }
+}
@@ -0,0 +1,149 @@
+package org.zalando.fahrschein;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class OutboxLogTest {
+
+    @TempDir
+    Path directory;
+
+    private static byte[] bytes(String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(OutboxLog.Batch batch) {
+        final List<String> result = new ArrayList<>();
+        for (byte[] payload : batch.getPayloads()) {
+            result.add(new String(payload, StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".segment")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void shouldReadAppendedEventsInBatches() throws IOException {
+        try (OutboxLog log = OutboxLog.open(directory, 1024, NoMetricsCollector.NO_METRICS_COLLECTOR)) {
+            log.append(bytes("{\"id\":\"1\"}"));
+            log.append(bytes("{\"id\":\"2\"}"));
+            log.append(bytes("{\"id\":\"3\"}"));
+
+            final OutboxLog.Batch first = log.read(2, 1024);
+            assertThat(strings(first), contains("{\"id\":\"1\"}", "{\"id\":\"2\"}"));
+            assertFalse(first.isEndOfLog());
+            log.acknowledge(first);
+
+            final OutboxLog.Batch second = log.read(2, 1024);
+            assertThat(strings(second), contains("{\"id\":\"3\"}"));
+            assertTrue(second.isEndOfLog());
+            log.acknowledge(second);
+
+            assertNull(log.read(2, 1024));
+            assertEquals(0, log.getBacklogEvents());
+            assertEquals(0, log.getBacklogBytes());
+        }
+    }
+
+    @Test
+    public void shouldRecoverUnacknowledgedEventsAfterReopening() throws IOException {
+        try (OutboxLog log = OutboxLog.open(directory, 1024, NoMetricsCollector.NO_METRICS_COLLECTOR)) {
+            log.append(bytes("{\"id\":\"1\"}"));
+            log.append(bytes("{\"id\":\"2\"}"));
+            log.acknowledge(log.read(1, 1024));
+            // read but not acknowledged
+            log.read(1, 1024);
+        }
+
+        final MetricsCollector metricsCollector = mock(MetricsCollector.class);
+        try (OutboxLog log = OutboxLog.open(directory, 1024, metricsCollector)) {
+            verify(metricsCollector).markOutboxBacklog(1, 10);
+            assertThat(strings(log.read(10, 1024)), contains("{\"id\":\"2\"}"));
+        }
+    }
+
+    @Test
+    public void shouldDeleteAcknowledgedSegments() throws IOException {
+        // each record takes 18 bytes, so a segment fits two of them after the header
+        try (OutboxLog log = OutboxLog.open(directory, OutboxLog.HEADER_BYTES + 40, NoMetricsCollector.NO_METRICS_COLLECTOR)) {
+            for (int i = 1; i <= 5; i++) {
+                log.append(bytes("{\"id\":\"" + i + "\"}"));
+            }
+            assertThat(segmentFiles(), hasSize(3));
+
+            final OutboxLog.Batch batch = log.read(10, 1024);
+            // a batch does not span segments
+            assertThat(strings(batch), contains("{\"id\":\"1\"}", "{\"id\":\"2\"}"));
+            log.acknowledge(batch);
+
+            assertThat(segmentFiles(), hasSize(2));
+            assertEquals(3, log.getBacklogEvents());
+        }
+    }
+
+    @Test
+    public void shouldStoreEventBiggerThanSegmentInSegmentOfItsOwn() throws IOException {
+        try (OutboxLog log = OutboxLog.open(directory, OutboxLog.HEADER_BYTES + 20, NoMetricsCollector.NO_METRICS_COLLECTOR)) {
+            log.append(bytes("{\"id\":\"some-long-event-id\"}"));
+
+            assertThat(strings(log.read(10, 1024)), contains("{\"id\":\"some-long-event-id\"}"));
+        }
+    }
+
+    @Test
+    public void shouldIgnorePartiallyWrittenRecord() throws IOException {
+        try (OutboxLog log = OutboxLog.open(directory, 1024, NoMetricsCollector.NO_METRICS_COLLECTOR)) {
+            log.append(bytes("{\"id\":\"1\"}"));
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+            // length and payload of a second record, but without a matching checksum
+            file.seek(OutboxLog.HEADER_BYTES + OutboxLog.RECORD_HEADER_BYTES + 10);
+            file.writeInt(10);
+            file.writeInt(42);
+            file.write(bytes("{\"id\":\"2\"}"));
+        }
+
+        try (OutboxLog log = OutboxLog.open(directory, 1024, NoMetricsCollector.NO_METRICS_COLLECTOR)) {
+            log.append(bytes("{\"id\":\"3\"}"));
+
+            assertEquals(2, log.getBacklogEvents());
+            final OutboxLog.Batch first = log.read(10, 1024);
+            assertThat(strings(first), contains("{\"id\":\"1\"}"));
+            log.acknowledge(first);
+            assertThat(strings(log.read(10, 1024)), contains("{\"id\":\"3\"}"));
+        }
+    }
+
+    @Test
+    public void shouldNotOpenDirectoryTwice() throws IOException {
+        try (OutboxLog log = OutboxLog.open(directory, 1024, NoMetricsCollector.NO_METRICS_COLLECTOR)) {
+            assertThrows(IOException.class, () -> OutboxLog.open(directory, 1024, NoMetricsCollector.NO_METRICS_COLLECTOR));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.zalando.fahrschein;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.fahrschein.domain.BatchItemResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+import static org.zalando.fahrschein.domain.BatchItemResponse.PublishingStatus.ABORTED;
+import static org.zalando.fahrschein.domain.BatchItemResponse.PublishingStatus.FAILED;
+import static org.zalando.fahrschein.domain.BatchItemResponse.PublishingStatus.SUBMITTED;
+import static org.zalando.fahrschein.domain.BatchItemResponse.Step.NONE;
+import static org.zalando.fahrschein.domain.BatchItemResponse.Step.PUBLISHING;
+import static org.zalando.fahrschein.domain.BatchItemResponse.Step.VALIDATING;
+
+public class PartialBatchRetryTest {
+
+    private final List<List<String>> sentBatches = new ArrayList<>();
+    private final List<String> failedEvents = new ArrayList<>();
+    private final List<IOException> failures = new ArrayList<>();
+
+    private static BatchItemResponse response(String eid, BatchItemResponse.PublishingStatus status, BatchItemResponse.Step step) {
+        return new BatchItemResponse(eid, status, step, null);
+    }
+
+    private static EventPublishingException exception(BatchItemResponse... responses) {
+        final List<BatchItemResponse> failed = new ArrayList<>();
+        for (BatchItemResponse response : responses) {
+            if (response.getPublishingStatus() != SUBMITTED) {
+                failed.add(response);
+            }
+        }
+        return new EventPublishingException(failed.toArray(new BatchItemResponse[0]), responses);
+    }
+
+    private PartialBatchRetry<String> retry(BackoffStrategy backoffStrategy, EventPublishingException... exceptions) {
+        return retry(backoffStrategy, null, exceptions);
+    }
+
+    private PartialBatchRetry<String> retry(BackoffStrategy backoffStrategy, Function<String, ?> orderingKey, EventPublishingException... exceptions) {
+        final List<EventPublishingException> pending = new ArrayList<>(asList(exceptions));
+        return new PartialBatchRetry<>(events -> {
+            sentBatches.add(events);
+            if (!pending.isEmpty()) {
+                throw pending.remove(0);
+            }
+        }, event -> "eid-" + event, backoffStrategy, (events, exception) -> {
+            failedEvents.addAll(events);
+            failures.add(exception);
+        }, orderingKey);
+    }
+
+    @Test
+    public void shouldRetryOnlyFailedEvents() throws IOException {
+        final PartialBatchRetry<String> retry = retry(new ExponentialBackoffStrategy(1, 1.0, 1, 3),
+                exception(response("eid-1", SUBMITTED, PUBLISHING), response("eid-2", FAILED, PUBLISHING), response("eid-3", ABORTED, NONE)));
+
+        retry.publish(asList("1", "2", "3"));
+
+        assertThat(sentBatches, contains(asList("1", "2", "3"), asList("2", "3")));
+        assertThat(failedEvents, empty());
+    }
+
+    @Test
+    public void shouldNotRetryEventsThatFailedValidation() throws IOException {
+        final PartialBatchRetry<String> retry = retry(new ExponentialBackoffStrategy(1, 1.0, 1, 3),
+                exception(response("eid-1", FAILED, VALIDATING), response("eid-2", ABORTED, NONE)));
+
+        retry.publish(asList("1", "2"));
+
+        assertThat(sentBatches, contains(asList("1", "2"), asList("2")));
+        assertThat(failedEvents, contains("1"));
+    }
+
+    @Test
+    public void shouldPassEventsToHandlerWhenRetriesAreExhausted() throws IOException {
+        final PartialBatchRetry<String> retry = retry(new ExponentialBackoffStrategy(1, 1.0, 1, 2),
+                exception(response("eid-1", SUBMITTED, PUBLISHING), response("eid-2", FAILED, PUBLISHING)),
+                exception(response("eid-2", FAILED, PUBLISHING)));
+
+        retry.publish(asList("1", "2"));
+
+        assertThat(sentBatches, contains(asList("1", "2"), asList("2")));
+        assertThat(failedEvents, contains("2"));
+        assertThat(failures.get(0), instanceOf(EventPublishingException.class));
+    }
+
+    @Test
+    public void shouldNotRetryEventsOvertakenByEventWithSameKey() throws IOException {
+        final PartialBatchRetry<String> retry = retry(new ExponentialBackoffStrategy(1, 1.0, 1, 3), event -> event.substring(0, 1),
+                exception(response("eid-a1", FAILED, PUBLISHING), response("eid-b1", FAILED, PUBLISHING), response("eid-a2", SUBMITTED, PUBLISHING)));
+
+        retry.publish(asList("a1", "b1", "a2"));
+
+        assertThat(sentBatches, contains(asList("a1", "b1", "a2"), asList("b1")));
+        assertThat(failedEvents, contains("a1"));
+    }
+
+    @Test
+    public void shouldMapFailedEventsByEidIfNotAllEventsWereReported() {
+        final EventPublishingException exception = new EventPublishingException(new BatchItemResponse[]{response("eid-3", FAILED, PUBLISHING)},
+                new BatchItemResponse[]{response("eid-3", FAILED, PUBLISHING)});
+
+        final List<String> failed = PartialBatchRetry.mapFailedEvents(asList("1", "2", "3"), exception, event -> "eid-" + event);
+
+        assertThat(failed, contains("3"));
+    }
+
+    @Test
+    public void shouldNotMapFailedEventsWithUnknownEid() {
+        final EventPublishingException exception = new EventPublishingException(new BatchItemResponse[]{response("eid-4", FAILED, PUBLISHING)});
+
+        final List<String> failed = PartialBatchRetry.mapFailedEvents(asList("1", "2", "3"), exception, event -> "eid-" + event);
+
+        assertThat(failed, nullValue());
+    }
+}
@@ -0,0 +1,84 @@
+package org.zalando.fahrschein;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.fahrschein.domain.Cursor;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PipelinedBatchDispatcherTest {
+
+    private static final Cursor CURSOR = new Cursor("0", "1", "some-event");
+
+    @Test
+    public void shouldRecoverFromRejectedExecution() throws Exception {
+        final AtomicBoolean reject = new AtomicBoolean(true);
+        final ExecutorService executorService = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            public void execute(Runnable command) {
+                if (reject.getAndSet(false)) {
+                    throw new RejectedExecutionException("Rejected");
+                }
+                super.execute(command);
+            }
+        };
+        final PipelinedBatchDispatcher dispatcher = PipelinedBatchDispatcher.partitionParallel(executorService, true, 1, Integer.MAX_VALUE);
+
+        final AtomicBoolean rejectedBatchProcessed = new AtomicBoolean();
+        final IOException exception = assertThrows(IOException.class, () -> dispatcher.dispatch(CURSOR, 1, () -> rejectedBatchProcessed.set(true)));
+        assertTrue(exception.getCause() instanceof RejectedExecutionException);
+
+        final Thread resetting = new Thread(dispatcher::reset);
+        resetting.start();
+        resetting.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(resetting.isAlive());
+
+        final CountDownLatch processed = new CountDownLatch(1);
+        dispatcher.dispatch(CURSOR, 1, processed::countDown);
+        assertTrue(processed.await(10, TimeUnit.SECONDS));
+        dispatcher.drain();
+        assertFalse(rejectedBatchProcessed.get());
+
+        dispatcher.close();
+    }
+
+    @Test
+    public void shouldAwaitRunningBatchesWhenClosing() throws Exception {
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        final PipelinedBatchDispatcher dispatcher = PipelinedBatchDispatcher.partitionParallel(executorService, false, 2, Integer.MAX_VALUE);
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicBoolean completed = new AtomicBoolean();
+        final AtomicBoolean droppedBatchProcessed = new AtomicBoolean();
+        dispatcher.dispatch(CURSOR, 1, () -> {
+            started.countDown();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            completed.set(true);
+        });
+        dispatcher.dispatch(CURSOR, 1, () -> droppedBatchProcessed.set(true));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        dispatcher.close();
+
+        assertTrue(completed.get());
+        assertFalse(droppedBatchProcessed.get());
+        assertFalse(executorService.isShutdown());
+        executorService.shutdown();
+    }
+}
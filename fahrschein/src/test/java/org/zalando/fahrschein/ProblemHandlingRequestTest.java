@@ -2,6 +2,9 @@ package org.zalando.fahrschein;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.zalando.fahrschein.http.api.AsyncRequest;
+import org.zalando.fahrschein.http.api.AsyncResponse;
+import org.zalando.fahrschein.http.api.BodySubscriber;
 import org.zalando.fahrschein.http.api.ContentType;
 import org.zalando.fahrschein.http.api.Headers;
 import org.zalando.fahrschein.http.api.HeadersImpl;
@@ -11,12 +14,19 @@ import org.zalando.fahrschein.http.api.Response;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ProblemHandlingRequestTest {
@@ -130,4 +140,33 @@ public class ProblemHandlingRequestTest {
         });
     }
 
+
+    @Test
+    public void shouldCreateProblemForAsyncResponse() throws IOException {
+        final AsyncRequest asyncRequest = Mockito.mock(AsyncRequest.class);
+        final AsyncResponse asyncResponse = Mockito.mock(AsyncResponse.class);
+        when(asyncResponse.getStatusCode()).thenReturn(404);
+
+        final Headers headers = new HeadersImpl();
+        headers.setContentType(ContentType.APPLICATION_PROBLEM_JSON);
+        when(asyncResponse.getHeaders()).thenReturn(headers);
+
+        doAnswer(invocation -> {
+            final BodySubscriber subscriber = invocation.getArgument(0);
+            subscriber.onNext(ByteBuffer.wrap("{\"type\":\"http://httpstatus.es/404\",".getBytes(StandardCharsets.UTF_8)));
+            subscriber.onNext(ByteBuffer.wrap("\"title\":\"Not Found\",\"status\":404}".getBytes(StandardCharsets.UTF_8)));
+            subscriber.onComplete();
+            return null;
+        }).when(asyncResponse).subscribe(any());
+
+        when(asyncRequest.executeAsync()).thenReturn(CompletableFuture.completedFuture(asyncResponse));
+
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> new ProblemHandlingAsyncRequest(asyncRequest).executeAsync().get());
+
+        assertThat(e.getCause(), instanceOf(IOProblem.class));
+        final IOProblem problem = (IOProblem) e.getCause();
+        assertThat(problem.getStatusCode(), equalTo(404));
+        assertThat(problem.getTitle(), equalTo("Not Found"));
+        verify(asyncResponse).close();
+    }
 }
@@ -0,0 +1,79 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RawEventReaderTest {
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final RawEventReader eventReader = new RawEventReader(jsonFactory);
+
+    @Test
+    public void shouldCopyRawEvents() throws IOException {
+        final JsonParser jsonParser = jsonFactory.createParser("{\"events\":[{\"id\":\"1\",\"items\":[1, 2.5, null]}, {\"id\":\"2\",\"nested\":{\"a\":true}}],\"cursor\":{}}");
+        jsonParser.nextToken();
+        jsonParser.nextToken();
+
+        final List<RawEvent> events = eventReader.read(jsonParser);
+
+        assertThat(events, hasSize(2));
+        assertEquals("{\"id\":\"1\",\"items\":[1,2.5,null]}", events.get(0).toString());
+        assertEquals("{\"id\":\"2\",\"nested\":{\"a\":true}}", events.get(1).toString());
+        assertEquals(JsonToken.FIELD_NAME, jsonParser.nextToken());
+        assertEquals("cursor", jsonParser.getCurrentName());
+    }
+
+    @Test
+    public void shouldExposeEventBytes() throws IOException {
+        final JsonParser jsonParser = jsonFactory.createParser("[\"first\",{\"id\":\"\u00e4\"}]");
+
+        final List<RawEvent> events = eventReader.read(jsonParser);
+
+        final byte[] expected = "{\"id\":\"\u00e4\"}".getBytes(UTF_8);
+        assertEquals(expected.length, events.get(1).length());
+        assertEquals(expected.length, events.get(1).asByteBuffer().remaining());
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        events.get(1).writeTo(outputStream);
+        assertEquals("{\"id\":\"\u00e4\"}", new String(outputStream.toByteArray(), UTF_8));
+        assertEquals("\"first\"", new String(events.get(0).toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void shouldReadEventsLazily() throws IOException {
+        // big enough to be spread over several buffers
+        final int count = 5000;
+        final StringBuilder json = new StringBuilder("{\"events\":[");
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":\"").append(i).append("\",\"payload\":\"some payload of the event\"}");
+        }
+        json.append("],\"cursor\":{}}");
+        final JsonParser jsonParser = jsonFactory.createParser(json.toString());
+        jsonParser.nextToken();
+        jsonParser.nextToken();
+
+        final Iterator<RawEvent> events = eventReader.readIterator(jsonParser);
+
+        assertEquals("{\"id\":\"0\",\"payload\":\"some payload of the event\"}", events.next().toString());
+        assertTrue(jsonParser.getCurrentLocation().getCharOffset() < 100);
+        for (int i = 1; i < count; i++) {
+            assertEquals("{\"id\":\"" + i + "\",\"payload\":\"some payload of the event\"}", events.next().toString());
+        }
+        assertFalse(events.hasNext());
+        assertEquals(JsonToken.FIELD_NAME, jsonParser.nextToken());
+        assertEquals("cursor", jsonParser.getCurrentName());
+    }
+}
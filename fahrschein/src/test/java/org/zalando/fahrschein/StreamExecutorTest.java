@@ -0,0 +1,80 @@
+package org.zalando.fahrschein;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StreamExecutorTest {
+
+    private static IORunnable waitUntilInterrupted(CountDownLatch started) {
+        return () -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    @Test
+    public void shouldInterruptStreamsOnShutdown() throws Exception {
+        for (StreamExecutor streamExecutor : new StreamExecutor[] { StreamExecutor.create("stream", 10), StreamExecutor.platformThreads("stream", 10) }) {
+            final CountDownLatch started = new CountDownLatch(10);
+            for (int i = 0; i < 10; i++) {
+                streamExecutor.submit(waitUntilInterrupted(started));
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            assertEquals(10, streamExecutor.getRunningStreams());
+
+            streamExecutor.shutdown();
+
+            assertTrue(streamExecutor.awaitTermination(10, TimeUnit.SECONDS));
+            assertEquals(0, streamExecutor.getRunningStreams());
+            assertThrows(RejectedExecutionException.class, () -> streamExecutor.submit(() -> {}));
+        }
+    }
+
+    @Test
+    public void shouldRejectStreamsWhenAllPlatformThreadsAreInUse() throws Exception {
+        final StreamExecutor streamExecutor = StreamExecutor.platformThreads("stream", 1);
+        try {
+            final CountDownLatch started = new CountDownLatch(1);
+            streamExecutor.submit(waitUntilInterrupted(started));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            assertFalse(streamExecutor.usesVirtualThreads());
+            assertThrows(RejectedExecutionException.class, () -> streamExecutor.submit(() -> {}));
+        } finally {
+            streamExecutor.close();
+        }
+    }
+
+    @Test
+    public void shouldCompleteFutureWhenStreamStops() throws Exception {
+        final IOException failure = new InterruptedIOException("stopped");
+        try (StreamExecutor streamExecutor = StreamExecutor.create("stream", 2)) {
+            final Future<?> stopped = streamExecutor.submit(() -> {});
+            final Future<?> failed = streamExecutor.submit(() -> {
+                throw failure;
+            });
+
+            assertNull(stopped.get(10, TimeUnit.SECONDS));
+            final ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(10, TimeUnit.SECONDS));
+            assertSame(failure, e.getCause());
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package org.zalando.fahrschein;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.fahrschein.domain.Cursor;
+import org.zalando.fahrschein.domain.Subscription;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StreamSupervisorTest {
+
+    private static final String EVENT_NAME = "some-event";
+    private final Subscription subscription = new Subscription("1234", "nakadi-client-test", singleton(EVENT_NAME), "default", OffsetDateTime.now(), null);
+
+    /**
+     * Simulates the stream of a {@link NakadiReader}, using the cursor manager and listener prepared by the supervisor.
+     */
+    private interface FakeStream {
+        void run(int run, CursorManager cursorManager, Listener<String> listener) throws IOException;
+    }
+
+    private static class NoCursorManager implements CursorManager {
+        @Override
+        public void onSuccess(String eventName, Cursor cursor) {
+        }
+
+        @Override
+        public void onSuccess(String eventName, List<Cursor> cursors) {
+        }
+
+        @Override
+        public Collection<Cursor> getCursors(String eventName) {
+            return Collections.emptyList();
+        }
+    }
+
+    private static final class ClosingCursorManager extends NoCursorManager implements Closeable {
+        private final AtomicInteger closed;
+
+        ClosingCursorManager(AtomicInteger closed) {
+            this.closed = closed;
+        }
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+    }
+
+    private StreamSupervisor start(int streams, BackoffStrategy restartBackoffStrategy, FakeStream fakeStream) {
+        return start(streams, restartBackoffStrategy, NoCursorManager::new, fakeStream);
+    }
+
+    private StreamSupervisor start(int streams, BackoffStrategy restartBackoffStrategy, Supplier<CursorManager> cursorManagers, FakeStream fakeStream) {
+        final AtomicInteger runs = new AtomicInteger();
+        final ThreadLocal<CursorManager> cursorManager = new ThreadLocal<>();
+        final StreamSupervisor.RunnableFactory<String> runnableFactory = (streamBuilder, listener) -> {
+            final CursorManager streamCursorManager = cursorManager.get();
+            final int run = runs.getAndIncrement();
+            return () -> fakeStream.run(run, streamCursorManager, listener);
+        };
+        final StreamSupervisor streamSupervisor = new StreamSupervisor(subscription, streams, decorator -> {
+            cursorManager.set(decorator.apply(cursorManagers.get()));
+            return null;
+        }, runnableFactory, events -> {}, StreamExecutor.create("supervisor-test", streams), true, restartBackoffStrategy, TimeUnit.SECONDS.toMillis(10));
+        streamSupervisor.start();
+        return streamSupervisor;
+    }
+
+    private static void consume(CursorManager cursorManager, Listener<String> listener, String streamId) throws IOException {
+        cursorManager.addStreamId(null, streamId);
+        try {
+            listener.accept(singletonList("event"));
+        } catch (EventAlreadyProcessedException e) {
+            throw new IllegalStateException(e);
+        }
+        cursorManager.onSuccess(EVENT_NAME, new Cursor("0", "1"));
+    }
+
+    private static void waitUntilInterrupted() {
+        try {
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitState(StreamSupervisor streamSupervisor, StreamSupervisor.State state) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (System.currentTimeMillis() < deadline) {
+            if (streamSupervisor.getHealth().stream().allMatch(health -> health.getState() == state)) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Streams did not reach state " + state + ": " + streamSupervisor.getHealth());
+    }
+
+    @Test
+    public void shouldReportHealthOfRunningStreams() throws Exception {
+        final StreamSupervisor streamSupervisor = start(3, new NoBackoffStrategy(), (run, cursorManager, listener) -> {
+            consume(cursorManager, listener, "stream-" + run);
+            waitUntilInterrupted();
+        });
+
+        awaitState(streamSupervisor, StreamSupervisor.State.RUNNING);
+        assertTrue(streamSupervisor.isHealthy());
+        for (StreamSupervisor.StreamHealth health : streamSupervisor.getHealth()) {
+            assertTrue(health.getStreamId().isPresent());
+            assertTrue(health.getLastBatch().isPresent());
+            assertEquals(1, health.getBatches());
+            assertEquals(0, health.getRestarts());
+        }
+
+        streamSupervisor.close();
+
+        awaitState(streamSupervisor, StreamSupervisor.State.STOPPED);
+        assertFalse(streamSupervisor.isHealthy());
+    }
+
+    @Test
+    public void shouldRestartFailedStreams() throws Exception {
+        final StreamSupervisor streamSupervisor = start(1, new ExponentialBackoffStrategy(1, 1.0, 1, 3), (run, cursorManager, listener) -> {
+            if (run < 2) {
+                throw new IOException("Failure " + run);
+            }
+            consume(cursorManager, listener, "stream-" + run);
+            waitUntilInterrupted();
+        });
+
+        awaitState(streamSupervisor, StreamSupervisor.State.RUNNING);
+        final StreamSupervisor.StreamHealth health = streamSupervisor.getHealth().get(0);
+        assertEquals(2, health.getRestarts());
+        assertEquals("Failure 1", health.getLastFailure().get().getMessage());
+        assertEquals("stream-2", health.getStreamId().get());
+
+        streamSupervisor.close();
+    }
+
+    @Test
+    public void shouldCloseCursorManagerOfEveryRun() throws Exception {
+        final AtomicInteger closed = new AtomicInteger();
+        final StreamSupervisor streamSupervisor = start(1, new ExponentialBackoffStrategy(1, 1.0, 1, 3), () -> new ClosingCursorManager(closed), (run, cursorManager, listener) -> {
+            if (run < 2) {
+                throw new IOException("Failure " + run);
+            }
+            consume(cursorManager, listener, "stream-" + run);
+            waitUntilInterrupted();
+        });
+
+        awaitState(streamSupervisor, StreamSupervisor.State.RUNNING);
+        assertEquals(2, closed.get());
+
+        streamSupervisor.close();
+
+        assertEquals(3, closed.get());
+    }
+
+    @Test
+    public void shouldGiveUpRestarting() throws Exception {
+        final StreamSupervisor streamSupervisor = start(2, new NoBackoffStrategy(), (run, cursorManager, listener) -> {
+            throw new IOException("Failure");
+        });
+
+        awaitState(streamSupervisor, StreamSupervisor.State.FAILED);
+        assertFalse(streamSupervisor.isHealthy());
+
+        streamSupervisor.close();
+    }
+
+    @Test
+    public void shouldCommitCurrentBatchBeforeStopping() throws Exception {
+        final CountDownLatch processing = new CountDownLatch(1);
+        final CountDownLatch closing = new CountDownLatch(1);
+        final AtomicBoolean interruptedWhileProcessing = new AtomicBoolean();
+        final AtomicBoolean committed = new AtomicBoolean();
+
+        final StreamSupervisor streamSupervisor = start(1, new NoBackoffStrategy(), (run, cursorManager, listener) -> {
+            cursorManager.addStreamId(null, "stream");
+            try {
+                listener.accept(singletonList("event"));
+            } catch (EventAlreadyProcessedException e) {
+                throw new IllegalStateException(e);
+            }
+            processing.countDown();
+            try {
+                closing.await();
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                interruptedWhileProcessing.set(true);
+            }
+            cursorManager.onSuccess(EVENT_NAME, new Cursor("0", "1"));
+            committed.set(true);
+            waitUntilInterrupted();
+        });
+
+        assertTrue(processing.await(10, TimeUnit.SECONDS));
+        final Thread closer = new Thread(streamSupervisor::close);
+        closer.start();
+        closing.countDown();
+        closer.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertFalse(closer.isAlive());
+        assertFalse(interruptedWhileProcessing.get());
+        assertTrue(committed.get());
+        assertEquals(StreamSupervisor.State.STOPPED, streamSupervisor.getHealth().get(0).getState());
+    }
+}
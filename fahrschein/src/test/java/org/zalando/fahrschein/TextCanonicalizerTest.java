@@ -0,0 +1,38 @@
+package org.zalando.fahrschein;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TextCanonicalizerTest {
+
+    @Test
+    public void shouldReturnSameInstanceForRepeatedValues() {
+        final TextCanonicalizer canonicalizer = new TextCanonicalizer();
+
+        final String first = canonicalizer.canonicalize("xxsome-eventxx".toCharArray(), 2, 10);
+        final String second = canonicalizer.canonicalize("some-event".toCharArray(), 0, 10);
+        final String other = canonicalizer.canonicalize("some-other".toCharArray(), 0, 10);
+
+        assertEquals("some-event", first);
+        assertThat(second, sameInstance(first));
+        assertEquals("some-other", other);
+    }
+
+    @Test
+    public void shouldStopCachingWhenHalfFull() {
+        final TextCanonicalizer canonicalizer = new TextCanonicalizer(4);
+
+        canonicalizer.canonicalize("0".toCharArray(), 0, 1);
+        canonicalizer.canonicalize("1".toCharArray(), 0, 1);
+        final String first = canonicalizer.canonicalize("2".toCharArray(), 0, 1);
+        final String second = canonicalizer.canonicalize("2".toCharArray(), 0, 1);
+
+        assertEquals("2", second);
+        assertThat(second, not(sameInstance(first)));
+        assertThat(canonicalizer.canonicalize("1".toCharArray(), 0, 1), sameInstance(canonicalizer.canonicalize("1".toCharArray(), 0, 1)));
+    }
+}